@@ -0,0 +1,20 @@
+#############################################################################
+# File: bench.sh
+# Author: Ashish Tibrewal
+# Date: 17.10.2026
+# Description: Script to compile the simulator and the benchmark harness and
+#              run the benchmarks. Arguments are passed to the harness, e.g.
+#              ./bench.sh --quick pipeline
+#############################################################################
+
+#!/bin/bash
+
+echo "Compiling source and benchmark files."
+javac -Xlint:unchecked -d bin/ src/*.java src/pipeline/*.java bench/*.java
+if [ $? -eq 0 ]           # Check if the previous command retured with exit status 0. If true, only then run the benchmarks.
+then
+  echo "Compilation successful."
+  java -cp bin/ SimulatorBenchmark "$@"
+else
+  echo "Compilation failed."
+fi
@@ -0,0 +1,879 @@
+/**
+ * @file SimulatorBenchmark.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the SimulatorBenchmark class that measures the speed of the simulator's hot paths. Every benchmark is run for a
+ * number of warm-up iterations (to let the JIT compiler settle) followed by a number of measured iterations. Each iteration runs the benchmark
+ * repeatedly until a fixed amount of time has been spent in its batches and reports the throughput of that iteration. Only the batches are
+ * timed: a benchmark that needs a fresh set up for every batch (e.g. a new simulator) does it in IBenchmark.prepare(), outside the clock. The pipeline benchmarks run complete kernels and report
+ * simulated cycles/second and simulated (valid) instructions/second. The micro benchmarks report operations/second.
+ *
+ * With --check-allocation the harness checks instead that the cycle loop doesn't allocate once it has warmed up: every kernel is run until
+ * the JIT compiler has settled, and the bytes allocated by the thread are then counted while a batch of freshly set up simulators run their
+ * kernels to completion. The simulators are set up and their programs decoded before counting, since the decoded instruction cache only
+ * allocates the first time an instruction is fetched. The harness exits with status 1 if any simulated cycle allocated.
+ *
+ * With --check-decoder the harness checks instead that the table-driven InstructionDecoder decodes every OpCode with every immediate (and
+ * every register field) exactly like the String based decode path it replaced, which is kept as a reference (See ReferenceDecoder). The
+ * decode.reference benchmarks time the reference decoder, hence, the decode speed-up can be read off the decode benchmarks (ns/op). The
+ * harness exits with status 1 if the decoders disagreed on any instruction.
+ *
+ * Usage: java -cp bin SimulatorBenchmark [--quick] [--check-allocation | --check-decoder] [benchmark name filter]
+ */
+
+// Import packages
+// Custom packages
+import pipeline.*;
+
+// Pre-defined Java packages
+import java.lang.management.*;
+import java.nio.*;
+import java.util.*;
+
+/**
+ * Benchmark harness for the simulator hot paths.
+ */
+public class SimulatorBenchmark
+{
+  private static int warmupIterations = 5;                /** Number of warm-up iterations per benchmark */
+  private static int measuredIterations = 5;              /** Number of measured iterations per benchmark */
+  private static long iterationNanos = 500000000L;        /** Duration of every iteration */
+  private static volatile long sink;                      /** Results of the benchmarks are accumulated here to stop the JIT compiler from eliminating them */
+  private static final int ALLOCATION_WARMUP_RUNS = 20000;     /** Number of kernel runs before the allocations are counted (Enough for the JIT compiler to settle) */
+  private static final int ALLOCATION_CHECKED_RUNS = 64;       /** Number of kernel runs whose allocations are counted */
+
+  /**
+   * Operation that is benchmarked. A single call runs a batch of operations.
+   */
+  private interface IBenchmark
+  {
+    /**
+     * Runs one batch of operations
+     * @param  counts Counts of the work done by the batch (Index 0 = operations, 1 = simulated cycles, 2 = simulated instructions)
+     * @return        Value derived from the results of the operations (Fed to the sink)
+     */
+    public long run(long[] counts);
+
+    /**
+     * Prepares the next batch (Called before every batch, not timed by the harness)
+     */
+    public default void prepare()
+    {
+    }
+  }
+
+  // Kernels (Same encodings as the programs listed in Memory.testInitialize())
+  private static final String[] FIBONACCI_KERNEL =
+  {
+    "10001000000000000000000000010001",     // MOVI R1, 1
+    "10001000000000000000000000010010",     // MOVI R2, 1
+    "10001000000000000000000000110011",     // MOVI R3, 3
+    "10001000000000000000001011100100",     // MOVI R4, 46
+    "11000000000000000000011000110100",     // BGT R3, R4, 6
+    "00001000000000000000001000010101",     // ADD R5, R1, R2
+    "10010000000000000000000000100001",     // MOVR R1, R2
+    "10010000000000000000000001010010",     // MOVR R2, R5
+    "00101000000000000000000100110011",     // ADDI R3, R3, 1
+    "10011000000000001111111111111011",     // BU -5
+    "10001000000000000000111111111111"      // MOVI R15, 255 - SVC call to halt the program
+  };
+
+  private static final String[] GCD_KERNEL =
+  {
+    "10001000000000000001001011000001",     // MOVI R1, 300
+    "10001000000000000000111000010010",     // MOVI R2, 225
+    "10101000000000000000011000010010",     // BEQ R1, R2, 6
+    "11000000000000000000001100010010",     // BGT R1, R2, 3
+    "00010000000000000000000100100010",     // SUB R2, R2, R1
+    "10011000000000000000000000000010",     // BU 2
+    "00010000000000000000001000010001",     // SUB R1, R1, R2
+    "10011000000000001111111111111011",     // BU -5
+    "10001000000000000000111111111111"      // MOVI R15, 255 - SVC call to halt the program
+  };
+
+  /**
+   * Simulator instance (Registers, memory, pipeline and context) wired up the same way as in ProcessorSimulator.setup()
+   */
+  private static final class Simulator
+  {
+    final Memory cpuMemory = new Memory();
+    final Register cpuRegisters = new Register(GlobalConstants.TOTAL_GP_REGISTERS, cpuMemory);
+    final SequentialProcessorPipeline processorPipeline = new SequentialProcessorPipeline();
+    final InstructionFetchStage instructionFetchStage = new InstructionFetchStage();
+    final ProcessorPipelineContext pContext;
+
+    Simulator(String kernel)
+    {
+      cpuMemory.setCpuRegistersReference(cpuRegisters);
+      IStage instructionDecodeStage = new InstructionDecodeStage();
+      IStage instructionIssueStage = new InstructionIssueStage();
+      IStage instructionExecuteStage = new InstructionExecuteStage();
+      IStage instructionWritebackStage = new InstructionWritebackStage();
+      processorPipeline.addStage(instructionFetchStage);
+      processorPipeline.addStage(instructionDecodeStage);
+      processorPipeline.addStage(instructionIssueStage);
+      processorPipeline.addStage(instructionExecuteStage);
+      processorPipeline.addStage(instructionWritebackStage);
+      pContext = new ProcessorPipelineContext(cpuRegisters, cpuMemory, instructionFetchStage, instructionDecodeStage, instructionIssueStage,
+                                              instructionExecuteStage, instructionWritebackStage, new StaticBranchPredictor());
+      switch (kernel)
+      {
+        case "bubblesort":
+          cpuMemory.testInitialize();
+          break;
+
+        case "fibonacci":
+          load(FIBONACCI_KERNEL);
+          break;
+
+        case "gcd":
+          load(GCD_KERNEL);
+          break;
+
+        default:
+          throw new IllegalArgumentException("Unknown kernel: " + kernel);
+      }
+    }
+
+    private void load(String[] kernel)
+    {
+      for (int memoryLocation = 0; memoryLocation < kernel.length; memoryLocation++)
+      {
+        cpuMemory.writeValue(memoryLocation, Utility.convertToInt(kernel[memoryLocation], true));
+      }
+    }
+
+    /**
+     * Decodes every instruction word held in memory into the decoded instruction cache, i.e. does the decoding the pipeline would otherwise
+     * do the first time it fetches each instruction
+     */
+    void decodeProgram()
+    {
+      DecodedInstructionCache decodedInstructionCache = pContext.getDecodedInstructionCache();
+      for (int memoryLocation = 0; memoryLocation < cpuMemory.getMemorySize(); memoryLocation++)
+      {
+        int instruction = cpuMemory.readValue(memoryLocation);
+        if (InstructionDecoder.isValidOpCode(InstructionDecoder.opCode(instruction)))
+        {
+          decodedInstructionCache.insert(memoryLocation, InstructionDecoder.decode(instruction));
+        }
+      }
+    }
+
+    /**
+     * Runs the kernel until it halts (Same cycle loop as ProcessorSimulator.step() without the trace)
+     */
+    void runToCompletion()
+    {
+      while (cpuRegisters.readGP(GlobalConstants.SVC_REGISTER) != GlobalConstants.SVC_SUSPEND)
+      {
+        cpuRegisters.incrementClockCounter();
+        processorPipeline.execute(pContext);
+        if (!pContext.getCorrectBranchPrediction())
+        {
+          processorPipeline.flush(pContext);
+          pContext.setCorrectBranchPrediction(GlobalConstants.CORRECT_BRANCH_PREDICTION_RESULT);
+        }
+        instructionFetchStage.resetBranchPredictorResult();
+      }
+    }
+  }
+
+  /**
+   * Reference implementation of the String based decode path the ID stage used before the table-driven InstructionDecoder replaced it: the
+   * instruction is converted to a binary string, every field is cut out of it with substring() and converted back to an integer, and the
+   * fields are picked by switching on the instruction type name. Kept here (Including the original Utility conversion methods) so that
+   * --check-decoder can compare InstructionDecoder.decode() against it and the decode benchmarks can report the speed-up over it.
+   */
+  private static final class ReferenceDecoder
+  {
+    /**
+     * Decodes an instruction the way the ID stage used to
+     * @param  instruction Instruction value
+     * @return             Decoded instruction (Fields that the instruction type doesn't use hold their default values)
+     * @throws IllegalInstructionException If the instruction's OpCode is not specified in the ISA
+     */
+    static DecodedInstruction decode(int instruction)
+    {
+      String instructionBinary = convertToBin(instruction);
+      int opCode = (instruction >> (Isa.INSTRUCTION_LENGTH - Isa.OPCODE_LENGTH)) & (int)(Math.pow(2, Isa.OPCODE_LENGTH) - 1);
+      if (opCode > (Isa.ISA_TOTAL_INSTRUCTIONS - 1))
+      {
+        throw new IllegalInstructionException("Illegal instruction (Instruction with OpCode \"" + convertToBin(opCode).substring((Isa.INSTRUCTION_LENGTH - Isa.OPCODE_LENGTH), Isa.INSTRUCTION_LENGTH) + "\" is not specified in the ISA).");
+      }
+      String instructionMnemonic;
+      String instructionType;
+      ExecutionUnit executionUnit;
+      switch (opCode)
+      {
+        case Isa.NOP:  instructionMnemonic = "NOP";  instructionType = "RRR"; executionUnit = ExecutionUnit.ALU; break;
+        case Isa.ADD:  instructionMnemonic = "ADD";  instructionType = "RRR"; executionUnit = ExecutionUnit.ALU; break;
+        case Isa.SUB:  instructionMnemonic = "SUB";  instructionType = "RRR"; executionUnit = ExecutionUnit.ALU; break;
+        case Isa.MULT: instructionMnemonic = "MULT"; instructionType = "RRR"; executionUnit = ExecutionUnit.ALU; break;
+        case Isa.DIV:  instructionMnemonic = "DIV";  instructionType = "RRR"; executionUnit = ExecutionUnit.ALU; break;
+        case Isa.ADDI: instructionMnemonic = "ADDI"; instructionType = "RRI"; executionUnit = ExecutionUnit.ALU; break;
+        case Isa.SUBI: instructionMnemonic = "SUBI"; instructionType = "RRI"; executionUnit = ExecutionUnit.ALU; break;
+        case Isa.AND:  instructionMnemonic = "AND";  instructionType = "RRR"; executionUnit = ExecutionUnit.ALU; break;
+        case Isa.OR:   instructionMnemonic = "OR";   instructionType = "RRR"; executionUnit = ExecutionUnit.ALU; break;
+        case Isa.XOR:  instructionMnemonic = "XOR";  instructionType = "RRR"; executionUnit = ExecutionUnit.ALU; break;
+        case Isa.NOT:  instructionMnemonic = "NOT";  instructionType = "RR";  executionUnit = ExecutionUnit.ALU; break;
+        case Isa.SLL:  instructionMnemonic = "SLL";  instructionType = "RRI"; executionUnit = ExecutionUnit.ALU; break;
+        case Isa.SLR:  instructionMnemonic = "SLR";  instructionType = "RRI"; executionUnit = ExecutionUnit.ALU; break;
+        case Isa.SLLV: instructionMnemonic = "SLLV"; instructionType = "RRR"; executionUnit = ExecutionUnit.ALU; break;
+        case Isa.SRA:  instructionMnemonic = "SRA";  instructionType = "RRI"; executionUnit = ExecutionUnit.ALU; break;
+        case Isa.LW:   instructionMnemonic = "LW";   instructionType = "RRI"; executionUnit = ExecutionUnit.LSU; break;
+        case Isa.SW:   instructionMnemonic = "SW";   instructionType = "RRI"; executionUnit = ExecutionUnit.LSU; break;
+        case Isa.MOVI: instructionMnemonic = "MOVI"; instructionType = "RI";  executionUnit = ExecutionUnit.LSU; break;
+        case Isa.MOVR: instructionMnemonic = "MOVR"; instructionType = "RR";  executionUnit = ExecutionUnit.LSU; break;
+        case Isa.BU:   instructionMnemonic = "BU";   instructionType = "I";   executionUnit = ExecutionUnit.BU;  break;
+        case Isa.BL:   instructionMnemonic = "BL";   instructionType = "I";   executionUnit = ExecutionUnit.BU;  break;
+        case Isa.BEQ:  instructionMnemonic = "BEQ";  instructionType = "RRI"; executionUnit = ExecutionUnit.BU;  break;
+        case Isa.BNE:  instructionMnemonic = "BNE";  instructionType = "RRI"; executionUnit = ExecutionUnit.BU;  break;
+        case Isa.BLT:  instructionMnemonic = "BLT";  instructionType = "RRI"; executionUnit = ExecutionUnit.BU;  break;
+        case Isa.BGT:  instructionMnemonic = "BGT";  instructionType = "RRI"; executionUnit = ExecutionUnit.BU;  break;
+        case Isa.RET:  instructionMnemonic = "RET";  instructionType = "RRR"; executionUnit = ExecutionUnit.BU;  break;
+        default:
+          throw new IllegalInstructionException("Illegal instruction (Instruction with OpCode \"" + opCode + "\" is not specified in the ISA).");
+      }
+      int sourceReg1 = Isa.DEFAULT_REG_VALUE;
+      int sourceReg2 = Isa.DEFAULT_REG_VALUE;
+      int destinationReg = Isa.DEFAULT_REG_VALUE;
+      int signedImmediate = Isa.DEFAULT_IMM_VALUE;
+      int numberOfCycles;
+      switch (instructionType)
+      {
+        case "RRR":
+          sourceReg1 = convertToInt(instructionBinary.substring(Isa.InstructionType.RRR.S1_START, Isa.InstructionType.RRR.S1_END), false);
+          sourceReg2 = convertToInt(instructionBinary.substring(Isa.InstructionType.RRR.S2_START, Isa.InstructionType.RRR.S2_END), false);
+          destinationReg = convertToInt(instructionBinary.substring(Isa.InstructionType.RRR.D_START, Isa.InstructionType.RRR.D_END), false);
+          numberOfCycles = Isa.InstructionType.RRR.NUMBER_OF_CYCLES;
+          break;
+
+        case "RRI":
+          sourceReg1 = convertToInt(instructionBinary.substring(Isa.InstructionType.RRI.S1_START, Isa.InstructionType.RRI.S1_END), false);
+          if (instructionMnemonic.equals("BEQ") || instructionMnemonic.equals("BNE") || instructionMnemonic.equals("BLT") || instructionMnemonic.equals("BGT"))
+          {
+            sourceReg2 = convertToInt(instructionBinary.substring(Isa.InstructionType.RRI.D_START, Isa.InstructionType.RRI.D_END), false);
+          }
+          else
+          {
+            destinationReg = convertToInt(instructionBinary.substring(Isa.InstructionType.RRI.D_START, Isa.InstructionType.RRI.D_END), false);
+          }
+          signedImmediate = convertToInt(instructionBinary.substring(Isa.InstructionType.RRI.IMM_START, Isa.InstructionType.RRI.IMM_END), true);
+          numberOfCycles = Isa.InstructionType.RRI.NUMBER_OF_CYCLES;
+          break;
+
+        case "RR":
+          sourceReg1 = convertToInt(instructionBinary.substring(Isa.InstructionType.RR.S1_START, Isa.InstructionType.RR.S1_END), false);
+          destinationReg = convertToInt(instructionBinary.substring(Isa.InstructionType.RR.D_START, Isa.InstructionType.RR.D_END), false);
+          numberOfCycles = Isa.InstructionType.RR.NUMBER_OF_CYCLES;
+          break;
+
+        case "RI":
+          destinationReg = convertToInt(instructionBinary.substring(Isa.InstructionType.RI.D_START, Isa.InstructionType.RI.D_END), false);
+          signedImmediate = convertToInt(instructionBinary.substring(Isa.InstructionType.RI.IMM_START, Isa.InstructionType.RI.IMM_END), true);
+          numberOfCycles = Isa.InstructionType.RI.NUMBER_OF_CYCLES;
+          break;
+
+        case "I":
+          signedImmediate = convertToInt(instructionBinary.substring(Isa.InstructionType.I.IMM_START, Isa.InstructionType.I.IMM_END), true);
+          numberOfCycles = Isa.InstructionType.I.NUMBER_OF_CYCLES;
+          break;
+
+        default:
+          throw new IllegalInstructionException("Invalid instruction type! Instruction information couldn't be extracted!");
+      }
+      return new DecodedInstruction(instruction, opCode, instructionType, instructionMnemonic, executionUnit, numberOfCycles, sourceReg1,
+                                    sourceReg2, destinationReg, signedImmediate);
+    }
+
+    /**
+     * Original Utility.convertToBin() (Without the grouping of the bits)
+     */
+    static String convertToBin(int number)
+    {
+      StringBuilder binaryString = new StringBuilder();
+      for(int i = GlobalConstants.PROCESSOR_WORD_LENGTH - 1; i >= 0 ; i--)
+      {
+        int mask = 1 << i;
+        binaryString.append((number & mask) != 0 ? "1" : "0");
+      }
+      return binaryString.toString();
+    }
+
+    /**
+     * Original Utility.convertToInt()
+     */
+    static int convertToInt(String binaryString, boolean signed)
+    {
+      int binaryStringLength = binaryString.length();
+      char[] inputArray = new char[binaryStringLength];
+      inputArray = binaryString.toCharArray();
+      int intResult = 0;
+      for (int i = 0; i < (binaryStringLength - 1); i++)
+      {
+        intResult+= (inputArray[((binaryStringLength - 1) - i)] - 48) * Math.pow(2, i);
+      }
+      if (signed == true)
+      {
+        if (inputArray[0] == '1')
+        {
+          intResult-= (inputArray[0] - 48) * Math.pow(2, (binaryStringLength - 1));
+        }
+      }
+      else
+      {
+        if (inputArray[0] == '1')
+        {
+          intResult+= (inputArray[0] - 48) * Math.pow(2, (binaryStringLength - 1));
+        }
+      }
+      return intResult;
+    }
+  }
+
+  /**
+   * Benchmark that runs a complete kernel on a freshly set up simulator. The simulator is set up in prepare(), hence, only the cycle loop
+   * is timed by the harness.
+   * @param  kernel Name of the kernel
+   * @return        Benchmark
+   */
+  private static IBenchmark pipelineKernel(String kernel)
+  {
+    return pipelineKernel(kernel, 0);
+  }
+
+  /**
+   * Benchmark that runs a complete kernel with the host-side stage profiler attached. Used to keep an eye on the profiler overhead.
+   * @param  kernel              Name of the kernel
+   * @param  profileSamplePeriod Number of cycles between two sampled cycles (0 = no profiler is attached)
+   * @return                     Benchmark
+   */
+  private static IBenchmark pipelineKernel(String kernel, int profileSamplePeriod)
+  {
+    StageProfiler profiler = (profileSamplePeriod > 0) ? new StageProfiler(profileSamplePeriod) : null;     // Shared by all the runs (Only the per-cycle overhead is of interest)
+    return new IBenchmark()
+    {
+      private Simulator simulator;
+
+      public void prepare()
+      {
+        simulator = new Simulator(kernel);
+        simulator.processorPipeline.setProfiler(profiler);
+      }
+
+      public long run(long[] counts)
+      {
+        simulator.runToCompletion();
+        Register cpuRegisters = simulator.cpuRegisters;
+        Pmu pmu = simulator.pContext.getPmu();
+        counts[0]++;
+        counts[1] += cpuRegisters.readClockCounter();
+        counts[2] += pmu.get(InstructionExecuteStage.EVENT_INSTRUCTIONS) - pmu.get(InstructionExecuteStage.EVENT_NOPS);
+        return cpuRegisters.readGP(5);
+      }
+    };
+  }
+
+  /**
+   * Benchmark that runs a complete kernel functionally (i.e. without the pipeline). The architectural state is reset from a snapshot before
+   * every run so that the interpreter (and its translation cache and compiled blocks) is shared by all the runs. Before the benchmark is
+   * returned, the kernel is run often enough for its hot blocks to be compiled and the final state is checked against the plain interpreter.
+   * @param  kernel Name of the kernel
+   * @param  mode   "interpreted" (one instruction at a time), "translated" (basic-block closures) or "jit" (hot blocks compiled to bytecode)
+   * @return        Benchmark
+   */
+  private static IBenchmark functionalKernel(String kernel, String mode)
+  {
+    Simulator simulator = new Simulator(kernel);
+    Register cpuRegisters = simulator.cpuRegisters;
+    Memory cpuMemory = simulator.cpuMemory;
+    FunctionalInterpreter functionalInterpreter = new FunctionalInterpreter(cpuRegisters, cpuMemory, simulator.pContext.getDecodedInstructionCache());
+    if (mode.equals("translated"))
+    {
+      functionalInterpreter.enableBlockTranslation();
+    }
+    else if (mode.equals("jit"))
+    {
+      functionalInterpreter.enableBlockCompilation(GlobalConstants.BLOCK_COMPILE_THRESHOLD);
+    }
+    ByteBuffer initialState = ByteBuffer.allocate(cpuRegisters.getStateSize() + cpuMemory.getStateSize());
+    cpuRegisters.saveState(initialState);
+    cpuMemory.saveState(initialState);
+    IBenchmark benchmark = counts ->
+    {
+      initialState.rewind();
+      cpuRegisters.restoreState(initialState);
+      cpuMemory.restoreState(initialState);
+      long executed = functionalInterpreter.run(Long.MAX_VALUE);
+      counts[0]++;
+      counts[2] += executed;
+      return cpuRegisters.readGP(5);
+    };
+
+    // Verify the final state against the plain interpreter (After enough runs for the hot blocks to have been compiled)
+    long[] counts = new long[3];
+    for (int run = 0; run <= GlobalConstants.BLOCK_COMPILE_THRESHOLD; run++)
+    {
+      benchmark.run(counts);
+    }
+    Simulator reference = new Simulator(kernel);
+    long referenceExecuted = new FunctionalInterpreter(reference.cpuRegisters, reference.cpuMemory, reference.pContext.getDecodedInstructionCache()).run(Long.MAX_VALUE);
+    if (!Arrays.equals(saveState(simulator), saveState(reference)) || counts[2] != referenceExecuted * (GlobalConstants.BLOCK_COMPILE_THRESHOLD + 1))
+    {
+      throw new IllegalStateException("functional." + kernel + " (" + mode + ") doesn't match the interpreter");
+    }
+    return benchmark;
+  }
+
+  /**
+   * Method to save the architectural state (Registers and memory) of a simulator
+   * @param  simulator Simulator
+   * @return           Saved state
+   */
+  private static byte[] saveState(Simulator simulator)
+  {
+    ByteBuffer state = ByteBuffer.allocate(simulator.cpuRegisters.getStateSize() + simulator.cpuMemory.getStateSize());
+    simulator.cpuRegisters.saveState(state);
+    simulator.cpuMemory.saveState(state);
+    return state.array();
+  }
+
+  /**
+   * Benchmark that decodes an instruction word
+   * @param  binaryInstruction Instruction encoding
+   * @param  reference         True to decode with the String based reference decoder instead of InstructionDecoder
+   * @return                   Benchmark
+   */
+  private static IBenchmark decode(String binaryInstruction, boolean reference)
+  {
+    int instruction = Utility.convertToInt(binaryInstruction, true);
+    return counts ->
+    {
+      long result = 0;
+      for (int operation = 0; operation < 1024; operation++)
+      {
+        DecodedInstruction decodedInstruction = reference ? ReferenceDecoder.decode(instruction + (operation & 1)) : InstructionDecoder.decode(instruction + (operation & 1));    // Alternate the lowest bit to stop the decode from being hoisted out of the loop
+        result += decodedInstruction.getSignedImmediateVal();
+      }
+      counts[0] += 1024;
+      return result;
+    };
+  }
+
+  /**
+   * Benchmark that runs the IF stage over the bubble sort kernel
+   * @return Benchmark
+   */
+  private static IBenchmark instructionFetch()
+  {
+    Simulator simulator = new Simulator("bubblesort");
+    return counts ->
+    {
+      for (int operation = 0; operation < 16; operation++)
+      {
+        simulator.instructionFetchStage.execute(simulator.pContext);
+        simulator.pContext.setBranchTaken(false);
+        simulator.instructionFetchStage.resetBranchPredictorResult();
+      }
+      simulator.cpuRegisters.writePC(0);          // Go back to the start of the kernel
+      simulator.cpuRegisters.updatePC(true);
+      counts[0] += 16;
+      return simulator.pContext.getCurrentIR();
+    };
+  }
+
+  /**
+   * Benchmark that runs an execution unit on a single instruction held in the instruction table
+   * @param  executionUnit     Execution unit
+   * @param  binaryInstruction Instruction encoding
+   * @return                   Benchmark
+   */
+  private static IBenchmark executionUnit(IExecutionUnit executionUnit, String binaryInstruction)
+  {
+    Simulator simulator = new Simulator("bubblesort");
+    int slot = simulator.pContext.getInstructionTable().allocate(InstructionDecoder.decode(Utility.convertToInt(binaryInstruction, true)), 0, false);
+    executionUnit.registerEvents(new Pmu());      // The unit isn't part of the simulator's IE stage, hence, it counts its events in a PMU of its own
+    return counts ->
+    {
+      for (int operation = 0; operation < 1024; operation++)
+      {
+        executionUnit.execute(slot, simulator.pContext);
+      }
+      simulator.pContext.setBranchTaken(false);
+      simulator.pContext.setCorrectBranchPrediction(GlobalConstants.CORRECT_BRANCH_PREDICTION_RESULT);
+      counts[0] += 1024;
+      return simulator.pContext.getInstructionTable().getWritebackVal(slot);
+    };
+  }
+
+  /**
+   * Benchmark that reads every location in memory
+   * @return Benchmark
+   */
+  private static IBenchmark memoryRead()
+  {
+    Memory cpuMemory = new Simulator("bubblesort").cpuMemory;
+    return counts ->
+    {
+      long result = 0;
+      for (int memoryLocation = 0; memoryLocation < cpuMemory.getMemorySize(); memoryLocation++)
+      {
+        result += cpuMemory.readValue(memoryLocation);
+      }
+      counts[0] += cpuMemory.getMemorySize();
+      return result;
+    };
+  }
+
+  /**
+   * Benchmark that writes every location in memory
+   * @return Benchmark
+   */
+  private static IBenchmark memoryWrite()
+  {
+    Memory cpuMemory = new Simulator("bubblesort").cpuMemory;
+    return counts ->
+    {
+      for (int memoryLocation = 0; memoryLocation < cpuMemory.getMemorySize(); memoryLocation++)
+      {
+        cpuMemory.writeValue(memoryLocation, memoryLocation + (int) counts[0]);
+      }
+      counts[0] += cpuMemory.getMemorySize();
+      return cpuMemory.readValue(0);
+    };
+  }
+
+  /**
+   * Method to run a benchmark and print its results
+   * @param name      Name of the benchmark
+   * @param benchmark Benchmark to run
+   */
+  private static void measure(String name, IBenchmark benchmark)
+  {
+    double[][] rates = new double[measuredIterations][3];
+    for (int iteration = 0; iteration < warmupIterations + measuredIterations; iteration++)
+    {
+      long[] counts = new long[3];
+      long result = 0;
+      long elapsedNanos = 0;
+      do
+      {
+        benchmark.prepare();
+        long startTime = System.nanoTime();
+        result += benchmark.run(counts);
+        elapsedNanos += System.nanoTime() - startTime;
+      } while (elapsedNanos < iterationNanos);
+      sink += result;
+      if (iteration >= warmupIterations)
+      {
+        for (int count = 0; count < counts.length; count++)
+        {
+          rates[iteration - warmupIterations][count] = counts[count] / (elapsedNanos / 1e9);
+        }
+      }
+    }
+    if (name.startsWith("functional"))
+    {
+      System.out.format("%-36s %14s instructions/s  (%s runs/s)%n", name, format(rates, 2), format(rates, 0));
+    }
+    else if (name.startsWith("pipeline"))
+    {
+      System.out.format("%-36s %14s cycles/s  %14s instructions/s  (%s runs/s)%n", name, format(rates, 1), format(rates, 2), format(rates, 0));
+    }
+    else if (name.startsWith("decode"))
+    {
+      System.out.format("%-36s %14s ops/s  (%.1f ns/op)%n", name, format(rates, 0), 1e9 / mean(rates, 0));
+    }
+    else
+    {
+      System.out.format("%-36s %14s ops/s%n", name, format(rates, 0));
+    }
+  }
+
+  /**
+   * Method to format the mean and the spread of a throughput measured over the measured iterations
+   * @param  rates Throughput of every measured iteration
+   * @param  count Index of the count to format
+   * @return       Formatted throughput
+   */
+  private static String format(double[][] rates, int count)
+  {
+    double min = Double.MAX_VALUE;
+    double max = 0;
+    for (double[] rate : rates)
+    {
+      min = Math.min(min, rate[count]);
+      max = Math.max(max, rate[count]);
+    }
+    double mean = mean(rates, count);
+    return String.format("%.4g (+/- %.1f%%)", mean, (mean == 0) ? 0.0 : (100.0 * (max - min) / (2 * mean)));
+  }
+
+  /**
+   * Method to compute the mean of a throughput measured over the measured iterations
+   * @param  rates Throughput of every measured iteration
+   * @param  count Index of the count
+   * @return       Mean throughput
+   */
+  private static double mean(double[][] rates, int count)
+  {
+    double sum = 0;
+    for (double[] rate : rates)
+    {
+      sum += rate[count];
+    }
+    return sum / rates.length;
+  }
+
+  /**
+   * Method to check that InstructionDecoder.decode() decodes every instruction exactly like the String based reference decoder. Every OpCode
+   * (Including the OpCodes not specified in the ISA, which must be rejected by both) is combined with every 16 bit value placed in the
+   * immediate field and with every 16 bit value placed in the least significant 16 bits, which hold every register field (A single pass if
+   * the instruction type has no immediate or its immediate is in the least significant bits). The remaining bits are filled with a pattern
+   * derived from the value, hence, the bits an instruction type doesn't use are set as well.
+   * @param  filter Only run if "decoder" contains the filter
+   * @return        True if both decoders agreed on every instruction
+   */
+  private static boolean checkDecoder(String filter)
+  {
+    if (!"decoder".contains(filter))
+    {
+      return true;
+    }
+    long checked = 0;
+    long mismatches = 0;
+    for (int opCode = 0; opCode < InstructionDecoder.TOTAL_OPCODES; opCode++)
+    {
+      int immediateShift = 0;                 // Position of the immediate field's least significant bit (All immediates are 16 bits long)
+      if (InstructionDecoder.isValidOpCode(opCode))
+      {
+        switch (InstructionDecoder.type(opCode))
+        {
+          case InstructionDecoder.TYPE_RRI:
+            immediateShift = Isa.INSTRUCTION_LENGTH - Isa.InstructionType.RRI.IMM_END;
+            break;
+
+          case InstructionDecoder.TYPE_RI:
+            immediateShift = Isa.INSTRUCTION_LENGTH - Isa.InstructionType.RI.IMM_END;
+            break;
+
+          case InstructionDecoder.TYPE_I:
+            immediateShift = Isa.INSTRUCTION_LENGTH - Isa.InstructionType.I.IMM_END;
+            break;
+        }
+      }
+      for (int shift : (immediateShift == 0) ? new int[] {0} : new int[] {immediateShift, 0})     // The placements coincide if the immediate is in the least significant bits
+      {
+        for (int value = 0; value <= 0xFFFF; value++)
+        {
+          int filler = (value * 0x9E3779B9) ^ 0x5A5A5A5A;
+          int instruction = (opCode << (Isa.INSTRUCTION_LENGTH - Isa.OPCODE_LENGTH)) |
+                            (((filler & ~(0xFFFF << shift)) | (value << shift)) & ((1 << (Isa.INSTRUCTION_LENGTH - Isa.OPCODE_LENGTH)) - 1));
+          String difference = compareDecoders(instruction);
+          checked++;
+          if (difference != null)
+          {
+            if (mismatches++ < 10)
+            {
+              System.out.println("Instruction " + Utility.convertToBin(instruction, 0) + ": " + difference);
+            }
+          }
+        }
+      }
+    }
+    System.out.format("%-36s %14d instructions  %14d mismatches  %s%n", "decoder", checked, mismatches, (mismatches == 0) ? "OK" : "FAILED");
+    return mismatches == 0;
+  }
+
+  /**
+   * Method to decode an instruction with InstructionDecoder and the reference decoder and compare the results
+   * @param  instruction Instruction value
+   * @return             Description of the first difference found (null if the decoders agree)
+   */
+  private static String compareDecoders(int instruction)
+  {
+    DecodedInstruction expected = null;
+    DecodedInstruction actual = null;
+    String expectedError = null;
+    String actualError = null;
+    try
+    {
+      expected = ReferenceDecoder.decode(instruction);
+    }
+    catch (IllegalInstructionException e)
+    {
+      expectedError = e.getMessage();
+    }
+    try
+    {
+      actual = InstructionDecoder.decode(instruction);
+    }
+    catch (IllegalInstructionException e)
+    {
+      actualError = e.getMessage();
+    }
+    if (expected == null || actual == null)
+    {
+      return Objects.equals(expectedError, actualError) ? null : "reference threw \"" + expectedError + "\", decoder threw \"" + actualError + "\"";
+    }
+    String[] fields = {"instruction", "OpCode", "type", "mnemonic", "execution unit", "cycles", "source register 1", "source register 2",
+                       "destination register", "immediate"};
+    Object[] expectedFields = fields(expected);
+    Object[] actualFields = fields(actual);
+    for (int field = 0; field < fields.length; field++)
+    {
+      if (!expectedFields[field].equals(actualFields[field]))
+      {
+        return fields[field] + " is " + actualFields[field] + ", expected " + expectedFields[field];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Method to obtain the fields of a decoded instruction
+   * @param  decodedInstruction Decoded instruction
+   * @return                    Fields of the decoded instruction (In the order compared by compareDecoders())
+   */
+  private static Object[] fields(DecodedInstruction decodedInstruction)
+  {
+    return new Object[] {decodedInstruction.getInstructionVal(), decodedInstruction.getOpCode(), decodedInstruction.getInstructionType(),
+                         decodedInstruction.getInstructionMnemonic(), decodedInstruction.getExecutionUnit(), decodedInstruction.getNumberOfCycles(),
+                         decodedInstruction.getSourceReg1Loc(), decodedInstruction.getSourceReg2Loc(), decodedInstruction.getDestinationRegLoc(),
+                         decodedInstruction.getSignedImmediateVal()};
+  }
+
+  /**
+   * Method to check that the cycle loop doesn't allocate in the steady state. Every kernel is warmed up and then run to completion on
+   * simulators that have been set up (and whose programs have been decoded) beforehand, while the bytes allocated by the current thread are
+   * counted.
+   * @param  filter Only the kernels whose name contains the filter are checked
+   * @return        True if none of the checked kernels allocated
+   */
+  private static boolean checkAllocation(String filter)
+  {
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    if (!(threadBean instanceof com.sun.management.ThreadMXBean) || !((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported())
+    {
+      System.err.println("The JVM can't count the bytes allocated by a thread, hence, the allocation check can't be run.");
+      return false;
+    }
+    com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+    long threadId = Thread.currentThread().getId();
+    boolean allocationFree = true;
+    for (String kernel : new String[] {"bubblesort", "fibonacci", "gcd"})
+    {
+      if (!("allocation." + kernel).contains(filter))
+      {
+        continue;
+      }
+      for (int run = 0; run < ALLOCATION_WARMUP_RUNS; run++)
+      {
+        new Simulator(kernel).runToCompletion();
+      }
+      Simulator[] simulators = new Simulator[ALLOCATION_CHECKED_RUNS];
+      for (int run = 0; run < simulators.length; run++)
+      {
+        simulators[run] = new Simulator(kernel);
+        simulators[run].decodeProgram();
+      }
+      long allocatedBefore = allocationBean.getThreadAllocatedBytes(threadId);
+      for (Simulator simulator : simulators)
+      {
+        simulator.runToCompletion();
+      }
+      long allocatedBytes = allocationBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+      long cycles = 0;
+      for (Simulator simulator : simulators)
+      {
+        cycles += simulator.cpuRegisters.readClockCounter();
+      }
+      System.out.format("%-36s %14d cycles  %14d bytes allocated  (%.3f bytes/cycle)  %s%n", "allocation." + kernel, cycles, allocatedBytes,
+                        (double) allocatedBytes / cycles, (allocatedBytes == 0) ? "OK" : "FAILED");
+      allocationFree &= (allocatedBytes == 0);
+    }
+    return allocationFree;
+  }
+
+  /**
+   * Main entry point to the benchmark harness
+   * @param args Command-line arguments: "--quick" shortens the iterations, "--check-allocation" runs the allocation check instead of the
+   *             benchmarks, "--check-decoder" runs the decoder check instead of the benchmarks, any other argument only runs the benchmarks
+   *             whose name contains it
+   */
+  public static void main(String[] args)
+  {
+    String filter = "";
+    boolean allocationCheck = false;
+    boolean decoderCheck = false;
+    for (String arg : args)
+    {
+      if (arg.equals("--check-allocation"))
+      {
+        allocationCheck = true;
+      }
+      else if (arg.equals("--check-decoder"))
+      {
+        decoderCheck = true;
+      }
+      else if (arg.equals("--quick"))
+      {
+        warmupIterations = 2;
+        measuredIterations = 3;
+        iterationNanos = 100000000L;
+      }
+      else
+      {
+        filter = arg;
+      }
+    }
+    if (allocationCheck)
+    {
+      System.exit(checkAllocation(filter) ? 0 : 1);
+    }
+    if (decoderCheck)
+    {
+      System.exit(checkDecoder(filter) ? 0 : 1);
+    }
+
+    LinkedHashMap<String, IBenchmark> benchmarks = new LinkedHashMap<String, IBenchmark>();
+    benchmarks.put("decode.RRR (ADD)", decode("00001000000000000000001000010101", false));
+    benchmarks.put("decode.reference.RRR (ADD)", decode("00001000000000000000001000010101", true));
+    benchmarks.put("decode.RRI (ADDI)", decode("00101000000000000000000100110011", false));
+    benchmarks.put("decode.reference.RRI (ADDI)", decode("00101000000000000000000100110011", true));
+    benchmarks.put("decode.RR (MOVR)", decode("10010000000000000000000000100001", false));
+    benchmarks.put("decode.reference.RR (MOVR)", decode("10010000000000000000000000100001", true));
+    benchmarks.put("decode.RI (MOVI)", decode("10001000000000000000001011100100", false));
+    benchmarks.put("decode.reference.RI (MOVI)", decode("10001000000000000000001011100100", true));
+    benchmarks.put("decode.I (BU)", decode("10011000000000001111111111111011", false));
+    benchmarks.put("decode.reference.I (BU)", decode("10011000000000001111111111111011", true));
+    benchmarks.put("fetch.execute", instructionFetch());
+    benchmarks.put("alu.execute (ADD)", executionUnit(new Alu(), "00001000000000000000001000010101"));
+    benchmarks.put("lsu.execute (LW)", executionUnit(new Lsu(), "01111000000000001100100000100101"));
+    benchmarks.put("lsu.execute (SW)", executionUnit(new Lsu(), "10000000000000001100100001101001"));
+    benchmarks.put("bu.execute (BNE)", executionUnit(new Bu(), "10110000000000000000010000010010"));
+    benchmarks.put("memory.readValue", memoryRead());
+    benchmarks.put("memory.writeValue", memoryWrite());
+    benchmarks.put("pipeline.bubblesort", pipelineKernel("bubblesort"));
+    benchmarks.put("pipeline.fibonacci", pipelineKernel("fibonacci"));
+    benchmarks.put("pipeline.gcd", pipelineKernel("gcd"));
+    benchmarks.put("pipeline.bubblesort (profiled)", pipelineKernel("bubblesort", 64));
+    for (String kernel : new String[] {"bubblesort", "fibonacci", "gcd"})
+    {
+      for (String mode : new String[] {"interpreted", "translated", "jit"})
+      {
+        benchmarks.put("functional." + kernel + " (" + mode + ")", functionalKernel(kernel, mode));
+      }
+    }
+
+    System.out.println("Warm-up iterations: " + warmupIterations + ", measured iterations: " + measuredIterations + ", iteration time: " + (iterationNanos / 1000000) + " ms");
+    for (Map.Entry<String, IBenchmark> benchmark : benchmarks.entrySet())
+    {
+      if (benchmark.getKey().contains(filter))
+      {
+        measure(benchmark.getKey(), benchmark.getValue());
+      }
+    }
+  }
+}
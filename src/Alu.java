@@ -4,6 +4,8 @@ import pipeline.*;
  */
 public class Alu implements IExecutionUnit
 {
+  public static final String EVENT_INSTRUCTIONS = "alu.instructions";     /** Instructions executed by the ALU (Including NOPs) */
+
   private int opCode;
   private int sourceReg1Val;
   private int sourceReg2Val;
@@ -11,147 +13,161 @@ public class Alu implements IExecutionUnit
   private int calculationResult;
   private Register cpuRegisters;
   private ProcessorPipelineContext pContext;    /** Reference to the processor pipeline context */
+  private InstructionTable instructionTable;     /** Reference to the in-flight instruction table */
+  private Pmu pmu;                               /** Reference to the performance monitoring unit */
+  private int instructionsEvent;                 /** PMU index of the ALU instruction counter */
+
+  /**
+   * Method to register the events counted by the ALU with the performance monitoring unit
+   * @param pmu Performance monitoring unit of the simulation
+   */
+  public void registerEvents(Pmu pmu)
+  {
+    this.pmu = pmu;
+    instructionsEvent = pmu.register(EVENT_INSTRUCTIONS, "Instructions executed by the ALU (Including NOPs)");
+  }
 
-  public void execute(Instruction instruction, IPipelineContext context)
+  public void execute(int instruction, IPipelineContext context)
   {
     pContext = (ProcessorPipelineContext) context;             // Explicitly cast context to ProcessorPipelineContext type
     cpuRegisters = pContext.getCpuRegisters();                 // Obtain and store the reference to the primary cpu registers object from the pipeline context (Doing this to avoid having to type it over and over again)
-    opCode = instruction.getOpCode();
+    instructionTable = pContext.getInstructionTable();         // Obtain and store the reference to the in-flight instruction table
+    opCode = instructionTable.getOpCode(instruction);
     // SR1 result passing
-    if (instruction.getSourceReg1Val() != cpuRegisters.readGP(instruction.getSourceReg1Loc()))                              // Check if the current value held in the register is the same as that evaluated by the II unit
+    if (instructionTable.getSourceReg1Val(instruction) != cpuRegisters.readGP(instructionTable.getSourceReg1Loc(instruction)))                              // Check if the current value held in the register is the same as that evaluated by the II unit
     {
-      sourceReg1Val = cpuRegisters.readGP(instruction.getSourceReg1Loc());
-      instruction.setSourceReg1Val(sourceReg1Val);
+      sourceReg1Val = cpuRegisters.readGP(instructionTable.getSourceReg1Loc(instruction));
+      instructionTable.setSourceReg1Val(instruction, sourceReg1Val);
     }
     else
     {
-      sourceReg1Val = instruction.getSourceReg1Val();
+      sourceReg1Val = instructionTable.getSourceReg1Val(instruction);
     }
-    if (instruction.getSourceReg1Loc() == pContext.getCurrentInstructionWriteBack().getDestinationRegLoc())       // Check if the WB stage is going to write to a register that needs to be read by the ALU in the IE stage
+    if (instructionTable.getSourceReg1Loc(instruction) == instructionTable.getDestinationRegLoc(pContext.getCurrentInstructionWriteBack()))       // Check if the WB stage is going to write to a register that needs to be read by the ALU in the IE stage
     {
-      sourceReg1Val = pContext.getCurrentInstructionWriteBack().getWritebackVal();
-      instruction.setSourceReg1Val(sourceReg1Val);
+      sourceReg1Val = instructionTable.getWritebackVal(pContext.getCurrentInstructionWriteBack());
+      instructionTable.setSourceReg1Val(instruction, sourceReg1Val);
     }
     else
     {
-      sourceReg1Val = instruction.getSourceReg1Val();
+      sourceReg1Val = instructionTable.getSourceReg1Val(instruction);
     }
     // SR2 result passing
-    if (instruction.getSourceReg2Val() != cpuRegisters.readGP(instruction.getSourceReg2Loc()))                              // Check if the current value held in the register is the same as that evaluated by the II unit
+    if (instructionTable.getSourceReg2Val(instruction) != cpuRegisters.readGP(instructionTable.getSourceReg2Loc(instruction)))                              // Check if the current value held in the register is the same as that evaluated by the II unit
     {
-      sourceReg2Val = cpuRegisters.readGP(instruction.getSourceReg2Loc());
-      instruction.setSourceReg2Val(sourceReg2Val);
+      sourceReg2Val = cpuRegisters.readGP(instructionTable.getSourceReg2Loc(instruction));
+      instructionTable.setSourceReg2Val(instruction, sourceReg2Val);
     }
     else
     {
-      sourceReg2Val = instruction.getSourceReg2Val();
+      sourceReg2Val = instructionTable.getSourceReg2Val(instruction);
     }
-    if (instruction.getSourceReg2Loc() == pContext.getCurrentInstructionWriteBack().getDestinationRegLoc())       // Check if the WB stage is going to write to a register that needs to be read by the ALU in the IE stage
+    if (instructionTable.getSourceReg2Loc(instruction) == instructionTable.getDestinationRegLoc(pContext.getCurrentInstructionWriteBack()))       // Check if the WB stage is going to write to a register that needs to be read by the ALU in the IE stage
     {
-      sourceReg2Val = pContext.getCurrentInstructionWriteBack().getWritebackVal();
-      instruction.setSourceReg2Val(sourceReg2Val);
+      sourceReg2Val = instructionTable.getWritebackVal(pContext.getCurrentInstructionWriteBack());
+      instructionTable.setSourceReg2Val(instruction, sourceReg2Val);
     }
     else
     {
-      sourceReg2Val = instruction.getSourceReg2Val();
+      sourceReg2Val = instructionTable.getSourceReg2Val(instruction);
     }
     switch (opCode)
     {
       // NOP
       case Isa.NOP:
         calculationResult = sourceReg1Val + sourceReg2Val;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         break;
       
       // ADD dr, sr1, sr2
       case Isa.ADD:
         calculationResult = sourceReg1Val + sourceReg2Val;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         break;
 
       // SUB dr, sr1, sr2
       case Isa.SUB:
         calculationResult = sourceReg1Val - sourceReg2Val;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         break;
 
       // MULT dr, sr1, sr2
       case Isa.MULT:
         calculationResult = sourceReg1Val * sourceReg2Val;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         break;
 
       // DIV dr, sr1, sr2
       case Isa.DIV:
         calculationResult = sourceReg1Val / sourceReg2Val;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         
         break;
 
       // ADDI dr, sr1, Ix
       case Isa.ADDI:
-        signedImmediateVal = instruction.getSignedImmediateVal();
+        signedImmediateVal = instructionTable.getSignedImmediateVal(instruction);
         calculationResult = sourceReg1Val + signedImmediateVal;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         break;
 
       // SUBI dr, sr1, Ix
       case Isa.SUBI:
-        signedImmediateVal = instruction.getSignedImmediateVal();
+        signedImmediateVal = instructionTable.getSignedImmediateVal(instruction);
         calculationResult = sourceReg1Val - signedImmediateVal;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         
         break;
 
       // AND dr, sr1, sr2
       case Isa.AND:
         calculationResult = sourceReg1Val & sourceReg2Val;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         break;
 
       // OR dr, sr1, sr2 
       case Isa.OR:
         calculationResult = sourceReg1Val | sourceReg2Val;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         break;
 
       // XOR dr, sr1, sr2
       case Isa.XOR:
         calculationResult = sourceReg1Val ^ sourceReg2Val;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         break;
 
       // NOT dr, sr1
       case Isa.NOT:
         calculationResult = ~ sourceReg1Val;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         break;
 
       // SLL dr, sr1, Ix
       case Isa.SLL:
-        signedImmediateVal = instruction.getSignedImmediateVal();
+        signedImmediateVal = instructionTable.getSignedImmediateVal(instruction);
         calculationResult = sourceReg1Val << signedImmediateVal;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         break;
 
       // SLR dr, sr1, Ix
       case Isa.SLR:
-        signedImmediateVal = instruction.getSignedImmediateVal();
+        signedImmediateVal = instructionTable.getSignedImmediateVal(instruction);
         calculationResult = sourceReg1Val >>> signedImmediateVal;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         break;
 
       // SLLV dr, s1, sr2
       case Isa.SLLV:
         calculationResult = sourceReg1Val << sourceReg2Val;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         break;
 
       // SRA dr, sr1, Ix
       case Isa.SRA:
-        signedImmediateVal = instruction.getSignedImmediateVal();
+        signedImmediateVal = instructionTable.getSignedImmediateVal(instruction);
         calculationResult = sourceReg1Val >> signedImmediateVal;
-        instruction.setWritebackVal(calculationResult);
+        instructionTable.setWritebackVal(instruction, calculationResult);
         break;
 
       // Default case. This condition should never be reached
@@ -159,6 +175,6 @@ public class Alu implements IExecutionUnit
         System.out.println("Fatal error! Incorrect execution unit (EU) used for the instruction!");
         break;
     }
-    cpuRegisters.incrementInstructionAluCounter();            // Increment the ALU instruction counter
+    pmu.increment(instructionsEvent);                         // Increment the ALU instruction counter
   }
 }
\ No newline at end of file
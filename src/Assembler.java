@@ -3,16 +3,43 @@
  * @author Ashish Tibrewal
  * @date 29.10.2015
  * @details This file contains the Assembler. It expects to read in an assembly file that has been hand-written in correspondence to the custom-designed ISA.
- * The assembly file is passed to the Parser class to generate an executale binary file that can be used by the simulator.
+ * The assembly file is assembled into the segments of the program, which are saved as the executable binary file used by the simulator
+ * (See Executable).
+ *
+ * The assembler makes two passes over the source. The first pass lexes every line (A streaming lexer working directly on the bytes of the
+ * file, i.e. no Scanner or String.split), assigns an address to every statement and records the address of every label. The second pass
+ * resolves the labels, checks the range of every immediate and encodes the instructions using the bit positions specified in
+ * Isa.InstructionType (The same positions the InstructionDecoder extracts the fields from).
+ *
+ * Syntax (Mnemonics, registers and directives are case-insensitive, everything following a '#' is a comment):
+ *   label:                            Defines a label (Can be followed by a statement on the same line)
+ *   NOP | RET                         No operands
+ *   ADD  Rd, Rs1, Rs2                 RRR instructions (ADD, SUB, MULT, DIV, AND, OR, XOR, SLLV)
+ *   ADDI Rd, Rs1, imm                 RRI instructions (ADDI, SUBI, SLL, SLR, SRA, LW)
+ *   SW   Rs, Rbase, imm               Stores the value of Rs at Rbase + imm
+ *   BEQ  Rs1, Rs2, target             Conditional branches (BEQ, BNE, BLT, BGT)
+ *   NOT  Rd, Rs1                      RR instructions (NOT, MOVR)
+ *   MOVI Rd, imm                      RI instruction
+ *   BU   target                       I instructions (BU, BL)
+ *   .text / .data                     Switches to the code/data section (The data section follows the code unless it is given an address)
+ *   .org address                      Sets the address of the next statement in the current section
+ *   .entry target                     Sets the entry point of the program (Defaults to the lowest address of the code)
+ *   .word value[, value ...]          Data words (32-bit values or labels)
+ *   .space count                      Reserves count words (Initialized to 0)
+ * Immediates and values are decimal, hexadecimal (0x) or binary (0b) numbers, or labels. Branch targets given as labels are turned into
+ * offsets relative to the branch instruction, numeric branch targets are used as offsets directly. Every other label is replaced by its
+ * address.
  */
 
 // Import packages
 import java.io.*;
-import java.nio.file.Path;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.nio.file.Files;
-import java.util.Scanner;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 
 /**
@@ -24,7 +51,68 @@ public class Assembler
   public static String outputFile = "output.sim";     /* Name of the generated executable file */
   private String inputFile;
 
-  // Class constructors 
+  // Token types returned by the lexer
+  private static final int TOKEN_END = 0;             /** End of the line (Or start of a comment) */
+  private static final int TOKEN_IDENTIFIER = 1;      /** Mnemonic, directive, register or label */
+  private static final int TOKEN_NUMBER = 2;          /** Numeric literal */
+  private static final int TOKEN_COMMA = 3;
+
+  // Sections
+  private static final int SECTION_TEXT = 0;
+  private static final int SECTION_DATA = 1;
+
+  private static final int DATA_WORD = -1;            /** OpCode recorded for data words */
+  private static final int NO_SYMBOL = -1;            /** Symbol index recorded for statements that don't refer to a label */
+  private static final int IMMEDIATE_BITS = Isa.InstructionType.I.IMM_END - Isa.InstructionType.I.IMM_START;      /** Every instruction type holding an immediate uses a 16-bit immediate */
+  private static final int IMMEDIATE_MIN = -(1 << (IMMEDIATE_BITS - 1));
+  private static final int IMMEDIATE_MAX = (1 << (IMMEDIATE_BITS - 1)) - 1;
+  private static final HashMap<String, Integer> opCodes = new HashMap<String, Integer>();      /** OpCode of every mnemonic specified in the ISA */
+
+  // Lexer state
+  private byte[] source;                    /** Contents of the assembly file */
+  private int position;                     /** Position of the next character to be lexed */
+  private int lineEnd;                      /** Position of the end of the current line */
+  private int lineNumber;                   /** Number of the current line (Starting from 1) */
+  private String tokenText;                 /** Text of the last identifier lexed */
+  private long tokenValue;                  /** Value of the last number lexed */
+
+  // Statements recorded by the first pass (One entry per instruction or data word)
+  private int statements;
+  private int[] statementOpCode = new int[1024];
+  private int[] statementAddress = new int[1024];
+  private boolean[] statementRelocatable = new boolean[1024];     /** Statement is in the data section, whose address is only known once all the code has been seen */
+  private int[] statementSection = new int[1024];
+  private int[] statementLine = new int[1024];
+  private int[] statementRegisters = new int[3 * 1024];             /** Destination, source 1 and source 2 register of every statement */
+  private long[] statementImmediate = new long[1024];
+  private int[] statementSymbol = new int[1024];
+
+  // Symbol table
+  private final HashMap<String, Integer> symbolIndices = new HashMap<String, Integer>();
+  private final ArrayList<String> symbolNames = new ArrayList<String>();
+  private int[] symbolAddress = new int[64];
+  private boolean[] symbolRelocatable = new boolean[64];
+  private int[] symbolLine = new int[64];                 /** Line the symbol was defined on (0 = not defined yet) */
+
+  // Location counters
+  private int section;
+  private final long[] locationCounter = new long[2];
+  private boolean dataRelocatable;                        /** Data section addresses are relative to the end of the code until the first .org in the data section */
+  private boolean entryDefined;                           /** Boolean variable stating if the entry point has been set by .entry */
+  private long entryValue;                                /** Entry point address (If given as a number) */
+  private int entrySymbol;                                /** Entry point label (NO_SYMBOL if given as a number) */
+  private int entryLine;                                  /** Line of the .entry directive */
+
+  // Generate the mnemonic table from the decoder's table
+  static
+  {
+    for (int opCode = 0; opCode < Isa.ISA_TOTAL_INSTRUCTIONS; opCode++)
+    {
+      opCodes.put(InstructionDecoder.mnemonic(opCode), opCode);
+    }
+  }
+
+  // Class constructors
   /**
    * Default constructor
    * @return No return value since this is a constructor
@@ -50,10 +138,7 @@ public class Assembler
    */
   public void run()
   {
-    ArrayList<Integer> program;
-    Scanner input, fileScanner;
-    ObjectOutputStream output;
-    Path source;
+    Executable program;
 
     if (inputFile.equals("No input file"))
     {
@@ -62,212 +147,769 @@ public class Assembler
     }
     else
     {
-      program = new ArrayList<Integer>();
-      input = new Scanner(System.in);
-    
-    // get path of source code file; load file; parse instructions into integer format; load
-    // each into array; serialize array object into "binary" file.
-      source = Paths.get(inputFile);
-      fileScanner = null;
+      program = null;
       try
       {
-        fileScanner = new Scanner(source);
-        while (fileScanner.hasNextLine()) 
-        {
-          String line = new String();
-          line = fileScanner.nextLine();
-          if (!program.add(this.parse(line)))
-          { 
-            System.err.println("Failed to add the parsed item to the complete list of program items. Note that this can cause unexpected results from the simulator to be generated");
-          }
-        } 
+        program = this.assemble();
+      }
+      catch (IOException ex)
+      {
+        System.err.println("Failed to open the assembly source file. Fatal error. Exiting program ... \n");
+        System.exit(1);         // Exit/Terminate the program/Java runtime with error code 1
+      }
+      catch (ParsingException ex)
+      {
+        System.err.println("Parsing Error: " + ex.getMessage());
+        System.exit(1);         // Exit/Terminate the program/Java runtime with error code 1
+      }
+
+      // Write the segments to the executable binary file
+      try
+      {
+        program.write(outputFile);
       }
       catch (Exception ex)
       {
-        if (ex instanceof IOException)
+        System.err.println("A problem occurred when saving the executable binary file due to the following exception: " + ex.getMessage());
+        System.exit(1);             // Exit/Terminate the program/Java runtime with error code 1
+      }
+    }
+  }
+
+  /**
+   * Method to assemble the assembly file
+   * @return                  Executable binary (Empty if the assembly file doesn't contain any statements)
+   * @throws IOException      If the assembly file can't be read
+   * @throws ParsingException If the assembly file contains an error
+   */
+  public Executable assemble() throws IOException, ParsingException
+  {
+    source = Files.readAllBytes(Paths.get(inputFile));
+    this.firstPass();
+    return this.secondPass();
+  }
+
+  /**
+   * First pass: Lex every line, assign an address to every statement and record the address of every label
+   * @throws ParsingException If a line can't be parsed
+   */
+  private void firstPass() throws ParsingException
+  {
+    position = 0;
+    lineNumber = 0;
+    section = SECTION_TEXT;
+    locationCounter[SECTION_TEXT] = 0;
+    locationCounter[SECTION_DATA] = 0;
+    dataRelocatable = true;
+    entryDefined = false;
+    while (this.nextLine())
+    {
+      int token = this.nextToken();
+      while (token == TOKEN_IDENTIFIER && this.skipLabelColon())        // Labels (Possibly followed by a statement)
+      {
+        this.defineLabel(tokenText);
+        token = this.nextToken();
+      }
+      if (token == TOKEN_END)
+      {
+        continue;
+      }
+      if (token != TOKEN_IDENTIFIER)
+      {
+        throw this.error("Expected an instruction, a directive or a label");
+      }
+      if (tokenText.charAt(0) == '.')
+      {
+        this.parseDirective(tokenText.toLowerCase());
+      }
+      else
+      {
+        this.parseInstruction(tokenText);
+      }
+    }
+  }
+
+  /**
+   * Method to parse a directive
+   * @param  directive        Directive (In lower case)
+   * @throws ParsingException If the directive can't be parsed
+   */
+  private void parseDirective(String directive) throws ParsingException
+  {
+    switch (directive)
+    {
+      case ".text":
+        section = SECTION_TEXT;
+        this.expectEnd();
+        break;
+
+      case ".data":
+        section = SECTION_DATA;
+        this.expectEnd();
+        break;
+
+      case ".org":
+        long address = this.parseNumber();
+        if (address < 0 || address > Integer.MAX_VALUE)
         {
-          System.err.println("Failed to open the assembly source file. Fatal error. Exiting program ... \n");
-          // System.err.println("Failed to open the assembly source file. Please type \"quit\" and press the return key to stop the simulator");
-          // while (!input.hasNext("quit"))
-          // {
-          //   input.next();
-          // }
+          throw this.error("Address out of range: " + address);
         }
-        else if (ex instanceof ParsingException)
+        locationCounter[section] = address;
+        if (section == SECTION_DATA)
         {
-          System.err.println("Parsing Error: " + ex.getMessage());
-          //ex.printStackTrace();          
+          dataRelocatable = false;
         }
-        System.exit(1);         // Exit/Terminate the program/Java runtime with error code 1  
-      }
-      finally
-      {
-        if (fileScanner != null)
+        this.expectEnd();
+        break;
+
+      case ".entry":
+        if (entryDefined)
         {
-          fileScanner.close();
+          throw this.error("The entry point has already been set on line " + entryLine);
         }
-      }
+        entryDefined = true;
+        entryLine = lineNumber;
+        int token = this.nextToken();
+        if (token == TOKEN_NUMBER && tokenValue >= 0 && tokenValue <= Integer.MAX_VALUE)
+        {
+          entryValue = tokenValue;
+          entrySymbol = NO_SYMBOL;
+        }
+        else if (token == TOKEN_IDENTIFIER && tokenText.charAt(0) != '.' && !isRegister(tokenText))
+        {
+          entrySymbol = this.symbolIndex(tokenText);      // Resolved in the second pass
+        }
+        else
+        {
+          throw this.error("Expected an address or a label");
+        }
+        this.expectEnd();
+        break;
 
-      // take list of instructions and build serialized object file
-      try
-      {  
-        output = new ObjectOutputStream(new FileOutputStream(outputFile));
-        output.writeObject(program);
-        if (output != null)
+      case ".word":
+        do
         {
-            output.close();
+          int statement = this.addStatement(DATA_WORD);
+          this.parseValue(statement, Integer.MIN_VALUE, 0xffffffffL);
         }
-      } 
-      catch (Exception ex)
-      { 
-        System.err.println("A problem occurred when saving the executable binary file due to the following exception: " + ex.getMessage());
-        System.exit(1);             // Exit/Terminate the program/Java runtime with error code 1
-      } 
+        while (this.skipComma());
+        this.expectEnd();
+        break;
+
+      case ".space":
+        long count = this.parseNumber();
+        if (count < 0 || locationCounter[section] + count > Integer.MAX_VALUE)
+        {
+          throw this.error("Invalid number of words to reserve: " + count);
+        }
+        for (long word = 0; word < count; word++)
+        {
+          this.addStatement(DATA_WORD);             // Value defaults to 0
+        }
+        this.expectEnd();
+        break;
+
+      default:
+        throw this.error("Unknown directive: " + directive);
     }
   }
 
   /**
-   * Mehtod that parses the current line read from the assembly file to generate it's integer/machine code representation
-   * @param  line             Current line read from the assembly file
-   * @return                  Interer value/representation of the current assembly instruction
-   * @throws ParsingException Exception for unknown/unrecognized instructions/characters
+   * Method to parse an instruction
+   * @param  mnemonic         Instruction mnemonic
+   * @throws ParsingException If the instruction can't be parsed
    */
-  private int parse(String line) throws ParsingException
+  private void parseInstruction(String mnemonic) throws ParsingException
   {
-    String[] stringTokens;
-    int stringTokensLength;
-    int[] intTokens;
+    Integer opCode = opCodes.get(mnemonic.toUpperCase());
+    if (opCode == null)
+    {
+      throw this.error("Unknown instruction: " + mnemonic);
+    }
+    int statement = this.addStatement(opCode);
+    int registers = 3 * statement;
+    switch (opCode)
+    {
+      case Isa.NOP:
+      case Isa.RET:
+        break;
+
+      case Isa.SW:              // SW Rs, Rbase, imm - The base register is held in the destination register field
+        statementRegisters[registers + 1] = this.parseRegister();
+        this.expectComma();
+        statementRegisters[registers] = this.parseRegister();
+        this.expectComma();
+        this.parseValue(statement, IMMEDIATE_MIN, IMMEDIATE_MAX);
+        break;
+
+      case Isa.BEQ:
+      case Isa.BNE:
+      case Isa.BLT:
+      case Isa.BGT:             // Bxx Rs1, Rs2, target - Source register 2 is held in the destination register field
+        statementRegisters[registers + 1] = this.parseRegister();
+        this.expectComma();
+        statementRegisters[registers + 2] = this.parseRegister();
+        this.expectComma();
+        this.parseValue(statement, IMMEDIATE_MIN, IMMEDIATE_MAX);
+        break;
 
-    if (!line.startsWith("#") && !line.isEmpty())        // Check if the current line is a comment or a blank/empty line, only continue parsing it if it's not a comment or a blank/empty line
+      case Isa.BU:
+      case Isa.BL:
+        this.parseValue(statement, IMMEDIATE_MIN, IMMEDIATE_MAX);
+        break;
+
+      default:
+        statementRegisters[registers] = this.parseRegister();
+        this.expectComma();
+        switch (InstructionDecoder.type(opCode))
+        {
+          case InstructionDecoder.TYPE_RRR:
+            statementRegisters[registers + 1] = this.parseRegister();
+            this.expectComma();
+            statementRegisters[registers + 2] = this.parseRegister();
+            break;
+
+          case InstructionDecoder.TYPE_RRI:
+            statementRegisters[registers + 1] = this.parseRegister();
+            this.expectComma();
+            this.parseValue(statement, IMMEDIATE_MIN, IMMEDIATE_MAX);
+            break;
+
+          case InstructionDecoder.TYPE_RR:
+            statementRegisters[registers + 1] = this.parseRegister();
+            break;
+
+          default:              // RI
+            this.parseValue(statement, IMMEDIATE_MIN, IMMEDIATE_MAX);
+            break;
+        }
+        break;
+    }
+    this.expectEnd();
+  }
+
+  /**
+   * Second pass: Resolve the labels, check the immediates and encode every statement into the segments of the program
+   * @return                  Executable binary
+   * @throws ParsingException If a label is undefined, an immediate is out of range or two statements share the same address
+   */
+  private Executable secondPass() throws ParsingException
+  {
+    long dataBase = locationCounter[SECTION_TEXT];      // The data section follows the code (Unless it has been given an address)
+    long[] order = new long[statements];                // Statements sorted by address (Address in the upper half, statement index in the lower half)
+    for (int statement = 0; statement < statements; statement++)
     {
-      if(!line.contains("#"))                            // Check if inline comments are present in the file
+      long address = statementAddress[statement] + (statementRelocatable[statement] ? dataBase : 0);
+      if (address > Integer.MAX_VALUE)
       {
-        stringTokens = line.split(" ");
-        stringTokensLength = stringTokens.length;
-        intTokens = new int[stringTokensLength];
+        throw new ParsingException("Line " + statementLine[statement] + ": Address out of range: " + address);
+      }
+      statementAddress[statement] = (int) address;
+      order[statement] = (address << Integer.SIZE) | statement;
+    }
+    Arrays.sort(order);
 
-        for (int i = 0; i < stringTokensLength; i++)
+    // Every run of consecutive addresses within the same section becomes a segment
+    List<Executable.Segment> segments = new ArrayList<Executable.Segment>();
+    int[] words = new int[statements];
+    int segmentStart = 0;
+    long entryPoint = -1;
+    for (int index = 0; index < statements; index++)
+    {
+      int statement = (int) order[index];
+      int address = statementAddress[statement];
+      if (index > segmentStart)
+      {
+        int previous = (int) order[index - 1];
+        if (statementAddress[previous] == address)
+        {
+          throw new ParsingException("Line " + statementLine[Math.max(statement, previous)] + ": Location 0x" + Integer.toHexString(address) +
+                                     " has already been assembled (Line " + statementLine[Math.min(statement, previous)] + ")");
+        }
+        if (statementAddress[previous] + 1 != address || statementSection[previous] != statementSection[statement])
         {
-          intTokens[i] = this.convert(stringTokens[i]);
+          segments.add(this.createSegment(words, segmentStart, index, order));
+          segmentStart = index;
         }
       }
-      else
+      if (entryPoint < 0 && statementSection[statement] == SECTION_TEXT)
       {
-        int startOfComments = line.indexOf("#");
-        String lineWithoutComments = line.substring(0, startOfComments);    // Discard in-line comments
-        stringTokens = lineWithoutComments.split(" ");
-        stringTokensLength = stringTokens.length;
-        intTokens = new int[stringTokensLength];
+        entryPoint = address;                           // Lowest address of the code
+      }
+      words[index] = this.encodeStatement(statement, dataBase);
+    }
+    if (statements > segmentStart)
+    {
+      segments.add(this.createSegment(words, segmentStart, statements, order));
+    }
 
-        for (int i = 0; i < stringTokensLength; i++)
+    if (entryDefined)
+    {
+      entryPoint = entryValue;
+      if (entrySymbol != NO_SYMBOL)
+      {
+        if (symbolLine[entrySymbol] == 0)
         {
-          intTokens[i] = this.convert(stringTokens[i]);
+          throw new ParsingException("Line " + entryLine + ": Undefined label: " + symbolNames.get(entrySymbol));
         }
+        entryPoint = symbolAddress[entrySymbol] + (symbolRelocatable[entrySymbol] ? dataBase : 0);
       }
     }
-    return 0;
+    return new Executable((int) Math.max(entryPoint, 0), segments);
   }
 
   /**
-   * Method used to convert tokens extracted from a line in the assembly file
-   * @param  stringToken      Token that needs to be analysed and converted
-   * @return                  Converted value of a token
-   * @throws ParsingException Exception for unknown/unrecognized instructions/characters
+   * Method to create a segment from a run of statements
+   * @param  words Encoded statements (In address order)
+   * @param  start Index of the first statement of the segment (In address order)
+   * @param  end   Index following the last statement of the segment
+   * @param  order Statements sorted by address
+   * @return       Segment
    */
-  private int convert(String stringToken) throws ParsingException
+  private Executable.Segment createSegment(int[] words, int start, int end, long[] order)
   {
-    if (ProcessorSimulator.debugMode == true)
+    int firstStatement = (int) order[start];
+    int type = (statementSection[firstStatement] == SECTION_TEXT) ? Executable.SEGMENT_TEXT : Executable.SEGMENT_DATA;
+    return new Executable.Segment(type, statementAddress[firstStatement], IntBuffer.wrap(words, start, end - start));
+  }
+
+  /**
+   * Method to encode a statement
+   * @param  statement        Index of the statement (Its address needs to have been resolved)
+   * @param  dataBase         Address of the start of the data section
+   * @return                  Value of the memory location
+   * @throws ParsingException If a label is undefined or out of range
+   */
+  private int encodeStatement(int statement, long dataBase) throws ParsingException
+  {
+    int opCode = statementOpCode[statement];
+    long value = statementImmediate[statement];
+    int symbol = statementSymbol[statement];
+    if (symbol != NO_SYMBOL)
     {
-      if (ProcessorSimulator.verboseMode == true)
+      if (symbolLine[symbol] == 0)
       {
-        System.out.print("Current token: " + stringToken + ", ");
+        throw new ParsingException("Line " + statementLine[statement] + ": Undefined label: " + symbolNames.get(symbol));
       }
-      else
+      value = symbolAddress[symbol] + (symbolRelocatable[symbol] ? dataBase : 0);
+      if (opCode != DATA_WORD && InstructionDecoder.isBranch(opCode))
+      {
+        value -= statementAddress[statement];         // Branch targets are relative to the branch instruction
+      }
+      if (opCode != DATA_WORD && (value < IMMEDIATE_MIN || value > IMMEDIATE_MAX))
+      {
+        throw new ParsingException("Line " + statementLine[statement] + ": Label " + symbolNames.get(symbol) + " is out of range of the " +
+                                   IMMEDIATE_BITS + "-bit immediate (" + value + ")");
+      }
+    }
+    if (opCode == DATA_WORD)
+    {
+      return (int) value;
+    }
+    return encode(opCode, statementRegisters[3 * statement], statementRegisters[3 * statement + 1], statementRegisters[3 * statement + 2], (int) value);
+  }
+
+  /**
+   * Method to encode an instruction
+   * @param  opCode      Instruction OpCode
+   * @param  destination Destination register (Base register for SW)
+   * @param  source1     Source register 1
+   * @param  source2     Source register 2
+   * @param  immediate   Immediate (Already range checked)
+   * @return             Instruction value
+   */
+  private static int encode(int opCode, int destination, int source1, int source2, int immediate)
+  {
+    int instruction = opCode << (Isa.INSTRUCTION_LENGTH - Isa.OPCODE_LENGTH);
+    switch (InstructionDecoder.type(opCode))
+    {
+      case InstructionDecoder.TYPE_RRR:
+        instruction |= field(source1, Isa.InstructionType.RRR.S1_START, Isa.InstructionType.RRR.S1_END);
+        instruction |= field(source2, Isa.InstructionType.RRR.S2_START, Isa.InstructionType.RRR.S2_END);
+        instruction |= field(destination, Isa.InstructionType.RRR.D_START, Isa.InstructionType.RRR.D_END);
+        break;
+
+      case InstructionDecoder.TYPE_RRI:
+        instruction |= field(immediate, Isa.InstructionType.RRI.IMM_START, Isa.InstructionType.RRI.IMM_END);
+        instruction |= field(source1, Isa.InstructionType.RRI.S1_START, Isa.InstructionType.RRI.S1_END);
+        instruction |= field((opCode == Isa.BEQ || opCode == Isa.BNE || opCode == Isa.BLT || opCode == Isa.BGT) ? source2 : destination,
+                             Isa.InstructionType.RRI.D_START, Isa.InstructionType.RRI.D_END);     // Conditional branches encode source register 2 in the destination register field
+        break;
+
+      case InstructionDecoder.TYPE_RR:
+        instruction |= field(source1, Isa.InstructionType.RR.S1_START, Isa.InstructionType.RR.S1_END);
+        instruction |= field(destination, Isa.InstructionType.RR.D_START, Isa.InstructionType.RR.D_END);
+        break;
+
+      case InstructionDecoder.TYPE_RI:
+        instruction |= field(immediate, Isa.InstructionType.RI.IMM_START, Isa.InstructionType.RI.IMM_END);
+        instruction |= field(destination, Isa.InstructionType.RI.D_START, Isa.InstructionType.RI.D_END);
+        break;
+
+      default:              // I
+        instruction |= field(immediate, Isa.InstructionType.I.IMM_START, Isa.InstructionType.I.IMM_END);
+        break;
+    }
+    return instruction;
+  }
+
+  /**
+   * Method to place a value in an instruction field. Note that the start and end positions specified in Isa.InstructionType are bit
+   * positions counted from the most significant bit.
+   */
+  private static int field(int value, int start, int end)
+  {
+    return (value & ((1 << (end - start)) - 1)) << (Isa.INSTRUCTION_LENGTH - end);
+  }
+
+  /**
+   * Method to record a statement at the current address of the current section
+   * @param  opCode           Instruction OpCode (DATA_WORD for data words)
+   * @return                  Index of the statement
+   * @throws ParsingException If the section has run out of addresses
+   */
+  private int addStatement(int opCode) throws ParsingException
+  {
+    if (locationCounter[section] > Integer.MAX_VALUE)
+    {
+      throw this.error("Address out of range: " + locationCounter[section]);
+    }
+    if (statements == statementOpCode.length)
+    {
+      int capacity = 2 * statements;
+      statementOpCode = Arrays.copyOf(statementOpCode, capacity);
+      statementAddress = Arrays.copyOf(statementAddress, capacity);
+      statementRelocatable = Arrays.copyOf(statementRelocatable, capacity);
+      statementSection = Arrays.copyOf(statementSection, capacity);
+      statementLine = Arrays.copyOf(statementLine, capacity);
+      statementRegisters = Arrays.copyOf(statementRegisters, 3 * capacity);
+      statementImmediate = Arrays.copyOf(statementImmediate, capacity);
+      statementSymbol = Arrays.copyOf(statementSymbol, capacity);
+    }
+    statementOpCode[statements] = opCode;
+    statementAddress[statements] = (int) locationCounter[section]++;
+    statementRelocatable[statements] = (section == SECTION_DATA && dataRelocatable);
+    statementSection[statements] = section;
+    statementLine[statements] = lineNumber;
+    statementImmediate[statements] = 0;
+    statementSymbol[statements] = NO_SYMBOL;
+    return statements++;
+  }
+
+  /**
+   * Method to define a label at the current address of the current section
+   * @param  name             Label name
+   * @throws ParsingException If the label has already been defined
+   */
+  private void defineLabel(String name) throws ParsingException
+  {
+    int symbol = this.symbolIndex(name);
+    if (symbolLine[symbol] != 0)
+    {
+      throw this.error("Label " + name + " has already been defined on line " + symbolLine[symbol]);
+    }
+    symbolAddress[symbol] = (int) locationCounter[section];
+    symbolRelocatable[symbol] = (section == SECTION_DATA && dataRelocatable);
+    symbolLine[symbol] = lineNumber;
+  }
+
+  /**
+   * Method to obtain the index of a symbol (The symbol is added to the symbol table if it hasn't been seen yet)
+   * @param  name Label name
+   * @return      Symbol index
+   */
+  private int symbolIndex(String name)
+  {
+    Integer symbol = symbolIndices.get(name);
+    if (symbol == null)
+    {
+      symbol = symbolNames.size();
+      symbolIndices.put(name, symbol);
+      symbolNames.add(name);
+      if (symbol == symbolAddress.length)
       {
-        System.out.println("Current token: " + stringToken); 
+        symbolAddress = Arrays.copyOf(symbolAddress, 2 * symbol);
+        symbolRelocatable = Arrays.copyOf(symbolRelocatable, 2 * symbol);
+        symbolLine = Arrays.copyOf(symbolLine, 2 * symbol);
       }
     }
-    if (stringToken.startsWith("R"))
-    {     
-      int registerNumber = Integer.parseInt(stringToken.substring(1));
-      if (ProcessorSimulator.debugMode == true && ProcessorSimulator.verboseMode == true)
+    return symbol;
+  }
+
+  /**
+   * Method to parse an immediate or a data value (A number or a label)
+   * @param  statement        Index of the statement the value belongs to
+   * @param  minimum          Smallest value allowed
+   * @param  maximum          Largest value allowed
+   * @throws ParsingException If the value is missing or out of range
+   */
+  private void parseValue(int statement, long minimum, long maximum) throws ParsingException
+  {
+    int token = this.nextToken();
+    if (token == TOKEN_NUMBER)
+    {
+      if (tokenValue < minimum || tokenValue > maximum)
       {
-        System.out.println("Register token: R" + registerNumber);
+        throw this.error("Value out of range: " + tokenValue + " (Allowed range: " + minimum + " to " + maximum + ")");
       }
-      return registerNumber;
+      statementImmediate[statement] = tokenValue;
+    }
+    else if (token == TOKEN_IDENTIFIER && tokenText.charAt(0) != '.' && !isRegister(tokenText))
+    {
+      statementSymbol[statement] = this.symbolIndex(tokenText);      // Resolved in the second pass
+    }
+    else
+    {
+      throw this.error("Expected a number or a label");
+    }
+  }
+
+  /**
+   * Method to parse a number
+   * @return                  Value of the number
+   * @throws ParsingException If the next token isn't a number
+   */
+  private long parseNumber() throws ParsingException
+  {
+    if (this.nextToken() != TOKEN_NUMBER)
+    {
+      throw this.error("Expected a number");
+    }
+    return tokenValue;
+  }
+
+  /**
+   * Method to parse a register
+   * @return                  Register number
+   * @throws ParsingException If the next token isn't a valid register
+   */
+  private int parseRegister() throws ParsingException
+  {
+    if (this.nextToken() != TOKEN_IDENTIFIER || !isRegister(tokenText))
+    {
+      throw this.error("Expected a register (R0 to R" + (Isa.TOTAL_PROCESSOR_REGISTERS - 1) + ")");
+    }
+    int registerNumber = Integer.parseInt(tokenText.substring(1));
+    if (registerNumber >= Isa.TOTAL_PROCESSOR_REGISTERS)
+    {
+      throw this.error("Register out of range: " + tokenText + " (R0 to R" + (Isa.TOTAL_PROCESSOR_REGISTERS - 1) + ")");
+    }
+    return registerNumber;
+  }
+
+  /**
+   * Method to check if an identifier is a register (R or r followed by digits)
+   */
+  private static boolean isRegister(String identifier)
+  {
+    if (identifier.length() < 2 || identifier.length() > 4 || (identifier.charAt(0) != 'R' && identifier.charAt(0) != 'r'))
+    {
+      return false;
+    }
+    for (int index = 1; index < identifier.length(); index++)
+    {
+      if (identifier.charAt(index) < '0' || identifier.charAt(index) > '9')
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Method to consume the comma separating two operands
+   * @throws ParsingException If the next token isn't a comma
+   */
+  private void expectComma() throws ParsingException
+  {
+    if (this.nextToken() != TOKEN_COMMA)
+    {
+      throw this.error("Expected a ','");
+    }
+  }
+
+  /**
+   * Method to consume a comma if it is the next token
+   * @return True if a comma was consumed
+   */
+  private boolean skipComma()
+  {
+    this.skipSpaces();
+    if (position < lineEnd && source[position] == ',')
+    {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Method to check that there is nothing left on the line (Apart from a comment)
+   * @throws ParsingException If there are more tokens on the line
+   */
+  private void expectEnd() throws ParsingException
+  {
+    if (this.nextToken() != TOKEN_END)
+    {
+      throw this.error("Unexpected characters at the end of the line");
     }
-    else if (stringToken.startsWith("0x"))
-    { 
-      int immediateValue = Integer.parseInt(stringToken.substring(2));
-      if (ProcessorSimulator.debugMode == true && ProcessorSimulator.verboseMode == true)
+  }
+
+  /**
+   * Method to consume the colon following a label definition
+   * @return True if the last identifier is followed by a colon
+   */
+  private boolean skipLabelColon()
+  {
+    this.skipSpaces();
+    if (position < lineEnd && source[position] == ':')
+    {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Method to move the lexer to the next line
+   * @return True if there is another line
+   */
+  private boolean nextLine()
+  {
+    if (lineNumber > 0)
+    {
+      position = lineEnd + 1;
+    }
+    if (position >= source.length)
+    {
+      return false;
+    }
+    lineEnd = position;
+    while (lineEnd < source.length && source[lineEnd] != '\n')
+    {
+      lineEnd++;
+    }
+    lineNumber++;
+    return true;
+  }
+
+  /**
+   * Method to skip spaces, tabs and carriage returns
+   */
+  private void skipSpaces()
+  {
+    while (position < lineEnd && (source[position] == ' ' || source[position] == '\t' || source[position] == '\r'))
+    {
+      position++;
+    }
+  }
+
+  /**
+   * Method to lex the next token on the current line
+   * @return                  Token type
+   * @throws ParsingException If an unexpected character or an invalid number is found
+   */
+  private int nextToken() throws ParsingException
+  {
+    this.skipSpaces();
+    if (position >= lineEnd || source[position] == '#')
+    {
+      return TOKEN_END;
+    }
+    byte character = source[position];
+    if (character == ',')
+    {
+      position++;
+      return TOKEN_COMMA;
+    }
+    if (isIdentifierStart(character))
+    {
+      int start = position;
+      while (position < lineEnd && isIdentifierPart(source[position]))
       {
-        System.out.println("Immediate token: 0x" + immediateValue);
+        position++;
       }
-      return immediateValue;
+      tokenText = new String(source, start, position - start, StandardCharsets.US_ASCII);
+      return TOKEN_IDENTIFIER;
     }
-    else if (stringToken.startsWith("label"))
+    if ((character >= '0' && character <= '9') || character == '-' || character == '+')
     {
-      // Enter code to handle labels
-      // if (ProcessorSimulator.debugMode == true && ProcessorSimulator.verboseMode == true)
-      // {
-      //   System.out.println("Label token: " + labelValue);
-      // }
-      return -1;
+      tokenValue = this.lexNumber();
+      return TOKEN_NUMBER;
     }
-    /* // Dont need to include these conditions here since these are taken care of by the parse method. Only valid tokens are passed to this method.
-     else if (stringToken.isEmpty())            // Checking if any unwanted spaces are present in the file. If yes, discard this toke and return -1
+    throw this.error("Unexpected character '" + (char) character + "'");
+  }
+
+  /**
+   * Method to lex a (decimal, hexadecimal or binary) number
+   * @return                  Value of the number
+   * @throws ParsingException If the number is invalid or doesn't fit in 32 bits
+   */
+  private long lexNumber() throws ParsingException
+  {
+    boolean negative = false;
+    if (source[position] == '-' || source[position] == '+')
     {
-      return -1;
+      negative = (source[position] == '-');
+      position++;
     }
-    else if (stringToken.startsWith("#"))      // Checking for in-line comments. If yes, discard these and return -1
+    int radix = 10;
+    if (position + 1 < lineEnd && source[position] == '0' && (source[position + 1] == 'x' || source[position + 1] == 'X'))
     {
-      return -1;
+      radix = 16;
+      position += 2;
     }
-    */
-    else
-    {    
-      if (ProcessorSimulator.debugMode == true && ProcessorSimulator.verboseMode == true)
+    else if (position + 1 < lineEnd && source[position] == '0' && (source[position + 1] == 'b' || source[position + 1] == 'B'))
+    {
+      radix = 2;
+      position += 2;
+    }
+    int start = position;
+    long value = 0;
+    while (position < lineEnd && isIdentifierPart(source[position]))
+    {
+      int digit = Character.digit(source[position], radix);
+      if (digit < 0)
       {
-        System.out.println("Instruction token: " + stringToken);
+        throw this.error("Invalid number");
       }
-      switch (stringToken)
+      value = (value * radix) + digit;
+      if (value > 0xffffffffL)
       {
-        case "add"    : return 1;
-        case "sub"    : return 2;
-        case "mul"    : return 3;
-        case "div"    : return 4;
-        case "and"    : return 5;
-        case "or"     : return 6;
-        case "xor"    : return 7;
-        case "shl"    : return 8;
-        case "slr"    : return 9;
-        case "sar"    : return 10;
-        case "ceq"    : return 11;
-        case "cgr"    : return 12;
-        case "clt"    : return 13;
-        case "addc"   : return 17;
-        case "subc"   : return 18;
-        case "mulc"   : return 19;
-        case "divc"   : return 20;
-        case "andc"   : return 21;
-        case "orc"    : return 22;
-        case "xorc"   : return 23;
-        case "shlc"   : return 24;
-        case "slrc"   : return 25;
-        case "sarc"   : return 26;
-        case "ceqc"   : return 27;
-        case "cgrc"   : return 28;
-        case "cltc"   : return 29;
-        case "ld"     : return 16;
-        case "st"     : return 31;
-        case "bez"    : return 32;
-        case "bnz"    : return 33;
-        case "eop"    : return 48;
-        case "in"     : return 49;
-        case "out"    : return 50;
-
-        default: throw new ParsingException("Encountered an unknown instruction or an unexpected character while parsing the assembly file. Fatal error. Exiting program ... \n");
+        throw this.error("Number doesn't fit in 32 bits");
       }
-    }    
+      position++;
+    }
+    if (position == start)
+    {
+      throw this.error("Invalid number");
+    }
+    return negative ? -value : value;
+  }
+
+  private static boolean isIdentifierStart(byte character)
+  {
+    return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') || character == '_' || character == '.';
+  }
+
+  private static boolean isIdentifierPart(byte character)
+  {
+    return isIdentifierStart(character) || (character >= '0' && character <= '9');
+  }
+
+  /**
+   * Method to create a parsing exception for the current line
+   * @param  message Error message
+   * @return         Parsing exception (Including the line number and the line itself)
+   */
+  private ParsingException error(String message)
+  {
+    int lineStart = position;
+    while (lineStart > 0 && source[lineStart - 1] != '\n')
+    {
+      lineStart--;
+    }
+    String line = new String(source, lineStart, lineEnd - lineStart, StandardCharsets.US_ASCII).trim();
+    return new ParsingException("Line " + lineNumber + ": " + message + " (\"" + line + "\")");
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,229 @@
+/**
+ * @file BatchRunner.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the BatchRunner class that runs many independent simulations (jobs) in the same JVM. Every job gets its own
+ * ProcessorSimulator object (and, hence, its own registers, memory, pipeline and counters), so jobs can run concurrently on a work-stealing
+ * pool sized to the number of available cores. The results of all the jobs are collected and printed in the order the jobs were listed.
+ *
+ * The jobs file contains one job per line. Each line holds the same arguments that would be passed to the simulator on the command line
+ * (e.g. "--fast-forward 100 program.txt"). Blank lines and lines starting with '#' are ignored.
+ */
+
+// Import packages
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs a list of simulation jobs concurrently and collects their results.
+ */
+public class BatchRunner
+{
+  private final ForkJoinPool pool;        /** Work-stealing pool the jobs are run on */
+
+  /**
+   * Parameterized constructor
+   * @param  parallelism Number of jobs that can run at the same time
+   * @return             No return value since this is a constructor
+   */
+  public BatchRunner(int parallelism)
+  {
+    pool = new ForkJoinPool(parallelism);
+  }
+
+  /**
+   * Results of a single job
+   */
+  public static final class JobResult
+  {
+    private final String[] args;                  /** Arguments of the job */
+    private final SimulationResult result;         /** Results of the simulation (null if the job failed) */
+    private final String error;                    /** Reason the job failed (null if the job succeeded) */
+    private final long elapsedNanos;               /** Time taken to run the job */
+
+    private JobResult(String[] args, SimulationResult result, String error, long elapsedNanos)
+    {
+      this.args = args;
+      this.result = result;
+      this.error = error;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Method to obtain the arguments of the job
+     * @return Arguments of the job
+     */
+    public String[] getArgs()
+    {
+      return args;
+    }
+
+    /**
+     * Method to obtain the results of the simulation
+     * @return Results of the simulation, or null if the job failed
+     */
+    public SimulationResult getResult()
+    {
+      return result;
+    }
+
+    /**
+     * Method to obtain the reason the job failed
+     * @return Error message, or null if the job succeeded
+     */
+    public String getError()
+    {
+      return error;
+    }
+
+    /**
+     * Method to obtain the time taken to run the job
+     * @return Elapsed time in nanoseconds
+     */
+    public long getElapsedNanos()
+    {
+      return elapsedNanos;
+    }
+  }
+
+  /**
+   * Method to run all the jobs and wait for them to finish. A failing job doesn't affect any of the other jobs.
+   * @param  jobs Arguments of every job
+   * @return      Results of every job (In the same order as the jobs)
+   */
+  public List<JobResult> run(List<String[]> jobs)
+  {
+    List<ForkJoinTask<JobResult>> tasks = new ArrayList<ForkJoinTask<JobResult>>(jobs.size());
+    for (String[] job : jobs)
+    {
+      tasks.add(pool.submit(() -> runJob(job)));
+    }
+    List<JobResult> results = new ArrayList<JobResult>(jobs.size());
+    for (ForkJoinTask<JobResult> task : tasks)
+    {
+      results.add(task.join());
+    }
+    return results;
+  }
+
+  /**
+   * Method to shut down the pool once all the batches have been run
+   */
+  public void shutdown()
+  {
+    pool.shutdown();
+  }
+
+  /**
+   * Method to run a single job
+   * @param  args Arguments of the job
+   * @return      Results of the job
+   */
+  private static JobResult runJob(String[] args)
+  {
+    long startTime = System.nanoTime();
+    try
+    {
+      SimulationResult result = new ProcessorSimulator().runBatchJob(args);
+      return new JobResult(args, result, null, System.nanoTime() - startTime);
+    }
+    catch (Exception ex)
+    {
+      return new JobResult(args, null, ex.getClass().getSimpleName() + ": " + ex.getMessage(), System.nanoTime() - startTime);
+    }
+  }
+
+  /**
+   * Method to read the jobs file
+   * @param  jobsFileName Name of the jobs file
+   * @return              Arguments of every job
+   * @throws IOException  If the file can't be read
+   */
+  private static List<String[]> readJobs(String jobsFileName) throws IOException
+  {
+    List<String[]> jobs = new ArrayList<String[]>();
+    for (String line : Files.readAllLines(Paths.get(jobsFileName)))
+    {
+      line = line.trim();
+      if (!line.isEmpty() && !line.startsWith("#"))
+      {
+        jobs.add(line.split("\\s+"));
+      }
+    }
+    return jobs;
+  }
+
+  /**
+   * Main entry point to the batch runner
+   * @param args Command-line arguments: The jobs file, optionally preceded by "--threads <number of threads>"
+   */
+  public static void main(String[] args)
+  {
+    int threads = Runtime.getRuntime().availableProcessors();
+    String jobsFileName = null;
+    for (int argIndex = 0; argIndex < args.length; argIndex++)
+    {
+      if (args[argIndex].equals("--threads") && (argIndex + 1) < args.length)
+      {
+        threads = Integer.parseInt(args[++argIndex]);
+      }
+      else
+      {
+        jobsFileName = args[argIndex];
+      }
+    }
+    if (jobsFileName == null || threads < 1)
+    {
+      System.err.println("Correct Usage: java BatchRunner [--threads <number of threads>] <jobs file>");
+      System.exit(1);               // Exit/Terminate the program/Java runtime with error code 1
+    }
+
+    List<String[]> jobs = null;
+    try
+    {
+      jobs = readJobs(jobsFileName);
+    }
+    catch (IOException ex)
+    {
+      System.err.println("The jobs file couldn't be read. The exception is as follows: " + ex.getMessage());
+      System.exit(1);               // Exit/Terminate the program/Java runtime with error code 1
+    }
+
+    BatchRunner batchRunner = new BatchRunner(threads);
+    long startTime = System.nanoTime();
+    List<JobResult> results = batchRunner.run(jobs);
+    long elapsedNanos = System.nanoTime() - startTime;
+    batchRunner.shutdown();
+
+    long totalCycles = 0;
+    int failedJobs = 0;
+    System.out.format("%-6s %10s %12s %8s %10s %10s %12s %10s  %s%n", "Job", "Cycles", "Instructions", "IPC", "BP correct", "BP wrong", "Fast-fwd", "Time (ms)", "Arguments");
+    for (int jobIndex = 0; jobIndex < results.size(); jobIndex++)
+    {
+      JobResult jobResult = results.get(jobIndex);
+      SimulationResult result = jobResult.getResult();
+      if (result == null)
+      {
+        failedJobs++;
+        System.out.format("%-6d FAILED (%s)  %s%n", jobIndex, jobResult.getError(), String.join(" ", jobResult.getArgs()));
+      }
+      else
+      {
+        totalCycles += result.getClockCycles();
+        System.out.format("%-6d %10d %12d %8.4f %10d %10d %12d %10.3f  %s%n", jobIndex, result.getClockCycles(), result.getValidInstructions(), result.getIPC(),
+                          result.getBranchPredictionsCorrect(), result.getBranchPredictionsIncorrect(), result.getInstructionsFastForwarded(),
+                          jobResult.getElapsedNanos() / 1e6, String.join(" ", jobResult.getArgs()));
+      }
+    }
+    System.out.println();
+    System.out.println("Jobs run: " + results.size() + " (" + failedJobs + " failed) on " + threads + " thread(s)");
+    System.out.format("Total time: %.3f ms%n", elapsedNanos / 1e6);
+    System.out.format("Throughput: %.1f jobs/s, %.0f simulated cycles/s%n", results.size() / (elapsedNanos / 1e9), totalCycles / (elapsedNanos / 1e9));
+    if (failedJobs > 0)
+    {
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/**
+ * @file BimodalBranchPredictor.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the BimodalBranchPredictor class, a dynamic branch predictor (See IBranchPredictor for the common predictor
+ * interface). Conditional branches are predicted by a branch history table (BHT) of 2 bit saturating counters indexed by the low bits of the
+ * address the branch was fetched from:
+ *   0 = Strongly not taken, 1 = Weakly not taken, 2 = Weakly taken, 3 = Strongly taken
+ * A branch is predicted taken if its counter is at least 2, and the counter is incremented (Taken) or decremented (Not taken) once the branch
+ * has been resolved, hence, a single unusual outcome (e.g. the exit of a loop) doesn't flip the prediction. Unconditional branches are always
+ * predicted taken. Every counter starts as weakly not taken.
+ */
+
+// Import packages
+import java.nio.*;
+import java.util.*;
+
+/**
+ * Bimodal branch predictor (Branch history table of 2 bit saturating counters).
+ */
+public class BimodalBranchPredictor implements IBranchPredictor
+{
+  private static final byte WEAKLY_NOT_TAKEN = 1;         /** Initial value of every counter */
+  private static final byte WEAKLY_TAKEN = 2;             /** Smallest counter value predicted taken */
+  private static final byte STRONGLY_TAKEN = 3;           /** Largest counter value */
+
+  private final byte[] counters;                          /** 2 bit saturating counter of every BHT entry */
+  private final int indexMask;                            /** Mask selecting the address bits the BHT is indexed by */
+
+  /**
+   * Parameterized constructor
+   * @param  entries Number of entries in the BHT (Needs to be a power of 2)
+   * @return         No return value since this is a constructor
+   */
+  public BimodalBranchPredictor(int entries)
+  {
+    if (entries <= 0 || (entries & (entries - 1)) != 0)
+    {
+      throw new IllegalArgumentException("BHT size must be a power of 2 (Entries requested: " + entries + ")");
+    }
+    counters = new byte[entries];
+    indexMask = entries - 1;
+    Arrays.fill(counters, WEAKLY_NOT_TAKEN);
+  }
+
+  /**
+   * Method to predict whether a branch is taken or not.
+   * @param  pc          Address the branch was fetched from
+   * @param  instruction Decoded branch instruction on which a prediction must be made
+   * @return Branch prediction result (True = predict taken, false = predict not taken)
+   */
+  public boolean predict(int pc, DecodedInstruction instruction)
+  {
+    if (isUnconditional(instruction.getOpCode()))
+    {
+      return true;                // Unconditional branches are always taken
+    }
+    return counters[pc & indexMask] >= WEAKLY_TAKEN;
+  }
+
+  /**
+   * Method to train the predictor with the outcome of a resolved branch, i.e. move the counter of the branch towards its outcome
+   * @param pc          Address the branch was fetched from
+   * @param instruction Decoded branch instruction
+   * @param taken       True if the branch was taken
+   */
+  public void update(int pc, DecodedInstruction instruction, boolean taken)
+  {
+    if (isUnconditional(instruction.getOpCode()))
+    {
+      return;                     // Unconditional branches don't occupy the BHT
+    }
+    int index = pc & indexMask;
+    if (taken)
+    {
+      if (counters[index] < STRONGLY_TAKEN)
+      {
+        counters[index]++;
+      }
+    }
+    else if (counters[index] > 0)
+    {
+      counters[index]--;
+    }
+  }
+
+  /**
+   * Method to check if a branch is unconditional
+   * @param  opCode OpCode of the branch
+   * @return        True if the branch is always taken
+   */
+  private static boolean isUnconditional(int opCode)
+  {
+    return opCode == Isa.BU || opCode == Isa.BL || opCode == Isa.RET;
+  }
+
+  /**
+   * Method to obtain the storage cost of the predictor (2 bits per BHT entry)
+   * @return Storage cost in bits
+   */
+  public long getStorageBits()
+  {
+    return 2L * counters.length;
+  }
+
+  /**
+   * Method to obtain the number of bytes required to save the state of the branch predictor (The number of entries followed by a byte per counter)
+   * @return Size of the saved state in bytes
+   */
+  public int getStateSize()
+  {
+    return Integer.BYTES + counters.length;
+  }
+
+  /**
+   * Method to save the state of the branch predictor to a buffer
+   * @param buffer Buffer to which the state is written
+   */
+  public void saveState(ByteBuffer buffer)
+  {
+    buffer.putInt(counters.length);
+    buffer.put(counters);
+  }
+
+  /**
+   * Method to restore the state of the branch predictor from a buffer
+   * @param buffer Buffer from which the state is read
+   */
+  public void restoreState(ByteBuffer buffer)
+  {
+    int savedEntries = buffer.getInt();
+    if (savedEntries != counters.length)
+    {
+      throw new IllegalStateException("Illegal saved BHT state (Saved state contains " + savedEntries + " entries, expected " + counters.length + ").");
+    }
+    buffer.get(counters);
+    for (byte counter : counters)
+    {
+      if (counter < 0 || counter > STRONGLY_TAKEN)
+      {
+        throw new IllegalStateException("Illegal saved BHT state (Counter value " + counter + " out of range).");
+      }
+    }
+  }
+}
@@ -0,0 +1,610 @@
+/**
+ * @file BlockCompiler.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the BlockCompiler class. It compiles hot translated basic blocks into JVM bytecode. Every compiled block is a
+ * hidden class implementing ICompiledBlock whose run(int[] regs, Memory mem) method executes the instructions of the block directly on the
+ * register array (Loads go through Memory.readValue()). The guest registers used by the block are held in JVM locals (so that HotSpot can allocate them to host
+ * registers) and are written back before the method returns and before any instruction that can throw (DIV, LW), hence, the architectural
+ * state is always the same as the interpreter's. Conditional branches are compiled without any jump (The branch condition is turned into 0 or
+ * 1 arithmetically), which keeps the method a single basic block that doesn't need a StackMapTable.
+ * Only a prefix of a block is compiled: SW, BL and RET (and any instruction writing to R0, which raises an exception) are left to the
+ * closures built by the BlockTranslator. SW invalidates the block it writes into, i.e. self-modifying code falls back to the translator
+ * and interpreter, and halts are checked for between blocks as before. The semantics of every instruction are the same as those implemented
+ * by the FunctionalInterpreter.
+ */
+
+// Import packages
+import java.io.*;
+import java.lang.invoke.*;
+import java.util.*;
+
+/**
+ * Compiler of translated basic blocks to JVM bytecode.
+ */
+public class BlockCompiler
+{
+  // Class file constants
+  private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+  private static final int CLASS_FILE_MAJOR_VERSION = 52;     // Java 8 class files don't need a StackMapTable for methods without jumps
+  private static final int ACC_PUBLIC = 0x0001;
+  private static final int ACC_FINAL = 0x0010;
+  private static final int ACC_SUPER = 0x0020;
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_INTEGER = 3;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+  // JVM opcodes
+  private static final int ICONST_M1 = 0x02;
+  private static final int ICONST_0 = 0x03;
+  private static final int ICONST_1 = 0x04;
+  private static final int BIPUSH = 0x10;
+  private static final int SIPUSH = 0x11;
+  private static final int LDC_W = 0x13;
+  private static final int ILOAD = 0x15;
+  private static final int ALOAD_0 = 0x2a;
+  private static final int ALOAD_1 = 0x2b;
+  private static final int ALOAD_2 = 0x2c;
+  private static final int IALOAD = 0x2e;
+  private static final int ISTORE = 0x36;
+  private static final int IASTORE = 0x4f;
+  private static final int DUP = 0x59;
+  private static final int IADD = 0x60;
+  private static final int ISUB = 0x64;
+  private static final int IMUL = 0x68;
+  private static final int IDIV = 0x6c;
+  private static final int INEG = 0x74;
+  private static final int ISHL = 0x78;
+  private static final int ISHR = 0x7a;
+  private static final int IUSHR = 0x7c;
+  private static final int IAND = 0x7e;
+  private static final int IOR = 0x80;
+  private static final int IXOR = 0x82;
+  private static final int IRETURN = 0xac;
+  private static final int RETURN = 0xb1;
+  private static final int INVOKESPECIAL = 0xb7;
+  private static final int INVOKESTATIC = 0xb8;
+  private static final int INVOKEVIRTUAL = 0xb6;
+
+  private static final int FIRST_REGISTER_LOCAL = 3;          /** JVM local holding guest register R0 (Locals 0, 1 and 2 hold this, regs and mem) */
+  private static final int MAX_STACK = 6;                     /** Deepest operand stack used by the compiled instructions (Conditional branches) */
+
+  private final int[] regs;                   /** GP register array the compiled blocks are bound to */
+  private final Memory mem;                   /** Main memory the compiled blocks are bound to */
+  private final MethodHandles.Lookup lookup;  /** Lookup used to define the hidden classes (Same package as the compiled blocks) */
+  private long blocksCompiled;                /** Number of blocks compiled */
+  private long instructionsCompiled;          /** Number of instructions compiled */
+
+  /**
+   * Parameterized constructor
+   * @param  cpuRegisters Architectural registers
+   * @param  cpuMemory    Main memory
+   * @return              No return value since this is a constructor
+   */
+  public BlockCompiler(Register cpuRegisters, Memory cpuMemory)
+  {
+    this.regs = cpuRegisters.getGeneralPurposeRegisters();
+    this.mem = cpuMemory;
+    this.lookup = MethodHandles.lookup();
+  }
+
+  /**
+   * Method to compile a translated block. The closures of the compiled prefix of the block are replaced by a single closure calling the
+   * compiled code. Nothing is done if none of the instructions at the start of the block can be compiled.
+   * @param block Translated block
+   */
+  public void compile(TranslatedBlock block)
+  {
+    DecodedInstruction[] decodedInstructions = block.getDecodedInstructions();
+    int compiledLength = 0;
+    while (compiledLength < decodedInstructions.length && isCompilable(decodedInstructions[compiledLength]))
+    {
+      compiledLength++;
+      if (InstructionDecoder.isBranch(decodedInstructions[compiledLength - 1].getOpCode()))
+      {
+        break;
+      }
+    }
+    if (compiledLength == 0)
+    {
+      return;
+    }
+    byte[] classFile = this.generateClass(block.getStartAddress(), decodedInstructions, compiledLength);
+    final ICompiledBlock compiledBlock;
+    try
+    {
+      MethodHandles.Lookup hiddenClass = lookup.defineHiddenClass(classFile, true);
+      compiledBlock = (ICompiledBlock) hiddenClass.findConstructor(hiddenClass.lookupClass(), MethodType.methodType(void.class)).invoke();
+    }
+    catch (Throwable ex)
+    {
+      throw new IllegalStateException("Failed to compile the basic block starting at location " + block.getStartAddress() + ": " + ex, ex);
+    }
+    final int[] registerArray = regs;
+    final Memory memory = mem;
+    block.setCompiledPrefix(() -> compiledBlock.run(registerArray, memory), compiledLength);
+    blocksCompiled++;
+    instructionsCompiled += compiledLength;
+  }
+
+  /**
+   * Method to check if an instruction can be compiled
+   * @param  decodedInstruction Decoded instruction
+   * @return                    True if the instruction can be compiled
+   */
+  private static boolean isCompilable(DecodedInstruction decodedInstruction)
+  {
+    switch (decodedInstruction.getOpCode())
+    {
+      case Isa.NOP:
+      case Isa.BU:
+      case Isa.BEQ:
+      case Isa.BNE:
+      case Isa.BLT:
+      case Isa.BGT:
+        return true;
+
+      case Isa.SW:          // Stores need to invalidate decoded instructions and translated blocks
+      case Isa.BL:          // BL and RET push/pop the complete register file to/from the stack
+      case Isa.RET:
+        return false;
+
+      default:              // Every other instruction writes to its destination register (R0 can't be written to)
+        return decodedInstruction.getDestinationRegLoc() != 0;
+    }
+  }
+
+  /**
+   * Method to generate the class file of a compiled block
+   * @param  startAddress        Memory location of the first instruction in the block
+   * @param  decodedInstructions Decoded instructions of the block
+   * @param  compiledLength      Number of instructions to compile
+   * @return                     Class file
+   */
+  private byte[] generateClass(int startAddress, DecodedInstruction[] decodedInstructions, int compiledLength)
+  {
+    ConstantPool constantPool = new ConstantPool();
+    int thisClass = constantPool.classRef("CompiledBlock" + startAddress);     // Hidden classes need to be in the same package as the lookup class
+    int superClass = constantPool.classRef("java/lang/Object");
+    int interfaceClass = constantPool.classRef("ICompiledBlock");
+    int objectConstructor = constantPool.methodRef("java/lang/Object", "<init>", "()V");
+    int integerCompare = constantPool.methodRef("java/lang/Integer", "compare", "(II)I");
+    int memoryLoad = constantPool.methodRef("Memory", "readValue", "(I)I");
+    int constructorName = constantPool.utf8("<init>");
+    int constructorDescriptor = constantPool.utf8("()V");
+    int runName = constantPool.utf8("run");
+    int runDescriptor = constantPool.utf8("([ILMemory;)I");
+    int codeName = constantPool.utf8("Code");
+
+    // Constructor: super()
+    ByteArrayOutputStream constructorCode = new ByteArrayOutputStream();
+    constructorCode.write(ALOAD_0);
+    constructorCode.write(INVOKESPECIAL);
+    writeShort(constructorCode, objectConstructor);
+    constructorCode.write(RETURN);
+
+    // run(int[] regs, Memory mem)
+    ByteArrayOutputStream code = new ByteArrayOutputStream();
+    boolean[] dirty = new boolean[GlobalConstants.TOTAL_GP_REGISTERS];
+    for (int registerNumber : this.usedRegisters(decodedInstructions, compiledLength))       // Load the guest registers used by the block into locals
+    {
+      code.write(ALOAD_1);
+      pushInt(code, constantPool, registerNumber);
+      code.write(IALOAD);
+      code.write(ISTORE);
+      code.write(FIRST_REGISTER_LOCAL + registerNumber);
+    }
+    int nextInstruction = startAddress + compiledLength;
+    boolean returned = false;
+    for (int index = 0; index < compiledLength; index++)
+    {
+      DecodedInstruction decodedInstruction = decodedInstructions[index];
+      int programCounter = startAddress + index;
+      int sourceReg1 = FIRST_REGISTER_LOCAL + decodedInstruction.getSourceReg1Loc();
+      int sourceReg2 = FIRST_REGISTER_LOCAL + decodedInstruction.getSourceReg2Loc();
+      int destinationRegLoc = decodedInstruction.getDestinationRegLoc();
+      int signedImmediateVal = decodedInstruction.getSignedImmediateVal();
+      int opCode = decodedInstruction.getOpCode();
+      switch (opCode)
+      {
+        case Isa.NOP:
+          continue;
+
+        case Isa.ADD:
+        case Isa.SUB:
+        case Isa.MULT:
+        case Isa.AND:
+        case Isa.OR:
+        case Isa.XOR:
+        case Isa.SLLV:
+          loadLocal(code, sourceReg1);
+          loadLocal(code, sourceReg2);
+          code.write(registerOperation(opCode));
+          break;
+
+        case Isa.DIV:
+          writeBack(code, constantPool, dirty);       // Division by zero throws, hence, the architectural state needs to be up to date
+          loadLocal(code, sourceReg1);
+          loadLocal(code, sourceReg2);
+          code.write(IDIV);
+          break;
+
+        case Isa.ADDI:
+        case Isa.SUBI:
+        case Isa.SLL:
+        case Isa.SLR:
+        case Isa.SRA:
+          loadLocal(code, sourceReg1);
+          pushInt(code, constantPool, signedImmediateVal);
+          code.write(immediateOperation(opCode));
+          break;
+
+        case Isa.NOT:
+          loadLocal(code, sourceReg1);
+          code.write(ICONST_M1);
+          code.write(IXOR);
+          break;
+
+        case Isa.LW:
+          writeBack(code, constantPool, dirty);       // Out of range loads throw, hence, the architectural state needs to be up to date
+          code.write(ALOAD_2);
+          loadLocal(code, sourceReg1);
+          pushInt(code, constantPool, signedImmediateVal);
+          code.write(IADD);
+          code.write(INVOKEVIRTUAL);
+          writeShort(code, memoryLoad);
+          break;
+
+        case Isa.MOVI:
+          pushInt(code, constantPool, signedImmediateVal);
+          break;
+
+        case Isa.MOVR:
+          loadLocal(code, sourceReg1);
+          break;
+
+        case Isa.BU:
+          writeBack(code, constantPool, dirty);
+          pushInt(code, constantPool, programCounter + signedImmediateVal);
+          code.write(IRETURN);
+          returned = true;
+          continue;
+
+        default:            // Conditional branches: next = (PC + 1) + taken * (target - (PC + 1)), where taken is 0 or 1
+          writeBack(code, constantPool, dirty);
+          pushInt(code, constantPool, programCounter + 1);
+          if (opCode == Isa.BEQ)
+          {
+            code.write(ICONST_1);
+          }
+          loadLocal(code, sourceReg1);
+          loadLocal(code, sourceReg2);
+          code.write(INVOKESTATIC);
+          writeShort(code, integerCompare);       // -1, 0 or 1
+          switch (opCode)
+          {
+            case Isa.BEQ:         // 1 - compare^2
+              code.write(DUP);
+              code.write(IMUL);
+              code.write(ISUB);
+              break;
+
+            case Isa.BNE:         // compare^2
+              code.write(DUP);
+              code.write(IMUL);
+              break;
+
+            case Isa.BLT:         // compare >>> 31
+              pushInt(code, constantPool, 31);
+              code.write(IUSHR);
+              break;
+
+            default:              // BGT: (-compare) >>> 31
+              code.write(INEG);
+              pushInt(code, constantPool, 31);
+              code.write(IUSHR);
+              break;
+          }
+          pushInt(code, constantPool, signedImmediateVal - 1);
+          code.write(IMUL);
+          code.write(IADD);
+          code.write(IRETURN);
+          returned = true;
+          continue;
+      }
+      code.write(ISTORE);         // Every other instruction leaves its result on the stack
+      code.write(FIRST_REGISTER_LOCAL + destinationRegLoc);
+      dirty[destinationRegLoc] = true;
+    }
+    if (!returned)
+    {
+      writeBack(code, constantPool, dirty);
+      pushInt(code, constantPool, nextInstruction);
+      code.write(IRETURN);
+    }
+
+    // Class file
+    ByteArrayOutputStream classFile = new ByteArrayOutputStream();
+    writeInt(classFile, CLASS_FILE_MAGIC);
+    writeShort(classFile, 0);
+    writeShort(classFile, CLASS_FILE_MAJOR_VERSION);
+    constantPool.write(classFile);
+    writeShort(classFile, ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+    writeShort(classFile, thisClass);
+    writeShort(classFile, superClass);
+    writeShort(classFile, 1);                   // Interfaces
+    writeShort(classFile, interfaceClass);
+    writeShort(classFile, 0);                   // Fields
+    writeShort(classFile, 2);                   // Methods
+    writeMethod(classFile, constructorName, constructorDescriptor, codeName, 1, 1, constructorCode.toByteArray());
+    writeMethod(classFile, runName, runDescriptor, codeName, MAX_STACK, FIRST_REGISTER_LOCAL + GlobalConstants.TOTAL_GP_REGISTERS, code.toByteArray());
+    writeShort(classFile, 0);                   // Attributes
+    return classFile.toByteArray();
+  }
+
+  /**
+   * Method to obtain the guest registers read or written by the compiled instructions
+   * @param  decodedInstructions Decoded instructions of the block
+   * @param  compiledLength      Number of instructions to compile
+   * @return                     Register numbers (in ascending order)
+   */
+  private SortedSet<Integer> usedRegisters(DecodedInstruction[] decodedInstructions, int compiledLength)
+  {
+    SortedSet<Integer> usedRegisters = new TreeSet<Integer>();
+    for (int index = 0; index < compiledLength; index++)
+    {
+      usedRegisters.add(decodedInstructions[index].getSourceReg1Loc());
+      usedRegisters.add(decodedInstructions[index].getSourceReg2Loc());
+      usedRegisters.add(decodedInstructions[index].getDestinationRegLoc());
+    }
+    return usedRegisters;
+  }
+
+  /**
+   * Method to obtain the JVM opcode of an instruction operating on two registers
+   * @param  opCode Instruction OpCode
+   * @return        JVM opcode
+   */
+  private static int registerOperation(int opCode)
+  {
+    switch (opCode)
+    {
+      case Isa.ADD:  return IADD;
+      case Isa.SUB:  return ISUB;
+      case Isa.MULT: return IMUL;
+      case Isa.AND:  return IAND;
+      case Isa.OR:   return IOR;
+      case Isa.XOR:  return IXOR;
+      default:       return ISHL;     // SLLV
+    }
+  }
+
+  /**
+   * Method to obtain the JVM opcode of an instruction operating on a register and an immediate value
+   * @param  opCode Instruction OpCode
+   * @return        JVM opcode
+   */
+  private static int immediateOperation(int opCode)
+  {
+    switch (opCode)
+    {
+      case Isa.ADDI: return IADD;
+      case Isa.SUBI: return ISUB;
+      case Isa.SLL:  return ISHL;
+      case Isa.SLR:  return IUSHR;
+      default:       return ISHR;     // SRA
+    }
+  }
+
+  /**
+   * Method to write the guest registers modified since the last write back to the register array
+   * @param code         Bytecode
+   * @param constantPool Constant pool
+   * @param dirty        Registers modified since the last write back (Cleared)
+   */
+  private static void writeBack(ByteArrayOutputStream code, ConstantPool constantPool, boolean[] dirty)
+  {
+    for (int registerNumber = 0; registerNumber < dirty.length; registerNumber++)
+    {
+      if (dirty[registerNumber])
+      {
+        code.write(ALOAD_1);
+        pushInt(code, constantPool, registerNumber);
+        loadLocal(code, FIRST_REGISTER_LOCAL + registerNumber);
+        code.write(IASTORE);
+        dirty[registerNumber] = false;
+      }
+    }
+  }
+
+  /**
+   * Method to emit the load of a JVM local
+   * @param code  Bytecode
+   * @param local Local index
+   */
+  private static void loadLocal(ByteArrayOutputStream code, int local)
+  {
+    code.write(ILOAD);
+    code.write(local);
+  }
+
+  /**
+   * Method to emit the push of an integer constant
+   * @param code         Bytecode
+   * @param constantPool Constant pool
+   * @param value        Constant
+   */
+  private static void pushInt(ByteArrayOutputStream code, ConstantPool constantPool, int value)
+  {
+    if (value >= -1 && value <= 5)
+    {
+      code.write(ICONST_0 + value);
+    }
+    else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE)
+    {
+      code.write(BIPUSH);
+      code.write(value);
+    }
+    else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE)
+    {
+      code.write(SIPUSH);
+      writeShort(code, value);
+    }
+    else
+    {
+      code.write(LDC_W);
+      writeShort(code, constantPool.integer(value));
+    }
+  }
+
+  /**
+   * Method to write a method (with a Code attribute) to a class file
+   * @param out             Class file
+   * @param nameIndex       Constant pool index of the method name
+   * @param descriptorIndex Constant pool index of the method descriptor
+   * @param codeNameIndex   Constant pool index of "Code"
+   * @param maxStack        Deepest operand stack used by the method
+   * @param maxLocals       Number of locals used by the method (Including the parameters)
+   * @param code            Bytecode of the method
+   */
+  private static void writeMethod(ByteArrayOutputStream out, int nameIndex, int descriptorIndex, int codeNameIndex, int maxStack, int maxLocals, byte[] code)
+  {
+    writeShort(out, ACC_PUBLIC);
+    writeShort(out, nameIndex);
+    writeShort(out, descriptorIndex);
+    writeShort(out, 1);                 // Attributes
+    writeShort(out, codeNameIndex);
+    writeInt(out, 2 + 2 + 4 + code.length + 2 + 2);
+    writeShort(out, maxStack);
+    writeShort(out, maxLocals);
+    writeInt(out, code.length);
+    out.write(code, 0, code.length);
+    writeShort(out, 0);                 // Exception table
+    writeShort(out, 0);                 // Attributes
+  }
+
+  /**
+   * Method to write a big-endian 16-bit value
+   * @param out   Stream
+   * @param value Value
+   */
+  private static void writeShort(ByteArrayOutputStream out, int value)
+  {
+    out.write(value >>> 8);
+    out.write(value);
+  }
+
+  /**
+   * Method to write a big-endian 32-bit value
+   * @param out   Stream
+   * @param value Value
+   */
+  private static void writeInt(ByteArrayOutputStream out, int value)
+  {
+    writeShort(out, value >>> 16);
+    writeShort(out, value);
+  }
+
+  /**
+   * Method to obtain the number of blocks compiled
+   * @return Number of blocks compiled
+   */
+  public long getBlocksCompiled()
+  {
+    return blocksCompiled;
+  }
+
+  /**
+   * Method to obtain the number of instructions compiled
+   * @return Number of instructions compiled
+   */
+  public long getInstructionsCompiled()
+  {
+    return instructionsCompiled;
+  }
+
+  /**
+   * Constant pool of a class file being generated. Identical entries are only added once.
+   */
+  private static final class ConstantPool
+  {
+    private final ByteArrayOutputStream entries = new ByteArrayOutputStream();    /** Encoded entries */
+    private final Map<String, Integer> indices = new HashMap<String, Integer>();  /** Index of every entry (Keyed by its type and value) */
+    private int nextIndex = 1;                                                    /** Index of the next entry (Index 0 is never used) */
+
+    int utf8(String value)
+    {
+      Integer index = indices.get("U" + value);
+      if (index == null)
+      {
+        entries.write(CONSTANT_UTF8);
+        byte[] bytes = value.getBytes(java.nio.charset.StandardCharsets.UTF_8);     // Only ASCII names are used, which are the same in modified UTF-8
+        writeShort(entries, bytes.length);
+        entries.write(bytes, 0, bytes.length);
+        index = this.add("U" + value);
+      }
+      return index;
+    }
+
+    int integer(int value)
+    {
+      Integer index = indices.get("I" + value);
+      if (index == null)
+      {
+        entries.write(CONSTANT_INTEGER);
+        writeInt(entries, value);
+        index = this.add("I" + value);
+      }
+      return index;
+    }
+
+    int classRef(String internalName)
+    {
+      Integer index = indices.get("C" + internalName);
+      if (index == null)
+      {
+        int nameIndex = this.utf8(internalName);
+        entries.write(CONSTANT_CLASS);
+        writeShort(entries, nameIndex);
+        index = this.add("C" + internalName);
+      }
+      return index;
+    }
+
+    int methodRef(String owner, String name, String descriptor)
+    {
+      String key = "M" + owner + "." + name + descriptor;
+      Integer index = indices.get(key);
+      if (index == null)
+      {
+        int classIndex = this.classRef(owner);
+        int nameIndex = this.utf8(name);
+        int descriptorIndex = this.utf8(descriptor);
+        entries.write(CONSTANT_NAME_AND_TYPE);
+        writeShort(entries, nameIndex);
+        writeShort(entries, descriptorIndex);
+        int nameAndTypeIndex = this.add("N" + key);
+        entries.write(CONSTANT_METHODREF);
+        writeShort(entries, classIndex);
+        writeShort(entries, nameAndTypeIndex);
+        index = this.add(key);
+      }
+      return index;
+    }
+
+    private int add(String key)
+    {
+      indices.put(key, nextIndex);
+      return nextIndex++;
+    }
+
+    void write(ByteArrayOutputStream out)
+    {
+      writeShort(out, nextIndex);       // constant_pool_count is the number of entries + 1
+      byte[] bytes = entries.toByteArray();
+      out.write(bytes, 0, bytes.length);
+    }
+  }
+}
@@ -0,0 +1,385 @@
+/**
+ * @file BlockTranslator.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the BlockTranslator class. It splits memory into basic blocks and translates every block into a TranslatedBlock,
+ * i.e. a chain of closures that are bound to the architectural state, the register numbers and the immediate value of every instruction.
+ * A block ends after a branch (BU, BL, RET, BEQ, BNE, BLT, BGT), after a store (SW) and after any instruction writing to the SVC register
+ * (e.g. MOVI R15, 255 - the supervisor call to halt), so that the caller only needs to check for a halt or for self-modifying code between
+ * blocks. Stores invalidate every block covering the location that was written to. The semantics of every instruction are the same as those
+ * implemented by the FunctionalInterpreter (BL and RET are delegated to it). If a block compiler is attached, blocks that have been executed
+ * often enough are compiled to JVM bytecode.
+ */
+
+// Import packages
+import java.util.*;
+
+/**
+ * Basic-block translator and translation cache.
+ */
+public class BlockTranslator
+{
+  public static final int MAX_BLOCK_LENGTH = 64;              /** Maximum number of instructions in a block */
+
+  private Register cpuRegisters;                              /** Reference to architectural registers */
+  private Memory cpuMemory;                                   /** Reference to main memory */
+  private DecodedInstructionCache decodedInstructionCache;    /** Reference to the decoded instruction cache (Shared with the pipeline) */
+  private FunctionalInterpreter functionalInterpreter;        /** Reference to the functional interpreter (Executes BL and RET) */
+  private final PageDirectory<TranslatedBlock[]> blocks;      /** Translated blocks, indexed by the memory location of their first instruction */
+  private final PageDirectory<boolean[]> translated;          /** Memory locations that have been covered by a translated block (Stores only search for blocks to invalidate at these locations) */
+  private long blocksTranslated;                              /** Number of blocks translated */
+  private long blocksInvalidated;                             /** Number of blocks invalidated by stores */
+  private long chainedTransitions;                            /** Number of block to block transitions that didn't need a lookup */
+  private BlockCompiler blockCompiler;                        /** Reference to the block compiler (null = blocks are never compiled) */
+  private int compileThreshold;                               /** Number of times a block needs to be executed before it is compiled */
+
+  /**
+   * Parameterized constructor
+   * @param  cpuRegisters            Architectural registers
+   * @param  cpuMemory               Main memory
+   * @param  decodedInstructionCache Decoded instruction cache
+   * @param  functionalInterpreter   Functional interpreter
+   * @return                         No return value since this is a constructor
+   */
+  public BlockTranslator(Register cpuRegisters, Memory cpuMemory, DecodedInstructionCache decodedInstructionCache, FunctionalInterpreter functionalInterpreter)
+  {
+    this.cpuRegisters = cpuRegisters;
+    this.cpuMemory = cpuMemory;
+    this.decodedInstructionCache = decodedInstructionCache;
+    this.functionalInterpreter = functionalInterpreter;
+    this.blocks = new PageDirectory<TranslatedBlock[]>(cpuMemory.getMemorySize());
+    this.translated = new PageDirectory<boolean[]>(cpuMemory.getMemorySize());
+    decodedInstructionCache.setBlockTranslator(this);     // Every store that invalidates a decoded instruction also invalidates the translated blocks
+  }
+
+  /**
+   * Method to obtain the block starting at a memory location. The block is translated if it isn't in the translation cache.
+   * @param  memoryLocation Memory location of the first instruction in the block
+   * @return                Translated block
+   */
+  public TranslatedBlock getBlock(int memoryLocation)
+  {
+    if (!cpuMemory.contains(memoryLocation))
+    {
+      throw new MemIndexOutOfBoundsException("Illegal memory access (" + Integer.toHexString(memoryLocation) +
+                                             ")! Program attempting to execute an instruction at an address/location in memory that does not exist.");
+    }
+    TranslatedBlock[] page = blocks.get(PageDirectory.getPageNumber(memoryLocation));
+    TranslatedBlock block = (page == null) ? null : page[memoryLocation & PageDirectory.PAGE_MASK];
+    if (block == null)
+    {
+      block = this.translate(memoryLocation);
+      if (page == null)
+      {
+        page = new TranslatedBlock[PageDirectory.PAGE_SIZE];
+        blocks.put(PageDirectory.getPageNumber(memoryLocation), page);
+      }
+      page[memoryLocation & PageDirectory.PAGE_MASK] = block;
+      blocksTranslated++;
+    }
+    return block;
+  }
+
+  /**
+   * Method to attach a block compiler. Blocks are compiled to JVM bytecode once they have been executed compileThreshold times.
+   * @param blockCompiler    Block compiler
+   * @param compileThreshold Number of times a block needs to be executed before it is compiled
+   */
+  public void setBlockCompiler(BlockCompiler blockCompiler, int compileThreshold)
+  {
+    this.blockCompiler = blockCompiler;
+    this.compileThreshold = compileThreshold;
+  }
+
+  /**
+   * Method to obtain the block compiler
+   * @return Block compiler (null if blocks are never compiled)
+   */
+  public BlockCompiler getBlockCompiler()
+  {
+    return blockCompiler;
+  }
+
+  /**
+   * Method to execute a block. The block is compiled first if it has become hot.
+   * @param  block Translated block
+   * @return       Memory location of the next instruction to execute
+   */
+  public int execute(TranslatedBlock block)
+  {
+    if (block.countExecution() == compileThreshold && blockCompiler != null)
+    {
+      blockCompiler.compile(block);
+    }
+    return block.execute();
+  }
+
+  /**
+   * Method to obtain the block to execute after a block has been left. Uses (and sets up) the chain between the two blocks.
+   * @param  block          Block that has just been executed
+   * @param  programCounter Memory location the block was left to
+   * @return                Block starting at the memory location
+   */
+  public TranslatedBlock getNextBlock(TranslatedBlock block, int programCounter)
+  {
+    TranslatedBlock successor = block.getSuccessor(programCounter);
+    if (successor != null)
+    {
+      chainedTransitions++;
+      return successor;
+    }
+    successor = this.getBlock(programCounter);
+    if (block.isValid())        // Never chain from a block that has been invalidated (It can't be reached again)
+    {
+      block.setSuccessor(successor);
+    }
+    return successor;
+  }
+
+  /**
+   * Method to translate the block starting at a memory location
+   * @param  startAddress Memory location of the first instruction in the block
+   * @return              Translated block
+   */
+  private TranslatedBlock translate(int startAddress)
+  {
+    ArrayList<DecodedInstruction> decodedInstructions = new ArrayList<DecodedInstruction>();
+    ArrayList<ITranslatedInstruction> instructions = new ArrayList<ITranslatedInstruction>();
+    int programCounter = startAddress;
+    while (cpuMemory.contains(programCounter) && instructions.size() < MAX_BLOCK_LENGTH)
+    {
+      DecodedInstruction decodedInstruction;
+      try
+      {
+        decodedInstruction = this.decode(programCounter);
+      }
+      catch (IllegalInstructionException ex)
+      {
+        if (instructions.isEmpty())     // The illegal instruction is the one being executed
+        {
+          throw ex;
+        }
+        break;                          // End the block before the illegal instruction (It may never be reached)
+      }
+      decodedInstructions.add(decodedInstruction);
+      instructions.add(this.translate(decodedInstruction, programCounter));
+      boolean[] translatedPage = translated.get(PageDirectory.getPageNumber(programCounter));
+      if (translatedPage == null)
+      {
+        translatedPage = new boolean[PageDirectory.PAGE_SIZE];
+        translated.put(PageDirectory.getPageNumber(programCounter), translatedPage);
+      }
+      translatedPage[programCounter & PageDirectory.PAGE_MASK] = true;
+      programCounter++;
+      if (this.endsBlock(decodedInstruction))
+      {
+        break;
+      }
+    }
+    return new TranslatedBlock(startAddress, decodedInstructions.toArray(new DecodedInstruction[decodedInstructions.size()]),
+                               instructions.toArray(new ITranslatedInstruction[instructions.size()]));
+  }
+
+  /**
+   * Method to decode the instruction at a memory location (Using the decoded instruction cache)
+   * @param  memoryLocation Memory location of the instruction
+   * @return                Decoded instruction
+   */
+  private DecodedInstruction decode(int memoryLocation)
+  {
+    int instruction = cpuMemory.readValue(memoryLocation);
+    DecodedInstruction decodedInstruction = decodedInstructionCache.lookup(memoryLocation, instruction);
+    if (decodedInstruction == null)
+    {
+      decodedInstruction = InstructionDecoder.decode(instruction);     // Throws an IllegalInstructionException if the OpCode is not specified in the ISA
+      decodedInstructionCache.insert(memoryLocation, decodedInstruction);
+    }
+    return decodedInstruction;
+  }
+
+  /**
+   * Method to check if an instruction is the last instruction of a block
+   * @param  decodedInstruction Decoded instruction
+   * @return                    True if the block needs to end after the instruction
+   */
+  private boolean endsBlock(DecodedInstruction decodedInstruction)
+  {
+    int opCode = decodedInstruction.getOpCode();
+    return InstructionDecoder.isBranch(opCode) || opCode == Isa.SW || decodedInstruction.getDestinationRegLoc() == GlobalConstants.SVC_REGISTER;
+  }
+
+  /**
+   * Method to translate a single instruction into a closure
+   * @param  decodedInstruction Decoded instruction
+   * @param  programCounter     Memory location of the instruction
+   * @return                    Closure executing the instruction
+   */
+  private ITranslatedInstruction translate(DecodedInstruction decodedInstruction, int programCounter)
+  {
+    final Register registers = cpuRegisters;
+    final Memory memory = cpuMemory;
+    final DecodedInstructionCache cache = decodedInstructionCache;
+    final int sourceReg1Loc = decodedInstruction.getSourceReg1Loc();
+    final int sourceReg2Loc = decodedInstruction.getSourceReg2Loc();
+    final int destinationRegLoc = decodedInstruction.getDestinationRegLoc();
+    final int signedImmediateVal = decodedInstruction.getSignedImmediateVal();
+    final int nextInstruction = programCounter + 1;
+    final int branchTarget = programCounter + signedImmediateVal;
+    switch (decodedInstruction.getOpCode())
+    {
+      case Isa.NOP:
+        return () -> nextInstruction;
+
+      case Isa.ADD:
+        return () -> { registers.writeGP(destinationRegLoc, registers.readGP(sourceReg1Loc) + registers.readGP(sourceReg2Loc)); return nextInstruction; };
+
+      case Isa.SUB:
+        return () -> { registers.writeGP(destinationRegLoc, registers.readGP(sourceReg1Loc) - registers.readGP(sourceReg2Loc)); return nextInstruction; };
+
+      case Isa.MULT:
+        return () -> { registers.writeGP(destinationRegLoc, registers.readGP(sourceReg1Loc) * registers.readGP(sourceReg2Loc)); return nextInstruction; };
+
+      case Isa.DIV:
+        return () -> { registers.writeGP(destinationRegLoc, registers.readGP(sourceReg1Loc) / registers.readGP(sourceReg2Loc)); return nextInstruction; };
+
+      case Isa.ADDI:
+        return () -> { registers.writeGP(destinationRegLoc, registers.readGP(sourceReg1Loc) + signedImmediateVal); return nextInstruction; };
+
+      case Isa.SUBI:
+        return () -> { registers.writeGP(destinationRegLoc, registers.readGP(sourceReg1Loc) - signedImmediateVal); return nextInstruction; };
+
+      case Isa.AND:
+        return () -> { registers.writeGP(destinationRegLoc, registers.readGP(sourceReg1Loc) & registers.readGP(sourceReg2Loc)); return nextInstruction; };
+
+      case Isa.OR:
+        return () -> { registers.writeGP(destinationRegLoc, registers.readGP(sourceReg1Loc) | registers.readGP(sourceReg2Loc)); return nextInstruction; };
+
+      case Isa.XOR:
+        return () -> { registers.writeGP(destinationRegLoc, registers.readGP(sourceReg1Loc) ^ registers.readGP(sourceReg2Loc)); return nextInstruction; };
+
+      case Isa.NOT:
+        return () -> { registers.writeGP(destinationRegLoc, ~ registers.readGP(sourceReg1Loc)); return nextInstruction; };
+
+      case Isa.SLL:
+        return () -> { registers.writeGP(destinationRegLoc, registers.readGP(sourceReg1Loc) << signedImmediateVal); return nextInstruction; };
+
+      case Isa.SLR:
+        return () -> { registers.writeGP(destinationRegLoc, registers.readGP(sourceReg1Loc) >>> signedImmediateVal); return nextInstruction; };
+
+      case Isa.SLLV:
+        return () -> { registers.writeGP(destinationRegLoc, registers.readGP(sourceReg1Loc) << registers.readGP(sourceReg2Loc)); return nextInstruction; };
+
+      case Isa.SRA:
+        return () -> { registers.writeGP(destinationRegLoc, registers.readGP(sourceReg1Loc) >> signedImmediateVal); return nextInstruction; };
+
+      case Isa.LW:
+        return () -> { registers.writeGP(destinationRegLoc, memory.readValue(registers.readGP(sourceReg1Loc) + signedImmediateVal)); return nextInstruction; };
+
+      case Isa.SW:      // SW sr1, dr, Ix - The destination register holds the base address
+        return () ->
+        {
+          int memoryAddress = registers.readGP(destinationRegLoc) + signedImmediateVal;
+          memory.writeValue(memoryAddress, registers.readGP(sourceReg1Loc));
+          cache.invalidate(memoryAddress);        // Invalidates the decoded instruction and any translated block covering this location (Self-modifying code)
+          return nextInstruction;
+        };
+
+      case Isa.MOVI:
+        return () -> { registers.writeGP(destinationRegLoc, signedImmediateVal); return nextInstruction; };
+
+      case Isa.MOVR:
+        return () -> { registers.writeGP(destinationRegLoc, registers.readGP(sourceReg1Loc)); return nextInstruction; };
+
+      case Isa.BU:
+        return () -> branchTarget;
+
+      case Isa.BEQ:
+        return () -> (registers.readGP(sourceReg1Loc) == registers.readGP(sourceReg2Loc)) ? branchTarget : nextInstruction;
+
+      case Isa.BNE:
+        return () -> (registers.readGP(sourceReg1Loc) != registers.readGP(sourceReg2Loc)) ? branchTarget : nextInstruction;
+
+      case Isa.BLT:
+        return () -> (registers.readGP(sourceReg1Loc) < registers.readGP(sourceReg2Loc)) ? branchTarget : nextInstruction;
+
+      case Isa.BGT:
+        return () -> (registers.readGP(sourceReg1Loc) > registers.readGP(sourceReg2Loc)) ? branchTarget : nextInstruction;
+
+      default:          // BL and RET push/pop the complete register file, hence, the interpreter's implementation is reused
+        final FunctionalInterpreter interpreter = functionalInterpreter;
+        return () -> interpreter.execute(decodedInstruction, programCounter);
+    }
+  }
+
+  /**
+   * Method to invalidate every block covering a memory location. Called (through the decoded instruction cache) whenever a value is stored
+   * to memory.
+   * @param memoryLocation Memory location that has been written to
+   */
+  public void invalidate(int memoryLocation)
+  {
+    boolean[] translatedPage = translated.get(PageDirectory.getPageNumber(memoryLocation));
+    if (translatedPage == null || !translatedPage[memoryLocation & PageDirectory.PAGE_MASK])
+    {
+      return;
+    }
+    int firstStartAddress = (Integer.compareUnsigned(memoryLocation, MAX_BLOCK_LENGTH - 1) < 0) ? 0 : (memoryLocation - MAX_BLOCK_LENGTH + 1);     // Addresses are unsigned
+    for (int startAddress = firstStartAddress; startAddress != memoryLocation + 1; startAddress++)
+    {
+      TranslatedBlock[] page = blocks.get(PageDirectory.getPageNumber(startAddress));
+      TranslatedBlock block = (page == null) ? null : page[startAddress & PageDirectory.PAGE_MASK];
+      if (block != null && Integer.compareUnsigned(block.getEndAddress(), memoryLocation) > 0)
+      {
+        block.invalidate();
+        page[startAddress & PageDirectory.PAGE_MASK] = null;
+        blocksInvalidated++;
+      }
+    }
+  }
+
+  /**
+   * Method to invalidate every block in the translation cache (e.g. when memory has been reloaded)
+   */
+  public void clear()
+  {
+    for (int pageNumber : blocks.getPageNumbers())
+    {
+      for (TranslatedBlock block : blocks.get(pageNumber))
+      {
+        if (block != null)
+        {
+          block.invalidate();
+        }
+      }
+    }
+    blocks.clear();
+    translated.clear();
+  }
+
+  /**
+   * Method to obtain the number of blocks translated
+   * @return Number of blocks translated
+   */
+  public long getBlocksTranslated()
+  {
+    return blocksTranslated;
+  }
+
+  /**
+   * Method to obtain the number of blocks invalidated by stores
+   * @return Number of blocks invalidated
+   */
+  public long getBlocksInvalidated()
+  {
+    return blocksInvalidated;
+  }
+
+  /**
+   * Method to obtain the number of block to block transitions that followed a chain
+   * @return Number of chained transitions
+   */
+  public long getChainedTransitions()
+  {
+    return chainedTransitions;
+  }
+}
@@ -0,0 +1,154 @@
+/**
+ * @file Checkpoint.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the Checkpoint class that saves and restores the complete architectural state of the simulator (Registers
+ * including the clock counter, main memory, the stack, the branch predictor and the PMU event counters) to and from a versioned binary file. The file is written and
+ * read through a memory-mapped FileChannel so that large memories are copied in bulk instead of value by value.
+ *
+ * File layout (All values are big-endian 32 bit integers unless stated otherwise):
+ *  - Magic number and format version
+ *  - Number of instructions fast-forwarded (64 bit)
+ *  - Register state, memory state, branch predictor state and PMU state, each preceded by its size in bytes
+ *    (Only the allocated memory pages are saved, see Memory.saveState())
+ */
+
+// Import packages
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+/**
+ * Binary checkpoint of the simulator state.
+ */
+public final class Checkpoint
+{
+  public static final int MAGIC = 0x41434143;     /** Magic number identifying a checkpoint file ("ACAC") */
+  public static final int VERSION = 3;            /** Version of the checkpoint format. Needs to be incremented whenever the layout changes */
+  private static final int HEADER_SIZE = (2 * Integer.BYTES) + Long.BYTES;     /** Size of the header (Magic number, version and number of instructions fast-forwarded) */
+
+  /**
+   * Private constructor since this class only contains static methods
+   */
+  private Checkpoint()
+  {
+  }
+
+  /**
+   * Method to save the simulator state to a checkpoint file
+   * @param  checkpointFileName        Name of the checkpoint file (Overwritten if it already exists)
+   * @param  cpuRegisters              Architectural registers
+   * @param  cpuMemory                 Main memory
+   * @param  branchPredictor           Branch predictor
+   * @param  pmu                       PMU holding the event counters
+   * @param  instructionsFastForwarded Number of instructions executed functionally so far
+   * @throws IOException               If the checkpoint file can't be written
+   */
+  public static void save(String checkpointFileName, Register cpuRegisters, Memory cpuMemory, IBranchPredictor branchPredictor, Pmu pmu, long instructionsFastForwarded) throws IOException
+  {
+    int registerStateSize = cpuRegisters.getStateSize();
+    int memoryStateSize = cpuMemory.getStateSize();
+    int branchPredictorStateSize = branchPredictor.getStateSize();
+    int pmuStateSize = pmu.getStateSize();
+    long fileSize = HEADER_SIZE + (4 * Integer.BYTES) + registerStateSize + memoryStateSize + branchPredictorStateSize + pmuStateSize;
+    try (FileChannel channel = FileChannel.open(Paths.get(checkpointFileName), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+    {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+      buffer.putInt(MAGIC);
+      buffer.putInt(VERSION);
+      buffer.putLong(instructionsFastForwarded);
+      buffer.putInt(registerStateSize);
+      cpuRegisters.saveState(buffer);
+      buffer.putInt(memoryStateSize);
+      cpuMemory.saveState(buffer);
+      buffer.putInt(branchPredictorStateSize);
+      branchPredictor.saveState(buffer);
+      buffer.putInt(pmuStateSize);
+      pmu.saveState(buffer);
+      buffer.force();       // Make sure the checkpoint has reached the disk before carrying on with the simulation
+    }
+  }
+
+  /**
+   * Method to restore the simulator state from a checkpoint file
+   * @param  checkpointFileName Name of the checkpoint file
+   * @param  cpuRegisters       Architectural registers
+   * @param  cpuMemory          Main memory
+   * @param  branchPredictor    Branch predictor
+   * @param  pmu                PMU holding the event counters
+   * @return                    Number of instructions that had been fast-forwarded when the checkpoint was saved
+   * @throws IOException        If the checkpoint file can't be read or is not a valid checkpoint
+   */
+  public static long restore(String checkpointFileName, Register cpuRegisters, Memory cpuMemory, IBranchPredictor branchPredictor, Pmu pmu) throws IOException
+  {
+    try (FileChannel channel = FileChannel.open(Paths.get(checkpointFileName), StandardOpenOption.READ))
+    {
+      if (channel.size() < HEADER_SIZE)
+      {
+        throw new IOException("Invalid checkpoint file (" + checkpointFileName + " is too small).");
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC)
+      {
+        throw new IOException("Invalid checkpoint file (" + checkpointFileName + " is not a checkpoint).");
+      }
+      int version = buffer.getInt();
+      if (version != VERSION)
+      {
+        throw new IOException("Unsupported checkpoint version (Found " + version + ", expected " + VERSION + ").");
+      }
+      long instructionsFastForwarded = buffer.getLong();
+      try
+      {
+        checkSectionSize(buffer, cpuRegisters.getStateSize(), "register");
+        cpuRegisters.restoreState(buffer);
+        int memoryStateSize = buffer.getInt();    // The size of the memory state depends on the number of allocated pages and the size of the saved stack, so it's checked against the bytes read
+        if (memoryStateSize < 0 || memoryStateSize > buffer.remaining())
+        {
+          throw new BufferUnderflowException();
+        }
+        int memoryStateStart = buffer.position();
+        cpuMemory.restoreState(buffer);
+        if (buffer.position() - memoryStateStart != memoryStateSize)
+        {
+          throw new IOException("Invalid checkpoint file (" + checkpointFileName + ": Size of the memory state is " + memoryStateSize + " bytes, but " +
+                                (buffer.position() - memoryStateStart) + " bytes were read).");
+        }
+        checkSectionSize(buffer, branchPredictor.getStateSize(), "branch predictor");
+        branchPredictor.restoreState(buffer);
+        checkSectionSize(buffer, pmu.getStateSize(), "PMU");
+        pmu.restoreState(buffer);
+      }
+      catch (BufferUnderflowException ex)
+      {
+        throw new IOException("Invalid checkpoint file (" + checkpointFileName + " is truncated).", ex);
+      }
+      catch (IndexOutOfBoundsException | IllegalArgumentException | IllegalStateException ex)
+      {
+        // The components reject saved state that doesn't fit the simulator (MemIndexOutOfBoundsException and RegisterAccessException are
+        // IndexOutOfBoundsExceptions, the branch predictors and the PMU throw IllegalStateException)
+        throw new IOException("Invalid checkpoint file (" + checkpointFileName + ": " + ex.getMessage() + ")", ex);
+      }
+      return instructionsFastForwarded;
+    }
+  }
+
+  /**
+   * Method to check the size of a section in the checkpoint file
+   * @param  buffer       Buffer positioned at the size of the section
+   * @param  expectedSize Size expected by the simulator
+   * @param  sectionName  Name of the section (Used in the error message)
+   * @throws IOException  If the size doesn't match
+   */
+  private static void checkSectionSize(ByteBuffer buffer, int expectedSize, String sectionName) throws IOException
+  {
+    int savedSize = buffer.getInt();
+    if (savedSize != expectedSize)
+    {
+      throw new IOException("Checkpoint doesn't match the simulator configuration (Size of the " + sectionName + " state is " + savedSize +
+                            " bytes, expected " + expectedSize + " bytes).");
+    }
+  }
+}
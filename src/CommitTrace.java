@@ -0,0 +1,491 @@
+/**
+ * @file CommitTrace.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the CommitTrace class that holds the format of the committed-instruction trace, along with the writer used by
+ * the IE stage to record the trace (--commit-trace <file>) and the reader used by the TraceReplayer to replay it through the timing model.
+ * Every instruction executed by the pipeline (Bubbles aren't recorded) is stored as a record holding its PC, its instruction word, the
+ * outcome and target of a branch and the effective address of a load/store. Most of these values are implied by the previous records,
+ * hence, a record only holds what can't be predicted from them:
+ *  - The PC is only stored if it differs from the address the previous record continues at (pc + 1, or the target of a taken branch)
+ *  - The instruction word is only stored if it differs from the word last recorded at the same PC (Direct-mapped table of recent words)
+ *  - The target of a taken branch is only stored if it differs from the one encoded in the instruction (i.e. always for RET)
+ *  - The effective address of a load/store is stored as the difference to the previous effective address
+ * Values are stored as variable-length integers (Signed values zigzag-encoded) and the record stream is compressed with Deflate, hence, a
+ * loop typically costs a single byte per instruction before the compression.
+ *
+ * File layout (Header values are big-endian):
+ *  - Magic number and format version
+ *  - Number of records (64 bit)
+ *  - Deflate-compressed record stream
+ */
+
+// Import packages
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.zip.*;
+
+/**
+ * Format of the committed-instruction trace.
+ */
+public final class CommitTrace
+{
+  public static final int MAGIC = 0x41434154;     /** Magic number identifying a commit trace file ("ACAT") */
+  public static final int VERSION = 1;            /** Version of the trace format. Needs to be incremented whenever the layout changes */
+  private static final int HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES;  /** Size of the header (Magic number, version and number of records) */
+  private static final int RECORD_COUNT_OFFSET = 2 * Integer.BYTES;       /** Offset of the number of records in the header */
+  private static final int BUFFER_SIZE = 64 * 1024;                       /** Size of the uncompressed record buffer */
+  private static final int MAX_RECORD_SIZE = 1 + 4 * 5;                   /** Maximum size of a record (Flags and 4 variable-length integers of at most 5 bytes) */
+  private static final int WORD_TABLE_SIZE = 4096;                        /** Number of entries in the table of recent instruction words (Power of 2) */
+  private static final int WORD_TABLE_MASK = WORD_TABLE_SIZE - 1;
+
+  // Record flags
+  private static final int FLAG_PC = 0x01;        /** The PC differs from the one implied by the previous record */
+  private static final int FLAG_WORD = 0x02;      /** The instruction word differs from the one last recorded at the same PC */
+  private static final int FLAG_TAKEN = 0x04;     /** The branch was taken */
+  private static final int FLAG_TARGET = 0x08;    /** The target of the taken branch differs from the one encoded in the instruction */
+
+  /**
+   * Private constructor since this class only holds the trace format
+   */
+  private CommitTrace()
+  {
+  }
+
+  /**
+   * Method to obtain the branch target implied by an instruction, i.e. the address execution continues at if the branch is taken
+   * @param  pc          Address of the instruction
+   * @param  instruction Instruction word
+   * @return             PC relative target of a branch, or the address of the next instruction for RET and non-branch instructions
+   */
+  private static int impliedTarget(int pc, int instruction)
+  {
+    int opCode = InstructionDecoder.opCode(instruction);
+    if (InstructionDecoder.isValidOpCode(opCode) && InstructionDecoder.isBranch(opCode) && opCode != Isa.RET)
+    {
+      return pc + InstructionDecoder.signedImmediate(instruction, InstructionDecoder.type(opCode));
+    }
+    return pc + 1;
+  }
+
+  /**
+   * Method to check if an instruction accesses the data memory (i.e. if its record holds an effective address)
+   * @param  instruction Instruction word
+   * @return             True if the instruction is a load (LW) or a store (SW)
+   */
+  private static boolean isMemoryAccess(int instruction)
+  {
+    int opCode = InstructionDecoder.opCode(instruction);
+    return opCode == Isa.LW || opCode == Isa.SW;
+  }
+
+  /**
+   * Writes the committed instructions to a trace file. The record of a taken branch is only encoded once the next instruction is recorded,
+   * since that instruction's PC is the actual target of the branch.
+   */
+  public static final class Writer implements Closeable
+  {
+    private final FileChannel channel;                    /** Channel of the trace file */
+    private final Deflater deflater;                      /** Compressor of the record stream */
+    private final DeflaterOutputStream out;               /** Compressed record stream */
+    private final byte[] buffer = new byte[BUFFER_SIZE];  /** Records not yet handed to the compressor */
+    private int bufferPosition;                           /** Number of bytes held in the buffer */
+    private final int[] wordTablePc = new int[WORD_TABLE_SIZE];           /** PC of every entry in the table of recent instruction words */
+    private final int[] wordTableWord = new int[WORD_TABLE_SIZE];         /** Instruction word of every entry in the table of recent instruction words */
+    private final boolean[] wordTableValid = new boolean[WORD_TABLE_SIZE];  /** Boolean variables stating if the entries of the table hold a word */
+    private int expectedPc;                               /** PC implied by the last encoded record */
+    private int lastAddress;                              /** Effective address of the last encoded load/store */
+    private long records;                                 /** Number of records written */
+    private boolean pending;                              /** Boolean variable stating if a record is waiting for the next PC to be known */
+    private int pendingPc;                                /** PC of the pending record */
+    private int pendingInstruction;                       /** Instruction word of the pending record */
+    private boolean pendingTaken;                         /** Branch outcome of the pending record */
+    private int pendingAddress;                           /** Effective address of the pending record */
+
+    /**
+     * Parameterized constructor
+     * @param  traceFileName Name of the trace file (Overwritten if it already exists)
+     * @return               No return value since this is a constructor
+     * @throws IOException   If the trace file can't be created
+     */
+    public Writer(String traceFileName) throws IOException
+    {
+      channel = FileChannel.open(Paths.get(traceFileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(MAGIC);
+      header.putInt(VERSION);
+      header.putLong(0);                                  // Number of records (Written when the trace is closed)
+      header.flip();
+      while (header.hasRemaining())
+      {
+        channel.write(header);
+      }
+      deflater = new Deflater();
+      out = new DeflaterOutputStream(Channels.newOutputStream(channel), deflater, BUFFER_SIZE);
+    }
+
+    /**
+     * Method to record a committed instruction
+     * @param  pc          Address the instruction was fetched from
+     * @param  instruction Instruction word
+     * @param  taken       True if the instruction is a branch that was taken
+     * @param  address     Effective address (Only used for loads and stores)
+     * @throws IOException If the trace file can't be written
+     */
+    public void record(int pc, int instruction, boolean taken, int address) throws IOException
+    {
+      if (pending)
+      {
+        this.encodePending(pc);
+      }
+      pending = true;
+      pendingPc = pc;
+      pendingInstruction = instruction;
+      pendingTaken = taken;
+      pendingAddress = address;
+    }
+
+    /**
+     * Method to obtain the number of records written
+     * @return Number of records (Including the one waiting for the next PC)
+     */
+    public long getRecords()
+    {
+      return records + (pending ? 1 : 0);
+    }
+
+    /**
+     * Method to encode the pending record
+     * @param  nextPc      PC of the instruction committed after the pending one
+     * @throws IOException If the trace file can't be written
+     */
+    private void encodePending(int nextPc) throws IOException
+    {
+      if (bufferPosition > BUFFER_SIZE - MAX_RECORD_SIZE)
+      {
+        this.flushBuffer();
+      }
+      int flagsPosition = bufferPosition++;
+      int flags = 0;
+      if (pendingPc != expectedPc)
+      {
+        flags |= FLAG_PC;
+        this.putSigned(pendingPc - expectedPc);
+      }
+      int wordTableIndex = pendingPc & WORD_TABLE_MASK;
+      if (!wordTableValid[wordTableIndex] || wordTablePc[wordTableIndex] != pendingPc || wordTableWord[wordTableIndex] != pendingInstruction)
+      {
+        flags |= FLAG_WORD;
+        this.putUnsigned(pendingInstruction);
+        wordTableValid[wordTableIndex] = true;
+        wordTablePc[wordTableIndex] = pendingPc;
+        wordTableWord[wordTableIndex] = pendingInstruction;
+      }
+      expectedPc = pendingPc + 1;
+      if (pendingTaken)
+      {
+        flags |= FLAG_TAKEN;
+        expectedPc = impliedTarget(pendingPc, pendingInstruction);
+        if (nextPc != expectedPc)
+        {
+          flags |= FLAG_TARGET;
+          this.putSigned(nextPc - pendingPc);
+          expectedPc = nextPc;
+        }
+      }
+      if (isMemoryAccess(pendingInstruction))
+      {
+        this.putSigned(pendingAddress - lastAddress);
+        lastAddress = pendingAddress;
+      }
+      buffer[flagsPosition] = (byte) flags;
+      records++;
+      pending = false;
+    }
+
+    /**
+     * Method to append an unsigned variable-length integer to the buffer (7 bits per byte, least significant group first)
+     * @param value Value (Treated as unsigned)
+     */
+    private void putUnsigned(int value)
+    {
+      while ((value & ~0x7F) != 0)
+      {
+        buffer[bufferPosition++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[bufferPosition++] = (byte) value;
+    }
+
+    /**
+     * Method to append a signed variable-length integer to the buffer (Zigzag-encoded, so that small negative values stay short)
+     * @param value Value
+     */
+    private void putSigned(int value)
+    {
+      this.putUnsigned((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Method to hand the buffered records to the compressor
+     * @throws IOException If the trace file can't be written
+     */
+    private void flushBuffer() throws IOException
+    {
+      out.write(buffer, 0, bufferPosition);
+      bufferPosition = 0;
+    }
+
+    /**
+     * Method to write out the remaining records and the number of records, and to close the trace file. The last record's branch (If any)
+     * is assumed to continue at its encoded target.
+     * @throws IOException If the trace file can't be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+      try
+      {
+        if (pending)
+        {
+          this.encodePending(pendingTaken ? impliedTarget(pendingPc, pendingInstruction) : pendingPc + 1);
+        }
+        this.flushBuffer();
+        out.finish();
+        ByteBuffer recordCount = ByteBuffer.allocate(Long.BYTES);
+        recordCount.putLong(records);
+        recordCount.flip();
+        channel.write(recordCount, RECORD_COUNT_OFFSET);
+      }
+      finally
+      {
+        out.close();                                      // Also closes the channel
+        deflater.end();
+      }
+    }
+  }
+
+  /**
+   * Reads the records of a trace file. The file is memory-mapped and inflated straight from the mapping, one buffer at a time.
+   */
+  public static final class Reader implements Closeable
+  {
+    private final Inflater inflater;                      /** Decompressor of the record stream */
+    private final long recordCount;                       /** Number of records in the trace */
+    private long recordsRead;                             /** Number of records read */
+    private final byte[] buffer = new byte[BUFFER_SIZE];  /** Inflated records */
+    private int bufferPosition;                           /** Position of the next byte in the buffer */
+    private int bufferLimit;                              /** Number of inflated bytes held in the buffer */
+    private final int[] wordTablePc = new int[WORD_TABLE_SIZE];           /** PC of every entry in the table of recent instruction words */
+    private final int[] wordTableWord = new int[WORD_TABLE_SIZE];         /** Instruction word of every entry in the table of recent instruction words */
+    private int expectedPc;                               /** PC implied by the last record */
+    private int lastAddress;                              /** Effective address of the last load/store */
+    private int pc;                                       /** PC of the current record */
+    private int instruction;                              /** Instruction word of the current record */
+    private boolean taken;                                /** Branch outcome of the current record */
+    private int target;                                   /** Address execution continued at after the current record */
+    private int address;                                  /** Effective address of the current record */
+
+    /**
+     * Parameterized constructor
+     * @param  traceFileName Name of the trace file
+     * @return               No return value since this is a constructor
+     * @throws IOException   If the trace file can't be read or is not a valid commit trace
+     */
+    public Reader(String traceFileName) throws IOException
+    {
+      MappedByteBuffer mapping;
+      try (FileChannel channel = FileChannel.open(Paths.get(traceFileName), StandardOpenOption.READ))
+      {
+        if (channel.size() < HEADER_SIZE)
+        {
+          throw new IOException("Invalid commit trace (" + traceFileName + " is too small).");
+        }
+        mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());     // The mapping stays valid after the channel is closed
+      }
+      if (mapping.getInt() != MAGIC)
+      {
+        throw new IOException("Invalid commit trace (" + traceFileName + " is not a commit trace written by the simulator).");
+      }
+      int version = mapping.getInt();
+      if (version != VERSION)
+      {
+        throw new IOException("Unsupported commit trace version (Found " + version + ", expected " + VERSION + ").");
+      }
+      recordCount = mapping.getLong();
+      if (recordCount < 0)
+      {
+        throw new IOException("Invalid commit trace (" + traceFileName + " has an invalid number of records).");
+      }
+      inflater = new Inflater();
+      inflater.setInput(mapping);                         // Inflate straight from the mapped file (From the end of the header)
+    }
+
+    /**
+     * Method to obtain the number of records in the trace
+     * @return Number of records
+     */
+    public long getRecordCount()
+    {
+      return recordCount;
+    }
+
+    /**
+     * Method to read the next record
+     * @return             True if a record was read, false if the end of the trace has been reached
+     * @throws IOException If the trace is truncated or corrupted
+     */
+    public boolean next() throws IOException
+    {
+      if (recordsRead == recordCount)
+      {
+        return false;
+      }
+      int flags = this.getByte();
+      pc = expectedPc;
+      if ((flags & FLAG_PC) != 0)
+      {
+        pc += this.getSigned();
+      }
+      int wordTableIndex = pc & WORD_TABLE_MASK;
+      if ((flags & FLAG_WORD) != 0)
+      {
+        wordTablePc[wordTableIndex] = pc;
+        wordTableWord[wordTableIndex] = this.getUnsigned();
+      }
+      else if (wordTablePc[wordTableIndex] != pc)
+      {
+        throw new IOException("Invalid commit trace (Record " + recordsRead + " refers to an instruction word that hasn't been recorded).");
+      }
+      instruction = wordTableWord[wordTableIndex];
+      taken = (flags & FLAG_TAKEN) != 0;
+      target = pc + 1;
+      if (taken)
+      {
+        target = ((flags & FLAG_TARGET) != 0) ? pc + this.getSigned() : impliedTarget(pc, instruction);
+      }
+      expectedPc = target;
+      address = 0;
+      if (isMemoryAccess(instruction))
+      {
+        address = lastAddress + this.getSigned();
+        lastAddress = address;
+      }
+      recordsRead++;
+      return true;
+    }
+
+    /**
+     * Method to obtain the PC of the current record
+     * @return Address the instruction was fetched from
+     */
+    public int getPc()
+    {
+      return pc;
+    }
+
+    /**
+     * Method to obtain the instruction word of the current record
+     * @return Instruction word
+     */
+    public int getInstruction()
+    {
+      return instruction;
+    }
+
+    /**
+     * Method to check if the current record is a branch that was taken
+     * @return True if the branch was taken
+     */
+    public boolean isTaken()
+    {
+      return taken;
+    }
+
+    /**
+     * Method to obtain the address execution continued at after the current record
+     * @return Branch target if the branch was taken, else the address of the next instruction
+     */
+    public int getTarget()
+    {
+      return target;
+    }
+
+    /**
+     * Method to obtain the effective address of the current record
+     * @return Effective address of a load/store (0 for any other instruction)
+     */
+    public int getAddress()
+    {
+      return address;
+    }
+
+    /**
+     * Method to read a byte of the record stream
+     * @return             Byte value (0 - 255)
+     * @throws IOException If the trace is truncated or corrupted
+     */
+    private int getByte() throws IOException
+    {
+      if (bufferPosition == bufferLimit)
+      {
+        try
+        {
+          bufferLimit = inflater.inflate(buffer);
+        }
+        catch (DataFormatException ex)
+        {
+          throw new IOException("Invalid commit trace (" + ex.getMessage() + ").");
+        }
+        bufferPosition = 0;
+        if (bufferLimit == 0)
+        {
+          throw new IOException("Invalid commit trace (Truncated after " + recordsRead + " of " + recordCount + " records).");
+        }
+      }
+      return buffer[bufferPosition++] & 0xFF;
+    }
+
+    /**
+     * Method to read an unsigned variable-length integer
+     * @return             Value
+     * @throws IOException If the trace is truncated or corrupted
+     */
+    private int getUnsigned() throws IOException
+    {
+      int value = 0;
+      for (int shift = 0; shift < Integer.SIZE; shift += 7)
+      {
+        int groupByte = this.getByte();
+        value |= (groupByte & 0x7F) << shift;
+        if ((groupByte & 0x80) == 0)
+        {
+          return value;
+        }
+      }
+      throw new IOException("Invalid commit trace (Variable-length integer too long).");
+    }
+
+    /**
+     * Method to read a signed (Zigzag-encoded) variable-length integer
+     * @return             Value
+     * @throws IOException If the trace is truncated or corrupted
+     */
+    private int getSigned() throws IOException
+    {
+      int value = this.getUnsigned();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Method to release the decompressor
+     */
+    @Override
+    public void close()
+    {
+      inflater.end();
+    }
+  }
+}
@@ -0,0 +1,208 @@
+/**
+ * @file CpiStack.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the CpiStack class that attributes every simulated cycle to a single cause, so that the cycles per instruction
+ * (CPI) can be broken down into a CPI stack. The attribution is done by the IE stage, once per cycle, based on what it executed:
+ *  - Base:                 A valid instruction was executed (Committed)
+ *  - Branch misprediction: A bubble inserted by the flush of a mispredicted branch (See SequentialProcessorPipeline.flush()). All the bubbles
+ *                          executed until the first instruction of the correct path is executed are part of the misprediction penalty.
+ *  - Data hazard:          A NOP fetched from memory. The pipeline doesn't interlock, hence, the program pads its data hazards with NOPs.
+ *  - Front-end empty:      A bubble executed since the front-end hadn't delivered an instruction yet (e.g. while filling the pipeline)
+ *  - Structural stall:     A bubble executed since the II stage couldn't issue in the previous cycle (Instruction queue full)
+ *  - Memory latency:       Cycles waiting for memory. Memory accesses take a single cycle (No caches are modelled yet), hence, nothing is
+ *                          attributed to this category so far.
+ * The cycles of every category are counted by PMU events ("cpi.<category>"), hence, they are exported, snapshotted and checkpointed along
+ * with all the other counters. The stack can also be broken down per program region (An address range, --cpi-region <name>=<first>:<last>):
+ * A cycle is attributed to the region of the instruction executed, and a bubble to the region of the last instruction executed before it
+ * (The bubbles executed right after a checkpoint has been restored don't belong to any region, since no instruction has been executed yet).
+ * Regions may overlap, e.g. a loop nested in a function: a cycle is counted in every region that contains the location of its instruction,
+ * hence, the stack of an enclosing region includes the cycles of the regions nested in it and the region stacks don't add up to the total.
+ */
+
+// Import packages
+import java.io.*;
+import java.util.*;
+
+/**
+ * Attributes the simulated cycles to their causes (Total and per program region).
+ */
+public final class CpiStack
+{
+  public static final int BASE = 0;                       /** Category of the cycles in which a valid instruction was executed */
+  public static final int BRANCH_MISPREDICTION = 1;       /** Category of the bubbles inserted by the flush of a mispredicted branch */
+  public static final int DATA_HAZARD = 2;                /** Category of the NOPs fetched from memory (Padding data hazards) */
+  public static final int FRONT_END = 3;                  /** Category of the bubbles executed since the front-end hadn't delivered an instruction */
+  public static final int STRUCTURAL = 4;                 /** Category of the bubbles executed since the II stage couldn't issue */
+  public static final int MEMORY = 5;                     /** Category of the cycles waiting for memory (Not modelled yet) */
+  public static final String[] CATEGORY_NAMES = {"base", "branchMisprediction", "dataHazard", "frontEnd", "structural", "memory"};    /** Name of every category (Used in the PMU event names) */
+  public static final String[] CATEGORY_DESCRIPTIONS = {"Base (Instructions executed)", "Branch misprediction flush", "Data hazard NOPs",
+                                                        "Front-end empty", "Structural stall", "Memory latency"};     /** Description of every category */
+  public static final String EVENT_PREFIX = "cpi.";       /** Prefix of the PMU events counting the cycles of every category */
+
+  private final Pmu pmu;                                  /** Reference to the PMU counting the cycles */
+  private final int[] events = new int[CATEGORY_NAMES.length];      /** PMU index of the total cycle counter of every category */
+  private final List<String> regionNames = new ArrayList<String>(); /** Name of every program region */
+  private int[] regionFirst = new int[0];                 /** First memory location of every program region */
+  private int[] regionLast = new int[0];                  /** Last memory location of every program region */
+  private int[][] regionEvents = new int[0][];            /** PMU index of the cycle counter of every category of every program region */
+  private int bubbleCause = FRONT_END;                    /** Category the next bubble is attributed to (Unless it is a structural stall) */
+  private int[] lastRegions = new int[0];                 /** Regions containing the last instruction executed (First lastRegionCount entries). Bubbles are attributed to them */
+  private int lastRegionCount;                            /** Number of regions containing the last instruction executed (0 = outside of every region) */
+
+  /**
+   * Parameterized constructor
+   * @param  pmu PMU counting the cycles of every category
+   * @return     No return value since this is a constructor
+   */
+  public CpiStack(Pmu pmu)
+  {
+    this.pmu = pmu;
+    for (int category = 0; category < CATEGORY_NAMES.length; category++)
+    {
+      events[category] = pmu.register(EVENT_PREFIX + CATEGORY_NAMES[category], "Cycles attributed to: " + CATEGORY_DESCRIPTIONS[category]);
+    }
+  }
+
+  /**
+   * Method to add a program region the cycles are broken down for. Needs to be called before the simulation starts.
+   * @param name  Name of the region
+   * @param first First memory location of the region
+   * @param last  Last memory location of the region
+   */
+  public void addRegion(String name, int first, int last)
+  {
+    if (first > last)
+    {
+      throw new IllegalArgumentException("Invalid CPI region " + name + " (First location " + first + " is after the last location " + last + ")");
+    }
+    int region = regionNames.size();
+    int[] categoryEvents = new int[CATEGORY_NAMES.length];
+    for (int category = 0; category < CATEGORY_NAMES.length; category++)
+    {
+      categoryEvents[category] = pmu.register(EVENT_PREFIX + name + "." + CATEGORY_NAMES[category], "Cycles attributed to: " +
+                                              CATEGORY_DESCRIPTIONS[category] + " (Region " + name + ")");
+    }
+    regionNames.add(name);
+    regionFirst = Arrays.copyOf(regionFirst, region + 1);
+    regionLast = Arrays.copyOf(regionLast, region + 1);
+    regionEvents = Arrays.copyOf(regionEvents, region + 1);
+    regionFirst[region] = first;
+    regionLast[region] = last;
+    regionEvents[region] = categoryEvents;
+    lastRegions = Arrays.copyOf(lastRegions, region + 1);
+  }
+
+  /**
+   * Method to set the category the following bubbles are attributed to. Called when the pipeline is flushed.
+   * @param category Category (e.g. BRANCH_MISPREDICTION)
+   */
+  public void setBubbleCause(int category)
+  {
+    bubbleCause = category;
+  }
+
+  /**
+   * Method to attribute the current cycle to an instruction executed by the IE stage
+   * @param memoryFetchLocation Memory location from which the instruction was fetched
+   * @param nop                 True if the instruction is a NOP fetched from memory
+   */
+  public void recordInstruction(int memoryFetchLocation, boolean nop)
+  {
+    this.findRegions(memoryFetchLocation);
+    bubbleCause = FRONT_END;          // The front-end has delivered an instruction, hence, any flush has been recovered from
+    this.record(nop ? DATA_HAZARD : BASE, 1);
+  }
+
+  /**
+   * Method to attribute cycles in which the IE stage executed a bubble
+   * @param structuralStall True if the bubble was executed since the II stage couldn't issue in the previous cycle
+   * @param cycles          Number of cycles
+   */
+  public void recordBubbles(boolean structuralStall, long cycles)
+  {
+    this.record(structuralStall ? STRUCTURAL : bubbleCause, cycles);
+  }
+
+  /**
+   * Method to count cycles of a category (Total and for every region containing the last instruction executed)
+   * @param category Category
+   * @param cycles   Number of cycles
+   */
+  private void record(int category, long cycles)
+  {
+    pmu.add(events[category], cycles);
+    for (int index = 0; index < lastRegionCount; index++)
+    {
+      pmu.add(regionEvents[lastRegions[index]][category], cycles);
+    }
+  }
+
+  /**
+   * Method to find every program region a memory location belongs to (Overlapping and nested regions all contain it). The regions are
+   * stored in lastRegions.
+   * @param memoryFetchLocation Memory location
+   */
+  private void findRegions(int memoryFetchLocation)
+  {
+    lastRegionCount = 0;
+    for (int region = 0; region < regionFirst.length; region++)
+    {
+      if (memoryFetchLocation >= regionFirst[region] && memoryFetchLocation <= regionLast[region])
+      {
+        lastRegions[lastRegionCount++] = region;
+      }
+    }
+  }
+
+  /**
+   * Method to print the CPI stack (Total and per program region)
+   * @param out               Stream the CPI stack is printed to
+   * @param validInstructions Number of valid instructions executed (The CPI of every category is relative to it)
+   */
+  public void printSummary(PrintStream out, long validInstructions)
+  {
+    long[] cycles = new long[CATEGORY_NAMES.length];
+    for (int category = 0; category < CATEGORY_NAMES.length; category++)
+    {
+      cycles[category] = pmu.get(events[category]);
+    }
+    this.printStack(out, "Total", cycles, validInstructions);
+    for (int region = 0; region < regionNames.size(); region++)
+    {
+      for (int category = 0; category < CATEGORY_NAMES.length; category++)
+      {
+        cycles[category] = pmu.get(regionEvents[region][category]);
+      }
+      out.println();
+      this.printStack(out, "Region " + regionNames.get(region) + " [" + regionFirst[region] + ":" + regionLast[region] + "]", cycles,
+                      cycles[BASE]);      // The instructions executed in a region are its base cycles
+    }
+  }
+
+  /**
+   * Method to print a single CPI stack
+   * @param out               Stream the CPI stack is printed to
+   * @param title             Title of the stack
+   * @param cycles            Cycles of every category
+   * @param validInstructions Number of valid instructions executed
+   */
+  private void printStack(PrintStream out, String title, long[] cycles, long validInstructions)
+  {
+    long totalCycles = 0;
+    for (long categoryCycles : cycles)
+    {
+      totalCycles += categoryCycles;
+    }
+    out.println(title + ": " + totalCycles + " cycles, " + validInstructions + " instructions");
+    out.format("%-28s %12s %8s %10s%n", "Category", "Cycles", "Share", "CPI");
+    for (int category = 0; category < CATEGORY_NAMES.length; category++)
+    {
+      out.format(Locale.ROOT, "%-28s %12d %7.2f%% %10.4f%n", CATEGORY_DESCRIPTIONS[category], cycles[category],
+                 (totalCycles == 0) ? 0.0 : (100.0 * cycles[category] / totalCycles),
+                 (validInstructions == 0) ? 0.0 : ((double) cycles[category] / validInstructions));
+    }
+    out.format(Locale.ROOT, "%-28s %12d %7.2f%% %10.4f%n", "Total", totalCycles, (totalCycles == 0) ? 0.0 : 100.0,
+               (validInstructions == 0) ? 0.0 : ((double) totalCycles / validInstructions));
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * @file DecodedInstruction.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the DecodedInstruction class. A decoded instruction is an immutable template holding all the information
+ * that can be extracted from an instruction word (OpCode, type, mnemonic, execution unit, register locations and the signed immediate).
+ * Templates are stored in the DecodedInstructionCache so that the same memory word doesn't need to be decoded again every time it is
+ * fetched. The ID stage copies a template into a slot of the InstructionTable for every instruction that flows down the pipeline.
+ */
+
+/**
+ * Immutable decoded instruction template.
+ */
+public final class DecodedInstruction
+{
+  private final int instruction;                  /** Instruction value (i.e. the memory word that was decoded) */
+  private final int opCode;                       /** Decoded OpCode */
+  private final String instructionType;           /** Decoded instruction type */
+  private final String instructionMnemonic;       /** Decoded instruction mnemonic */
+  private final ExecutionUnit executionUnit;      /** Execution unit required to execute the instruction */
+  private final int numberOfCycles;               /** Number of cycles required to execute the instruction */
+  private final int sourceReg1Loc;                /** Source register 1 number - NOT THE VALUE STORED IN THIS REGISTER */
+  private final int sourceReg2Loc;                /** Source register 2 number - NOT THE VALUE STORED IN THIS REGISTER */
+  private final int destinationRegLoc;            /** Destination register number - NOT THE VALUE STORED IN THIS REGISTER */
+  private final int signedImmediateVal;           /** Signed immediate value encoded/embedded in the instruction */
+
+  /**
+   * Parameterized constructor
+   * @return No return value since this is a constructor
+   */
+  public DecodedInstruction(int instruction, int opCode, String instructionType, String instructionMnemonic, ExecutionUnit executionUnit, int numberOfCycles, int sourceReg1Loc, int sourceReg2Loc, int destinationRegLoc, int signedImmediateVal)
+  {
+    this.instruction = instruction;
+    this.opCode = opCode;
+    this.instructionType = instructionType;
+    this.instructionMnemonic = instructionMnemonic;
+    this.executionUnit = executionUnit;
+    this.numberOfCycles = numberOfCycles;
+    this.sourceReg1Loc = sourceReg1Loc;
+    this.sourceReg2Loc = sourceReg2Loc;
+    this.destinationRegLoc = destinationRegLoc;
+    this.signedImmediateVal = signedImmediateVal;
+  }
+
+  /**
+   * Method to obtain the instruction value (i.e. the memory word that was decoded)
+   * @return Instruction value
+   */
+  public int getInstructionVal()
+  {
+    return instruction;
+  }
+
+  /**
+   * Method to obtain the OpCode
+   * @return Instruction's OpCode
+   */
+  public int getOpCode()
+  {
+    return opCode;
+  }
+
+  /**
+   * Method to obtain the instruction type
+   * @return Type of instruction
+   */
+  public String getInstructionType()
+  {
+    return instructionType;
+  }
+
+  /**
+   * Method to obtain the instruction mnemonic
+   * @return Instruction mnemonic
+   */
+  public String getInstructionMnemonic()
+  {
+    return instructionMnemonic;
+  }
+
+  /**
+   * Method to obtain the type of execution unit (EU) required to execute the instruction
+   * @return Type of execution unit (EU)
+   */
+  public ExecutionUnit getExecutionUnit()
+  {
+    return executionUnit;
+  }
+
+  /**
+   * Method to obtain the number of cycles required to execute the instruction
+   * @return Number of cycles
+   */
+  public int getNumberOfCycles()
+  {
+    return numberOfCycles;
+  }
+
+  /**
+   * Method to obtain the location of source register 1
+   * @return Location of source register 1
+   */
+  public int getSourceReg1Loc()
+  {
+    return sourceReg1Loc;
+  }
+
+  /**
+   * Method to obtain the location of source register 2
+   * @return Location of source register 2
+   */
+  public int getSourceReg2Loc()
+  {
+    return sourceReg2Loc;
+  }
+
+  /**
+   * Method to obtain the location of the destination register
+   * @return Location of the destination register
+   */
+  public int getDestinationRegLoc()
+  {
+    return destinationRegLoc;
+  }
+
+  /**
+   * Method to obtain the signed immediate value
+   * @return Signed immediate value
+   */
+  public int getSignedImmediateVal()
+  {
+    return signedImmediateVal;
+  }
+}
@@ -0,0 +1,190 @@
+/**
+ * @file DecodedInstructionCache.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the DecodedInstructionCache class. It holds one decoded instruction template per memory location so that the
+ * IF stage (pre-decode) and the ID stage only need to decode a memory word the first time it is fetched. Every lookup is checked against the
+ * instruction word that was actually fetched, hence, a stale entry can never be used. Entries are also explicitly invalidated by the LSU
+ * when a store (SW) writes to a location, which keeps self-modifying code correct. The entries are held in pages (See PageDirectory) that are
+ * only allocated once an instruction in the page has been decoded, i.e. only the code pages of a large memory take up any space.
+ */
+
+// Import packages
+import java.util.*;
+
+/**
+ * Decoded instruction cache indexed by memory address.
+ */
+public class DecodedInstructionCache
+{
+  private final PageDirectory<DecodedInstruction[]> entries;     /** Pages of decoded instruction templates, indexed by memory address */
+  private int lastPageNumber = -1;          /** Page number of the page used by the last lookup (-1 = no page cached) */
+  private DecodedInstruction[] lastPage;    /** Page used by the last lookup */
+  private long hits;                        /** Number of lookups that found a valid template */
+  private long misses;                      /** Number of lookups that required the instruction to be decoded */
+  private long invalidations;               /** Number of entries invalidated by stores */
+  private BlockTranslator blockTranslator;  /** Block translator whose translated blocks are invalidated along with the entries (null = no block translation) */
+
+  /**
+   * Parameterized constructor
+   * @param  memorySize Size of main memory (i.e. number of locations that can be cached)
+   * @return            No return value since this is a constructor
+   */
+  public DecodedInstructionCache(long memorySize)
+  {
+    entries = new PageDirectory<DecodedInstruction[]>(memorySize);
+  }
+
+  /**
+   * Method to obtain the page of entries holding a memory location
+   * @param  memoryLocation Memory location
+   * @param  allocate       True if the page needs to be allocated if it doesn't exist
+   * @return                Page of entries, or null if the page doesn't exist
+   */
+  private DecodedInstruction[] getPage(int memoryLocation, boolean allocate)
+  {
+    int pageNumber = PageDirectory.getPageNumber(memoryLocation);
+    if (pageNumber == lastPageNumber)
+    {
+      return lastPage;
+    }
+    DecodedInstruction[] page = entries.get(pageNumber);
+    if (page == null)
+    {
+      if (!allocate || pageNumber >= entries.getPages())
+      {
+        return null;
+      }
+      page = new DecodedInstruction[PageDirectory.PAGE_SIZE];
+      entries.put(pageNumber, page);
+    }
+    lastPageNumber = pageNumber;
+    lastPage = page;
+    return page;
+  }
+
+  /**
+   * Method to look up the decoded template for an instruction
+   * @param  memoryLocation Memory location from which the instruction was fetched
+   * @param  instruction    Instruction value that was fetched
+   * @return                Decoded template, or null if the instruction needs to be decoded
+   */
+  public DecodedInstruction lookup(int memoryLocation, int instruction)
+  {
+    DecodedInstruction[] page = this.getPage(memoryLocation, false);
+    if (page != null)
+    {
+      DecodedInstruction entry = page[memoryLocation & PageDirectory.PAGE_MASK];
+      if (entry != null && entry.getInstructionVal() == instruction)      // Only use the entry if it was decoded from the same instruction word
+      {
+        hits++;
+        return entry;
+      }
+    }
+    misses++;
+    return null;
+  }
+
+  /**
+   * Method to look up the decoded template for an instruction without counting a hit or a miss (Used by the later stages of the pipeline,
+   * which need the template of an instruction that has already been fetched)
+   * @param  memoryLocation Memory location from which the instruction was fetched
+   * @param  instruction    Instruction value that was fetched
+   * @return                Decoded template, or null if the instruction isn't held in the cache
+   */
+  public DecodedInstruction peek(int memoryLocation, int instruction)
+  {
+    DecodedInstruction[] page = this.getPage(memoryLocation, false);
+    if (page != null)
+    {
+      DecodedInstruction entry = page[memoryLocation & PageDirectory.PAGE_MASK];
+      if (entry != null && entry.getInstructionVal() == instruction)
+      {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Method to insert a decoded template for a memory location
+   * @param memoryLocation     Memory location from which the instruction was fetched
+   * @param decodedInstruction Decoded template
+   */
+  public void insert(int memoryLocation, DecodedInstruction decodedInstruction)
+  {
+    DecodedInstruction[] page = this.getPage(memoryLocation, true);
+    if (page != null)
+    {
+      page[memoryLocation & PageDirectory.PAGE_MASK] = decodedInstruction;
+    }
+  }
+
+  /**
+   * Method to invalidate the entry for a memory location. Called by the LSU when a value is stored to memory.
+   * @param memoryLocation Memory location that has been written to
+   */
+  public void invalidate(int memoryLocation)
+  {
+    if (blockTranslator != null)
+    {
+      blockTranslator.invalidate(memoryLocation);
+    }
+    DecodedInstruction[] page = this.getPage(memoryLocation, false);
+    if (page != null && page[memoryLocation & PageDirectory.PAGE_MASK] != null)
+    {
+      page[memoryLocation & PageDirectory.PAGE_MASK] = null;
+      invalidations++;
+    }
+  }
+
+  /**
+   * Method to invalidate all the entries in the cache
+   */
+  public void clear()
+  {
+    entries.clear();
+    lastPageNumber = -1;
+    lastPage = null;
+    if (blockTranslator != null)
+    {
+      blockTranslator.clear();
+    }
+  }
+
+  /**
+   * Method to set the block translator whose translated blocks need to be invalidated along with the entries of this cache
+   * @param blockTranslator Block translator
+   */
+  public void setBlockTranslator(BlockTranslator blockTranslator)
+  {
+    this.blockTranslator = blockTranslator;
+  }
+
+  /**
+   * Method to obtain the number of cache hits
+   * @return Number of cache hits
+   */
+  public long getHits()
+  {
+    return hits;
+  }
+
+  /**
+   * Method to obtain the number of cache misses
+   * @return Number of cache misses
+   */
+  public long getMisses()
+  {
+    return misses;
+  }
+
+  /**
+   * Method to obtain the number of entries invalidated by stores
+   * @return Number of invalidated entries
+   */
+  public long getInvalidations()
+  {
+    return invalidations;
+  }
+}
@@ -0,0 +1,233 @@
+/**
+ * @file Executable.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the Executable class that holds the executable binary generated by the Assembler, and reads and writes it
+ * from and to the executable binary file. The file is read through a memory-mapped FileChannel: The words of every segment are handed to
+ * the memory as IntBuffer views of the mapped file, which the memory copies into its pages in bulk (See Memory.load()), hence, loading a
+ * large program is dominated by the I/O rather than by deserialization.
+ *
+ * File layout (All values are little-endian 32 bit integers, so that the segment views can be copied without swapping the bytes on the
+ * usual hosts):
+ *  - Magic number and format version
+ *  - Entry point (Address of the first instruction executed)
+ *  - Number of segments
+ *  - Segment table: Type (.text or .data), load address and number of words of every segment
+ *  - Words of every segment (In the same order as the segment table)
+ * Only the locations assembled are stored: Locations between the segments are left at the memory initialization value.
+ */
+
+// Import packages
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Executable binary generated by the Assembler.
+ */
+public final class Executable
+{
+  public static final int MAGIC = 0x41434158;     /** Magic number identifying an executable file ("ACAX") */
+  public static final int VERSION = 1;            /** Version of the executable format. Needs to be incremented whenever the layout changes */
+  public static final int SEGMENT_TEXT = 0;       /** Segment holding instructions */
+  public static final int SEGMENT_DATA = 1;       /** Segment holding data */
+  private static final int HEADER_SIZE = 4 * Integer.BYTES;               /** Size of the header (Magic number, version, entry point and number of segments) */
+  private static final int SEGMENT_ENTRY_SIZE = 3 * Integer.BYTES;        /** Size of an entry in the segment table */
+  private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+  private final int entryPoint;                   /** Address of the first instruction executed */
+  private final List<Segment> segments;           /** Segments (In ascending order of their load address) */
+
+  /**
+   * Contiguous block of locations loaded into memory.
+   */
+  public static final class Segment
+  {
+    private final int type;                       /** SEGMENT_TEXT or SEGMENT_DATA */
+    private final int loadAddress;                /** Address of the first location of the segment */
+    private final IntBuffer words;                /** Contents of the segment */
+
+    /**
+     * Parameterized constructor
+     * @param  type        Segment type (SEGMENT_TEXT or SEGMENT_DATA)
+     * @param  loadAddress Address of the first location of the segment
+     * @param  words       Contents of the segment (From the buffer's position to its limit)
+     * @return             No return value since this is a constructor
+     */
+    public Segment(int type, int loadAddress, IntBuffer words)
+    {
+      this.type = type;
+      this.loadAddress = loadAddress;
+      this.words = words.slice();
+    }
+
+    /**
+     * Method to obtain the type of the segment
+     * @return SEGMENT_TEXT or SEGMENT_DATA
+     */
+    public int getType()
+    {
+      return type;
+    }
+
+    /**
+     * Method to obtain the load address of the segment
+     * @return Address of the first location of the segment
+     */
+    public int getLoadAddress()
+    {
+      return loadAddress;
+    }
+
+    /**
+     * Method to obtain the number of words in the segment
+     * @return Number of words
+     */
+    public int getSize()
+    {
+      return words.capacity();
+    }
+
+    /**
+     * Method to obtain the contents of the segment
+     * @return Read-only view of the words of the segment (Positioned at the first word)
+     */
+    public IntBuffer getWords()
+    {
+      return words.asReadOnlyBuffer();
+    }
+  }
+
+  /**
+   * Parameterized constructor
+   * @param  entryPoint Address of the first instruction executed
+   * @param  segments   Segments of the program
+   * @return            No return value since this is a constructor
+   */
+  public Executable(int entryPoint, List<Segment> segments)
+  {
+    this.entryPoint = entryPoint;
+    this.segments = Collections.unmodifiableList(new ArrayList<Segment>(segments));
+  }
+
+  /**
+   * Method to obtain the entry point of the program
+   * @return Address of the first instruction executed
+   */
+  public int getEntryPoint()
+  {
+    return entryPoint;
+  }
+
+  /**
+   * Method to obtain the segments of the program
+   * @return Segments (In ascending order of their load address)
+   */
+  public List<Segment> getSegments()
+  {
+    return segments;
+  }
+
+  /**
+   * Method to check if the program is empty
+   * @return True if the program doesn't contain any segment
+   */
+  public boolean isEmpty()
+  {
+    return segments.isEmpty();
+  }
+
+  /**
+   * Method to write the executable to a file
+   * @param  executableFileName Name of the executable file (Overwritten if it already exists)
+   * @throws IOException        If the executable file can't be written
+   */
+  public void write(String executableFileName) throws IOException
+  {
+    long fileSize = HEADER_SIZE + ((long) SEGMENT_ENTRY_SIZE * segments.size());
+    for (Segment segment : segments)
+    {
+      fileSize += (long) segment.getSize() * Integer.BYTES;
+    }
+    try (FileChannel channel = FileChannel.open(Paths.get(executableFileName), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+    {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+      buffer.order(BYTE_ORDER);
+      buffer.putInt(MAGIC);
+      buffer.putInt(VERSION);
+      buffer.putInt(entryPoint);
+      buffer.putInt(segments.size());
+      for (Segment segment : segments)
+      {
+        buffer.putInt(segment.getType());
+        buffer.putInt(segment.getLoadAddress());
+        buffer.putInt(segment.getSize());
+      }
+      for (Segment segment : segments)
+      {
+        buffer.asIntBuffer().put(segment.getWords());             // Bulk copy of the segment
+        buffer.position(buffer.position() + (segment.getSize() * Integer.BYTES));
+      }
+    }
+  }
+
+  /**
+   * Method to read an executable file. The segments are views of the mapped file (Nothing is copied until the program is loaded into memory).
+   * @param  executableFileName Name of the executable file
+   * @return                    Executable
+   * @throws IOException        If the executable file can't be read or is not a valid executable
+   */
+  public static Executable read(String executableFileName) throws IOException
+  {
+    try (FileChannel channel = FileChannel.open(Paths.get(executableFileName), StandardOpenOption.READ))
+    {
+      if (channel.size() < HEADER_SIZE)
+      {
+        throw new IOException("Invalid executable file (" + executableFileName + " is too small).");
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());     // The mapping stays valid after the channel is closed
+      buffer.order(BYTE_ORDER);
+      if (buffer.getInt() != MAGIC)
+      {
+        throw new IOException("Invalid executable file (" + executableFileName + " is not an executable generated by the Assembler).");
+      }
+      int version = buffer.getInt();
+      if (version != VERSION)
+      {
+        throw new IOException("Unsupported executable version (Found " + version + ", expected " + VERSION + ").");
+      }
+      int entryPoint = buffer.getInt();
+      int segmentCount = buffer.getInt();
+      if (segmentCount < 0 || segmentCount > (buffer.remaining() / SEGMENT_ENTRY_SIZE))
+      {
+        throw new IOException("Invalid executable file (" + executableFileName + " has an invalid segment table).");
+      }
+      int[] types = new int[segmentCount];
+      int[] loadAddresses = new int[segmentCount];
+      int[] sizes = new int[segmentCount];
+      for (int segmentIndex = 0; segmentIndex < segmentCount; segmentIndex++)
+      {
+        types[segmentIndex] = buffer.getInt();
+        loadAddresses[segmentIndex] = buffer.getInt();
+        sizes[segmentIndex] = buffer.getInt();
+      }
+      List<Segment> segments = new ArrayList<Segment>(segmentCount);
+      IntBuffer words = buffer.asIntBuffer();
+      for (int segmentIndex = 0; segmentIndex < segmentCount; segmentIndex++)
+      {
+        if (sizes[segmentIndex] < 0 || sizes[segmentIndex] > words.remaining())
+        {
+          throw new IOException("Invalid executable file (" + executableFileName + " is truncated).");
+        }
+        words.limit(words.position() + sizes[segmentIndex]);
+        segments.add(new Segment(types[segmentIndex], loadAddresses[segmentIndex], words));
+        words.position(words.limit());
+        words.limit(words.capacity());
+      }
+      return new Executable(entryPoint, segments);
+    }
+  }
+}
@@ -0,0 +1,280 @@
+/**
+ * @file FunctionalInterpreter.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the FunctionalInterpreter class. It executes one instruction at a time directly on the architectural state
+ * (i.e. the same Register and Memory objects used by the pipeline) without modelling any pipeline latches, branch prediction or timing. It is
+ * used to fast-forward through the start of a program before handing the architectural state over to the (detailed) pipeline simulation.
+ * The semantics of every instruction are the same as those implemented by the ALU, LSU and BU.
+ */
+
+// Import packages
+import java.util.*;
+
+/**
+ * Instruction-at-a-time functional interpreter.
+ */
+public class FunctionalInterpreter
+{
+  private Register cpuRegisters;                              /** Reference to architectural registers */
+  private Memory cpuMemory;                                   /** Reference to main memory */
+  private DecodedInstructionCache decodedInstructionCache;    /** Reference to the decoded instruction cache (Shared with the pipeline) */
+  private long instructionsExecuted;                          /** Number of instructions executed functionally */
+  private BlockTranslator blockTranslator;                    /** Reference to the block translator (null = instructions are interpreted one at a time) */
+
+  /**
+   * Parameterized constructor
+   * @param  cpuRegisters            Architectural registers
+   * @param  cpuMemory               Main memory
+   * @param  decodedInstructionCache Decoded instruction cache
+   * @return                         No return value since this is a constructor
+   */
+  public FunctionalInterpreter(Register cpuRegisters, Memory cpuMemory, DecodedInstructionCache decodedInstructionCache)
+  {
+    this.cpuRegisters = cpuRegisters;
+    this.cpuMemory = cpuMemory;
+    this.decodedInstructionCache = decodedInstructionCache;
+  }
+
+  /**
+   * Method to turn on block translation. Whole basic blocks are then executed as translated (threaded-code) blocks and instructions are only
+   * interpreted one at a time when fewer instructions than the next block holds are left to execute.
+   */
+  public void enableBlockTranslation()
+  {
+    if (blockTranslator == null)
+    {
+      blockTranslator = new BlockTranslator(cpuRegisters, cpuMemory, decodedInstructionCache, this);
+    }
+  }
+
+  /**
+   * Method to turn on block translation and the compilation of hot blocks to JVM bytecode
+   * @param compileThreshold Number of times a block needs to be executed before it is compiled
+   */
+  public void enableBlockCompilation(int compileThreshold)
+  {
+    this.enableBlockTranslation();
+    blockTranslator.setBlockCompiler(new BlockCompiler(cpuRegisters, cpuMemory), compileThreshold);
+  }
+
+  /**
+   * Method to obtain the block translator
+   * @return Block translator (null if block translation is turned off)
+   */
+  public BlockTranslator getBlockTranslator()
+  {
+    return blockTranslator;
+  }
+
+  /**
+   * Method to execute instructions starting from the current PC. Execution stops after the requested number of instructions or as soon as
+   * the program makes the supervisor call to halt, whichever comes first. The PC is left pointing at the next instruction to be executed.
+   * @param  maxInstructions Maximum number of instructions to execute
+   * @return                 Number of instructions actually executed
+   */
+  public long run(long maxInstructions)
+  {
+    int programCounter = cpuRegisters.readPC();
+    long executed = 0;
+    while (executed < maxInstructions && cpuRegisters.readGP(GlobalConstants.SVC_REGISTER) != GlobalConstants.SVC_SUSPEND)
+    {
+      if (blockTranslator != null)
+      {
+        TranslatedBlock block = blockTranslator.getBlock(programCounter);
+        while (block.getLength() <= maxInstructions - executed)       // Blocks end after any write to the SVC register, hence, a halt is only checked for between blocks
+        {
+          programCounter = blockTranslator.execute(block);
+          executed += block.getLength();
+          if (cpuRegisters.readGP(GlobalConstants.SVC_REGISTER) == GlobalConstants.SVC_SUSPEND)
+          {
+            break;
+          }
+          block = blockTranslator.getNextBlock(block, programCounter);
+        }
+        if (executed == maxInstructions || cpuRegisters.readGP(GlobalConstants.SVC_REGISTER) == GlobalConstants.SVC_SUSPEND)
+        {
+          break;
+        }
+      }
+      int instruction = cpuMemory.readValue(programCounter);
+      DecodedInstruction decodedInstruction = decodedInstructionCache.lookup(programCounter, instruction);
+      if (decodedInstruction == null)       // Cache miss - Decode the instruction and store it for future fetches
+      {
+        decodedInstruction = InstructionDecoder.decode(instruction);     // Throws an IllegalInstructionException if the OpCode is not specified in the ISA
+        decodedInstructionCache.insert(programCounter, decodedInstruction);
+      }
+      programCounter = this.execute(decodedInstruction, programCounter);
+      executed++;
+    }
+    cpuRegisters.writePC(programCounter);       // Hand over the PC to the pipeline (Sets both the actual and the incremented PC)
+    cpuRegisters.updatePC(true);
+    instructionsExecuted += executed;
+    return executed;
+  }
+
+  /**
+   * Method to execute a single instruction (Also used by the block translator for BL and RET)
+   * @param  decodedInstruction Decoded instruction to execute
+   * @param  programCounter     Memory location from which the instruction was fetched
+   * @return                    Memory location of the next instruction to execute
+   */
+  int execute(DecodedInstruction decodedInstruction, int programCounter)
+  {
+    int sourceReg1Val = cpuRegisters.readGP(decodedInstruction.getSourceReg1Loc());
+    int sourceReg2Val = cpuRegisters.readGP(decodedInstruction.getSourceReg2Loc());
+    int signedImmediateVal = decodedInstruction.getSignedImmediateVal();
+    int destinationRegLoc = decodedInstruction.getDestinationRegLoc();
+    int branchTarget = programCounter + signedImmediateVal;
+    switch (decodedInstruction.getOpCode())
+    {
+      case Isa.NOP:
+        break;
+
+      case Isa.ADD:
+        cpuRegisters.writeGP(destinationRegLoc, sourceReg1Val + sourceReg2Val);
+        break;
+
+      case Isa.SUB:
+        cpuRegisters.writeGP(destinationRegLoc, sourceReg1Val - sourceReg2Val);
+        break;
+
+      case Isa.MULT:
+        cpuRegisters.writeGP(destinationRegLoc, sourceReg1Val * sourceReg2Val);
+        break;
+
+      case Isa.DIV:
+        cpuRegisters.writeGP(destinationRegLoc, sourceReg1Val / sourceReg2Val);
+        break;
+
+      case Isa.ADDI:
+        cpuRegisters.writeGP(destinationRegLoc, sourceReg1Val + signedImmediateVal);
+        break;
+
+      case Isa.SUBI:
+        cpuRegisters.writeGP(destinationRegLoc, sourceReg1Val - signedImmediateVal);
+        break;
+
+      case Isa.AND:
+        cpuRegisters.writeGP(destinationRegLoc, sourceReg1Val & sourceReg2Val);
+        break;
+
+      case Isa.OR:
+        cpuRegisters.writeGP(destinationRegLoc, sourceReg1Val | sourceReg2Val);
+        break;
+
+      case Isa.XOR:
+        cpuRegisters.writeGP(destinationRegLoc, sourceReg1Val ^ sourceReg2Val);
+        break;
+
+      case Isa.NOT:
+        cpuRegisters.writeGP(destinationRegLoc, ~ sourceReg1Val);
+        break;
+
+      case Isa.SLL:
+        cpuRegisters.writeGP(destinationRegLoc, sourceReg1Val << signedImmediateVal);
+        break;
+
+      case Isa.SLR:
+        cpuRegisters.writeGP(destinationRegLoc, sourceReg1Val >>> signedImmediateVal);
+        break;
+
+      case Isa.SLLV:
+        cpuRegisters.writeGP(destinationRegLoc, sourceReg1Val << sourceReg2Val);
+        break;
+
+      case Isa.SRA:
+        cpuRegisters.writeGP(destinationRegLoc, sourceReg1Val >> signedImmediateVal);
+        break;
+
+      case Isa.LW:
+        cpuRegisters.writeGP(destinationRegLoc, cpuMemory.readValue(sourceReg1Val + signedImmediateVal));
+        break;
+
+      case Isa.SW:
+        int memoryAddress = cpuRegisters.readGP(destinationRegLoc) + signedImmediateVal;     // SW sr1, dr, Ix - The destination register holds the base address
+        cpuMemory.writeValue(memoryAddress, sourceReg1Val);
+        decodedInstructionCache.invalidate(memoryAddress);       // Invalidate any decoded instruction held for this location (Self-modifying code)
+        break;
+
+      case Isa.MOVI:
+        cpuRegisters.writeGP(destinationRegLoc, signedImmediateVal);
+        break;
+
+      case Isa.MOVR:
+        cpuRegisters.writeGP(destinationRegLoc, sourceReg1Val);
+        break;
+
+      case Isa.BU:
+        return branchTarget;
+
+      case Isa.BL:
+        cpuRegisters.writeLR(programCounter + 1);                // Write the return address to the link regiter (Note LR = PC + 1)
+        for (int regNumber = 0; regNumber < GlobalConstants.BL_ITEMS_TO_PUSH; regNumber++)
+        {
+          if (regNumber < GlobalConstants.TOTAL_GP_REGISTERS)    // Push values stored in the GP registers on to the stack (Starting from R0 ... to R15)
+          {
+            cpuMemory.stackPush(cpuRegisters.readGP(regNumber));
+          }
+          else              // Push value stored in the link register on to the stack
+          {
+            cpuMemory.stackPush(cpuRegisters.readLR());
+          }
+        }
+        return branchTarget;
+
+      case Isa.RET:
+        int returnAddress = programCounter + 1;
+        for (int regNumber = (GlobalConstants.RET_ITEMS_TO_POP - 1); regNumber >= 0; regNumber--)
+        {
+          if (regNumber == GlobalConstants.TOTAL_GP_REGISTERS)     // Pop the value of the LR register off the stack
+          {
+            returnAddress = cpuMemory.stackPop();
+          }
+          else if (regNumber != 0)        // Pop the values of all GP registers off the stack (Starting from R15 ... to R1)
+          {
+            cpuRegisters.writeGP(regNumber, cpuMemory.stackPop());
+          }
+          else                            // Pop the value for R0 off the stack but don't write it back to R0 since R0 is write protected
+          {
+            cpuMemory.stackPop();
+          }
+        }
+        return returnAddress;
+
+      case Isa.BEQ:
+        return (sourceReg1Val == sourceReg2Val) ? branchTarget : (programCounter + 1);
+
+      case Isa.BNE:
+        return (sourceReg1Val != sourceReg2Val) ? branchTarget : (programCounter + 1);
+
+      case Isa.BLT:
+        return (sourceReg1Val < sourceReg2Val) ? branchTarget : (programCounter + 1);
+
+      case Isa.BGT:
+        return (sourceReg1Val > sourceReg2Val) ? branchTarget : (programCounter + 1);
+
+      default:
+        throw new IllegalInstructionException("Invalid instruction! OpCode " + decodedInstruction.getOpCode() + " is not specified in the ISA.");
+    }
+    return programCounter + 1;
+  }
+
+  /**
+   * Method to set the total number of instructions executed functionally. Used when the simulation is restored from a checkpoint.
+   * @param instructionsExecuted Number of instructions executed
+   */
+  public void setInstructionsExecuted(long instructionsExecuted)
+  {
+    this.instructionsExecuted = instructionsExecuted;
+  }
+
+  /**
+   * Method to obtain the total number of instructions executed functionally
+   * @return Number of instructions executed
+   */
+  public long getInstructionsExecuted()
+  {
+    return instructionsExecuted;
+  }
+}
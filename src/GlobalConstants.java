@@ -24,7 +24,13 @@ public final class GlobalConstants
   public static final int PROCESSOR_WORD_LENGTH = 32;             // Word length the of the processor - the biggest piece of data that can be handled as a unit by the processor - This also specifies the data size that can be stored in the architectural registers, main memory and memory address sizes.
   public static final int PIPELINE_LENGTH = 5;
   public static final int INSTRUCTION_QUEUE_CAPACITY = 100;
+  public static final int TRACE_RING_RECORDS = 4096;                    // Number of records held in the pipeline trace ring (Needs to be a power of 2)
+  public static final int PHT_ENTRIES = 1024;                           // Number of 2 bit counters in the pattern history table of the gshare branch predictor (Needs to be a power of 2)
+  public static final int GLOBAL_HISTORY_BITS = 10;                     // Number of branch outcomes held in the global history register of the gshare branch predictor
   public static final int INSTRUCTION_LIST_START_INDEX = 0;
+  public static final int BLOCK_COMPILE_THRESHOLD = 100;                // Number of times a translated basic block needs to be executed before it is compiled to JVM bytecode
+  public static final int INSTRUCTION_TABLE_CAPACITY = 128;             // Number of slots in the in-flight instruction table. Needs to be a power of 2 and at least INSTRUCTION_QUEUE_CAPACITY + PIPELINE_LENGTH (The most instructions that can be in flight at once)
+  public static final int BHT_ENTRIES = 256;                            // Number of 2 bit counters in the branch history table of the bimodal branch predictor (Needs to be a power of 2)
   public static final int BL_ITEMS_TO_PUSH = TOTAL_GP_REGISTERS + 1;    // Number of items to push to the stack when a BL, i.e. branch with link instruction, is found. Value = Total number of GP registers + 1, this + 1 is for the link register
   public static final int RET_ITEMS_TO_POP = TOTAL_GP_REGISTERS + 1;    // Number of items to pop off the stack when a RET, i.e. return instruction, is found. Value = Total number of GP registers + 1, this + 1 is for the link register
   public static final int NUM_ITERATIONS = 20;                          // Only used for testing/debugging purposes
@@ -34,13 +40,14 @@ public final class GlobalConstants
 
   // Processor default constants
   public static final int DEFAULT_INSTRUCTION = Isa.NOP;                // Default instruction is the NOP instruction specefied in the ISA
-  public static final int DEFAULT_INSTRUCTION_OPCODE = (DEFAULT_INSTRUCTION >> (Isa.INSTRUCTION_LENGTH - Isa.OPCODE_LENGTH)) & (int)(Math.pow(2, Isa.OPCODE_LENGTH) - 1);   // Default instruction OpCode
+  public static final int DEFAULT_INSTRUCTION_OPCODE = (DEFAULT_INSTRUCTION >>> (Isa.INSTRUCTION_LENGTH - Isa.OPCODE_LENGTH)) & ((1 << Isa.OPCODE_LENGTH) - 1);   // Default instruction OpCode
   public static final int DEFAULT_MEM_FETCH_LOC = 0;                    // Default memory fetch location
   public static final boolean DEFAULT_BRANCH_PREDICTION = false;        // Default branch prediction value is false, i.e. by default branches are not taken
   public static final boolean CORRECT_BRANCH_PREDICTION_RESULT = true;  // Default branch prediction result value is true, i.e. by default the simulator assumes that all the branches are predicted correctly by the simulator
   public static final String DEFAULT_INSTRUCTION_TYPE = "RRR";          // Default instruction type
   public static final String DEFAULT_INSTRUCTION_MNEMONIC = "NOP";      // Default instruction mnemonic
   public static final ExecutionUnit DEFAULT_EXECUTION_UNIT = ExecutionUnit.ALU;       // Default execution unit
+  public static final int DEFAULT_INSTRUCTION_SLOT = 0;                // Default instruction table slot (Holds a NOP until the slot is first used)
   public static final boolean DEFAULT_DEPENDENCY_FLAG = false;          // Default dependency flag value is set to false, i.e. By default an instruction doesn't have any dependencies
   
   // Process execution unit (EU) constants
@@ -0,0 +1,215 @@
+/**
+ * @file GshareBranchPredictor.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the GshareBranchPredictor class, a dynamic branch predictor (See IBranchPredictor for the common predictor
+ * interface) that correlates a branch with the outcome of the conditional branches preceding it. A global history register (GHR) holding the
+ * outcome of the last conditional branches (1 = Taken) is XORed with the address of the branch to index a pattern history table (PHT) of 2 bit
+ * saturating counters (See BimodalBranchPredictor). Unconditional branches are always predicted taken and don't enter the history.
+ *
+ * The history is updated speculatively: every conditional branch shifts its prediction into the GHR when it is predicted, i.e. when it is
+ * fetched by the IF stage (See InstructionFetchStage.preDecode()), hence, the branches fetched right after it are already predicted with it.
+ * The history each branch was predicted with is queued until the branch is resolved. Branches are resolved in program order, hence, the
+ * oldest queued history always belongs to the branch being resolved, which trains the PHT entry it was predicted with. If the BU finds that
+ * the branch was mispredicted, the GHR is repaired (History of the branch followed by its actual outcome) and the queued histories of the
+ * younger branches are dropped, since they have been fetched down the wrong path and get flushed along with the pipeline.
+ */
+
+// Import packages
+import java.nio.*;
+import java.util.*;
+
+/**
+ * gshare branch predictor (Global history XORed with the branch address indexing a PHT of 2 bit saturating counters).
+ */
+public class GshareBranchPredictor implements IBranchPredictor
+{
+  private static final byte WEAKLY_NOT_TAKEN = 1;         /** Initial value of every counter */
+  private static final byte WEAKLY_TAKEN = 2;             /** Smallest counter value predicted taken */
+  private static final byte STRONGLY_TAKEN = 3;           /** Largest counter value */
+  private static final int INITIAL_IN_FLIGHT = 16;        /** Number of unresolved branches the queue is initially sized for */
+
+  private final byte[] counters;                          /** 2 bit saturating counter of every PHT entry */
+  private final int indexMask;                            /** Mask selecting the bits the PHT is indexed by */
+  private final int historyBits;                          /** Number of branch outcomes held in the GHR */
+  private final int historyMask;                          /** Mask selecting the bits of the GHR */
+  private int speculativeHistory;                         /** GHR including the predictions of the unresolved branches (Used to predict) */
+  private int committedHistory;                           /** GHR holding the outcomes of the resolved branches only */
+  private int[] inFlightHistories = new int[INITIAL_IN_FLIGHT];     /** Ring of the histories the unresolved branches were predicted with (Oldest first) */
+  private boolean[] inFlightPredictions = new boolean[INITIAL_IN_FLIGHT];     /** Ring of the predictions of the unresolved branches */
+  private int inFlightHead;                               /** Ring index of the oldest unresolved branch */
+  private int inFlightBranches;                           /** Number of unresolved branches */
+
+  /**
+   * Parameterized constructor
+   * @param  entries     Number of entries in the PHT (Needs to be a power of 2)
+   * @param  historyBits Number of branch outcomes held in the GHR (1 to 31)
+   * @return             No return value since this is a constructor
+   */
+  public GshareBranchPredictor(int entries, int historyBits)
+  {
+    if (entries <= 0 || (entries & (entries - 1)) != 0)
+    {
+      throw new IllegalArgumentException("PHT size must be a power of 2 (Entries requested: " + entries + ")");
+    }
+    if (historyBits < 1 || historyBits > 31)
+    {
+      throw new IllegalArgumentException("Global history length must be between 1 and 31 bits (Length requested: " + historyBits + ")");
+    }
+    counters = new byte[entries];
+    indexMask = entries - 1;
+    this.historyBits = historyBits;
+    historyMask = (1 << historyBits) - 1;
+    Arrays.fill(counters, WEAKLY_NOT_TAKEN);
+  }
+
+  /**
+   * Method to predict whether a branch is taken or not. The prediction of a conditional branch is shifted into the speculative history.
+   * @param  pc          Address the branch was fetched from
+   * @param  instruction Decoded branch instruction on which a prediction must be made
+   * @return Branch prediction result (True = predict taken, false = predict not taken)
+   */
+  public boolean predict(int pc, DecodedInstruction instruction)
+  {
+    if (isUnconditional(instruction.getOpCode()))
+    {
+      return true;                // Unconditional branches are always taken
+    }
+    boolean prediction = counters[(pc ^ speculativeHistory) & indexMask] >= WEAKLY_TAKEN;
+    if (inFlightBranches == inFlightHistories.length)     // Grow the ring (Keeping the oldest branch first)
+    {
+      int[] histories = new int[2 * inFlightBranches];
+      boolean[] predictions = new boolean[2 * inFlightBranches];
+      for (int branch = 0; branch < inFlightBranches; branch++)
+      {
+        histories[branch] = inFlightHistories[(inFlightHead + branch) % inFlightBranches];
+        predictions[branch] = inFlightPredictions[(inFlightHead + branch) % inFlightBranches];
+      }
+      inFlightHistories = histories;
+      inFlightPredictions = predictions;
+      inFlightHead = 0;
+    }
+    int tail = (inFlightHead + inFlightBranches++) % inFlightHistories.length;
+    inFlightHistories[tail] = speculativeHistory;
+    inFlightPredictions[tail] = prediction;
+    speculativeHistory = ((speculativeHistory << 1) | (prediction ? 1 : 0)) & historyMask;
+    return prediction;
+  }
+
+  /**
+   * Method to train the predictor with the outcome of a resolved branch, i.e. move the counter the branch was predicted with towards its
+   * outcome, and repair the speculative history if the branch was mispredicted
+   * @param pc          Address the branch was fetched from
+   * @param instruction Decoded branch instruction
+   * @param taken       True if the branch was taken
+   */
+  public void update(int pc, DecodedInstruction instruction, boolean taken)
+  {
+    if (isUnconditional(instruction.getOpCode()))
+    {
+      return;                     // Unconditional branches don't use the PHT
+    }
+    int history = committedHistory;         // Only used if the branch hasn't been predicted (e.g. fetched before a checkpoint was restored)
+    boolean prediction = !taken;
+    if (inFlightBranches > 0)
+    {
+      history = inFlightHistories[inFlightHead];
+      prediction = inFlightPredictions[inFlightHead];
+      inFlightHead = (inFlightHead + 1) % inFlightHistories.length;
+      inFlightBranches--;
+    }
+    int index = (pc ^ history) & indexMask;
+    if (taken)
+    {
+      if (counters[index] < STRONGLY_TAKEN)
+      {
+        counters[index]++;
+      }
+    }
+    else if (counters[index] > 0)
+    {
+      counters[index]--;
+    }
+    committedHistory = ((history << 1) | (taken ? 1 : 0)) & historyMask;
+    if (prediction != taken)      // Mispredicted - The younger branches are on the wrong path and get flushed
+    {
+      speculativeHistory = committedHistory;
+      inFlightHead = 0;
+      inFlightBranches = 0;
+    }
+  }
+
+  /**
+   * Method to check if a branch is unconditional
+   * @param  opCode OpCode of the branch
+   * @return        True if the branch is always taken
+   */
+  private static boolean isUnconditional(int opCode)
+  {
+    return opCode == Isa.BU || opCode == Isa.BL || opCode == Isa.RET;
+  }
+
+  /**
+   * Method to obtain the storage cost of the predictor (2 bits per PHT entry and the GHR)
+   * @return Storage cost in bits
+   */
+  public long getStorageBits()
+  {
+    return (2L * counters.length) + historyBits;
+  }
+
+  /**
+   * Method to obtain the number of bytes required to save the state of the branch predictor (The number of entries, the history length, the
+   * committed history and a byte per counter)
+   * @return Size of the saved state in bytes
+   */
+  public int getStateSize()
+  {
+    return (3 * Integer.BYTES) + counters.length;
+  }
+
+  /**
+   * Method to save the state of the branch predictor to a buffer. Only the committed history is saved, since the unresolved branches are
+   * fetched again once the checkpoint has been restored.
+   * @param buffer Buffer to which the state is written
+   */
+  public void saveState(ByteBuffer buffer)
+  {
+    buffer.putInt(counters.length);
+    buffer.putInt(historyBits);
+    buffer.putInt(committedHistory);
+    buffer.put(counters);
+  }
+
+  /**
+   * Method to restore the state of the branch predictor from a buffer
+   * @param buffer Buffer from which the state is read
+   */
+  public void restoreState(ByteBuffer buffer)
+  {
+    int savedEntries = buffer.getInt();
+    int savedHistoryBits = buffer.getInt();
+    if (savedEntries != counters.length || savedHistoryBits != historyBits)
+    {
+      throw new IllegalStateException("Illegal saved gshare state (Saved state contains " + savedEntries + " entries and " + savedHistoryBits +
+                                      " history bits, expected " + counters.length + " entries and " + historyBits + " history bits).");
+    }
+    int savedHistory = buffer.getInt();
+    if ((savedHistory & ~historyMask) != 0)
+    {
+      throw new IllegalStateException("Illegal saved gshare state (History " + savedHistory + " doesn't fit in " + historyBits + " bits).");
+    }
+    buffer.get(counters);
+    for (byte counter : counters)
+    {
+      if (counter < 0 || counter > STRONGLY_TAKEN)
+      {
+        throw new IllegalStateException("Illegal saved gshare state (Counter value " + counter + " out of range).");
+      }
+    }
+    committedHistory = savedHistory;
+    speculativeHistory = savedHistory;
+    inFlightHead = 0;
+    inFlightBranches = 0;
+  }
+}
@@ -0,0 +1,51 @@
+import java.nio.*;
+
+/**
+ * Branch prediction (BP) unit. Predicts the direction of branch instructions when they are fetched by the IF stage, and is trained with the
+ * actual outcome once the branch has been resolved by the BU.
+ * A predictor may update speculative state when it predicts a branch (e.g. a global history). Branches fetched down the wrong path are
+ * predicted but never resolved, hence, such state needs to be repaired once a resolved branch turns out to be mispredicted.
+ *
+ */
+public interface IBranchPredictor
+{
+  /**
+   * Method to predict whether a branch is taken or not.
+   * @param  pc          Address the branch was fetched from
+   * @param  instruction Decoded branch instruction on which a prediction must be made
+   * @return Branch prediction result (True = predict taken, false = predict not taken)
+   */
+  public boolean predict(int pc, DecodedInstruction instruction);
+
+  /**
+   * Method to train the predictor with the outcome of a resolved branch. Called once per branch executed, in program order.
+   * @param pc          Address the branch was fetched from
+   * @param instruction Decoded branch instruction
+   * @param taken       True if the branch was taken
+   */
+  public void update(int pc, DecodedInstruction instruction, boolean taken);
+
+  /**
+   * Method to obtain the storage cost of the predictor, i.e. the number of bits of state a hardware implementation would need
+   * @return Storage cost in bits
+   */
+  public long getStorageBits();
+
+  /**
+   * Method to obtain the number of bytes required to save the state of the branch predictor
+   * @return Size of the saved state in bytes
+   */
+  public int getStateSize();
+
+  /**
+   * Method to save the state of the branch predictor to a buffer
+   * @param buffer Buffer to which the state is written
+   */
+  public void saveState(ByteBuffer buffer);
+
+  /**
+   * Method to restore the state of the branch predictor from a buffer
+   * @param buffer Buffer from which the state is read
+   */
+  public void restoreState(ByteBuffer buffer);
+}
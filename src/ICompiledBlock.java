@@ -0,0 +1,13 @@
+/**
+ * A basic block compiled to JVM bytecode by the BlockCompiler. Every compiled block is a hidden class implementing this interface.
+ */
+public interface ICompiledBlock
+{
+  /**
+   * Executes the compiled instructions directly on the register array
+   * @param  regs GP register array (See Register.getGeneralPurposeRegisters())
+   * @param  mem  Main memory
+   * @return      Memory location of the next instruction to execute
+   */
+  public int run(int[] regs, Memory mem);
+}
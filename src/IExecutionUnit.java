@@ -10,10 +10,17 @@ public interface IExecutionUnit
    * Executes the instruction.
    * The input will be read from the context
    * The output will be stored in the context  
-   * @param currentInstruction instruction to be executed by the execution unit
+   * @param currentInstruction slot index (in the instruction table) of the instruction to be executed by the execution unit
    * @param context            context object which keeps shared state 
    */
-  public void execute(Instruction currentInstruction, IPipelineContext context);
+  public void execute(int currentInstruction, IPipelineContext context);
+
+  /**
+   * Registers the events counted by the execution unit with the performance monitoring unit (PMU). Called once, before the simulation starts.
+   * The unit keeps the indices it is given and counts the events through them.
+   * @param pmu Performance monitoring unit of the simulation
+   */
+  public void registerEvents(Pmu pmu);
 
   /**
    * Method to flush the contents of the current stage of the pipeline. Only used when a branch instruction is executed and 
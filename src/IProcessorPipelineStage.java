@@ -12,4 +12,11 @@ public interface IProcessorPipelineStage extends IStage
    * i.e. when the fetched/decoded instructions were from the incorrect locations due to the incorrect PC value being used.
    */
   public void flush(IPipelineContext context);
+
+  /**
+   * Method to register the events counted by the stage (And by any unit it contains) with the performance monitoring unit (PMU). Called once
+   * by the pipeline context, before the simulation starts. The stage keeps the indices it is given and counts the events through them.
+   * @param pmu Performance monitoring unit of the simulation
+   */
+  public void registerEvents(Pmu pmu);
 }
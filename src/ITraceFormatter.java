@@ -0,0 +1,17 @@
+import java.io.*;
+
+/**
+ * Formatter used by the trace writer thread to render raw trace records
+ *
+ */
+public interface ITraceFormatter
+{
+  /**
+   * Renders a single trace record.
+   * Only called by the trace writer thread, hence, it can take as long as required without slowing down the simulation.
+   * @param records Array holding the raw trace records
+   * @param offset  Offset (in the records array) of the first field of the record to be rendered
+   * @param out     Stream to which the rendered record needs to be written
+   */
+  public void format(int[] records, int offset, PrintStream out);
+}
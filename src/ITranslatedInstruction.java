@@ -0,0 +1,13 @@
+/**
+ * An instruction translated by the BlockTranslator, i.e. a closure with the register numbers, the immediate value and the address of the
+ * instruction already bound to it.
+ */
+@FunctionalInterface
+public interface ITranslatedInstruction
+{
+  /**
+   * Executes the instruction on the architectural state the closure was bound to
+   * @return Memory location of the next instruction to execute
+   */
+  public int execute();
+}
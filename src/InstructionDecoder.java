@@ -0,0 +1,279 @@
+/**
+ * @file InstructionDecoder.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the InstructionDecoder class. It is the single decoder shared by the Instruction Fetch (IF) stage pre-decoder and
+ * the Instruction Decode (ID) stage. Fields are extracted from the instruction word directly using shifts and masks instead of converting the
+ * instruction to a binary string. The shift and mask for every field of every instruction type are generated once from the bit positions
+ * specified in the Isa.InstructionType constants, and the mnemonic, type and execution unit of every OpCode are held in tables indexed by OpCode.
+ */
+
+/**
+ * Table-driven instruction decoder.
+ */
+public final class InstructionDecoder
+{
+  // Instruction type (i.e. format) indices used by the per-OpCode tables
+  public static final int TYPE_RRR = 0;
+  public static final int TYPE_RRI = 1;
+  public static final int TYPE_RR  = 2;
+  public static final int TYPE_RI  = 3;
+  public static final int TYPE_I   = 4;
+
+  private static final int OPCODE_SHIFT = Isa.INSTRUCTION_LENGTH - Isa.OPCODE_LENGTH;      /** Shift required to move the OpCode to the least significant bits */
+  private static final int OPCODE_MASK = (1 << Isa.OPCODE_LENGTH) - 1;                     /** Mask used to extract the OpCode once it has been shifted */
+  public static final int TOTAL_OPCODES = 1 << Isa.OPCODE_LENGTH;                          /** Total number of OpCodes that can be encoded (Including OpCodes not specified in the ISA) */
+
+  private static final String[] typeNames = new String[Isa.InstructionType.NUMBER_OF_INSTRUCTION_TYPES];      /** Type name for each instruction type */
+  private static final int[] typeCycles = new int[Isa.InstructionType.NUMBER_OF_INSTRUCTION_TYPES];           /** Number of cycles for each instruction type */
+
+  // Per instruction type field shifts and masks. A mask of 0 means that the instruction type doesn't contain the field.
+  private static final int[] s1Shift = new int[Isa.InstructionType.NUMBER_OF_INSTRUCTION_TYPES];
+  private static final int[] s1Mask = new int[Isa.InstructionType.NUMBER_OF_INSTRUCTION_TYPES];
+  private static final int[] s2Shift = new int[Isa.InstructionType.NUMBER_OF_INSTRUCTION_TYPES];
+  private static final int[] s2Mask = new int[Isa.InstructionType.NUMBER_OF_INSTRUCTION_TYPES];
+  private static final int[] dShift = new int[Isa.InstructionType.NUMBER_OF_INSTRUCTION_TYPES];
+  private static final int[] dMask = new int[Isa.InstructionType.NUMBER_OF_INSTRUCTION_TYPES];
+  private static final int[] immLeftShift = new int[Isa.InstructionType.NUMBER_OF_INSTRUCTION_TYPES];         /** Left shift that moves the immediate's sign bit to bit 31 */
+  private static final int[] immRightShift = new int[Isa.InstructionType.NUMBER_OF_INSTRUCTION_TYPES];        /** Arithmetic right shift that sign extends the immediate */
+  private static final boolean[] hasImmediate = new boolean[Isa.InstructionType.NUMBER_OF_INSTRUCTION_TYPES];
+
+  // Per OpCode tables
+  private static final String[] mnemonics = new String[TOTAL_OPCODES];
+  private static final int[] types = new int[TOTAL_OPCODES];
+  private static final ExecutionUnit[] executionUnits = new ExecutionUnit[TOTAL_OPCODES];
+  private static final boolean[] conditionalBranch = new boolean[TOTAL_OPCODES];     /** Conditional branches encode source register 2 in the destination register field */
+
+  // Generate the tables
+  static
+  {
+    defineType(TYPE_RRR, "RRR", Isa.InstructionType.RRR.NUMBER_OF_CYCLES);
+    defineRegisterField(s1Shift, s1Mask, TYPE_RRR, Isa.InstructionType.RRR.S1_START, Isa.InstructionType.RRR.S1_END);
+    defineRegisterField(s2Shift, s2Mask, TYPE_RRR, Isa.InstructionType.RRR.S2_START, Isa.InstructionType.RRR.S2_END);
+    defineRegisterField(dShift, dMask, TYPE_RRR, Isa.InstructionType.RRR.D_START, Isa.InstructionType.RRR.D_END);
+
+    defineType(TYPE_RRI, "RRI", Isa.InstructionType.RRI.NUMBER_OF_CYCLES);
+    defineRegisterField(s1Shift, s1Mask, TYPE_RRI, Isa.InstructionType.RRI.S1_START, Isa.InstructionType.RRI.S1_END);
+    defineRegisterField(dShift, dMask, TYPE_RRI, Isa.InstructionType.RRI.D_START, Isa.InstructionType.RRI.D_END);
+    defineImmediateField(TYPE_RRI, Isa.InstructionType.RRI.IMM_START, Isa.InstructionType.RRI.IMM_END);
+
+    defineType(TYPE_RR, "RR", Isa.InstructionType.RR.NUMBER_OF_CYCLES);
+    defineRegisterField(s1Shift, s1Mask, TYPE_RR, Isa.InstructionType.RR.S1_START, Isa.InstructionType.RR.S1_END);
+    defineRegisterField(dShift, dMask, TYPE_RR, Isa.InstructionType.RR.D_START, Isa.InstructionType.RR.D_END);
+
+    defineType(TYPE_RI, "RI", Isa.InstructionType.RI.NUMBER_OF_CYCLES);
+    defineRegisterField(dShift, dMask, TYPE_RI, Isa.InstructionType.RI.D_START, Isa.InstructionType.RI.D_END);
+    defineImmediateField(TYPE_RI, Isa.InstructionType.RI.IMM_START, Isa.InstructionType.RI.IMM_END);
+
+    defineType(TYPE_I, "I", Isa.InstructionType.I.NUMBER_OF_CYCLES);
+    defineImmediateField(TYPE_I, Isa.InstructionType.I.IMM_START, Isa.InstructionType.I.IMM_END);
+
+    defineOpCode(Isa.NOP,  "NOP",  TYPE_RRR, ExecutionUnit.ALU);     // Note that for simplicity, the NOP operation is classified as a RRR type instruction
+    defineOpCode(Isa.ADD,  "ADD",  TYPE_RRR, ExecutionUnit.ALU);
+    defineOpCode(Isa.SUB,  "SUB",  TYPE_RRR, ExecutionUnit.ALU);
+    defineOpCode(Isa.MULT, "MULT", TYPE_RRR, ExecutionUnit.ALU);
+    defineOpCode(Isa.DIV,  "DIV",  TYPE_RRR, ExecutionUnit.ALU);
+    defineOpCode(Isa.ADDI, "ADDI", TYPE_RRI, ExecutionUnit.ALU);
+    defineOpCode(Isa.SUBI, "SUBI", TYPE_RRI, ExecutionUnit.ALU);
+    defineOpCode(Isa.AND,  "AND",  TYPE_RRR, ExecutionUnit.ALU);
+    defineOpCode(Isa.OR,   "OR",   TYPE_RRR, ExecutionUnit.ALU);
+    defineOpCode(Isa.XOR,  "XOR",  TYPE_RRR, ExecutionUnit.ALU);
+    defineOpCode(Isa.NOT,  "NOT",  TYPE_RR,  ExecutionUnit.ALU);
+    defineOpCode(Isa.SLL,  "SLL",  TYPE_RRI, ExecutionUnit.ALU);
+    defineOpCode(Isa.SLR,  "SLR",  TYPE_RRI, ExecutionUnit.ALU);
+    defineOpCode(Isa.SLLV, "SLLV", TYPE_RRR, ExecutionUnit.ALU);
+    defineOpCode(Isa.SRA,  "SRA",  TYPE_RRI, ExecutionUnit.ALU);
+    defineOpCode(Isa.LW,   "LW",   TYPE_RRI, ExecutionUnit.LSU);
+    defineOpCode(Isa.SW,   "SW",   TYPE_RRI, ExecutionUnit.LSU);
+    defineOpCode(Isa.MOVI, "MOVI", TYPE_RI,  ExecutionUnit.LSU);
+    defineOpCode(Isa.MOVR, "MOVR", TYPE_RR,  ExecutionUnit.LSU);
+    defineOpCode(Isa.BU,   "BU",   TYPE_I,   ExecutionUnit.BU);
+    defineOpCode(Isa.BL,   "BL",   TYPE_I,   ExecutionUnit.BU);
+    defineOpCode(Isa.BEQ,  "BEQ",  TYPE_RRI, ExecutionUnit.BU);
+    defineOpCode(Isa.BNE,  "BNE",  TYPE_RRI, ExecutionUnit.BU);
+    defineOpCode(Isa.BLT,  "BLT",  TYPE_RRI, ExecutionUnit.BU);
+    defineOpCode(Isa.BGT,  "BGT",  TYPE_RRI, ExecutionUnit.BU);
+    defineOpCode(Isa.RET,  "RET",  TYPE_RRR, ExecutionUnit.BU);
+    conditionalBranch[Isa.BEQ] = true;
+    conditionalBranch[Isa.BNE] = true;
+    conditionalBranch[Isa.BLT] = true;
+    conditionalBranch[Isa.BGT] = true;
+  }
+
+  /**
+   * Private constructor since this class only contains static methods
+   * @return No return value since this is a constructor
+   */
+  private InstructionDecoder()
+  {
+  }
+
+  /**
+   * Method to define the name and number of cycles of an instruction type
+   */
+  private static void defineType(int type, String typeName, int numberOfCycles)
+  {
+    typeNames[type] = typeName;
+    typeCycles[type] = numberOfCycles;
+  }
+
+  /**
+   * Method to generate the shift and mask of a register field. Note that the start and end positions specified in Isa.InstructionType are
+   * bit positions counted from the most significant bit (i.e. string indices of the instruction's binary representation).
+   */
+  private static void defineRegisterField(int[] shifts, int[] masks, int type, int start, int end)
+  {
+    shifts[type] = Isa.INSTRUCTION_LENGTH - end;
+    masks[type] = (1 << (end - start)) - 1;
+  }
+
+  /**
+   * Method to generate the shifts used to extract and sign extend the immediate field
+   */
+  private static void defineImmediateField(int type, int start, int end)
+  {
+    immLeftShift[type] = start;                               // Move the immediate's most significant bit to bit 31
+    immRightShift[type] = Isa.INSTRUCTION_LENGTH - (end - start);     // Arithmetic shift back down to sign extend
+    hasImmediate[type] = true;
+  }
+
+  /**
+   * Method to define the mnemonic, type and execution unit of an OpCode
+   */
+  private static void defineOpCode(int opCode, String mnemonic, int type, ExecutionUnit executionUnit)
+  {
+    mnemonics[opCode] = mnemonic;
+    types[opCode] = type;
+    executionUnits[opCode] = executionUnit;
+  }
+
+  /**
+   * Method to extract the OpCode of an instruction
+   * @param  instruction Instruction value
+   * @return             Instruction OpCode
+   */
+  public static int opCode(int instruction)
+  {
+    return (instruction >>> OPCODE_SHIFT) & OPCODE_MASK;
+  }
+
+  /**
+   * Method to check if an OpCode is specified in the ISA
+   * @param  opCode Instruction OpCode
+   * @return        True if the OpCode is valid
+   */
+  public static boolean isValidOpCode(int opCode)
+  {
+    return opCode >= 0 && opCode < TOTAL_OPCODES && mnemonics[opCode] != null;
+  }
+
+  /**
+   * Method to check if an OpCode is a branch instruction (i.e. executed by the BU)
+   * @param  opCode Instruction OpCode
+   * @return        True if the OpCode is a branch instruction
+   */
+  public static boolean isBranch(int opCode)
+  {
+    return executionUnits[opCode] == ExecutionUnit.BU;
+  }
+
+  /**
+   * Method to obtain the type (i.e. format) index of an OpCode
+   * @param  opCode Instruction OpCode
+   * @return        Instruction type index (TYPE_RRR, TYPE_RRI, TYPE_RR, TYPE_RI or TYPE_I)
+   */
+  public static int type(int opCode)
+  {
+    return types[opCode];
+  }
+
+  /**
+   * Method to obtain the mnemonic of an OpCode
+   * @param  opCode Instruction OpCode
+   * @return        Instruction mnemonic
+   */
+  public static String mnemonic(int opCode)
+  {
+    return mnemonics[opCode];
+  }
+
+  /**
+   * Method to obtain the type (i.e. format) name of an OpCode
+   * @param  opCode Instruction OpCode
+   * @return        Instruction type name ("RRR", "RRI", "RR", "RI" or "I")
+   */
+  public static String typeName(int opCode)
+  {
+    return typeNames[types[opCode]];
+  }
+
+  /**
+   * Method to extract source register 1's location from an instruction
+   */
+  public static int sourceReg1(int instruction, int type)
+  {
+    return (instruction >>> s1Shift[type]) & s1Mask[type];
+  }
+
+  /**
+   * Method to extract source register 2's location from an instruction. Conditional branches encode source register 2 in the destination register field.
+   */
+  public static int sourceReg2(int instruction, int opCode, int type)
+  {
+    if (conditionalBranch[opCode])
+    {
+      return (instruction >>> dShift[type]) & dMask[type];
+    }
+    return (instruction >>> s2Shift[type]) & s2Mask[type];
+  }
+
+  /**
+   * Method to extract the destination register's location from an instruction
+   */
+  public static int destinationReg(int instruction, int opCode, int type)
+  {
+    if (conditionalBranch[opCode])
+    {
+      return Isa.DEFAULT_REG_VALUE;
+    }
+    return (instruction >>> dShift[type]) & dMask[type];
+  }
+
+  /**
+   * Method to extract the sign extended immediate from an instruction
+   */
+  public static int signedImmediate(int instruction, int type)
+  {
+    if (!hasImmediate[type])
+    {
+      return Isa.DEFAULT_IMM_VALUE;
+    }
+    return (instruction << immLeftShift[type]) >> immRightShift[type];
+  }
+
+  /**
+   * Method to decode an instruction
+   * @param  instruction Instruction value
+   * @return             Decoded instruction template
+   * @throws IllegalInstructionException If the instruction's OpCode is not specified in the ISA
+   */
+  public static DecodedInstruction decode(int instruction)
+  {
+    int opCode = opCode(instruction);
+    if (!isValidOpCode(opCode))     // Check if the opCode is valid (i.e. check if it's a valid instruction)
+    {
+      throw new IllegalInstructionException("Illegal instruction (Instruction with OpCode \"" + Utility.convertToBin(opCode, 0).substring((Isa.INSTRUCTION_LENGTH - Isa.OPCODE_LENGTH), Isa.INSTRUCTION_LENGTH) + "\" is not specified in the ISA).");
+    }
+    int type = types[opCode];
+    return new DecodedInstruction(instruction,
+                                  opCode,
+                                  typeNames[type],
+                                  mnemonics[opCode],
+                                  executionUnits[opCode],
+                                  typeCycles[type],
+                                  sourceReg1(instruction, type),
+                                  sourceReg2(instruction, opCode, type),
+                                  destinationReg(instruction, opCode, type),
+                                  signedImmediate(instruction, type));
+  }
+}
@@ -12,6 +12,7 @@
 import pipeline.*;
 
 // Pre-defined Java packages
+import java.io.*;
 import java.util.*;
 import java.lang.*;
 
@@ -20,13 +21,23 @@ import java.lang.*;
  */
 public class InstructionExecuteStage implements IProcessorPipelineStage
 {
+  public static final String EVENT_INSTRUCTIONS = "ie.instructions";      /** Instructions executed (Including NOPs and bubbles) */
+  public static final String EVENT_NOPS = "ie.nops";                      /** NOP instructions executed (Including bubbles) */
+  public static final String EVENT_BUBBLES = "ie.bubbles";                /** Bubbles executed, i.e. NOPs inserted by the pipeline rather than fetched from memory */
+  public static final String EVENT_MIX_PREFIX = "ie.mix.";                /** Prefix of the per-OpCode instruction mix events (Followed by the mnemonic) */
+
   private IExecutionUnit ALU;      /** Reference to the ALU */
   private IExecutionUnit LSU;      /** Reference to the LSU */
   private IExecutionUnit BU;       /** Reference to the BU */
-  private Instruction instruction;     /** Reference to the current instruction */   // TODO Should actually be a list of instructions when going superscalar
+  private int instruction;             /** Slot index (in the instruction table) of the current instruction */   // TODO Should actually be a list of instructions when going superscalar
   private ExecutionUnit requiredExecutionUnit;      
   private Register cpuRegisters;                    /** Reference to architectural registers */
   private ProcessorPipelineContext pContext;    /** Reference to the processor pipeline context */
+  private Pmu pmu;                              /** Reference to the performance monitoring unit */
+  private int instructionsEvent;                /** PMU index of the instruction counter */
+  private int nopsEvent;                        /** PMU index of the NOP instruction counter */
+  private int bubblesEvent;                     /** PMU index of the bubble counter */
+  private final int[] mixEvents = new int[InstructionDecoder.TOTAL_OPCODES];     /** PMU index of the instruction mix counter of every OpCode */
 
   public InstructionExecuteStage()
   {
@@ -39,9 +50,10 @@ public class InstructionExecuteStage implements IProcessorPipelineStage
   {
     pContext = (ProcessorPipelineContext) context;             // Explicitly cast context to ProcessorPipelineContext type
     cpuRegisters = pContext.getCpuRegisters();                 // Obtain and store the reference to the primary cpu registers object from the pipeline context (Doing this to avoid having to type it over and over again)
+    boolean structuralStall = pContext.isStructuralStall();             // Checked before the instruction queue is read (A bubble is executed if it's empty)
     instruction = pContext.getCurrentInstructionFromInstructionQueue();   // Extract the current instruction from the instruction queue
     // TODO NOTE NEED TO CHECK IF THE INSTRUCTION IS A BRANCH INSTRUCTION, IF YES, ONLY RUN THE BU UNIT, IF NOT YOU CAN RUN BOTH THE ALU AND LSU UNITS. NOTE THAT ALL THE THREE UNITS CAN'T BE RUNNING TOGETHER IN THE SAME CLOCK CYCLE.
-    requiredExecutionUnit = instruction.getExecutionUnit();
+    requiredExecutionUnit = pContext.getInstructionTable().getExecutionUnit(instruction);
     switch (requiredExecutionUnit)     // Execute the requried functional/execution unit depending on the type of instruction.
     {
       // ALU instruction
@@ -57,6 +69,7 @@ public class InstructionExecuteStage implements IProcessorPipelineStage
       // BU instruction
       case BU:
         BU.execute(instruction, context);        // Execute BU
+        this.resolveBranch();                    // Train the branch predictor with the outcome of the branch
         break;
 
       // Default case. This condition should never be reached
@@ -65,11 +78,27 @@ public class InstructionExecuteStage implements IProcessorPipelineStage
         break;
     }
 
+    if (pContext.getCommitTrace() != null)
+    {
+      this.recordCommit(pContext.getCommitTrace());     // Record the executed instruction in the commit trace
+    }
+
     pContext.setNextInstructionWriteBack(instruction);    // Update the pipeline context with the currently executed instruction for it to be used by the instruction writeback stage in the next cycle
-    cpuRegisters.incrementInstructionCounter();         // Increment the instruction counter register (variable)
-    if (instruction.getOpCode() == Isa.NOP)
+    pmu.increment(instructionsEvent);                   // Increment the instruction counter
+    int opCode = pContext.getInstructionTable().getOpCode(instruction);
+    if (opCode == Isa.NOP)
+    {
+      pmu.increment(nopsEvent);                         // Increment the NOP instruction counter
+    }
+    if (this.isBubble(pContext.getInstructionTable(), opCode))
+    {
+      pmu.increment(bubblesEvent);
+      pContext.getCpiStack().recordBubbles(structuralStall, 1);         // Attribute the cycle to the cause of the bubble
+    }
+    else
     {
-      cpuRegisters.incrementInstructionCounterNOP();    // Increment the NOP instruction counter register (variable)
+      pmu.increment(mixEvents[opCode]);                 // Count the instruction in the instruction mix
+      pContext.getCpiStack().recordInstruction(pContext.getInstructionTable().getMemoryFetchLocation(instruction), opCode == Isa.NOP);     // Attribute the cycle to the executed instruction
     }
     // THIS IS WHERE THE PC IS UPDATED
     cpuRegisters.updatePC(pContext.getBranchTaken());   // Update the primary/actual PC register with the correct/required value based on whether a branch was taken or not
@@ -77,30 +106,142 @@ public class InstructionExecuteStage implements IProcessorPipelineStage
     pContext.setBranchTaken(false);                     // Revert the branch taken variable back to false
   }
 
+  /**
+   * Method to train the branch predictor (And the predictors being evaluated, if any) with the outcome of the branch executed in the
+   * current cycle. Must be called after the BU has resolved the branch.
+   */
+  private void resolveBranch()
+  {
+    InstructionTable instructionTable = pContext.getInstructionTable();
+    int memoryFetchLocation = instructionTable.getMemoryFetchLocation(instruction);
+    int instructionVal = instructionTable.getInstructionVal(instruction);
+    DecodedInstruction decodedInstruction = pContext.getDecodedInstructionCache().peek(memoryFetchLocation, instructionVal);
+    if (decodedInstruction == null)     // The location has been overwritten since the branch was fetched
+    {
+      decodedInstruction = InstructionDecoder.decode(instructionVal);
+    }
+    boolean taken = this.isBranchTaken(instructionTable, instructionTable.getOpCode(instruction));
+    pContext.getBranchPredictor().update(memoryFetchLocation, decodedInstruction, taken);
+    if (pContext.getPredictorEvaluator() != null)
+    {
+      pContext.getPredictorEvaluator().recordBranch(memoryFetchLocation, decodedInstruction, taken);     // Feed the branch to the predictors being evaluated
+    }
+  }
+
+  /**
+   * Method to obtain the outcome of the branch executed in the current cycle (Evaluated the same way as by the BU)
+   * @param  instructionTable Table holding the in-flight instructions
+   * @param  opCode           OpCode of the current instruction
+   * @return                  True if the instruction is a branch that is taken
+   */
+  private boolean isBranchTaken(InstructionTable instructionTable, int opCode)
+  {
+    switch (opCode)
+    {
+      case Isa.BU:
+      case Isa.BL:
+      case Isa.RET:
+        return true;
+
+      case Isa.BEQ:
+        return (instructionTable.getSourceReg1Val(instruction) == instructionTable.getSourceReg2Val(instruction));
+
+      case Isa.BNE:
+        return (instructionTable.getSourceReg1Val(instruction) != instructionTable.getSourceReg2Val(instruction));
+
+      case Isa.BLT:
+        return (instructionTable.getSourceReg1Val(instruction) < instructionTable.getSourceReg2Val(instruction));
+
+      case Isa.BGT:
+        return (instructionTable.getSourceReg1Val(instruction) > instructionTable.getSourceReg2Val(instruction));
+
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Method to record the instruction executed in the current cycle in the commit trace. Bubbles (NOPs inserted by the pipeline rather than
+   * fetched from memory) aren't recorded. Must be called after the execution unit has run, since the effective address of a load/store
+   * is only held in the MAR once the LSU has calculated it.
+   * @param commitTrace Commit trace writer
+   */
+  private void recordCommit(CommitTrace.Writer commitTrace)
+  {
+    InstructionTable instructionTable = pContext.getInstructionTable();
+    int opCode = instructionTable.getOpCode(instruction);
+    int memoryFetchLocation = instructionTable.getMemoryFetchLocation(instruction);
+    int instructionVal = instructionTable.getInstructionVal(instruction);
+    if (this.isBubble(instructionTable, opCode))
+    {
+      return;       // Bubble
+    }
+    boolean taken = this.isBranchTaken(instructionTable, opCode);
+    int address = 0;
+    if (opCode == Isa.LW || opCode == Isa.SW)
+    {
+      address = cpuRegisters.readMAR();       // Effective address calculated by the LSU
+    }
+    try
+    {
+      commitTrace.record(memoryFetchLocation, instructionVal, taken, address);
+    }
+    catch (IOException ex)
+    {
+      throw new UncheckedIOException("The commit trace couldn't be written", ex);
+    }
+  }
+
   // TODO need to fill function contents accordingly
   public void flush(IPipelineContext context)
   {
-   instruction = new Instruction(GlobalConstants.DEFAULT_INSTRUCTION_TYPE,
-                                 GlobalConstants.DEFAULT_INSTRUCTION_MNEMONIC,
-                                 ExecutionUnit.ALU,
-                                 GlobalConstants.DEFAULT_INSTRUCTION_OPCODE, 
-                                 GlobalConstants.DEFAULT_MEM_FETCH_LOC,
-                                 GlobalConstants.DEFAULT_INSTRUCTION,
-                                 Isa.InstructionType.RRR.NUMBER_OF_CYCLES,
-                                 GlobalConstants.DEFAULT_BRANCH_PREDICTION,
-                                 Isa.DEFAULT_REG_VALUE,
-                                 Isa.DEFAULT_REG_VALUE,
-                                 Isa.DEFAULT_REG_VALUE,
-                                 Isa.DEFAULT_IMM_VALUE);
+   // The executed instruction (The branch that caused the flush) isn't discarded since it still needs to be written back
    requiredExecutionUnit = GlobalConstants.DEFAULT_EXECUTION_UNIT;
   }
 
+  /**
+   * Method to register the events counted by the IE stage (Instructions, NOPs, bubbles and the instruction mix) and by its execution units
+   * with the PMU
+   * @param pmu Performance monitoring unit of the simulation
+   */
+  public void registerEvents(Pmu pmu)
+  {
+    this.pmu = pmu;
+    instructionsEvent = pmu.register(EVENT_INSTRUCTIONS, "Instructions executed (Including NOPs and bubbles)");
+    nopsEvent = pmu.register(EVENT_NOPS, "NOP instructions executed (Including bubbles)");
+    bubblesEvent = pmu.register(EVENT_BUBBLES, "Bubbles executed (NOPs inserted by the pipeline rather than fetched from memory)");
+    for (int opCode = 0; opCode < InstructionDecoder.TOTAL_OPCODES; opCode++)
+    {
+      if (InstructionDecoder.isValidOpCode(opCode))
+      {
+        String mnemonic = InstructionDecoder.mnemonic(opCode);
+        mixEvents[opCode] = pmu.register(EVENT_MIX_PREFIX + mnemonic, mnemonic + " instructions executed (Instruction mix)");
+      }
+    }
+    ALU.registerEvents(pmu);
+    LSU.registerEvents(pmu);
+    BU.registerEvents(pmu);
+  }
+
+  /**
+   * Method to check if the current instruction is a bubble, i.e. a NOP inserted by the pipeline (At the start of the simulation or by a flush)
+   * rather than an instruction fetched from memory. A NOP fetched from address 0 can't be told apart from a bubble.
+   * @param  instructionTable Table holding the in-flight instructions
+   * @param  opCode           OpCode of the current instruction
+   * @return                  True if the current instruction is a bubble
+   */
+  private boolean isBubble(InstructionTable instructionTable, int opCode)
+  {
+    return opCode == Isa.NOP && instructionTable.getMemoryFetchLocation(instruction) == GlobalConstants.DEFAULT_MEM_FETCH_LOC &&
+           instructionTable.getInstructionVal(instruction) == GlobalConstants.DEFAULT_INSTRUCTION;
+  }
+
   /**
    * Method to obtain the current instruction to be executed by the IE stage in the current (running) cycle.
    * USED ONLY FOR PRINTING AND DEBUGGING.
-   * @return Current instruction to be executed
+   * @return Slot index (in the instruction table) of the current instruction to be executed
    */
-  public Instruction getCurrentInstruction()
+  public int getCurrentInstruction()
   {
     return instruction;
   }
@@ -19,6 +19,9 @@ import java.lang.*;
  */
 public class InstructionFetchStage implements IProcessorPipelineStage
 {
+  public static final String EVENT_BRANCHES_FETCHED = "if.branchesFetched";                 /** Branch instructions fetched (Including the ones flushed later on) */
+  public static final String EVENT_BRANCHES_PREDICTED_TAKEN = "if.branchesPredictedTaken";  /** Branches redirected by the IF stage since they were predicted taken */
+
   // Class/Instance fields
   // private Register cpuRegisters;
   // private Memory cpuMemory;
@@ -26,9 +29,13 @@ public class InstructionFetchStage implements IProcessorPipelineStage
   private int instruction;
   private boolean branchInstruction;             /** Variable stating whether the fetched instruction is a branch instruction */
   private boolean branchPredictorResult;         /** Branch predictor's result */
+  private boolean stalled;                       /** Variable stating whether the stage was stalled in the current cycle (Nothing fetched) */
   private Register cpuRegisters;                 /** Reference to architectural registers */
   private Memory cpuMemory;                      /** Reference to main memory */
   private ProcessorPipelineContext pContext;     /** Reference to the processor pipeline context */
+  private Pmu pmu;                               /** Reference to the performance monitoring unit */
+  private int branchesFetchedEvent;              /** PMU index of the fetched branch counter */
+  private int branchesPredictedTakenEvent;       /** PMU index of the counter of branches predicted taken */
 
   // public InstructionFetch(Register cpuRegisters, Memory cpuMemory)
   // {
@@ -41,6 +48,11 @@ public class InstructionFetchStage implements IProcessorPipelineStage
   public void execute(IPipelineContext context)
   {
     pContext = (ProcessorPipelineContext) context;                          // Explicitly cast context to ProcessorPipelineContext type
+    stalled = pContext.getStallPipeline();
+    if (stalled)                                                            // The instruction queue is full - Hold the PC, the instruction fetched in the previous cycle waits in the IF/ID register
+    {
+      return;
+    }
     cpuRegisters = pContext.getCpuRegisters();                              // Obtain and store the reference to the primary cpu registers object from the pipeline context (Doing this to avoid having to type it over and over again)
     cpuMemory = pContext.getCpuMemory();                                    // Obtain and store the reference to the primary cpu memory object from the pipeline context (Doing this to avoid having to type it over and over again)
     programCounter = cpuRegisters.readPC();                                 // Read value of the PC register
@@ -61,6 +73,18 @@ public class InstructionFetchStage implements IProcessorPipelineStage
     instruction = GlobalConstants.DEFAULT_INSTRUCTION;
     branchInstruction = false;      // The default assumption is that the fetched instruction is not a branch instruction
     branchPredictorResult = GlobalConstants.DEFAULT_BRANCH_PREDICTION;
+    stalled = false;
+  }
+
+  /**
+   * Method to register the events counted by the IF stage (Branches fetched and branches predicted taken) with the PMU
+   * @param pmu Performance monitoring unit of the simulation
+   */
+  public void registerEvents(Pmu pmu)
+  {
+    this.pmu = pmu;
+    branchesFetchedEvent = pmu.register(EVENT_BRANCHES_FETCHED, "Branch instructions fetched (Including the ones flushed later on)");
+    branchesPredictedTakenEvent = pmu.register(EVENT_BRANCHES_PREDICTED_TAKEN, "Branches redirected by the IF stage since they were predicted taken");
   }
 
   /**
@@ -69,178 +93,37 @@ public class InstructionFetchStage implements IProcessorPipelineStage
    */
   private int preDecode()
   {
-    BranchPredictor branchPredictor;
-    Instruction instruction = new Instruction(GlobalConstants.DEFAULT_INSTRUCTION_TYPE,
-                                              GlobalConstants.DEFAULT_INSTRUCTION_MNEMONIC,
-                                              GlobalConstants.DEFAULT_EXECUTION_UNIT,
-                                              GlobalConstants.DEFAULT_INSTRUCTION_OPCODE, 
-                                              GlobalConstants.DEFAULT_MEM_FETCH_LOC,
-                                              GlobalConstants.DEFAULT_INSTRUCTION,
-                                              Isa.InstructionType.RRR.NUMBER_OF_CYCLES,
-                                              GlobalConstants.DEFAULT_BRANCH_PREDICTION,
-                                              Isa.DEFAULT_REG_VALUE,
-                                              Isa.DEFAULT_REG_VALUE,
-                                              Isa.DEFAULT_REG_VALUE,
-                                              Isa.DEFAULT_IMM_VALUE);                   // Need to insert a default value or else the compiler complains 
-    String instructionMnemonic = GlobalConstants.DEFAULT_INSTRUCTION_MNEMONIC;          // Need to insert a default value or else the compiler complains 
-    String instructionType = GlobalConstants.DEFAULT_INSTRUCTION_TYPE;                  // Need to insert a default value or else the compiler complains
-    ExecutionUnit executionUnit = GlobalConstants.DEFAULT_EXECUTION_UNIT;               // Need to insert a default value or else the compiler complains
-    int sourceReg1;    
-    int sourceReg2;    
-    int destinationReg;
-    int signedImmediate;
+    IBranchPredictor branchPredictor;
     int signedImmediateVal;
     int calculationResult = 0;                      // Need to insert a default value or else the compiler complains
-    String instructionBinary = Utility.convertToBin(this.instruction, 0);   // Not using the Integer.toBinaryString() method because it truncates leading binary zero characters.
-    int opCode = (this.instruction >> (Isa.INSTRUCTION_LENGTH - Isa.OPCODE_LENGTH)) & (int)(Math.pow(2, Isa.OPCODE_LENGTH) - 1);     // Extract instruction OpCode (Logical AND with 31 since its 11111 in binary and opcode length is )
-    if(opCode > (Isa.ISA_TOTAL_INSTRUCTIONS - 1))     // Check if the opCode is valid (i.e. check if it's a valid instruction)
+    DecodedInstructionCache decodedInstructionCache = pContext.getDecodedInstructionCache();
+    DecodedInstruction decodedInstruction = decodedInstructionCache.lookup(programCounter, this.instruction);     // Check if the fetched instruction has already been decoded
+    if (decodedInstruction == null)       // Cache miss - Decode the instruction and store it for future fetches
     {
-      throw new IllegalInstructionException("Illegal instruction (Instruction with OpCode \"" + Utility.convertToBin(opCode, 0).substring((Isa.INSTRUCTION_LENGTH - Isa.OPCODE_LENGTH), Isa.INSTRUCTION_LENGTH) + "\" is not specified in the ISA)."); 
+      decodedInstruction = InstructionDecoder.decode(this.instruction);     // Throws an IllegalInstructionException if the OpCode is not specified in the ISA
+      decodedInstructionCache.insert(programCounter, decodedInstruction);
     }
-
-    switch (opCode)      // Only need to predecode branch instructions and feed it to the branch prediction (BP) unit
+    branchInstruction = (decodedInstruction.getExecutionUnit() == ExecutionUnit.BU);     // Only need to predecode branch instructions and feed it to the branch prediction (BP) unit
+    if (branchInstruction == false)
     {
-      // Unconditional branches
-      // BU Ix
-      case Isa.BU:
-        instructionMnemonic = "BU";
-        instructionType = "I";
-        executionUnit = ExecutionUnit.BU;
-        branchInstruction = true;
-        break;
-
-      // BL Ix
-      case Isa.BL:
-        instructionMnemonic = "BL";
-        instructionType = "I";
-        executionUnit = ExecutionUnit.BU;
-        branchInstruction = true;
-        break;
-
-      // RET
-      case Isa.RET:
-        instructionMnemonic = "RET";
-        instructionType = "RRR";
-        executionUnit = ExecutionUnit.BU;
-        branchInstruction = true;
-        break;
-
-      // Conditional branches
-      // BEQ sr1, sr2, Ix
-      case Isa.BEQ:
-        instructionMnemonic = "BEQ";
-        instructionType = "RRI";
-        executionUnit = ExecutionUnit.BU;
-        branchInstruction = true;
-        break;
-
-      // BNE sr1, sr2, Ix
-      case Isa.BNE:
-        instructionMnemonic = "BNE";
-        instructionType = "RRI";
-        executionUnit = ExecutionUnit.BU;
-        branchInstruction = true;
-        break;
-
-      // BLT sr1, sr2, Ix
-      case Isa.BLT:
-        instructionMnemonic = "BLT";
-        instructionType = "RRI";
-        executionUnit = ExecutionUnit.BU;
-        branchInstruction = true;
-        break;
-
-      // BGT sr1, sr2, Ix
-      case Isa.BGT:
-        instructionMnemonic = "BGT";
-        instructionType = "RRI";
-        executionUnit = ExecutionUnit.BU;
-        branchInstruction = true;
-        break;
-
-      // Non-branch instruction
-      default:
-        branchInstruction = false;        // The instruction fetched is not a branch instruction
-        return this.instruction;          // Return back to the main execute function of the IF stage since the instruction fetched is a non-branch instruction
+      return this.instruction;          // Return back to the main execute function of the IF stage since the instruction fetched is a non-branch instruction
     }
-
     if (branchInstruction == true)        // Only execute this section if the fetched instruction is a branch instruction. Don't really need this check since the function returns to the caller before it can get here if it's not a branch instruction
     {
-      switch (instructionType)            // Branch instructions can either be of RRR or RRI or I type only. It cannot be of RR or RI type. Note all source register location "fetches" are irrelevant since they are not used here - Only being done to be able to create an instruction object.
-      {
-        // RRR type
-        case "RRR":
-        sourceReg1 = Utility.convertToInt(instructionBinary.substring(Isa.InstructionType.RRR.S1_START, Isa.InstructionType.RRR.S1_END), false);
-        sourceReg2 = Utility.convertToInt(instructionBinary.substring(Isa.InstructionType.RRR.S2_START, Isa.InstructionType.RRR.S2_END), false);
-        destinationReg = Utility.convertToInt(instructionBinary.substring(Isa.InstructionType.RRR.D_START, Isa.InstructionType.RRR.D_END), false);
-        signedImmediate = Isa.DEFAULT_IMM_VALUE;
-        instruction = new Instruction(instructionType,
-                                      instructionMnemonic,
-                                      executionUnit,
-                                      opCode, 
-                                      programCounter,
-                                      this.instruction,
-                                      Isa.InstructionType.RRR.NUMBER_OF_CYCLES,
-                                      GlobalConstants.DEFAULT_BRANCH_PREDICTION,
-                                      sourceReg1,
-                                      sourceReg2,
-                                      destinationReg,
-                                      signedImmediate);
-        break;
-      
-        // RRI type
-        case "RRI":
-          sourceReg1 = Utility.convertToInt(instructionBinary.substring(Isa.InstructionType.RRI.S1_START, Isa.InstructionType.RRI.S1_END), false);
-          sourceReg2 = Utility.convertToInt(instructionBinary.substring(Isa.InstructionType.RRI.D_START, Isa.InstructionType.RRI.D_END), false);
-          destinationReg =  Isa.DEFAULT_REG_VALUE;
-          signedImmediate = Utility.convertToInt(instructionBinary.substring(Isa.InstructionType.RRI.IMM_START, Isa.InstructionType.RRI.IMM_END), true);
-          instruction = new Instruction(instructionType,
-                                        instructionMnemonic,
-                                        executionUnit,
-                                        opCode, 
-                                        programCounter,
-                                        this.instruction,
-                                        Isa.InstructionType.RRI.NUMBER_OF_CYCLES,
-                                        GlobalConstants.DEFAULT_BRANCH_PREDICTION,
-                                        sourceReg1,
-                                        sourceReg2,
-                                        destinationReg,
-                                        signedImmediate);
-          break;
-
-        // I type
-        case "I":
-          sourceReg1 = Isa.DEFAULT_REG_VALUE;
-          sourceReg2 = Isa.DEFAULT_REG_VALUE;
-          destinationReg = Isa.DEFAULT_REG_VALUE;
-          signedImmediate = Utility.convertToInt(instructionBinary.substring(Isa.InstructionType.I.IMM_START, Isa.InstructionType.I.IMM_END), true);
-          instruction = new Instruction(instructionType,
-                                        instructionMnemonic,
-                                        executionUnit,
-                                        opCode, 
-                                        programCounter,
-                                        this.instruction,
-                                        Isa.InstructionType.I.NUMBER_OF_CYCLES,
-                                        GlobalConstants.DEFAULT_BRANCH_PREDICTION,
-                                        signedImmediate);
-          break;
-
-        // Shoudn't get here since it's an invalid instruction type
-        default:
-          throw new IllegalInstructionException("Invalid instruction type for the fetched branch instruction! Instruction information couldn't be extracted! Check the executable/binary files for possible issues!");
-      }
       branchPredictor = pContext.getBranchPredictor();                              // Obtain a reference to the processor's branch prediction unit
-      branchPredictorResult = branchPredictor.predict(instruction);                 // Call the predict method in the processor's branch predictor unit
+      branchPredictorResult = branchPredictor.predict(programCounter, decodedInstruction);                 // Call the predict method in the processor's branch predictor unit
       pContext.setNextInstructionBranchPredictionResult(branchPredictorResult);  
+      pmu.increment(branchesFetchedEvent);
       if (branchPredictorResult == true)      // If branch predictor predicts true for the fetched instruction - Update temporary PC to branch target in the IF stage itself, otherwise carry on with normal execution
       {
-        switch (instruction.getOpCode())
+        pmu.increment(branchesPredictedTakenEvent);
+        switch (decodedInstruction.getOpCode())
         {
           // Unconditional branches
           // BU Ix --- Unconditional branch --- Used in loops (when branching back to the start of the loop - do while, while and for loops)
           case Isa.BU:
-            signedImmediateVal = instruction.getSignedImmediateVal();
-            calculationResult = instruction.getMemoryFetchLocation() + signedImmediateVal;     // Add instruction relative PC with the signed immediate
+            signedImmediateVal = decodedInstruction.getSignedImmediateVal();
+            calculationResult = programCounter + signedImmediateVal;     // Add instruction relative PC with the signed immediate
             //calculationResult = cpuRegisters.readPC() + signedImmediateVal;                           // Add PC with the signed immediate. Similar to the above line but this uses the PC value stored in the register object
             pContext.setBranchTaken(branchPredictorResult);
             pContext.setBranchTarget(calculationResult);
@@ -248,11 +131,11 @@ public class InstructionFetchStage implements IProcessorPipelineStage
 
           // BL Ix --- Unconditional branch with link --- Used in function calls (i.e. jumping to different labels in assembly code)
           case Isa.BL:
-            signedImmediateVal = instruction.getSignedImmediateVal();
-            calculationResult = instruction.getMemoryFetchLocation() + signedImmediateVal;     // Add instruction relative PC with the signed immediate, i.e. using the PC value (memory location from where the instruction was fetched) stored in the instruction object
+            signedImmediateVal = decodedInstruction.getSignedImmediateVal();
+            calculationResult = programCounter + signedImmediateVal;     // Add instruction relative PC with the signed immediate, i.e. using the PC value (memory location from where the instruction was fetched)
             //calculationResult = cpuRegisters.readPC() + signedImmediateVal;                           // Add PC with the signed immediate. Similar to the above line but this uses the PC value stored in the register object
             //cpuRegisters.writeLR(cpuRegisters.readPC() + 1);                                          // Write the return address to the link regiter (Note LR = PC + 1) using the PC register value contained in the cpuRegisters object
-            cpuRegisters.writeLR(instruction.getMemoryFetchLocation() + 1);                    // Write the return address to the link regiter (Note LR = PC + 1) using the memory fetch location value stored in the current instruction object
+            cpuRegisters.writeLR(programCounter + 1);                    // Write the return address to the link regiter (Note LR = PC + 1) using the memory fetch location of the current instruction
             // Push register contents to the stack. Stack pointer incremented implicitly for simplicity.
             for (int regNumber = 0; regNumber < GlobalConstants.BL_ITEMS_TO_PUSH; regNumber++)
             {
@@ -297,32 +180,32 @@ public class InstructionFetchStage implements IProcessorPipelineStage
           // Conditional branches
           // BEQ sr1, sr2, Ix --- Branch if two registers are equal
           case Isa.BEQ:
-            signedImmediateVal = instruction.getSignedImmediateVal();
-            calculationResult = instruction.getMemoryFetchLocation() + signedImmediateVal;     // Add instruction relative PC with the signed immediate, i.e. using the PC value (memory location from where the instruction was fetched) stored in the instruction object
+            signedImmediateVal = decodedInstruction.getSignedImmediateVal();
+            calculationResult = programCounter + signedImmediateVal;     // Add instruction relative PC with the signed immediate, i.e. using the PC value (memory location from where the instruction was fetched)
             pContext.setBranchTaken(branchPredictorResult);
             pContext.setBranchTarget(calculationResult);    // Set the branch target (i.e. PC = PC + Ix)
             break;
 
           // BEQ sr1, sr2, Ix --- Branch if two registers are not equal
           case Isa.BNE:
-            signedImmediateVal = instruction.getSignedImmediateVal();
-            calculationResult = instruction.getMemoryFetchLocation() + signedImmediateVal;     // Add instruction relative PC with the signed immediate 
+            signedImmediateVal = decodedInstruction.getSignedImmediateVal();
+            calculationResult = programCounter + signedImmediateVal;     // Add instruction relative PC with the signed immediate 
             pContext.setBranchTaken(branchPredictorResult);
             pContext.setBranchTarget(calculationResult);    // Set the branch target (i.e. PC = PC + Ix)
             break;
 
           // BEQ sr1, sr2, Ix --- Branch if sr1 < sr2
           case Isa.BLT:
-            signedImmediateVal = instruction.getSignedImmediateVal();
-            calculationResult = instruction.getMemoryFetchLocation() + signedImmediateVal;     // Add instruction relative PC with the signed immediate 
+            signedImmediateVal = decodedInstruction.getSignedImmediateVal();
+            calculationResult = programCounter + signedImmediateVal;     // Add instruction relative PC with the signed immediate 
             pContext.setBranchTaken(branchPredictorResult);
             pContext.setBranchTarget(calculationResult);    // Set the branch target (i.e. PC = PC + Ix)
             break;
 
           // BEQ sr1, sr2, Ix --- Branhc if sr1 > sr2
           case Isa.BGT:
-            signedImmediateVal = instruction.getSignedImmediateVal();
-            calculationResult = instruction.getMemoryFetchLocation() + signedImmediateVal;     // Add instruction relative PC with the signed immediate 
+            signedImmediateVal = decodedInstruction.getSignedImmediateVal();
+            calculationResult = programCounter + signedImmediateVal;     // Add instruction relative PC with the signed immediate 
             pContext.setBranchTaken(branchPredictorResult);
             pContext.setBranchTarget(calculationResult);    // Set the branch target (i.e. PC = PC + Ix)
             break;
@@ -357,6 +240,16 @@ public class InstructionFetchStage implements IProcessorPipelineStage
     return programCounter;
   }
 
+  /**
+   * Method to obtain if the IF stage was stalled in the current (running) cycle, i.e. if nothing has been fetched
+   * USED ONLY FOR PRINTING AND DEBUGGING.
+   * @return Boolean variable stating if the IF stage was stalled
+   */
+  public boolean getStalled()
+  {
+    return stalled;
+  }
+
   /**
    * Method to obtain if the latest fetched instruction is a branch instruction
    * USED ONLY FOR PRINTING AND DEBUGGING.
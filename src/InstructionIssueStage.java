@@ -25,54 +25,54 @@ import java.lang.*;
  */
 public class InstructionIssueStage implements IProcessorPipelineStage
 {
-  private Instruction instruction;
-  private ArrayList<Instruction> instructionList;   /** Reference to the processor instruction list */
+  private int instruction;                          /** Slot index (in the instruction table) of the current instruction (Held by the stage while the front-end is stalled) */
   private Register cpuRegisters;                    /** Reference to architectural registers */
   private ProcessorPipelineContext pContext;        /** Reference to the processor pipeline context */
-
-  public InstructionIssueStage()
-  {
-    instructionList = new ArrayList<Instruction>();   // Instantiate the instruction list object
-  }
+  private InstructionTable instructionTable;        /** Reference to the in-flight instruction table */
 
   public void execute(IPipelineContext context)
   {
     pContext = (ProcessorPipelineContext) context;        // Explicitly cast context to ProcessorPipelineContext type
     cpuRegisters = pContext.getCpuRegisters();            // Obtain and store the reference to the primary cpu registers object from the pipeline context (Doing this to avoid having to type it over and over again)
-    instruction = pContext.getCurrentInstruction();       // Obtain the current instruction from the pipeline context
-    instructionList.add(instruction);                     // Add the current instruction to the list
+    instructionTable = pContext.getInstructionTable();    // Obtain and store the reference to the in-flight instruction table
+    instruction = pContext.getCurrentInstruction();       // Obtain the current instruction from the pipeline context (Still the same instruction if the stage was stalled in the previous cycle)
+    if (pContext.getStallPipeline())                      // The instruction queue is full - Hold on to the instruction (The IF and ID stages are stalled as well, hence, nothing else is received)
+    {
+      pContext.setNextInstructionToInstructionQueue(instruction);     // Rejected since the queue is full, counts the cycle as a structural stall
+      return;
+    }
 
     // TODO need to obtain source register values for all the instructions and update the instructions dependency flag depending on the dependency checking algorithm
     // Instrucions can remain in this stage for multiple clock cycles (Mainly due to dependencies)
     // TODO Do all the work and (flow) checking on the instruction list and only add the instructions that need to be executed in a specific order to the instruction queue
     // TODO Obtain the correct/updated source register values and set it in the instruction object before adding it to the queue. Would need to check for dependencies. NOTE THIS IS NOT DONE IN THE DECODE STAGE AND NEEDS TO BE DONE HERE !!!
     
-    if (instruction.getDependencyFlag() == false)    // Only add the instruction to the instruction queue (and remove from the instruction list) if it doesn't have any dependencies (or if all it's dependencies have finished executing)
+    if (instructionTable.getDependencyFlag(instruction) == false)    // Only add the instruction to the instruction queue if it doesn't have any dependencies (or if all it's dependencies have finished executing)
     {
-      switch (instruction.getInstructionType())
+      switch (instructionTable.getInstructionType(instruction))
       {
         // RRR type
         case "RRR":
-          instruction.setSourceReg1Val(cpuRegisters.readGP(instruction.getSourceReg1Loc()));      // Read value for source register 1
-          instruction.setSourceReg2Val(cpuRegisters.readGP(instruction.getSourceReg2Loc()));      // Read value for source register 2
+          instructionTable.setSourceReg1Val(instruction, cpuRegisters.readGP(instructionTable.getSourceReg1Loc(instruction)));      // Read value for source register 1
+          instructionTable.setSourceReg2Val(instruction, cpuRegisters.readGP(instructionTable.getSourceReg2Loc(instruction)));      // Read value for source register 2
           break;
 
         // RRI type
         case "RRI":
-          if (instruction.getOpCode() == Isa.BEQ || instruction.getOpCode() == Isa.BNE || instruction.getOpCode() == Isa.BLT || instruction.getOpCode() == Isa.BGT)
+          if (instructionTable.getOpCode(instruction) == Isa.BEQ || instructionTable.getOpCode(instruction) == Isa.BNE || instructionTable.getOpCode(instruction) == Isa.BLT || instructionTable.getOpCode(instruction) == Isa.BGT)
           {
-            instruction.setSourceReg1Val(cpuRegisters.readGP(instruction.getSourceReg1Loc()));      // Read value for source register 1
-            instruction.setSourceReg2Val(cpuRegisters.readGP(instruction.getSourceReg2Loc()));      // Read value for source register 2
+            instructionTable.setSourceReg1Val(instruction, cpuRegisters.readGP(instructionTable.getSourceReg1Loc(instruction)));      // Read value for source register 1
+            instructionTable.setSourceReg2Val(instruction, cpuRegisters.readGP(instructionTable.getSourceReg2Loc(instruction)));      // Read value for source register 2
           }
           else
           {
-            instruction.setSourceReg1Val(cpuRegisters.readGP(instruction.getSourceReg1Loc()));      // Read value for source register 1
+            instructionTable.setSourceReg1Val(instruction, cpuRegisters.readGP(instructionTable.getSourceReg1Loc(instruction)));      // Read value for source register 1
           }
           break;
 
         // RR type
         case "RR":
-          instruction.setSourceReg1Val(cpuRegisters.readGP(instruction.getSourceReg1Loc()));      // Read value for source register 1
+          instructionTable.setSourceReg1Val(instruction, cpuRegisters.readGP(instructionTable.getSourceReg1Loc(instruction)));      // Read value for source register 1
           break;
 
         // RI type
@@ -90,35 +90,31 @@ public class InstructionIssueStage implements IProcessorPipelineStage
           System.err.println("Invalid Instruction Type! Instruction couldn't be issued!");
           break;
       }
-      pContext.setNextInstructionToInstructionQueue(instructionList.get(GlobalConstants.INSTRUCTION_LIST_START_INDEX)); // Add the top instruction to the queue by obtaining it from the instruction list
-      instructionList.remove(GlobalConstants.INSTRUCTION_LIST_START_INDEX);                                             // Remove the top instruction from the list after it has been added to the executable instruction queue
+      pContext.setNextInstructionToInstructionQueue(instruction);     // Issue the instruction whose source register values have just been read (The queue isn't full since the front-end isn't stalled)
     }
   }
 
   // TODO need to fill function contents accordingly
   public void flush(IPipelineContext context)
   {
-   instruction = new Instruction(GlobalConstants.DEFAULT_INSTRUCTION_TYPE,
-                                 GlobalConstants.DEFAULT_INSTRUCTION_MNEMONIC,
-                                 ExecutionUnit.ALU,
-                                 GlobalConstants.DEFAULT_INSTRUCTION_OPCODE, 
-                                 GlobalConstants.DEFAULT_MEM_FETCH_LOC,
-                                 GlobalConstants.DEFAULT_INSTRUCTION,
-                                 Isa.InstructionType.RRR.NUMBER_OF_CYCLES,
-                                 GlobalConstants.DEFAULT_BRANCH_PREDICTION,
-                                 Isa.DEFAULT_REG_VALUE,
-                                 Isa.DEFAULT_REG_VALUE,
-                                 Isa.DEFAULT_REG_VALUE,
-                                 Isa.DEFAULT_IMM_VALUE);
-   instructionList.clear();     // Clear the instruction (array) list
+    // Nothing to do: The flushed instruction is released by ProcessorPipelineContext.flush() and the next one is read from the pipeline context
+  }
+
+  /**
+   * Method to register the events counted by the II stage with the PMU. The stage doesn't count any events itself.
+   * @param pmu Performance monitoring unit of the simulation
+   */
+  public void registerEvents(Pmu pmu)
+  {
+    // No events: The instruction queue statistics are kept by the pipeline context
   }
 
   /**
    * Method to obtain the current instruction to be issued by the II stage in the current (running) cycle.
    * USED ONLY FOR PRINTING AND DEBUGGING.
-   * @return Current instruction to be issued
+   * @return Slot index (in the instruction table) of the current instruction to be issued
    */
-  public Instruction getCurrentInstruction()
+  public int getCurrentInstruction()
   {
     return instruction;
   }
@@ -0,0 +1,139 @@
+/**
+ * @file InstructionQueue.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the InstructionQueue class. The instruction queue is a fixed-capacity ring buffer of instruction table slot
+ * indices that sits between the Instruction Issue (II) stage and the Instruction Execute (IE) stage (Similar to a reservation station).
+ * The pipeline context holds two of these queues (current and next) that are swapped when the pipeline is shifted. Adding to a full
+ * queue or removing from an empty queue is signalled explicitly by the caller checking isFull()/isEmpty() beforehand.
+ */
+
+/**
+ * Fixed-capacity ring buffer of instruction table slot indices.
+ */
+public class InstructionQueue
+{
+  private final int[] entries;      /** Ring buffer storage (Instruction table slot indices) */
+  private int head;                 /** Index of the oldest entry (Next entry to be removed) */
+  private int size;                 /** Number of entries currently held in the queue */
+
+  /**
+   * Parameterized constructor
+   * @param  capacity Maximum number of entries that can be held in the queue
+   * @return          No return value since this is a constructor
+   */
+  public InstructionQueue(int capacity)
+  {
+    if (capacity <= 0)
+    {
+      throw new IllegalArgumentException("Instruction queue capacity must be greater than 0 (Capacity requested: " + capacity + ")");
+    }
+    entries = new int[capacity];
+    head = 0;
+    size = 0;
+  }
+
+  /**
+   * Method to add an entry to the tail of the queue
+   * @param  slot Instruction table slot index
+   * @return      True if the entry was added, false if the queue is full
+   */
+  public boolean add(int slot)
+  {
+    if (size == entries.length)
+    {
+      return false;
+    }
+    int tail = head + size;
+    if (tail >= entries.length)       // Wrap around
+    {
+      tail -= entries.length;
+    }
+    entries[tail] = slot;
+    size++;
+    return true;
+  }
+
+  /**
+   * Method to remove the entry at the head of the queue. Callers need to check that the queue is not empty beforehand.
+   * @return Instruction table slot index
+   */
+  public int remove()
+  {
+    if (size == 0)
+    {
+      throw new IllegalStateException("Instruction queue is empty, hence, there is no entry to be removed!");
+    }
+    int slot = entries[head];
+    head++;
+    if (head == entries.length)       // Wrap around
+    {
+      head = 0;
+    }
+    size--;
+    return slot;
+  }
+
+  /**
+   * Method to move all the entries held in another queue to the tail of this queue (Leaving the other queue empty)
+   * @param  other Queue whose entries need to be moved
+   * @return       True if all the entries were moved, false if this queue became full
+   */
+  public boolean transferFrom(InstructionQueue other)
+  {
+    while (other.size != 0)
+    {
+      if (size == entries.length)
+      {
+        return false;
+      }
+      this.add(other.remove());
+    }
+    return true;
+  }
+
+  /**
+   * Method to empty the queue. Only resets the head and size, hence, it runs in constant time.
+   */
+  public void clear()
+  {
+    head = 0;
+    size = 0;
+  }
+
+  /**
+   * Method to obtain the number of entries currently held in the queue
+   * @return Number of entries
+   */
+  public int size()
+  {
+    return size;
+  }
+
+  /**
+   * Method to obtain the maximum number of entries that can be held in the queue
+   * @return Queue capacity
+   */
+  public int getCapacity()
+  {
+    return entries.length;
+  }
+
+  /**
+   * Method to check if the queue is empty
+   * @return True if the queue is empty
+   */
+  public boolean isEmpty()
+  {
+    return size == 0;
+  }
+
+  /**
+   * Method to check if the queue is full
+   * @return True if the queue is full
+   */
+  public boolean isFull()
+  {
+    return size == entries.length;
+  }
+}
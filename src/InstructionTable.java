@@ -0,0 +1,407 @@
+/**
+ * @file InstructionTable.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the InstructionTable class. The instruction table holds every in-flight instruction (i.e. instructions that have
+ * been decoded but not yet written back) in a preallocated structure-of-arrays. An in-flight instruction is identified by its slot index, and
+ * it is this index (and not an object reference) that is passed between the stages of the pipeline through the pipeline context. Slots are
+ * handed out in a round-robin fashion and are simply overwritten when they are reused, hence, no objects are created while the simulation runs.
+ * A slot is live from the moment it is allocated until it is released, either by the WB stage once the instruction has been written back or
+ * by a flush that discards the instruction. Handing out a slot that is still live means that more instructions are in flight than the table
+ * can hold, in which case the allocation fails rather than overwriting the live instruction. The table needs to hold at least as many
+ * instructions as the instruction queue plus one per pipeline stage (See SimulatorConfig).
+ */
+
+// Import packages
+import java.util.*;
+
+/**
+ * Structure-of-arrays table holding all in-flight instructions.
+ */
+public class InstructionTable
+{
+  private final int capacity;                     /** Number of slots in the table */
+  private final int slotMask;                     /** Mask used to wrap the slot index around (capacity - 1) */
+  private int nextSlot;                           /** Next slot to be handed out */
+  private final boolean[] live;                   /** True for every slot holding an instruction that hasn't been written back or flushed */
+  private int liveSlots;                          /** Number of live slots */
+  private final int[] memoryFetchLocation;        /** Location in memory from which each instruction was fetched */
+  private final int[] instruction;                /** Instruction value. Useful for debugging/printing purposes */
+  private final String[] instructionType;         /** Instruction type (References to the constants held by the InstructionDecoder) */
+  private final String[] instructionMnemonic;     /** Instruction mnemonic (References to the constants held by the InstructionDecoder) */
+  private final int[] numberOfCycles;             /** Number of cycles required to execute each instruction */
+  private final int[] opCode;                     /** Instruction OpCode */
+  private final int[] sourceReg1Loc;              /** Source register 1 number */
+  private final int[] sourceReg2Loc;              /** Source register 2 number */
+  private final int[] destinationRegLoc;          /** Destination register number */
+  private final int[] sourceReg1Val;              /** Value read from source register 1 */
+  private final int[] sourceReg2Val;              /** Value read from source register 2 */
+  private final int[] signedImmediateVal;         /** Signed immediate value encoded/embedded in the instruction */
+  private final int[] writebackVal;               /** Result value that is used by the writeback stage to update the registers */
+  private final ExecutionUnit[] executionUnit;    /** Execution unit required to execute each instruction */
+  private final boolean[] dependencyFlag;         /** Dependency flag for each instruction */
+  private final boolean[] branchPredictionResult; /** Branch prediction result. Only useful for branch instructions */
+
+  /**
+   * Parameterized constructor
+   * @param  capacity Number of slots in the table (Needs to be a power of 2)
+   * @return          No return value since this is a constructor
+   */
+  public InstructionTable(int capacity)
+  {
+    if (capacity <= 0 || (capacity & (capacity - 1)) != 0)
+    {
+      throw new IllegalArgumentException("Instruction table capacity must be a power of 2 (Capacity requested: " + capacity + ")");
+    }
+    this.capacity = capacity;
+    this.slotMask = capacity - 1;
+    this.nextSlot = 0;
+    live = new boolean[capacity];
+    memoryFetchLocation = new int[capacity];
+    instruction = new int[capacity];
+    instructionType = new String[capacity];
+    instructionMnemonic = new String[capacity];
+    numberOfCycles = new int[capacity];
+    opCode = new int[capacity];
+    sourceReg1Loc = new int[capacity];
+    sourceReg2Loc = new int[capacity];
+    destinationRegLoc = new int[capacity];
+    sourceReg1Val = new int[capacity];
+    sourceReg2Val = new int[capacity];
+    signedImmediateVal = new int[capacity];
+    writebackVal = new int[capacity];
+    executionUnit = new ExecutionUnit[capacity];
+    dependencyFlag = new boolean[capacity];
+    branchPredictionResult = new boolean[capacity];
+    for (int slot = 0; slot < capacity; slot++)       // Every slot holds a NOP until it is used for the first time
+    {
+      this.setNop(slot);
+    }
+  }
+
+  /**
+   * Method to allocate a slot for a newly decoded instruction
+   * @param  decodedInstruction     Decoded instruction template
+   * @param  memoryFetchLocation    Location in memory from which the instruction was fetched
+   * @param  branchPredictionResult Branch predictor's result for the instruction
+   * @return                        Slot index of the new in-flight instruction
+   */
+  public int allocate(DecodedInstruction decodedInstruction, int memoryFetchLocation, boolean branchPredictionResult)
+  {
+    int slot = this.nextFreeSlot();
+    this.memoryFetchLocation[slot] = memoryFetchLocation;
+    this.instruction[slot] = decodedInstruction.getInstructionVal();
+    this.instructionType[slot] = decodedInstruction.getInstructionType();
+    this.instructionMnemonic[slot] = decodedInstruction.getInstructionMnemonic();
+    this.numberOfCycles[slot] = decodedInstruction.getNumberOfCycles();
+    this.opCode[slot] = decodedInstruction.getOpCode();
+    this.sourceReg1Loc[slot] = decodedInstruction.getSourceReg1Loc();
+    this.sourceReg2Loc[slot] = decodedInstruction.getSourceReg2Loc();
+    this.destinationRegLoc[slot] = decodedInstruction.getDestinationRegLoc();
+    this.sourceReg1Val[slot] = Isa.DEFAULT_REG_VALUE;
+    this.sourceReg2Val[slot] = Isa.DEFAULT_REG_VALUE;
+    this.signedImmediateVal[slot] = decodedInstruction.getSignedImmediateVal();
+    this.writebackVal[slot] = Isa.DEFAULT_REG_VALUE;
+    this.executionUnit[slot] = decodedInstruction.getExecutionUnit();
+    this.dependencyFlag[slot] = GlobalConstants.DEFAULT_DEPENDENCY_FLAG;      // By default we set this to false and assume that an instruction doesn't have any dependencies
+    this.branchPredictionResult[slot] = branchPredictionResult;
+    return slot;
+  }
+
+  /**
+   * Method to allocate a slot holding a NOP. Used to fill the pipeline registers when the pipeline is reset or flushed.
+   * @return Slot index of the new NOP instruction
+   */
+  public int allocateNop()
+  {
+    int slot = this.nextFreeSlot();
+    this.setNop(slot);
+    return slot;
+  }
+
+  /**
+   * Method to release the slot of an instruction that has left the pipeline (Called by the WB stage once the instruction has been written back)
+   * @param slot Slot index
+   */
+  public void release(int slot)
+  {
+    if (live[slot])
+    {
+      live[slot] = false;
+      liveSlots--;
+    }
+  }
+
+  /**
+   * Method to release the slots of all the instructions discarded by a pipeline flush, i.e. every slot apart from the one holding the
+   * instruction that caused the flush (It has been executed and still needs to be written back)
+   * @param survivingSlot Slot index of the instruction that stays in flight
+   */
+  public void releaseAllExcept(int survivingSlot)
+  {
+    boolean survivorLive = live[survivingSlot];
+    Arrays.fill(live, false);
+    live[survivingSlot] = survivorLive;
+    liveSlots = survivorLive ? 1 : 0;
+  }
+
+  /**
+   * Method to obtain the number of live slots, i.e. the number of instructions currently in flight
+   * @return Number of live slots
+   */
+  public int getLiveSlots()
+  {
+    return liveSlots;
+  }
+
+  /**
+   * Method to obtain the next slot to be handed out
+   * @return Slot index
+   */
+  private int nextFreeSlot()
+  {
+    int slot = nextSlot;
+    if (live[slot])
+    {
+      throw new IllegalStateException("Instruction table overrun (Slot " + slot + " is still in flight, " + liveSlots + " of " + capacity +
+                                      " slots in use). The instruction table needs to hold the instruction queue plus one instruction per pipeline stage.");
+    }
+    live[slot] = true;
+    liveSlots++;
+    nextSlot = (nextSlot + 1) & slotMask;
+    return slot;
+  }
+
+  /**
+   * Method to reset a slot to a NOP instruction
+   * @param slot Slot index
+   */
+  private void setNop(int slot)
+  {
+    memoryFetchLocation[slot] = GlobalConstants.DEFAULT_MEM_FETCH_LOC;
+    instruction[slot] = GlobalConstants.DEFAULT_INSTRUCTION;
+    instructionType[slot] = GlobalConstants.DEFAULT_INSTRUCTION_TYPE;
+    instructionMnemonic[slot] = GlobalConstants.DEFAULT_INSTRUCTION_MNEMONIC;
+    numberOfCycles[slot] = Isa.InstructionType.RRR.NUMBER_OF_CYCLES;
+    opCode[slot] = GlobalConstants.DEFAULT_INSTRUCTION_OPCODE;
+    sourceReg1Loc[slot] = Isa.DEFAULT_REG_VALUE;
+    sourceReg2Loc[slot] = Isa.DEFAULT_REG_VALUE;
+    destinationRegLoc[slot] = Isa.DEFAULT_REG_VALUE;
+    sourceReg1Val[slot] = Isa.DEFAULT_REG_VALUE;
+    sourceReg2Val[slot] = Isa.DEFAULT_REG_VALUE;
+    signedImmediateVal[slot] = Isa.DEFAULT_IMM_VALUE;
+    writebackVal[slot] = Isa.DEFAULT_REG_VALUE;
+    executionUnit[slot] = GlobalConstants.DEFAULT_EXECUTION_UNIT;
+    dependencyFlag[slot] = GlobalConstants.DEFAULT_DEPENDENCY_FLAG;
+    branchPredictionResult[slot] = GlobalConstants.DEFAULT_BRANCH_PREDICTION;
+  }
+
+  /**
+   * Method to obtain the number of slots in the table
+   * @return Number of slots
+   */
+  public int getCapacity()
+  {
+    return capacity;
+  }
+
+  /**
+   * Method to obtain the OpCode for an instruction
+   * @param  slot Slot index of the instruction
+   * @return      Instruction's OpCode
+   */
+  public int getOpCode(int slot)
+  {
+    return opCode[slot];
+  }
+
+  /**
+   * Method to set the value for source register 1
+   * @param slot           Slot index of the instruction
+   * @param _sourceReg1Val Source register 1 value
+   */
+  public void setSourceReg1Val(int slot, int _sourceReg1Val)
+  {
+    sourceReg1Val[slot] = _sourceReg1Val;
+  }
+
+  /**
+   * Method to set the value for source register 2
+   * @param slot           Slot index of the instruction
+   * @param _sourceReg2Val Source register 2 value
+   */
+  public void setSourceReg2Val(int slot, int _sourceReg2Val)
+  {
+    sourceReg2Val[slot] = _sourceReg2Val;
+  }
+
+  /**
+   * Method to get the value for source register 1
+   * @param  slot Slot index of the instruction
+   * @return      Source register 1 value
+   */
+  public int getSourceReg1Val(int slot)
+  {
+    return sourceReg1Val[slot];
+  }
+
+  /**
+   * Method to get the value for source register 2
+   * @param  slot Slot index of the instruction
+   * @return      Source register 2 value
+   */
+  public int getSourceReg2Val(int slot)
+  {
+    return sourceReg2Val[slot];
+  }
+
+  /**
+   * Method to get the value for the signed immediate
+   * @param  slot Slot index of the instruction
+   * @return      Signed immediate value
+   */
+  public int getSignedImmediateVal(int slot)
+  {
+    return signedImmediateVal[slot];
+  }
+
+  /**
+   * Method to obtain the value for the instruction's dependency flag
+   * @param  slot Slot index of the instruction
+   * @return      Instruction dependency flag current value
+   */
+  public boolean getDependencyFlag(int slot)
+  {
+    return dependencyFlag[slot];
+  }
+
+  /**
+   * Method to set the value for the instruction's dependency flag
+   * @param slot            Slot index of the instruction
+   * @param _dependencyFlag Instruction dependency flag new value
+   */
+  public void setDependencyFlag(int slot, boolean _dependencyFlag)
+  {
+    dependencyFlag[slot] = _dependencyFlag;
+  }
+
+  /**
+   * Method to obtain the type of execution unit (EU) required to execute the instruction
+   * @param  slot Slot index of the instruction
+   * @return      Type of execution unit (EU) required to execute the instruction
+   */
+  public ExecutionUnit getExecutionUnit(int slot)
+  {
+    return executionUnit[slot];
+  }
+
+  /**
+   * Method to obtain a value for the type of instruction
+   * @param  slot Slot index of the instruction
+   * @return      Type of instruction
+   */
+  public String getInstructionType(int slot)
+  {
+    return instructionType[slot];
+  }
+
+  /**
+   * Method to obtain the first source register's location
+   * @param  slot Slot index of the instruction
+   * @return      Location of source register 1
+   */
+  public int getSourceReg1Loc(int slot)
+  {
+    return sourceReg1Loc[slot];
+  }
+
+  /**
+   * Method to obtain the second source register's location
+   * @param  slot Slot index of the instruction
+   * @return      Location of source register 2
+   */
+  public int getSourceReg2Loc(int slot)
+  {
+    return sourceReg2Loc[slot];
+  }
+
+  /**
+   * Method to obtain the destination register's location
+   * @param  slot Slot index of the instruction
+   * @return      Location of destination register
+   */
+  public int getDestinationRegLoc(int slot)
+  {
+    return destinationRegLoc[slot];
+  }
+
+  /**
+   * Method to obtain the location in memory from which the instruction was fetched
+   * @param  slot Slot index of the instruction
+   * @return      Location in memory from which the instruction was fetched
+   */
+  public int getMemoryFetchLocation(int slot)
+  {
+    return memoryFetchLocation[slot];
+  }
+
+  /**
+   * Method to obtain the instruction value
+   * @param  slot Slot index of the instruction
+   * @return      Instruction value
+   */
+  public int getInstructionVal(int slot)
+  {
+    return instruction[slot];
+  }
+
+  /**
+   * Method to obtain the instruction mnemonic
+   * @param  slot Slot index of the instruction
+   * @return      Instruction mnemonic
+   */
+  public String getInstructionMnemonic(int slot)
+  {
+    return instructionMnemonic[slot];
+  }
+
+  /**
+   * Method to obtain the number of cycles required to execute the instruction
+   * @param  slot Slot index of the instruction
+   * @return      Number of cycles required to execute the instruction
+   */
+  public int getNumberOfCycles(int slot)
+  {
+    return numberOfCycles[slot];
+  }
+
+  /**
+   * Method to obtain the branch predictor's result for the instruction. Only useful for branch instructions.
+   * @param  slot Slot index of the instruction
+   * @return      Branch predictor's result for the instruction
+   */
+  public boolean getBranchPredictionResult(int slot)
+  {
+    return branchPredictionResult[slot];
+  }
+
+  /**
+   * Method to set the writeback value (i.e. instruction result). Used by the instruction execute (IE) stage.
+   * @param slot          Slot index of the instruction
+   * @param _writebackVal Writeback value (i.e. instruction result)
+   */
+  public void setWritebackVal(int slot, int _writebackVal)
+  {
+    writebackVal[slot] = _writebackVal;
+  }
+
+  /**
+   * Method to obtain the writeback value (i.e. instruction result). Used by the instruction writeback (WB) stage.
+   * @param  slot Slot index of the instruction
+   * @return      Writeback value (i.e. instruction result)
+   */
+  public int getWritebackVal(int slot)
+  {
+    return writebackVal[slot];
+  }
+}
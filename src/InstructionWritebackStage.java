@@ -19,37 +19,33 @@ import java.lang.*;
  */
 public class InstructionWritebackStage implements IProcessorPipelineStage
 {
-  Instruction instruction;
+  public static final String EVENT_REGISTER_WRITES = "wb.registerWrites";     /** Register writes performed */
+
+  int instruction;          /** Slot index (in the instruction table) of the current instruction */
+  private Pmu pmu;          /** Reference to the performance monitoring unit */
+  private int registerWritesEvent;      /** PMU index of the register write counter */
 
   public InstructionWritebackStage()
   {
-    this.instruction = new Instruction(GlobalConstants.DEFAULT_INSTRUCTION_TYPE,
-                                       GlobalConstants.DEFAULT_INSTRUCTION_MNEMONIC,
-                                       ExecutionUnit.ALU,
-                                       GlobalConstants.DEFAULT_INSTRUCTION_OPCODE, 
-                                       GlobalConstants.DEFAULT_MEM_FETCH_LOC,
-                                       GlobalConstants.DEFAULT_INSTRUCTION,
-                                       Isa.InstructionType.RRR.NUMBER_OF_CYCLES,
-                                       GlobalConstants.DEFAULT_BRANCH_PREDICTION,
-                                       Isa.DEFAULT_REG_VALUE,
-                                       Isa.DEFAULT_REG_VALUE,
-                                       Isa.DEFAULT_REG_VALUE,
-                                       Isa.DEFAULT_IMM_VALUE);                        // Instantiate new instruction object to avoid getting a null pointer exception in the IE stage when performing result passing. Only useful in the first cycle of the simulation
+    this.instruction = GlobalConstants.DEFAULT_INSTRUCTION_SLOT;                        // Every slot in the instruction table holds a NOP until it is used. Only useful in the first cycle of the simulation
   }
 
   public void execute(IPipelineContext context)
   {
     ProcessorPipelineContext pContext = (ProcessorPipelineContext) context;             // Explicitly cast context to ProcessorPipelineContext type
     Register cpuRegisters = pContext.getCpuRegisters();                                 // Obtain and store the reference to the primary cpu registers object from the pipeline context (Doing this to avoid having to type it over and over again)
+    InstructionTable instructionTable = pContext.getInstructionTable();                 // Obtain and store the reference to the in-flight instruction table
     instruction = pContext.getCurrentInstructionWriteBack();
     // TODO Insert check to only writeback those instructions that are valid for a writeback operation
-    if (instruction.getExecutionUnit() == ExecutionUnit.ALU || instruction.getExecutionUnit() == ExecutionUnit.LSU)       // The writeback stage is only valid for ALU and LSU instructions in this design (BU updates required registers in the IE stage)
+    if (instructionTable.getExecutionUnit(instruction) == ExecutionUnit.ALU || instructionTable.getExecutionUnit(instruction) == ExecutionUnit.LSU)       // The writeback stage is only valid for ALU and LSU instructions in this design (BU updates required registers in the IE stage)
     {
-      if (instruction.getOpCode() != Isa.NOP && instruction.getOpCode() != Isa.SW)       // Prevent any writes to registers for the NOP and store instructions
+      if (instructionTable.getOpCode(instruction) != Isa.NOP && instructionTable.getOpCode(instruction) != Isa.SW)       // Prevent any writes to registers for the NOP and store instructions
       {
-        cpuRegisters.writeGP(instruction.getDestinationRegLoc(), instruction.getWritebackVal());
+        cpuRegisters.writeGP(instructionTable.getDestinationRegLoc(instruction), instructionTable.getWritebackVal(instruction));
+        pmu.increment(registerWritesEvent);
       }
     }
+    instructionTable.release(instruction);      // The instruction has left the pipeline, hence, its slot can be handed out again
   }
 
   // This flush method should do nothing (be empty) since this stage is ahead of the instruction execute stage in the pipeline. Only stages before/behind the instruction execute stage need to be flushed.
@@ -58,12 +54,22 @@ public class InstructionWritebackStage implements IProcessorPipelineStage
 
   }
 
+  /**
+   * Method to register the events counted by the WB stage (Register writes) with the PMU
+   * @param pmu Performance monitoring unit of the simulation
+   */
+  public void registerEvents(Pmu pmu)
+  {
+    this.pmu = pmu;
+    registerWritesEvent = pmu.register(EVENT_REGISTER_WRITES, "Register writes performed");
+  }
+
   /**
    * Method to obtain the current instruction to be issued by the II stage in the current (running) cycle.
    * USED ONLY FOR PRINTING AND DEBUGGING.
-   * @return Current instruction to be written back
+   * @return Slot index (in the instruction table) of the current instruction to be written back
    */
-  public Instruction getCurrentInstruction()
+  public int getCurrentInstruction()
   {
     return instruction;
   }
@@ -0,0 +1,354 @@
+/**
+ * @file KanataTrace.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the KanataTrace class that exports the stage occupancy of every instruction in the Kanata log format (Version
+ * 0004), which can be viewed in a pipeline visualizer (e.g. Konata). Unlike the table printed by the ProcessorPipelineStatus, the log follows
+ * individual instructions, hence, thousands of cycles can be inspected and stalls/flushes are easy to spot.
+ *
+ * The trace is recorded at the end of every cycle by observing the pipeline (Same as the ProcessorPipelineStatus): An instruction gets its
+ * Kanata id when it is fetched, it is followed by its slot in the instruction table once it has been decoded, and it is retired after the
+ * WB stage or flushed when a mispredicted branch is executed. Bubbles aren't traced. An instruction stays in its stage while the front-end is
+ * stalled by a full instruction queue. The log is streamed to the file through a buffered writer. To keep the file small on long runs, only
+ * the instructions fetched from a range of memory locations (--kanata-pc <first>:<last>) and/or within a window of cycles (--kanata-cycles
+ * <first>:<last>) can be traced. Instructions already in flight at the end of the cycle window are followed until they leave the pipeline.
+ *
+ * Log commands used (Fields separated by tabs): "C=" (First cycle), "C" (Cycles elapsed), "I" (New instruction), "L" (Label, type 0 shown
+ * next to the instruction, type 1 shown on mouse-over), "S" (Stage started, the previous stage of the instruction ends) and "R" (Retired,
+ * type 0, or flushed, type 1).
+ */
+
+// Import packages
+import pipeline.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Writes the stage occupancy of the instructions to a Kanata log.
+ */
+public final class KanataTrace implements Closeable
+{
+  public static final String HEADER = "Kanata\t0004";   /** First line of a Kanata log (Format version) */
+  public static final String[] STAGE_NAMES = {"IF", "ID", "II", "IE", "WB"};     /** Name of every stage shown in the visualizer */
+  private static final int STAGE_IF = 0;
+  private static final int STAGE_ID = 1;
+  private static final int STAGE_II = 2;
+  private static final int STAGE_IE = 3;
+  private static final int STAGE_WB = 4;
+  private static final int STAGE_DONE = 5;              /** Pseudo stage of the instructions that have been retired or flushed */
+  private static final int NO_ID = -1;                  /** Id of a bubble (Or of an instruction that isn't traced) */
+
+  private final BufferedWriter out;                     /** Writer the log is streamed to */
+  private final int firstLocation;                      /** First memory location of the instructions traced */
+  private final int lastLocation;                       /** Last memory location of the instructions traced */
+  private final long firstCycle;                        /** First cycle in which instructions are fetched for the trace */
+  private final long lastCycle;                         /** Last cycle in which instructions are fetched for the trace */
+  private int[] slotIds;                                /** Kanata id of the instruction held in every slot of the instruction table */
+  private int[] stages;                                 /** Current stage of the in-flight instructions (Ring indexed by the Kanata id) */
+  private int[] slots;                                  /** Instruction table slot of the in-flight instructions (Ring indexed by the Kanata id) */
+  private int idMask;                                   /** Mask used to wrap a Kanata id around the rings */
+  private int nextId;                                   /** Kanata id of the next instruction fetched (Ids need to be consecutive in the log) */
+  private int oldestId;                                 /** Kanata id of the oldest instruction still in flight */
+  private int fetchedId = NO_ID;                        /** Kanata id of the instruction held in the IF/ID pipeline register */
+  private int writebackId = NO_ID;                      /** Kanata id of the instruction written back in the last cycle recorded (Retired in the next one) */
+  private long retired;                                 /** Number of instructions retired */
+  private long flushed;                                 /** Number of instructions flushed */
+  private long inFlightAtEnd;                           /** Number of instructions still in flight when the log was closed (Shown as flushed) */
+  private long loggedCycle = -1;                        /** Last cycle written to the log (-1 = no cycle written yet) */
+
+  /**
+   * Parameterized constructor
+   * @param  traceFileName Name of the log file (Overwritten if it already exists)
+   * @param  firstLocation First memory location of the instructions traced
+   * @param  lastLocation  Last memory location of the instructions traced
+   * @param  firstCycle    First cycle in which instructions are fetched for the trace
+   * @param  lastCycle     Last cycle in which instructions are fetched for the trace
+   * @return               No return value since this is a constructor
+   * @throws IOException   If the log file can't be created
+   */
+  public KanataTrace(String traceFileName, int firstLocation, int lastLocation, long firstCycle, long lastCycle) throws IOException
+  {
+    this.firstLocation = firstLocation;
+    this.lastLocation = lastLocation;
+    this.firstCycle = firstCycle;
+    this.lastCycle = lastCycle;
+    out = Files.newBufferedWriter(Paths.get(traceFileName));
+    out.write(HEADER);
+    out.newLine();
+  }
+
+  /**
+   * Method to record the stages occupied in the current cycle. Needs to be called at the end of every cycle (After the pipeline has been
+   * shifted).
+   * @param context Processor pipeline context
+   */
+  public void recordCycle(IPipelineContext context)
+  {
+    ProcessorPipelineContext pContext = (ProcessorPipelineContext) context;
+    if (slotIds == null)
+    {
+      this.allocate(pContext.getInstructionTable().getCapacity());
+    }
+    long cycle = pContext.getCpuRegisters().readClockCounter() - 1;     // Subtracting 1 because the clock counter has already been incremented in this cycle
+    try
+    {
+      if (writebackId != NO_ID)           // The instruction written back in the previous cycle has left the pipeline
+      {
+        this.logCycle(cycle);
+        out.write("R\t" + writebackId + "\t" + retired++ + "\t0\n");
+        stages[writebackId & idMask] = STAGE_DONE;
+        writebackId = NO_ID;
+      }
+
+      InstructionFetchStage instructionFetchStage = (InstructionFetchStage) pContext.getIF_Stage();
+      if (!instructionFetchStage.getStalled())     // The IF, ID and II stages hold their instructions while the front-end is stalled
+      {
+        // ID stage: Decoded the instruction fetched in the previous cycle (The pipeline has been shifted, hence, it is now held by the ID/II register)
+        int decodedId = fetchedId;
+        int decodedSlot = pContext.getCurrentInstruction();
+        slotIds[decodedSlot] = decodedId;
+        if (decodedId != NO_ID)
+        {
+          slots[decodedId & idMask] = decodedSlot;
+          this.startStage(cycle, decodedId, STAGE_ID);
+        }
+
+        // IF stage
+        fetchedId = NO_ID;
+        int programCounter = instructionFetchStage.getCurrentPC();
+        if (programCounter >= firstLocation && programCounter <= lastLocation && cycle >= firstCycle && cycle <= lastCycle)
+        {
+          fetchedId = this.fetch(cycle, programCounter, instructionFetchStage.getCurrentInstructionRead());
+        }
+      }
+
+      // II, IE and WB stages (The instructions are identified by their slot in the instruction table)
+      this.startStage(cycle, slotIds[((InstructionIssueStage) pContext.getII_Stage()).getCurrentInstruction()], STAGE_II);
+      this.startStage(cycle, slotIds[((InstructionExecuteStage) pContext.getIE_Stage()).getCurrentInstruction()], STAGE_IE);
+      int writebackSlot = ((InstructionWritebackStage) pContext.getWB_Stage()).getCurrentInstruction();
+      if (this.startStage(cycle, slotIds[writebackSlot], STAGE_WB))
+      {
+        writebackId = slotIds[writebackSlot];
+        slotIds[writebackSlot] = NO_ID;     // The slot is reused by a later instruction
+      }
+    }
+    catch (IOException ex)
+    {
+      throw new UncheckedIOException("The Kanata trace couldn't be written", ex);
+    }
+  }
+
+  /**
+   * Method to record that the pipeline is being flushed because a branch was mispredicted. Every instruction that hasn't reached the IE stage
+   * yet is flushed. Needs to be called after recordCycle() in the cycle the branch was executed.
+   * @param context Processor pipeline context
+   */
+  public void recordFlush(IPipelineContext context)
+  {
+    try
+    {
+      for (int id = oldestId; id < nextId; id++)
+      {
+        int stage = stages[id & idMask];
+        if (stage < STAGE_IE)
+        {
+          out.write("R\t" + id + "\t0\t1\n");
+          stages[id & idMask] = STAGE_DONE;
+          if (stage != STAGE_IF)
+          {
+            slotIds[slots[id & idMask]] = NO_ID;
+          }
+          flushed++;
+        }
+      }
+      fetchedId = NO_ID;
+    }
+    catch (IOException ex)
+    {
+      throw new UncheckedIOException("The Kanata trace couldn't be written", ex);
+    }
+  }
+
+  /**
+   * Method to obtain the number of instructions retired in the trace
+   * @return Number of instructions retired
+   */
+  public long getRetired()
+  {
+    return retired;
+  }
+
+  /**
+   * Method to obtain the number of instructions flushed in the trace
+   * @return Number of instructions flushed
+   */
+  public long getFlushed()
+  {
+    return flushed;
+  }
+
+  /**
+   * Method to obtain the number of instructions still in flight when the log was closed. They are written to the log as flushed, but aren't
+   * counted by getFlushed() since no branch flushed them.
+   * @return Number of instructions in flight at the end of the trace
+   */
+  public long getInFlightAtEnd()
+  {
+    return inFlightAtEnd;
+  }
+
+  /**
+   * Method to close the log. The instruction written back in the last cycle is retired, the instructions still in flight are shown as flushed.
+   * @throws IOException If the log can't be written
+   */
+  @Override
+  public void close() throws IOException
+  {
+    try
+    {
+      if (writebackId != NO_ID)
+      {
+        out.write("R\t" + writebackId + "\t" + retired++ + "\t0\n");
+        stages[writebackId & idMask] = STAGE_DONE;
+        writebackId = NO_ID;
+      }
+      for (int id = oldestId; id < nextId; id++)
+      {
+        if (stages[id & idMask] != STAGE_DONE)
+        {
+          out.write("R\t" + id + "\t0\t1\n");
+          stages[id & idMask] = STAGE_DONE;
+          inFlightAtEnd++;
+        }
+      }
+    }
+    finally
+    {
+      out.close();
+    }
+  }
+
+  /**
+   * Method to allocate the slot map and the rings of in-flight instructions (Once the size of the instruction table is known)
+   * @param instructionTableCapacity Number of slots in the instruction table
+   */
+  private void allocate(int instructionTableCapacity)
+  {
+    slotIds = new int[instructionTableCapacity];
+    Arrays.fill(slotIds, NO_ID);
+    int ringSize = Integer.highestOneBit(instructionTableCapacity + 2) * 2;     // More than the number of instructions that can be in flight (Every in-flight instruction apart from the fetched one holds a slot)
+    stages = new int[ringSize];
+    slots = new int[ringSize];
+    idMask = ringSize - 1;
+  }
+
+  /**
+   * Method to add a newly fetched instruction to the log
+   * @param  cycle          Current cycle
+   * @param  programCounter Memory location the instruction was fetched from
+   * @param  instruction    Instruction value
+   * @return                Kanata id of the instruction
+   * @throws IOException    If the log can't be written
+   */
+  private int fetch(long cycle, int programCounter, int instruction) throws IOException
+  {
+    while (oldestId < nextId && stages[oldestId & idMask] == STAGE_DONE)
+    {
+      oldestId++;
+    }
+    if (nextId - oldestId > idMask)
+    {
+      throw new IllegalStateException("Too many instructions in flight to be traced (" + (nextId - oldestId) + ")");
+    }
+    int id = nextId++;
+    stages[id & idMask] = STAGE_IF;
+    this.logCycle(cycle);
+    out.write("I\t" + id + "\t" + id + "\t0\n");
+    out.write("L\t" + id + "\t0\t" + programCounter + ": " + disassemble(instruction) + "\n");
+    out.write("L\t" + id + "\t1\tPC = " + programCounter + ", instruction = " + String.format("0x%08x", instruction) + ", fetched in cycle " + cycle + "\n");
+    out.write("S\t" + id + "\t0\t" + STAGE_NAMES[STAGE_IF] + "\n");
+    return id;
+  }
+
+  /**
+   * Method to start a stage of an instruction (Nothing is logged if the instruction is already in the stage, e.g. while the II stage is
+   * blocked, or if it isn't traced)
+   * @param  cycle       Current cycle
+   * @param  id          Kanata id of the instruction (NO_ID = bubble or not traced)
+   * @param  stage       Stage
+   * @return             True if the stage was started
+   * @throws IOException If the log can't be written
+   */
+  private boolean startStage(long cycle, int id, int stage) throws IOException
+  {
+    if (id == NO_ID || stages[id & idMask] >= stage)
+    {
+      return false;
+    }
+    stages[id & idMask] = stage;
+    this.logCycle(cycle);
+    out.write("S\t" + id + "\t0\t" + STAGE_NAMES[stage] + "\n");
+    return true;
+  }
+
+  /**
+   * Method to move the log on to the current cycle (Cycles in which nothing is logged aren't written)
+   * @param  cycle       Current cycle
+   * @throws IOException If the log can't be written
+   */
+  private void logCycle(long cycle) throws IOException
+  {
+    if (loggedCycle < 0)
+    {
+      out.write("C=\t" + cycle + "\n");
+    }
+    else if (cycle > loggedCycle)
+    {
+      out.write("C\t" + (cycle - loggedCycle) + "\n");
+    }
+    loggedCycle = cycle;
+  }
+
+  /**
+   * Method to disassemble an instruction (Operands in assembly order, the immediate of a branch is the offset to the branch target)
+   * @param  instruction Instruction value
+   * @return             Assembly text
+   */
+  private static String disassemble(int instruction)
+  {
+    int opCode = InstructionDecoder.opCode(instruction);
+    if (!InstructionDecoder.isValidOpCode(opCode))
+    {
+      return String.format("0x%08x", instruction);
+    }
+    int type = InstructionDecoder.type(opCode);
+    String mnemonic = InstructionDecoder.mnemonic(opCode);
+    int destination = InstructionDecoder.destinationReg(instruction, opCode, type);
+    int source1 = InstructionDecoder.sourceReg1(instruction, type);
+    int source2 = InstructionDecoder.sourceReg2(instruction, opCode, type);
+    int immediate = InstructionDecoder.signedImmediate(instruction, type);
+    switch (type)
+    {
+      case InstructionDecoder.TYPE_RRR:
+        return (opCode == Isa.NOP) ? mnemonic : (mnemonic + " R" + destination + ", R" + source1 + ", R" + source2);
+
+      case InstructionDecoder.TYPE_RRI:
+        if (opCode == Isa.BEQ || opCode == Isa.BNE || opCode == Isa.BLT || opCode == Isa.BGT)     // Conditional branches encode source register 2 in the destination register field
+        {
+          return mnemonic + " R" + source1 + ", R" + source2 + ", " + immediate;
+        }
+        return mnemonic + " R" + destination + ", R" + source1 + ", " + immediate;
+
+      case InstructionDecoder.TYPE_RR:
+        return mnemonic + " R" + destination + ", R" + source1;
+
+      case InstructionDecoder.TYPE_RI:
+        return mnemonic + " R" + destination + ", " + immediate;
+
+      default:              // I
+        return mnemonic + " " + immediate;
+    }
+  }
+}
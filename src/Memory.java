@@ -12,10 +12,21 @@
  * integer array approach has been taken since it's simpler to implement and doesn't requried the data to be masked and shifted for the 
  * different bits to be put into the correct byte element. The class also contains a memory dump method that dumps/outputs the current 
  * state of memory which can be useful for debugging purposes.
+ * The memory is paged: The address space (Up to 2^32 locations, addresses are treated as unsigned 32-bit values) is split into 4 KiB pages
+ * (See PageDirectory) that are only allocated the first time they are written to. Reads from a page that has never been written to return
+ * the initialization value without allocating it, hence, creating a memory takes the same time regardless of its size. Pages are either
+ * on-heap int arrays or off-heap direct buffers (Which keep large memories out of the Java heap). The page used by the last access is cached
+ * so that consecutive accesses to the same page don't need to look it up in the page directory.
+ * Every page written to is marked in a dirty-page bitmap (Only when a write switches to a page that isn't marked yet, hence, the hot path
+ * isn't slowed down), which allows a memory dump to only compare the pages written to since the previous dump (See MemoryDumpMode). Text
+ * dumps are formatted into a buffer in bulk rather than value by value.
  */
 
 // Import packages
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
 import java.util.*;
 import java.lang.*;
 
@@ -26,10 +37,21 @@ import java.lang.*;
 public class Memory
 {
   // Class/Instance fields
-  // TODO change all access specifiers to private and see if that works.
-  private int[] memoryArray;                        /** Memory array that emulates physical memory */
-  private final int defaultMemorySize = GlobalConstants.MEMORY_SIZE;         /** Default memory array size */
-  private int memorySize;                           /** Store the custom-defined memory size for future reference in this class */
+  public static final long MAX_MEMORY_SIZE = 1L << Integer.SIZE;            /** Largest memory that can be addressed (Number of 32-bit addresses) */
+  private static final int DUMP_BUFFER_SIZE = 1 << 16;      /** Number of characters formatted before the dump buffer is written out */
+  private static final int DUMP_LINE_LENGTH = 128;          /** Upper bound of the length of a single dump line */
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private final long memorySize;                    /** Number of locations in memory */
+  private final boolean offHeap;                    /** Boolean variable stating if the pages are allocated off-heap (Direct buffers) */
+  private final PageDirectory<int[]> heapPages;     /** On-heap pages (null if the pages are allocated off-heap) */
+  private final PageDirectory<IntBuffer> offHeapPages;    /** Off-heap pages (null if the pages are allocated on-heap) */
+  private int lastPageNumber = -1;                  /** Page number of the page used by the last access (-1 = no page cached) */
+  private int[] lastHeapPage;                       /** On-heap page used by the last access */
+  private IntBuffer lastOffHeapPage;                /** Off-heap page used by the last access */
+  private boolean lastPageDirty;                    /** Boolean variable stating if the page used by the last access is marked as dirty */
+  private long[] dirtyPages = new long[1];          /** Bitmap of the pages written to since the previous changed-only dump (Grown on demand) */
+  private PageDirectory<int[]> dumpedPages;         /** Contents of the dirty pages at the previous changed-only dump (null until the first one) */
+  private int binaryDumps;                          /** Number of binary dumps written so far */
   private Stack<Integer> memoryStack;               /** Memory/Program Stack that contains Integer objects*/
   private final int memoryInitializationValue = GlobalConstants.MEMORY_INITIALIZATION_VALUE;    /** Initialization value for all the locations in memory */
   private Register cpuRegisters;                    /** Reference to the CPU/architectural registers */
@@ -41,10 +63,7 @@ public class Memory
    */
   public Memory()
   {
-    memoryArray = new int[defaultMemorySize];
-    memorySize = defaultMemorySize;
-    Arrays.fill(memoryArray, memoryInitializationValue);     // Fill the array with 0's
-    memoryStack = new Stack<Integer>();                      // Instantiate a new Stack object
+    this(GlobalConstants.MEMORY_SIZE, false);
   }
 
   /**
@@ -54,16 +73,25 @@ public class Memory
    */
   public Memory(int memorySize)
   {
-    if (memorySize < defaultMemorySize)
-    {
-      this.memorySize = defaultMemorySize;       // Prevent the array size from being less that the default array size
-    }
-    else
+    this(memorySize, false);
+  }
+
+  /**
+   * Parameterized constructor that creates a custom-sized paged memory
+   * @param  memorySize Number of locations in memory (At least GlobalConstants.MEMORY_SIZE, at most MAX_MEMORY_SIZE)
+   * @param  offHeap    True if the pages need to be allocated off-heap
+   * @return            No return value since this is a constructor
+   */
+  public Memory(long memorySize, boolean offHeap)
+  {
+    if (memorySize > MAX_MEMORY_SIZE)
     {
-      this.memorySize = memorySize;
+      throw new IllegalArgumentException("Memory size can't be larger than 2^32 locations (Size requested: " + memorySize + ")");
     }
-    memoryArray = new int[this.memorySize];
-    Arrays.fill(memoryArray, memoryInitializationValue);    // Fill the array with 0's
+    this.memorySize = Math.max(memorySize, GlobalConstants.MEMORY_SIZE);     // Prevent the memory size from being less that the default memory size
+    this.offHeap = offHeap;
+    this.heapPages = offHeap ? null : new PageDirectory<int[]>(this.memorySize);
+    this.offHeapPages = offHeap ? new PageDirectory<IntBuffer>(this.memorySize) : null;
     memoryStack = new Stack<Integer>();                     // Instantiate a new Stack object
   }
 
@@ -84,10 +112,37 @@ public class Memory
    * Method to obtain the size of main memory 
    * @return Size of main memory
    */
-  public int getMemorySize()
+  public long getMemorySize()
   {
     return memorySize;               // Return the size of the memory
-    // return memoryArray.length;    // Return the size of the memory
+  }
+
+  /**
+   * Method to check if a memory location exists
+   * @param  memoryLocation Memory location (Unsigned 32-bit address)
+   * @return                True if the location exists
+   */
+  public boolean contains(int memoryLocation)
+  {
+    return Integer.toUnsignedLong(memoryLocation) < memorySize;
+  }
+
+  /**
+   * Method to check if the pages are allocated off-heap
+   * @return True if the pages are direct buffers
+   */
+  public boolean isOffHeap()
+  {
+    return offHeap;
+  }
+
+  /**
+   * Method to obtain the number of pages that have been allocated
+   * @return Number of allocated pages
+   */
+  public int getAllocatedPages()
+  {
+    return offHeap ? offHeapPages.getAllocatedPages() : heapPages.getAllocatedPages();
   }
 
   /**
@@ -97,14 +152,19 @@ public class Memory
    */
   public int readValue(int memoryLocation)
   {
-    if (memoryLocation < 0 || memoryLocation >= memoryArray.length)
+    if (Integer.toUnsignedLong(memoryLocation) >= memorySize)
     {
       throw new MemIndexOutOfBoundsException("Illegal memory access (" + Integer.toHexString(memoryLocation) + 
                                              ")! Program attempting to read a value from an address/location in memory that does not exist.");
     }
     else
     {
-      return memoryArray[memoryLocation];     // If the memory address is in range, read and return the value at this memory location
+      int pageNumber = memoryLocation >>> PageDirectory.PAGE_BITS;
+      if (pageNumber != lastPageNumber && !this.selectPage(pageNumber, false))
+      {
+        return memoryInitializationValue;     // The page has never been written to
+      }
+      return offHeap ? lastOffHeapPage.get(memoryLocation & PageDirectory.PAGE_MASK) : lastHeapPage[memoryLocation & PageDirectory.PAGE_MASK];
     }       
   }
 
@@ -115,17 +175,154 @@ public class Memory
    */
   public void writeValue(int memoryLocation, int newValue)
   {
-    if (memoryLocation < 0 || memoryLocation >= memoryArray.length)
+    if (Integer.toUnsignedLong(memoryLocation) >= memorySize)
     {
       throw new MemIndexOutOfBoundsException("Illegal memory access (" + Integer.toHexString(memoryLocation) + 
                                              ")! Program attempting to write a value to an address/location in memory that does not exist.");
     }
     else
     {
-      memoryArray[memoryLocation] = newValue;     // If the memory address is in range, write the value at this memory location
+      int pageNumber = memoryLocation >>> PageDirectory.PAGE_BITS;
+      if (pageNumber != lastPageNumber || !lastPageDirty)
+      {
+        this.selectPage(pageNumber, true);
+      }
+      if (offHeap)
+      {
+        lastOffHeapPage.put(memoryLocation & PageDirectory.PAGE_MASK, newValue);
+      }
+      else
+      {
+        lastHeapPage[memoryLocation & PageDirectory.PAGE_MASK] = newValue;
+      }
     }       
   }
 
+  /**
+   * Method to make a page the page used by the next accesses (Slow path of readValue() and writeValue())
+   * @param  pageNumber Page number
+   * @param  allocate   True if the page needs to be allocated if it doesn't exist (i.e. the page is being written to, hence, it is marked as dirty)
+   * @return            True if the page exists (Always true if allocate is true)
+   */
+  private boolean selectPage(int pageNumber, boolean allocate)
+  {
+    if (offHeap)
+    {
+      IntBuffer page = offHeapPages.get(pageNumber);
+      if (page == null)
+      {
+        if (!allocate)
+        {
+          return false;
+        }
+        page = ByteBuffer.allocateDirect(PageDirectory.PAGE_SIZE * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        if (memoryInitializationValue != 0)       // Direct buffers are zeroed
+        {
+          for (int pageLocation = 0; pageLocation < PageDirectory.PAGE_SIZE; pageLocation++)
+          {
+            page.put(pageLocation, memoryInitializationValue);
+          }
+        }
+        offHeapPages.put(pageNumber, page);
+      }
+      lastOffHeapPage = page;
+    }
+    else
+    {
+      int[] page = heapPages.get(pageNumber);
+      if (page == null)
+      {
+        if (!allocate)
+        {
+          return false;
+        }
+        page = new int[PageDirectory.PAGE_SIZE];
+        Arrays.fill(page, memoryInitializationValue);     // Fill the page with 0's
+        heapPages.put(pageNumber, page);
+      }
+      lastHeapPage = page;
+    }
+    lastPageNumber = pageNumber;
+    lastPageDirty = allocate || this.isDirty(pageNumber);
+    if (allocate)
+    {
+      this.markDirty(pageNumber);
+    }
+    return true;
+  }
+
+  /**
+   * Method to mark a page as dirty
+   * @param pageNumber Page number
+   */
+  private void markDirty(int pageNumber)
+  {
+    int word = pageNumber >>> 6;
+    if (word >= dirtyPages.length)
+    {
+      dirtyPages = Arrays.copyOf(dirtyPages, Math.max(word + 1, 2 * dirtyPages.length));
+    }
+    dirtyPages[word] |= 1L << pageNumber;
+  }
+
+  /**
+   * Method to check if a page is dirty
+   * @param  pageNumber Page number
+   * @return            True if the page has been written to since the previous changed-only dump
+   */
+  private boolean isDirty(int pageNumber)
+  {
+    int word = pageNumber >>> 6;
+    return word < dirtyPages.length && (dirtyPages[word] & (1L << pageNumber)) != 0;
+  }
+
+  /**
+   * Method to copy the contents of a page
+   * @param pageNumber  Page number (Needs to be allocated)
+   * @param destination Array the contents are copied to (PageDirectory.PAGE_SIZE locations)
+   */
+  private void copyPage(int pageNumber, int[] destination)
+  {
+    if (offHeap)
+    {
+      IntBuffer page = offHeapPages.get(pageNumber).duplicate();
+      page.clear();
+      page.get(destination);
+    }
+    else
+    {
+      System.arraycopy(heapPages.get(pageNumber), 0, destination, 0, PageDirectory.PAGE_SIZE);
+    }
+  }
+
+  /**
+   * Method to obtain the page numbers of every allocated page
+   * @return Page numbers (In ascending order)
+   */
+  public int[] getAllocatedPageNumbers()
+  {
+    return offHeap ? offHeapPages.getPageNumbers() : heapPages.getPageNumbers();
+  }
+
+  /**
+   * Method to remove every page from memory (i.e. reset every location to the initialization value)
+   */
+  private void clearPages()
+  {
+    if (offHeap)
+    {
+      offHeapPages.clear();
+    }
+    else
+    {
+      heapPages.clear();
+    }
+    lastPageNumber = -1;
+    lastPageDirty = false;
+    lastHeapPage = null;
+    lastOffHeapPage = null;
+  }
+
   /**
    * Method to push current register values onto the stack
    * @param value Item/value to be pushed onto the stack
@@ -148,25 +345,152 @@ public class Memory
   }
 
   /**
-   * Method to initialize the contents of memory with the instructions and data contained in the program that needs to be executed by the simulator.
-   * It is essentially a list of Integer tokens that has been generated using the Assembler.
-   * @param programList A list of Integer tokens that contain the program's instructions and data that's used to initialize the memory
+   * Method to obtain the number of bytes required to save the state of memory (Including the stack). Only the allocated pages are saved.
+   * @return Size of the saved state in bytes
    */
-  public void initialize(ArrayList <Integer> programList)
+  public int getStateSize()
   {
-    int listIterator;
-    for (int memoryLocation = 0; memoryLocation < programList.size(); memoryLocation++)
+    long stateSize = Long.BYTES + Integer.BYTES + ((long) this.getAllocatedPages() * (1 + PageDirectory.PAGE_SIZE) * Integer.BYTES) +
+                     ((1 + memoryStack.size()) * Integer.BYTES);
+    if (stateSize > Integer.MAX_VALUE)
     {
-      if (memoryLocation < memoryArray.length)
+      throw new MemIndexOutOfBoundsException("Memory state is too large to be saved (" + this.getAllocatedPages() + " pages allocated).");
+    }
+    return (int) stateSize;
+  }
+
+  /**
+   * Method to save the state of memory (Including the stack) to a buffer. Every allocated page is saved as its page number followed by its
+   * contents. The stack is saved starting from the bottom of the stack.
+   * @param buffer Buffer to which the state is written
+   */
+  public void saveState(ByteBuffer buffer)
+  {
+    int[] pageNumbers = this.getAllocatedPageNumbers();
+    buffer.putLong(memorySize);
+    buffer.putInt(pageNumbers.length);
+    for (int pageNumber : pageNumbers)
+    {
+      buffer.putInt(pageNumber);
+      if (offHeap)
+      {
+        IntBuffer page = offHeapPages.get(pageNumber).duplicate();
+        page.clear();
+        buffer.asIntBuffer().put(page);                       // Bulk copy of the page
+      }
+      else
+      {
+        buffer.asIntBuffer().put(heapPages.get(pageNumber));  // Bulk copy of the page
+      }
+      buffer.position(buffer.position() + (PageDirectory.PAGE_SIZE * Integer.BYTES));
+    }
+    buffer.putInt(memoryStack.size());
+    for (int stackItem = 0; stackItem < memoryStack.size(); stackItem++)
+    {
+      buffer.putInt(memoryStack.get(stackItem));
+    }
+  }
+
+  /**
+   * Method to restore the state of memory (Including the stack) from a buffer. The page count, every page number and the stack size are
+   * checked before any page is removed, so an invalid saved state leaves the current contents of memory untouched.
+   * @param buffer Buffer from which the state is read
+   */
+  public void restoreState(ByteBuffer buffer)
+  {
+    long savedMemorySize = buffer.getLong();
+    if (savedMemorySize != memorySize)
+    {
+      throw new MemIndexOutOfBoundsException("Illegal saved memory state (Saved state contains " + savedMemorySize + " locations, expected " + memorySize + ").");
+    }
+    int savedPages = buffer.getInt();
+    int pages = offHeap ? offHeapPages.getPages() : heapPages.getPages();
+    if (savedPages < 0 || savedPages > pages)
+    {
+      throw new MemIndexOutOfBoundsException("Illegal saved memory state (Saved state contains " + savedPages + " pages, memory only has " + pages + " pages).");
+    }
+    int pageStateSize = (1 + PageDirectory.PAGE_SIZE) * Integer.BYTES;
+    if ((long) savedPages * pageStateSize + Integer.BYTES > buffer.remaining())
+    {
+      throw new BufferUnderflowException();     // Saved pages (And the stack size) don't fit in what's left of the buffer
+    }
+    for (int pageIndex = 0; pageIndex < savedPages; pageIndex++)
+    {
+      int pageNumber = buffer.getInt(buffer.position() + (pageIndex * pageStateSize));    // Absolute read, the buffer position is left at the first page
+      if (pageNumber < 0 || pageNumber >= pages)
+      {
+        throw new MemIndexOutOfBoundsException("Illegal saved memory state (Page " + pageNumber + " is outside memory, which has " + pages + " pages).");
+      }
+    }
+    int stackSize = buffer.getInt(buffer.position() + (savedPages * pageStateSize));
+    if (stackSize < 0 || stackSize > (buffer.remaining() - (savedPages * pageStateSize) - Integer.BYTES) / Integer.BYTES)
+    {
+      throw new MemIndexOutOfBoundsException("Illegal saved memory state (Stack size " + stackSize + " doesn't fit in the saved state).");
+    }
+    this.clearPages();
+    for (int pageIndex = 0; pageIndex < savedPages; pageIndex++)
+    {
+      int pageNumber = buffer.getInt();
+      this.selectPage(pageNumber, true);
+      if (offHeap)
       {
-        listIterator = memoryLocation;
-        memoryArray[memoryLocation] = programList.get(listIterator).intValue();
+        IntBuffer savedPage = buffer.asIntBuffer();
+        savedPage.limit(PageDirectory.PAGE_SIZE);
+        IntBuffer page = lastOffHeapPage.duplicate();
+        page.clear();
+        page.put(savedPage);                                  // Bulk copy of the page
       }
       else
       {
-        throw new MemIndexOutOfBoundsException("Illegal memory access during initialization (" + Integer.toHexString(memoryLocation) + 
+        buffer.asIntBuffer().get(lastHeapPage);               // Bulk copy of the page
+      }
+      buffer.position(buffer.position() + (PageDirectory.PAGE_SIZE * Integer.BYTES));
+    }
+    buffer.getInt();                          // Stack size (Already read and checked above)
+    memoryStack.clear();
+    for (int stackItem = 0; stackItem < stackSize; stackItem++)
+    {
+      memoryStack.push(buffer.getInt());      // Pushed directly since the stack pointer is restored along with the registers
+    }
+  }
+
+  /**
+   * Method to initialize the contents of memory with the instructions and data contained in the program that needs to be executed by the simulator.
+   * The segments of the executable generated by the Assembler are copied into the pages in bulk (Straight from the mapped executable file).
+   * @param executable Executable that contains the program's instructions and data that's used to initialize the memory
+   */
+  public void load(Executable executable)
+  {
+    for (Executable.Segment segment : executable.getSegments())
+    {
+      int memoryLocation = segment.getLoadAddress();
+      if (Integer.toUnsignedLong(memoryLocation) + segment.getSize() > memorySize)
+      {
+        throw new MemIndexOutOfBoundsException("Illegal memory access during initialization (" + Integer.toHexString(memoryLocation) + " - " +
+                                               Long.toHexString(Integer.toUnsignedLong(memoryLocation) + segment.getSize() - 1) +
                                                ")! Simulator initializer attempting to write a value to an address/location in memory that does not exist.");
       }
+      IntBuffer words = segment.getWords();
+      while (words.hasRemaining())
+      {
+        this.selectPage(memoryLocation >>> PageDirectory.PAGE_BITS, true);
+        int pageLocation = memoryLocation & PageDirectory.PAGE_MASK;
+        int count = Math.min(words.remaining(), PageDirectory.PAGE_SIZE - pageLocation);
+        if (offHeap)
+        {
+          IntBuffer page = lastOffHeapPage.duplicate();
+          page.position(pageLocation);
+          IntBuffer pageWords = words.duplicate();
+          pageWords.limit(pageWords.position() + count);
+          page.put(pageWords);                                  // Bulk copy into the page
+          words.position(words.position() + count);
+        }
+        else
+        {
+          words.get(lastHeapPage, pageLocation, count);         // Bulk copy into the page
+        }
+        memoryLocation += count;
+      }
     }
   }
 
@@ -175,104 +499,104 @@ public class Memory
     // Random randomNumberGenerator = new Random();
     // for(int memoryLocation = 0; memoryLocation < 10; memoryLocation++)
     // {
-    //   memoryArray[memoryLocation] = randomNumberGenerator.nextInt(100);
+    //   this.writeValue(memoryLocation, randomNumberGenerator.nextInt(100));
     // }
     /*
-    memoryArray[0] = Integer.parseInt("01000100000000000000000000100001", 2); // MOVI R1, 2 (Move 2 into R1)
-    memoryArray[1] = Integer.parseInt("01000100000000000000000001000010", 2); // MOVI R2, 3 (Move 3 into R2) 
-    memoryArray[2] = Integer.parseInt("00000100000000000000000100100001", 2); // ADDR R1, R1, R2 (Add R1 and R2 and store the result in R1)
-    memoryArray[3] = Integer.parseInt("-00000000000000000000000000000001", 2); // Should be -1 in decimal integer
-    memoryArray[4] = 0xffffffff;   // Should be -1 in decimal integer
+    this.writeValue(0, Integer.parseInt("01000100000000000000000000100001", 2)); // MOVI R1, 2 (Move 2 into R1)
+    this.writeValue(1, Integer.parseInt("01000100000000000000000001000010", 2)); // MOVI R2, 3 (Move 3 into R2) 
+    this.writeValue(2, Integer.parseInt("00000100000000000000000100100001", 2)); // ADDR R1, R1, R2 (Add R1 and R2 and store the result in R1)
+    this.writeValue(3, Integer.parseInt("-00000000000000000000000000000001", 2)); // Should be -1 in decimal integer
+    this.writeValue(4, 0xffffffff);  // Should be -1 in decimal integer
     */
     
     /*
     // Have to explicity declare them as signed since they are 32 bit instructions (declared as binary strings) and need to stored in the main memory as a 2's complement 32 bit integer type
-    memoryArray[0] = Utility.convertToInt("10001000000000000000000000100001", true); // MOVI R1, 2 (Move 2 into R1)
-    memoryArray[1] = Utility.convertToInt("10001000000011111111111111000010", true); // MOVI R2, -4 (Move -4 into R2)
-    //memoryArray[3] = Utility.convertToInt("00001000000000000000000100100001", true); // ADDR R1, R1, R2 (Add R1 and R2 and store the result in R1)
-    //memoryArray[3] = Utility.convertToInt("10110000000000000001000000010010", true);  // BNE R1, R2, 16
-    //memoryArray[3] = Utility.convertToInt("10011000000000000000000000010010", true);  // BU 18
-
-    memoryArray[2] = Utility.convertToInt("10001000000000000000000100000011", true); // MOVI R3, 16 (Move 16 into R3)
-    memoryArray[3] = Utility.convertToInt("10001000000000000000000100000100", true); // MOVI R4, 16 (Move 16 into R4)
-    memoryArray[4] = Utility.convertToInt("00000000000000000000000000000000", true); // NOP (Inserting a NOP to avoid dependency hazard)
-    memoryArray[5] = Utility.convertToInt("10101000000000000000111101000011", true); // BEQ R3, R4, 15 , therefore PC = 5 + 15
-    //memoryArray[5] = Utility.convertToInt("10101000111111111111110101000011", true); // BEQ R3, R4, -3 , therefore PC = 5 + (- 3). This gets stuck in a infinite loop as expected.
-    memoryArray[6] = Utility.convertToInt("00001000000000000000000100100001", true); // ADDR R1, R1, R2 (Add R1 and R2 and store the result in R1)
-    memoryArray[7] = Utility.convertToInt("00001000000000000000001000100010", true); // ADDR R2, R2, R2 (Add R2 and R2 and store the result in R2)
-    memoryArray[20] = Utility.convertToInt("00011000000000000000001000100010", true); // MULT R2, R2, R2 (Multiply R2 and R2 and store the result in R2)
-    memoryArray[21] = Utility.convertToInt("10001000000000000000111111111111", true); // MOVI R16, 255 (Move 255 into R16)  - SVC call to suspend/halt the program being simulated
+    this.writeValue(0, Utility.convertToInt("10001000000000000000000000100001", true)); // MOVI R1, 2 (Move 2 into R1)
+    this.writeValue(1, Utility.convertToInt("10001000000011111111111111000010", true)); // MOVI R2, -4 (Move -4 into R2)
+    //this.writeValue(3, Utility.convertToInt("00001000000000000000000100100001", true)); // ADDR R1, R1, R2 (Add R1 and R2 and store the result in R1)
+    //this.writeValue(3, Utility.convertToInt("10110000000000000001000000010010", true)); // BNE R1, R2, 16
+    //this.writeValue(3, Utility.convertToInt("10011000000000000000000000010010", true)); // BU 18
+
+    this.writeValue(2, Utility.convertToInt("10001000000000000000000100000011", true)); // MOVI R3, 16 (Move 16 into R3)
+    this.writeValue(3, Utility.convertToInt("10001000000000000000000100000100", true)); // MOVI R4, 16 (Move 16 into R4)
+    this.writeValue(4, Utility.convertToInt("00000000000000000000000000000000", true)); // NOP (Inserting a NOP to avoid dependency hazard)
+    this.writeValue(5, Utility.convertToInt("10101000000000000000111101000011", true)); // BEQ R3, R4, 15 , therefore PC = 5 + 15
+    //this.writeValue(5, Utility.convertToInt("10101000111111111111110101000011", true)); // BEQ R3, R4, -3 , therefore PC = 5 + (- 3). This gets stuck in a infinite loop as expected.
+    this.writeValue(6, Utility.convertToInt("00001000000000000000000100100001", true)); // ADDR R1, R1, R2 (Add R1 and R2 and store the result in R1)
+    this.writeValue(7, Utility.convertToInt("00001000000000000000001000100010", true)); // ADDR R2, R2, R2 (Add R2 and R2 and store the result in R2)
+    this.writeValue(20, Utility.convertToInt("00011000000000000000001000100010", true)); // MULT R2, R2, R2 (Multiply R2 and R2 and store the result in R2)
+    this.writeValue(21, Utility.convertToInt("10001000000000000000111111111111", true)); // MOVI R16, 255 (Move 255 into R16)  - SVC call to suspend/halt the program being simulated
     */
    
     ////////////////////////////////////////////////////////////////////////////////////////////////////////
     /* N-th Fibonacci number */
     /*
-    memoryArray[0] = Utility.convertToInt("10001000000000000000000000010001", true); // MOVI R1, 1 (Move 1 into R1)
-    memoryArray[1] = Utility.convertToInt("10001000000000000000000000010010", true); // MOVI R2, 1 (Move 1 into R2)
-    memoryArray[2] = Utility.convertToInt("10001000000000000000000010110011", true); // MOVI R3, 11 (Move 11 into R3)
-    memoryArray[3] = Utility.convertToInt("10001000000000000000000000110100", true); // MOVI R4, 3 (Move 3 into R3)
-    memoryArray[4] = Utility.convertToInt("00000000000000000000000000000000", true); // NOP (Inserting a NOP to avoid control dependency hazard)
-    memoryArray[5] = Utility.convertToInt("10111000000000000000001001000011", true); // BLT R4, R3, 2 , therefore PC = 5 + 2
-    memoryArray[6] = Utility.convertToInt("10001000000000000000111111111111", true); // MOVI R16, 255 (Move 255 into R16)  - SVC call to suspend/halt the program being simulated
-    memoryArray[7] = Utility.convertToInt("00001000000000000000001000010101", true); // ADD R5, R1, R2 (Add R1 and R2 and store results in R5)
-    memoryArray[8] = Utility.convertToInt("10010000000000000000000000100001", true); // MOVR R1, R2 (Move R2 into R1)
-    memoryArray[9] = Utility.convertToInt("10010000000000000000000001010010", true); // MOVR R2, R5 (Move R5 into R2)
-    memoryArray[10] = Utility.convertToInt("00101000000000000000000101000100", true); // ADDI R4, R4, 1 (Add 1 to R4 and store the result in R4)
-    //memoryArray[11] = Utility.convertToInt("00000000000000000000000000000000", true); // NOP (Inserting a NOP to avoid control dependency hazard)
-    //memoryArray[12] = Utility.convertToInt("10011000000000001111111111111001", true); // BU -7
-    memoryArray[11] = Utility.convertToInt("10011000000000001111111111111010", true); // BU -6
+    this.writeValue(0, Utility.convertToInt("10001000000000000000000000010001", true)); // MOVI R1, 1 (Move 1 into R1)
+    this.writeValue(1, Utility.convertToInt("10001000000000000000000000010010", true)); // MOVI R2, 1 (Move 1 into R2)
+    this.writeValue(2, Utility.convertToInt("10001000000000000000000010110011", true)); // MOVI R3, 11 (Move 11 into R3)
+    this.writeValue(3, Utility.convertToInt("10001000000000000000000000110100", true)); // MOVI R4, 3 (Move 3 into R3)
+    this.writeValue(4, Utility.convertToInt("00000000000000000000000000000000", true)); // NOP (Inserting a NOP to avoid control dependency hazard)
+    this.writeValue(5, Utility.convertToInt("10111000000000000000001001000011", true)); // BLT R4, R3, 2 , therefore PC = 5 + 2
+    this.writeValue(6, Utility.convertToInt("10001000000000000000111111111111", true)); // MOVI R16, 255 (Move 255 into R16)  - SVC call to suspend/halt the program being simulated
+    this.writeValue(7, Utility.convertToInt("00001000000000000000001000010101", true)); // ADD R5, R1, R2 (Add R1 and R2 and store results in R5)
+    this.writeValue(8, Utility.convertToInt("10010000000000000000000000100001", true)); // MOVR R1, R2 (Move R2 into R1)
+    this.writeValue(9, Utility.convertToInt("10010000000000000000000001010010", true)); // MOVR R2, R5 (Move R5 into R2)
+    this.writeValue(10, Utility.convertToInt("00101000000000000000000101000100", true)); // ADDI R4, R4, 1 (Add 1 to R4 and store the result in R4)
+    //this.writeValue(11, Utility.convertToInt("00000000000000000000000000000000", true)); // NOP (Inserting a NOP to avoid control dependency hazard)
+    //this.writeValue(12, Utility.convertToInt("10011000000000001111111111111001", true)); // BU -7
+    this.writeValue(11, Utility.convertToInt("10011000000000001111111111111010", true)); // BU -6
     */
     ////////////////////////////////////////////////////////////////////////////////////////////////////////
     
     ////////////////////////////////////////////////////////////////////////////////////////////////////////
     /* N-th Fibonacci number correct way to write it in assembly (N = 46)*/
     /*
-    memoryArray[0] = Utility.convertToInt("10001000000000000000000000010001", true); // MOVI R1, 1 (Move 1 into R1)
-    memoryArray[1] = Utility.convertToInt("10001000000000000000000000010010", true); // MOVI R2, 1 (Move 1 into R2)
-    memoryArray[2] = Utility.convertToInt("10001000000000000000000000110011", true); // MOVI R3, 3 (Move 3 into R3)
-    memoryArray[3] = Utility.convertToInt("10001000000000000000001011100100", true); // MOVI R4, 46 (Move 46 into R4)
-    memoryArray[4] = Utility.convertToInt("11000000000000000000011000110100", true); // BGT R3, R4, 6
-    memoryArray[5] = Utility.convertToInt("00001000000000000000001000010101", true); // ADD R5, R1, R2 (Add R1 and R2 and store results in R5)
-    memoryArray[6] = Utility.convertToInt("10010000000000000000000000100001", true); // MOVR R1, R2 (Move R2 into R1)
-    memoryArray[7] = Utility.convertToInt("10010000000000000000000001010010", true); // MOVR R2, R5 (Move R5 into R2)
-    memoryArray[8] = Utility.convertToInt("00101000000000000000000100110011", true); // ADDI R3, R3, 1 (Add 1 to R3 and store the result in R3)
-    memoryArray[9] = Utility.convertToInt("10011000000000001111111111111011", true); // BU -5
-    memoryArray[10] = Utility.convertToInt("10001000000000000000111111111111", true); // MOVI R16, 255 (Move 255 into R16)  - SVC call to suspend/halt the program being simulated 
+    this.writeValue(0, Utility.convertToInt("10001000000000000000000000010001", true)); // MOVI R1, 1 (Move 1 into R1)
+    this.writeValue(1, Utility.convertToInt("10001000000000000000000000010010", true)); // MOVI R2, 1 (Move 1 into R2)
+    this.writeValue(2, Utility.convertToInt("10001000000000000000000000110011", true)); // MOVI R3, 3 (Move 3 into R3)
+    this.writeValue(3, Utility.convertToInt("10001000000000000000001011100100", true)); // MOVI R4, 46 (Move 46 into R4)
+    this.writeValue(4, Utility.convertToInt("11000000000000000000011000110100", true)); // BGT R3, R4, 6
+    this.writeValue(5, Utility.convertToInt("00001000000000000000001000010101", true)); // ADD R5, R1, R2 (Add R1 and R2 and store results in R5)
+    this.writeValue(6, Utility.convertToInt("10010000000000000000000000100001", true)); // MOVR R1, R2 (Move R2 into R1)
+    this.writeValue(7, Utility.convertToInt("10010000000000000000000001010010", true)); // MOVR R2, R5 (Move R5 into R2)
+    this.writeValue(8, Utility.convertToInt("00101000000000000000000100110011", true)); // ADDI R3, R3, 1 (Add 1 to R3 and store the result in R3)
+    this.writeValue(9, Utility.convertToInt("10011000000000001111111111111011", true)); // BU -5
+    this.writeValue(10, Utility.convertToInt("10001000000000000000111111111111", true)); // MOVI R16, 255 (Move 255 into R16)  - SVC call to suspend/halt the program being simulated 
     */
     ////////////////////////////////////////////////////////////////////////////////////////////////////////
     
     ////////////////////////////////////////////////////////////////////////////////////////////////////////
     /* GCD of two numbers - GCD of 300,225 - Result should be 75 */
     /*
-    memoryArray[0] = Utility.convertToInt("10001000000000000001001011000001", true); // MOVI R1, 1 (Move 300 into R1)
-    memoryArray[1] = Utility.convertToInt("10001000000000000000111000010010", true); // MOVI R2, 1 (Move 225 into R2)   
-    //memoryArray[2] = Utility.convertToInt("00000000000000000000000000000000", true); // NOP (Inserting a NOP to avoid control dependency hazard) 
-    memoryArray[2] = Utility.convertToInt("10101000000000000000011000010010", true); // BEQ R1, R2, 6
-    memoryArray[3] = Utility.convertToInt("11000000000000000000001100010010", true); // BGT R1, R2, 3
-    memoryArray[4] = Utility.convertToInt("00010000000000000000000100100010", true); // SUB R2, R2, R1
-    memoryArray[5] = Utility.convertToInt("10011000000000000000000000000010", true); // BU 2
-    memoryArray[6] = Utility.convertToInt("00010000000000000000001000010001", true); // SUB R1, R1, R2
-    memoryArray[7] = Utility.convertToInt("10011000000000001111111111111011", true); // BU -5
-    memoryArray[8] = Utility.convertToInt("10001000000000000000111111111111", true); // MOVI R16, 255 (Move 255 into R16)  - SVC call to suspend/halt the program being simulated
+    this.writeValue(0, Utility.convertToInt("10001000000000000001001011000001", true)); // MOVI R1, 1 (Move 300 into R1)
+    this.writeValue(1, Utility.convertToInt("10001000000000000000111000010010", true)); // MOVI R2, 1 (Move 225 into R2)   
+    //this.writeValue(2, Utility.convertToInt("00000000000000000000000000000000", true)); // NOP (Inserting a NOP to avoid control dependency hazard) 
+    this.writeValue(2, Utility.convertToInt("10101000000000000000011000010010", true)); // BEQ R1, R2, 6
+    this.writeValue(3, Utility.convertToInt("11000000000000000000001100010010", true)); // BGT R1, R2, 3
+    this.writeValue(4, Utility.convertToInt("00010000000000000000000100100010", true)); // SUB R2, R2, R1
+    this.writeValue(5, Utility.convertToInt("10011000000000000000000000000010", true)); // BU 2
+    this.writeValue(6, Utility.convertToInt("00010000000000000000001000010001", true)); // SUB R1, R1, R2
+    this.writeValue(7, Utility.convertToInt("10011000000000001111111111111011", true)); // BU -5
+    this.writeValue(8, Utility.convertToInt("10001000000000000000111111111111", true)); // MOVI R16, 255 (Move 255 into R16)  - SVC call to suspend/halt the program being simulated
     */
     ////////////////////////////////////////////////////////////////////////////////////////////////////////
   
     ////////////////////////////////////////////////////////////////////////////////////////////////////////
     /* Used to test the BL and RET instructions */
     /*
-    memoryArray[0] = Utility.convertToInt("10001000000000000001001011000001", true); // MOVI R1, 1 (Move 300 into R1)
-    memoryArray[1] = Utility.convertToInt("00000000000000000000000000000000", true); // NOP (Inserting a NOP to avoid control dependency hazard) 
-    memoryArray[2] = Utility.convertToInt("00000000000000000000000000000000", true); // NOP (Inserting a NOP to avoid control dependency hazard) 
-    memoryArray[3] = Utility.convertToInt("00000000000000000000000000000000", true); // NOP (Inserting a NOP to avoid control dependency hazard)
+    this.writeValue(0, Utility.convertToInt("10001000000000000001001011000001", true)); // MOVI R1, 1 (Move 300 into R1)
+    this.writeValue(1, Utility.convertToInt("00000000000000000000000000000000", true)); // NOP (Inserting a NOP to avoid control dependency hazard) 
+    this.writeValue(2, Utility.convertToInt("00000000000000000000000000000000", true)); // NOP (Inserting a NOP to avoid control dependency hazard) 
+    this.writeValue(3, Utility.convertToInt("00000000000000000000000000000000", true)); // NOP (Inserting a NOP to avoid control dependency hazard)
     // Note need at least three NOP instruction's before calling a method to make sure that all values are written to registers before pushing them onto the stack
-    memoryArray[4] = Utility.convertToInt("10100000000000000000000000001000", true); // BL 8 (Branch with link to memory address 8)   
-    memoryArray[5] = Utility.convertToInt("10001000000000000000111111111111", true); // MOVI R16, 255 (Move 255 into R16)  - SVC call to suspend/halt the program being simulated 
-    memoryArray[12] = Utility.convertToInt("10001000000000000000000000111101", true); // MOVI R13, 3 (Move 3 into R13)
-    memoryArray[13] = Utility.convertToInt("00000000000000000000000000000000", true); // NOP (Inserting a NOP to avoid control dependency hazard) 
-    memoryArray[14] = Utility.convertToInt("00000000000000000000000000000000", true); // NOP (Inserting a NOP to avoid control dependency hazard) 
-    memoryArray[15] = Utility.convertToInt("00000000000000000000000000000000", true); // NOP (Inserting a NOP to avoid control dependency hazard)
+    this.writeValue(4, Utility.convertToInt("10100000000000000000000000001000", true)); // BL 8 (Branch with link to memory address 8)   
+    this.writeValue(5, Utility.convertToInt("10001000000000000000111111111111", true)); // MOVI R16, 255 (Move 255 into R16)  - SVC call to suspend/halt the program being simulated 
+    this.writeValue(12, Utility.convertToInt("10001000000000000000000000111101", true)); // MOVI R13, 3 (Move 3 into R13)
+    this.writeValue(13, Utility.convertToInt("00000000000000000000000000000000", true)); // NOP (Inserting a NOP to avoid control dependency hazard) 
+    this.writeValue(14, Utility.convertToInt("00000000000000000000000000000000", true)); // NOP (Inserting a NOP to avoid control dependency hazard) 
+    this.writeValue(15, Utility.convertToInt("00000000000000000000000000000000", true)); // NOP (Inserting a NOP to avoid control dependency hazard)
     // Note need at least three NOP instruction's before returning from the method.
-    memoryArray[16] = Utility.convertToInt("11001000000000000000000000000000", true); // RET (Return from function call)
+    this.writeValue(16, Utility.convertToInt("11001000000000000000000000000000", true)); // RET (Return from function call)
     */
     ////////////////////////////////////////////////////////////////////////////////////////////////////////
    
@@ -283,36 +607,45 @@ public class Memory
     // Expected finish  -> 1,3,4,a,b
    
     // Load array values into memory (.data section)
-    memoryArray[200] = Utility.convertToInt("00000000000000000000000000001010", true);  //10 (0xa)
-    memoryArray[201] = Utility.convertToInt("00000000000000000000000000000100", true);  //4  (0x4)
-    memoryArray[202] = Utility.convertToInt("00000000000000000000000000001011", true);  //11 (0xb)
-    memoryArray[203] = Utility.convertToInt("00000000000000000000000000000001", true);  //1  (0x1)
-    memoryArray[204] = Utility.convertToInt("00000000000000000000000000000011", true);  //3  (0x3)
+    this.writeValue(200, Utility.convertToInt("00000000000000000000000000001010", true)); //10 (0xa)
+    this.writeValue(201, Utility.convertToInt("00000000000000000000000000000100", true)); //4  (0x4)
+    this.writeValue(202, Utility.convertToInt("00000000000000000000000000001011", true)); //11 (0xb)
+    this.writeValue(203, Utility.convertToInt("00000000000000000000000000000001", true)); //1  (0x1)
+    this.writeValue(204, Utility.convertToInt("00000000000000000000000000000011", true)); //3  (0x3)
 
     // Main program (.text section)
-    memoryArray[0] = Utility.convertToInt("10001000000000000000000000110011", true); // MOVI R3, 3 (n - 2)
-    memoryArray[1] = Utility.convertToInt("10001000000000000000000000000001", true); // MOVI R1, 0
-    memoryArray[2] = Utility.convertToInt("11000000000000000000111000010011", true); // BGT R1, R3, 14
-    memoryArray[3] = Utility.convertToInt("00101000000000000000000100010001", true); // ADDI R1, R1, 1
-    memoryArray[4] = Utility.convertToInt("10001000000000000000000000000010", true); // MOVI R2, 0
-    memoryArray[5] = Utility.convertToInt("11000000111111111111110100100011", true); // BGT R2, R3, -3
-    memoryArray[6] = Utility.convertToInt("01111000000000001100100000100101", true); // LW R5, R2, 200
-    memoryArray[7] = Utility.convertToInt("00101000000000000000000100100111", true); // ADDI R7, R2, 1
-    memoryArray[8] = Utility.convertToInt("10010000000000000000000000101001", true); // MOVR R9, R2
-    memoryArray[9] = Utility.convertToInt("00101000000000000000000100100010", true); // ADDI R2, R2, 1
-    memoryArray[10] = Utility.convertToInt("01111000000000001100100001110110", true); // LW R6, R7, 200
-    memoryArray[11] = Utility.convertToInt("10111000000000000000010001010110", true); // BLT R5, R6, 4
-    memoryArray[12] = Utility.convertToInt("10010000000000000000000001011000", true); // MOVR R8, R5
-    memoryArray[13] = Utility.convertToInt("10000000000000001100100001101001", true); // SW R6, R9, 200
-    memoryArray[14] = Utility.convertToInt("10000000000000001100100010000111", true); // SW R8, R7, 200
-    memoryArray[15] = Utility.convertToInt("10011000000000001111111111110110", true); // BU -10
-    memoryArray[16] = Utility.convertToInt("10001000000000000000111111111111", true); // MOVI R16, 255 (Move 255 into R16)  - SVC call to suspend/halt the program being simulated
+    this.writeValue(0, Utility.convertToInt("10001000000000000000000000110011", true)); // MOVI R3, 3 (n - 2)
+    this.writeValue(1, Utility.convertToInt("10001000000000000000000000000001", true)); // MOVI R1, 0
+    this.writeValue(2, Utility.convertToInt("11000000000000000000111000010011", true)); // BGT R1, R3, 14
+    this.writeValue(3, Utility.convertToInt("00101000000000000000000100010001", true)); // ADDI R1, R1, 1
+    this.writeValue(4, Utility.convertToInt("10001000000000000000000000000010", true)); // MOVI R2, 0
+    this.writeValue(5, Utility.convertToInt("11000000111111111111110100100011", true)); // BGT R2, R3, -3
+    this.writeValue(6, Utility.convertToInt("01111000000000001100100000100101", true)); // LW R5, R2, 200
+    this.writeValue(7, Utility.convertToInt("00101000000000000000000100100111", true)); // ADDI R7, R2, 1
+    this.writeValue(8, Utility.convertToInt("10010000000000000000000000101001", true)); // MOVR R9, R2
+    this.writeValue(9, Utility.convertToInt("00101000000000000000000100100010", true)); // ADDI R2, R2, 1
+    this.writeValue(10, Utility.convertToInt("01111000000000001100100001110110", true)); // LW R6, R7, 200
+    this.writeValue(11, Utility.convertToInt("10111000000000000000010001010110", true)); // BLT R5, R6, 4
+    this.writeValue(12, Utility.convertToInt("10010000000000000000000001011000", true)); // MOVR R8, R5
+    this.writeValue(13, Utility.convertToInt("10000000000000001100100001101001", true)); // SW R6, R9, 200
+    this.writeValue(14, Utility.convertToInt("10000000000000001100100010000111", true)); // SW R8, R7, 200
+    this.writeValue(15, Utility.convertToInt("10011000000000001111111111110110", true)); // BU -10
+    this.writeValue(16, Utility.convertToInt("10001000000000000000111111111111", true)); // MOVI R16, 255 (Move 255 into R16)  - SVC call to suspend/halt the program being simulated
   }
 
   /**
    * Method to dump contents of memory. Useful for debugging purposes.
    */
   public void dumpContents()
+  {
+    this.dumpContents(MemoryDumpMode.FULL);
+  }
+
+  /**
+   * Method to dump the contents of memory in a human-readable form
+   * @param mode Dump mode (FULL, NONZERO or CHANGED)
+   */
+  public void dumpContents(MemoryDumpMode mode)
   {
     System.out.println("+----------------------------------------------------------------------------------+");
     System.out.println("| Dumping current state of memory                                                  |");
@@ -322,10 +655,75 @@ public class Memory
     System.out.println("+----------------------------------------------------------------------------------+");
     System.out.println("| Location                       Data (Content in 2's complement)                  |");
     System.out.println("+----------------------------------------------------------------------------------+");
-    for (int memoryLocation = 0; memoryLocation < memoryArray.length; memoryLocation++)
+    StringBuilder dump = new StringBuilder(DUMP_BUFFER_SIZE + DUMP_LINE_LENGTH);
+    int[] pageContents = new int[PageDirectory.PAGE_SIZE];
+    long nextLocation = 0;                      // First location that hasn't been dumped yet
+    long locationsDumped = 0;
+    int pagesCompared = 0;
+    for (int pageNumber : this.getAllocatedPageNumbers())       // Pages that have never been written to only hold the initialization value
+    {
+      long pageStart = (long) pageNumber << PageDirectory.PAGE_BITS;
+      long pageEnd = Math.min(pageStart + PageDirectory.PAGE_SIZE, memorySize);
+      int[] previousContents = null;
+      if (mode == MemoryDumpMode.CHANGED)
+      {
+        if (!this.isDirty(pageNumber))
+        {
+          continue;
+        }
+        if (dumpedPages == null)
+        {
+          dumpedPages = new PageDirectory<int[]>(memorySize);
+        }
+        previousContents = dumpedPages.get(pageNumber);
+        if (previousContents == null)
+        {
+          previousContents = new int[PageDirectory.PAGE_SIZE];
+          Arrays.fill(previousContents, memoryInitializationValue);
+          dumpedPages.put(pageNumber, previousContents);
+        }
+        pagesCompared++;
+      }
+      else if (mode == MemoryDumpMode.FULL && pageStart > nextLocation)
+      {
+        appendUnallocatedRange(dump, nextLocation, pageStart - 1, memoryInitializationValue);
+      }
+      nextLocation = pageEnd;
+      this.copyPage(pageNumber, pageContents);
+      for (int pageLocation = 0; pageLocation < (int) (pageEnd - pageStart); pageLocation++)
+      {
+        int value = pageContents[pageLocation];
+        if (mode == MemoryDumpMode.FULL || (mode == MemoryDumpMode.NONZERO && value != 0) ||
+            (mode == MemoryDumpMode.CHANGED && value != previousContents[pageLocation]))
+        {
+          appendLocation(dump, pageStart + pageLocation, value);
+          locationsDumped++;
+          if (dump.length() >= DUMP_BUFFER_SIZE)
+          {
+            System.out.print(dump);
+            dump.setLength(0);
+          }
+        }
+      }
+      if (previousContents != null)
+      {
+        System.arraycopy(pageContents, 0, previousContents, 0, PageDirectory.PAGE_SIZE);
+      }
+    }
+    if (mode == MemoryDumpMode.FULL && nextLocation < memorySize)
     {
-      //System.out.println("| 0x" + Integer.toHexString(memoryLocation) + "\t \t \t" + memoryArray[memoryLocation] + " |");
-      System.out.format("| 0x%08x            0x%08x (%s)       |%n", memoryLocation, memoryArray[memoryLocation], Utility.convertToBin(memoryArray[memoryLocation], 4));
+      appendUnallocatedRange(dump, nextLocation, memorySize - 1, memoryInitializationValue);
+    }
+    System.out.print(dump);
+    if (mode == MemoryDumpMode.CHANGED)
+    {
+      Arrays.fill(dirtyPages, 0);
+      lastPageDirty = false;
+      System.out.println("| " + locationsDumped + " location(s) changed in " + pagesCompared + " page(s) written to since the previous dump");
+    }
+    else if (mode == MemoryDumpMode.NONZERO)
+    {
+      System.out.println("| " + locationsDumped + " non-zero location(s) in " + this.getAllocatedPages() + " allocated page(s)");
     }
     System.out.println("+----------------------------------------------------------------------------------+");
     System.out.println("> Dumping stack < ");
@@ -350,4 +748,84 @@ public class Memory
     } 
     System.out.println(">>> Memory dump complete <<< \n");
   }
+
+  /**
+   * Method to format a single location in the same layout as the original per-value dump
+   * (i.e. "| 0x%08x            0x%08x (%s)       |" with the value also given in binary, in groups of 4 bits)
+   * @param dump     Buffer the line is appended to
+   * @param location Memory location
+   * @param value    Value held at the location
+   */
+  private static void appendLocation(StringBuilder dump, long location, int value)
+  {
+    dump.append("| 0x");
+    appendHex(dump, location);
+    dump.append("            0x");
+    appendHex(dump, value & 0xffffffffL);
+    dump.append(" (");
+    for (int bit = GlobalConstants.PROCESSOR_WORD_LENGTH - 1; bit >= 0; bit--)
+    {
+      dump.append(((value >>> bit) & 1) == 0 ? '0' : '1');
+      if (bit != 0 && (bit % 4) == 0)
+      {
+        dump.append(' ');
+      }
+    }
+    dump.append(")       |").append(System.lineSeparator());
+  }
+
+  /**
+   * Method to format a range of locations that has never been written to
+   * @param dump  Buffer the line is appended to
+   * @param first First location of the range
+   * @param last  Last location of the range
+   * @param value Value held by every location in the range
+   */
+  private static void appendUnallocatedRange(StringBuilder dump, long first, long last, int value)
+  {
+    dump.append("| 0x");
+    appendHex(dump, first);
+    dump.append(" - 0x");
+    appendHex(dump, last);
+    dump.append("  0x");
+    appendHex(dump, value & 0xffffffffL);
+    dump.append(" (Not allocated)                               |").append(System.lineSeparator());
+  }
+
+  /**
+   * Method to append an unsigned 32-bit value as 8 hexadecimal digits
+   * @param dump  Buffer the digits are appended to
+   * @param value Value (0 to 2^32 - 1)
+   */
+  private static void appendHex(StringBuilder dump, long value)
+  {
+    for (int shift = 28; shift >= 0; shift -= 4)
+    {
+      dump.append(HEX_DIGITS[(int) (value >>> shift) & 0xf]);
+    }
+  }
+
+  /**
+   * Method to append the allocated pages of memory (Including the stack) in raw binary form to a file. Every dump is written as a record
+   * holding the dump number followed by the same layout as a saved memory state (See saveState()), i.e. a dump file can be read back page
+   * by page without parsing any text.
+   * @param  dumpFileName Name of the dump file
+   * @throws IOException  If the file can't be written
+   */
+  public void dumpBinary(String dumpFileName) throws IOException
+  {
+    ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + this.getStateSize());
+    buffer.putInt(binaryDumps);
+    this.saveState(buffer);
+    buffer.flip();
+    try (FileChannel channel = FileChannel.open(Paths.get(dumpFileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                (binaryDumps == 0) ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND))
+    {
+      while (buffer.hasRemaining())
+      {
+        channel.write(buffer);
+      }
+    }
+    binaryDumps++;
+  }
 }
\ No newline at end of file
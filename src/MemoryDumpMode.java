@@ -0,0 +1,16 @@
+/**
+ * Enum containing the memory dump modes supported by the simulator.
+ * OFF     - Memory is not dumped
+ * FULL    - Every location of every allocated page is dumped (Unallocated ranges are collapsed into a single line)
+ * NONZERO - Only the locations holding a non-zero value are dumped
+ * CHANGED - Only the locations that have changed since the previous dump are dumped (Only the pages written to since then are compared)
+ * BINARY  - The allocated pages are appended in raw binary form to the memory dump file
+ */
+public enum MemoryDumpMode
+{
+  OFF,
+  FULL,
+  NONZERO,
+  CHANGED,
+  BINARY
+}
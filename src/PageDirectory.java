@@ -0,0 +1,147 @@
+/**
+ * @file PageDirectory.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the PageDirectory class. It maps the page number of a 32-bit (word) address to a lazily allocated page using
+ * a two-level table: The top level is sized to the number of locations covered (At most 2048 entries for the full 32-bit address space) and
+ * every second-level table (2048 pages) is only allocated once one of its pages is. Creating a directory is therefore cheap regardless of the
+ * size of the address space, and only the pages that are actually used take up any space. The pages themselves are owned by the caller
+ * (e.g. int arrays for main memory, or arrays of decoded instructions for the decoded instruction cache).
+ */
+
+// Import packages
+import java.util.*;
+
+/**
+ * Sparse two-level page table indexed by page number.
+ * @param <T> Type of a page
+ */
+public class PageDirectory<T>
+{
+  public static final int PAGE_BITS = 10;                       /** Number of address bits used to index a location within a page */
+  public static final int PAGE_SIZE = 1 << PAGE_BITS;           /** Number of locations (words) in a page (1024 words = 4 KiB) */
+  public static final int PAGE_MASK = PAGE_SIZE - 1;            /** Mask used to obtain the location within a page */
+  private static final int TABLE_BITS = 11;                     /** Number of page number bits used to index a second-level table */
+  private static final int TABLE_SIZE = 1 << TABLE_BITS;
+  private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+  private final Object[][] tables;        /** Second-level tables (null = none of the pages in the table has been allocated) */
+  private final int pages;                /** Number of pages covered by the directory */
+  private int allocatedPages;             /** Number of pages held in the directory */
+
+  /**
+   * Parameterized constructor
+   * @param  locations Number of locations covered by the directory (At most 2^32)
+   * @return           No return value since this is a constructor
+   */
+  public PageDirectory(long locations)
+  {
+    if (locations <= 0 || locations > (1L << Integer.SIZE))
+    {
+      throw new IllegalArgumentException("Page directory size must be between 1 and 2^32 locations (Size requested: " + locations + ")");
+    }
+    this.pages = (int) ((locations + PAGE_SIZE - 1) >>> PAGE_BITS);
+    this.tables = new Object[(pages + TABLE_SIZE - 1) >>> TABLE_BITS][];
+  }
+
+  /**
+   * Method to obtain the page number of a location
+   * @param  location Location (Unsigned 32-bit address)
+   * @return          Page number
+   */
+  public static int getPageNumber(int location)
+  {
+    return location >>> PAGE_BITS;
+  }
+
+  /**
+   * Method to obtain a page
+   * @param  pageNumber Page number
+   * @return            Page, or null if the page hasn't been allocated (or is not covered by the directory)
+   */
+  @SuppressWarnings("unchecked")
+  public T get(int pageNumber)
+  {
+    if (pageNumber >= pages)
+    {
+      return null;
+    }
+    Object[] table = tables[pageNumber >>> TABLE_BITS];
+    return (table == null) ? null : (T) table[pageNumber & TABLE_MASK];
+  }
+
+  /**
+   * Method to add a page to the directory
+   * @param pageNumber Page number
+   * @param page       Page
+   */
+  public void put(int pageNumber, T page)
+  {
+    if (pageNumber >= pages)
+    {
+      throw new IllegalArgumentException("Page " + pageNumber + " is not covered by the page directory (" + pages + " pages)");
+    }
+    Object[] table = tables[pageNumber >>> TABLE_BITS];
+    if (table == null)
+    {
+      table = new Object[TABLE_SIZE];
+      tables[pageNumber >>> TABLE_BITS] = table;
+    }
+    if (table[pageNumber & TABLE_MASK] == null)
+    {
+      allocatedPages++;
+    }
+    table[pageNumber & TABLE_MASK] = page;
+  }
+
+  /**
+   * Method to obtain the page numbers of every page held in the directory
+   * @return Page numbers (In ascending order)
+   */
+  public int[] getPageNumbers()
+  {
+    int[] pageNumbers = new int[allocatedPages];
+    int pageIndex = 0;
+    for (int tableIndex = 0; tableIndex < tables.length; tableIndex++)
+    {
+      if (tables[tableIndex] != null)
+      {
+        for (int entry = 0; entry < TABLE_SIZE; entry++)
+        {
+          if (tables[tableIndex][entry] != null)
+          {
+            pageNumbers[pageIndex++] = (tableIndex << TABLE_BITS) | entry;
+          }
+        }
+      }
+    }
+    return pageNumbers;
+  }
+
+  /**
+   * Method to obtain the number of pages held in the directory
+   * @return Number of allocated pages
+   */
+  public int getAllocatedPages()
+  {
+    return allocatedPages;
+  }
+
+  /**
+   * Method to obtain the number of pages covered by the directory
+   * @return Number of pages
+   */
+  public int getPages()
+  {
+    return pages;
+  }
+
+  /**
+   * Method to remove every page from the directory
+   */
+  public void clear()
+  {
+    Arrays.fill(tables, null);
+    allocatedPages = 0;
+  }
+}
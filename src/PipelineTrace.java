@@ -0,0 +1,266 @@
+/**
+ * @file PipelineTrace.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the PipelineTrace class. The simulation loop (i.e. the producer) only copies raw integer fields into a
+ * preallocated single-producer/single-consumer ring of fixed-size records. A background writer thread (i.e. the consumer) renders the records
+ * using an ITraceFormatter and writes them to a buffered stream. When tracing is turned off no ring or thread is created and the simulator
+ * only pays for a boolean check per cycle.
+ *
+ * If the writer thread dies (e.g. the formatter throws), the exception is stored and rethrown to the simulator (Wrapped in an
+ * IllegalStateException) the next time it has to wait for the full ring, or when the trace is closed, instead of leaving the simulator
+ * waiting for a ring that is never drained.
+ */
+
+// Import packages
+import java.io.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * Asynchronous, level-gated trace of the processor pipeline.
+ */
+public class PipelineTrace
+{
+  public static final int RECORD_SIZE = 48;                 /** Number of integer fields in each record */
+  public static final int FIELD_RECORD_TYPE = 0;            /** Index of the field holding the record type (Every record starts with its type) */
+  private static final long WRITER_IDLE_NANOS = 100000;     /** Time the writer thread sleeps for when there are no records to be written */
+
+  private final TraceLevel level;                 /** Trace level */
+  private final boolean cycleEnabled;             /** Boolean variable stating if per-cycle records need to be written */
+  private final boolean summaryEnabled;           /** Boolean variable stating if event records need to be written */
+  private final int[] records;                    /** Ring of raw records (RECORD_SIZE fields per record) */
+  private final int recordMask;                   /** Mask used to wrap the record index around (Number of records - 1) */
+  private final AtomicLong head;                  /** Sequence number of the next record to be written out by the writer thread */
+  private final AtomicLong tail;                  /** Sequence number of the next record to be published by the simulator */
+  private long claimed;                           /** Sequence number of the record currently being filled in by the simulator (Only accessed by the simulator thread) */
+  private long producerStalls;                    /** Number of times the simulator had to wait for the writer thread because the ring was full */
+  private final ITraceFormatter formatter;        /** Formatter used to render the records */
+  private final PrintStream out;                  /** Stream the rendered records are written to */
+  private final boolean closeOut;                 /** Boolean variable stating if the stream needs to be closed when the trace is closed */
+  private Thread writerThread;                    /** Background thread that renders the records */
+  private volatile boolean closed;                /** Set when the simulator has finished publishing records */
+  private volatile Throwable writerFailure;       /** Exception that terminated the writer thread (null while the writer thread is running) */
+  private boolean writerFailureReported;          /** Boolean variable stating if the writer thread's failure has already been thrown to the simulator */
+
+  /**
+   * Parameterized constructor
+   * @param  level         Trace level
+   * @param  ringRecords   Number of records that can be held in the ring (Needs to be a power of 2)
+   * @param  formatter     Formatter used to render the records
+   * @param  traceFileName Name of the file to write the trace to. The trace is written to the standard output if this is null.
+   * @return               No return value since this is a constructor
+   * @throws IOException   If the trace file can't be created
+   */
+  public PipelineTrace(TraceLevel level, int ringRecords, ITraceFormatter formatter, String traceFileName) throws IOException
+  {
+    if (ringRecords <= 0 || (ringRecords & (ringRecords - 1)) != 0)
+    {
+      throw new IllegalArgumentException("Trace ring size must be a power of 2 (Size requested: " + ringRecords + ")");
+    }
+    this.level = level;
+    this.cycleEnabled = (level == TraceLevel.CYCLE);
+    this.summaryEnabled = (level == TraceLevel.CYCLE || level == TraceLevel.SUMMARY);
+    this.formatter = formatter;
+    this.head = new AtomicLong();
+    this.tail = new AtomicLong();
+    if (level == TraceLevel.OFF)        // Nothing is ever recorded, hence, don't allocate the ring or open any file
+    {
+      this.records = new int[0];
+      this.recordMask = 0;
+      this.out = null;
+      this.closeOut = false;
+      return;
+    }
+    this.records = new int[ringRecords * RECORD_SIZE];
+    this.recordMask = ringRecords - 1;
+    if (traceFileName == null)
+    {
+      this.out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+      this.closeOut = false;
+    }
+    else
+    {
+      this.out = new PrintStream(new BufferedOutputStream(new FileOutputStream(traceFileName), 1 << 16), false);
+      this.closeOut = true;
+    }
+  }
+
+  /**
+   * Method to start the background writer thread. Anything already written to the standard output is flushed first so that the order
+   * of the output is preserved.
+   */
+  public void start()
+  {
+    if (level == TraceLevel.OFF)
+    {
+      return;
+    }
+    System.out.flush();
+    writerThread = new Thread(this::writeRecords, "pipeline-trace-writer");
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  /**
+   * Method to check if per-cycle records need to be written
+   * @return True if the trace level is CYCLE
+   */
+  public boolean isCycleEnabled()
+  {
+    return cycleEnabled;
+  }
+
+  /**
+   * Method to check if event records need to be written
+   * @return True if the trace level is SUMMARY or CYCLE
+   */
+  public boolean isSummaryEnabled()
+  {
+    return summaryEnabled;
+  }
+
+  /**
+   * Method to obtain the trace level
+   * @return Trace level
+   */
+  public TraceLevel getLevel()
+  {
+    return level;
+  }
+
+  /**
+   * Method to obtain the raw records array. The simulator writes the fields of the record returned by claim() directly into this array.
+   * @return Raw records array
+   */
+  public int[] getRecords()
+  {
+    return records;
+  }
+
+  /**
+   * Method to claim the next record in the ring. Waits for the writer thread if the ring is full.
+   * Must be followed by a call to publish() once all the fields have been filled in.
+   * @param  recordType Type of the record (Stored in the FIELD_RECORD_TYPE field)
+   * @return            Offset (in the records array) of the claimed record
+   * @throws IllegalStateException If the ring is full and the writer thread isn't running (The writer thread's exception is the cause)
+   */
+  public int claim(int recordType)
+  {
+    claimed = tail.get();
+    while (claimed - head.get() > recordMask)     // Ring is full - Wait for the writer thread to catch up
+    {
+      if (writerFailure != null || writerThread == null || !writerThread.isAlive())     // The ring will never be drained
+      {
+        writerFailureReported = true;
+        throw this.writerFailedException();
+      }
+      producerStalls++;
+      Thread.onSpinWait();
+    }
+    int offset = (int) (claimed & recordMask) * RECORD_SIZE;
+    records[offset + FIELD_RECORD_TYPE] = recordType;
+    return offset;
+  }
+
+  /**
+   * Method to publish the record that was last claimed, i.e. hand it over to the writer thread
+   */
+  public void publish()
+  {
+    tail.lazySet(claimed + 1);
+  }
+
+  /**
+   * Method to obtain the number of times the simulator had to wait for the writer thread
+   * @return Number of producer stalls
+   */
+  public long getProducerStalls()
+  {
+    return producerStalls;
+  }
+
+  /**
+   * Method to create the exception thrown to the simulator when the writer thread isn't running
+   * @return Exception with the writer thread's exception (If any) as its cause
+   */
+  private IllegalStateException writerFailedException()
+  {
+    Throwable failure = writerFailure;
+    if (failure == null)
+    {
+      return new IllegalStateException("Pipeline trace writer thread is not running (The trace ring is full and can't be drained).");
+    }
+    return new IllegalStateException("Pipeline trace writer thread failed (" + failure + ").", failure);
+  }
+
+  /**
+   * Method run by the background writer thread. Renders records until the trace is closed and the ring has been drained. An exception
+   * terminates the thread and is stored for the simulator to rethrow.
+   */
+  private void writeRecords()
+  {
+    try
+    {
+      long next = head.get();
+      while (true)
+      {
+        long available = tail.get();
+        if (next == available)
+        {
+          if (closed && tail.get() == next)     // Re-check the tail after seeing the closed flag since the last record may have been published in between
+          {
+            break;
+          }
+          out.flush();
+          LockSupport.parkNanos(WRITER_IDLE_NANOS);
+          continue;
+        }
+        while (next < available)
+        {
+          formatter.format(records, (int) (next & recordMask) * RECORD_SIZE, out);
+          next++;
+          head.lazySet(next);       // Release the record back to the simulator
+        }
+      }
+      out.flush();
+    }
+    catch (Throwable ex)
+    {
+      writerFailure = ex;
+    }
+  }
+
+  /**
+   * Method to close the trace. Waits for the writer thread to write out all the remaining records.
+   * @throws IllegalStateException If the writer thread failed and the failure hasn't already been thrown by claim()
+   */
+  public void close()
+  {
+    if (writerThread == null)
+    {
+      return;
+    }
+    closed = true;
+    LockSupport.unpark(writerThread);
+    try
+    {
+      writerThread.join();
+    }
+    catch (InterruptedException ex)
+    {
+      Thread.currentThread().interrupt();
+    }
+    writerThread = null;
+    out.flush();
+    if (closeOut)
+    {
+      out.close();
+    }
+    if (writerFailure != null && !writerFailureReported)
+    {
+      writerFailureReported = true;
+      throw this.writerFailedException();
+    }
+  }
+}
@@ -0,0 +1,347 @@
+/**
+ * @file Pmu.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the Pmu class that implements the performance monitoring unit (PMU) of the simulator. Every pipeline stage and
+ * execution unit registers the events it counts when the pipeline context is created (See IProcessorPipelineStage.registerEvents()) and
+ * keeps the index it was given, hence, counting an event on the hot path is a single array-indexed increment of a 64 bit counter. Each
+ * simulation owns its own PMU, so simulations running in the same JVM (e.g. batch jobs) don't share any counter.
+ *
+ * The PMU can take periodic snapshots of all its counters (--pmu-interval <cycles>) and export the counters and the snapshots as JSON or CSV
+ * (--pmu-output <file>, the format is selected by the file extension).
+ */
+
+// Import packages
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Performance monitoring unit holding the named event counters of a simulation.
+ */
+public final class Pmu
+{
+  private static final int INITIAL_CAPACITY = 64;         /** Number of events the counter arrays are initially sized for */
+
+  private long[] counters = new long[INITIAL_CAPACITY];   /** Value of every event counter (Indexed by the event index) */
+  private String[] names = new String[INITIAL_CAPACITY];  /** Name of every event */
+  private String[] descriptions = new String[INITIAL_CAPACITY];     /** Description of every event */
+  private int events;                                     /** Number of events registered */
+  private final Map<String, Integer> eventIndices = new HashMap<String, Integer>();     /** Index of every event (By name) */
+  private long snapshotInterval;                          /** Number of cycles between two snapshots (0 = no periodic snapshots) */
+  private long nextSnapshotCycle;                         /** Clock cycle at which the next periodic snapshot is taken */
+  private final List<Long> snapshotCycles = new ArrayList<Long>();  /** Clock cycle of every snapshot taken */
+  private final List<long[]> snapshots = new ArrayList<long[]>();   /** Counter values of every snapshot taken */
+
+  /**
+   * Method to register an event. Needs to be called before the simulation starts.
+   * @param  name        Name of the event ("<stage or unit>.<event>", e.g. "lsu.loads")
+   * @param  description Description of the event
+   * @return             Index of the event (Used to count the event)
+   */
+  public int register(String name, String description)
+  {
+    if (eventIndices.containsKey(name))
+    {
+      throw new IllegalArgumentException("PMU event " + name + " is already registered");
+    }
+    if (events == counters.length)
+    {
+      counters = Arrays.copyOf(counters, 2 * events);
+      names = Arrays.copyOf(names, 2 * events);
+      descriptions = Arrays.copyOf(descriptions, 2 * events);
+    }
+    counters[events] = 0;
+    names[events] = name;
+    descriptions[events] = description;
+    eventIndices.put(name, events);
+    return events++;
+  }
+
+  /**
+   * Method to count an occurrence of an event
+   * @param event Index of the event
+   */
+  public void increment(int event)
+  {
+    counters[event]++;
+  }
+
+  /**
+   * Method to count several occurrences of an event
+   * @param event       Index of the event
+   * @param occurrences Number of occurrences
+   */
+  public void add(int event, long occurrences)
+  {
+    counters[event] += occurrences;
+  }
+
+  /**
+   * Method to obtain the value of an event counter
+   * @param  event Index of the event
+   * @return       Number of occurrences counted
+   */
+  public long get(int event)
+  {
+    return counters[event];
+  }
+
+  /**
+   * Method to obtain the value of an event counter by name
+   * @param  name Name of the event
+   * @return      Number of occurrences counted
+   */
+  public long get(String name)
+  {
+    return counters[this.getEventIndex(name)];
+  }
+
+  /**
+   * Method to obtain the index of an event
+   * @param  name Name of the event
+   * @return      Index of the event
+   */
+  public int getEventIndex(String name)
+  {
+    Integer event = eventIndices.get(name);
+    if (event == null)
+    {
+      throw new IllegalArgumentException("Unknown PMU event: " + name);
+    }
+    return event;
+  }
+
+  /**
+   * Method to obtain the number of events registered
+   * @return Number of events
+   */
+  public int getEvents()
+  {
+    return events;
+  }
+
+  /**
+   * Method to obtain the name of an event
+   * @param  event Index of the event
+   * @return       Name of the event
+   */
+  public String getName(int event)
+  {
+    return names[event];
+  }
+
+  /**
+   * Method to obtain the description of an event
+   * @param  event Index of the event
+   * @return       Description of the event
+   */
+  public String getDescription(int event)
+  {
+    return descriptions[event];
+  }
+
+  /**
+   * Method to set the number of cycles between two periodic snapshots
+   * @param cycles Snapshot interval (0 = no periodic snapshots)
+   */
+  public void setSnapshotInterval(long cycles)
+  {
+    snapshotInterval = cycles;
+    nextSnapshotCycle = cycles;
+  }
+
+  /**
+   * Method to take a periodic snapshot if the snapshot interval has elapsed. Called once per simulated cycle.
+   * @param cycle Current clock cycle
+   */
+  public void snapshotIfDue(long cycle)
+  {
+    if (snapshotInterval > 0 && cycle >= nextSnapshotCycle)
+    {
+      this.snapshot(cycle);
+      nextSnapshotCycle = ((cycle / snapshotInterval) + 1) * snapshotInterval;     // Stay aligned to the interval if cycles were skipped
+    }
+  }
+
+  /**
+   * Method to take a snapshot of all the counters
+   * @param cycle Current clock cycle
+   */
+  public void snapshot(long cycle)
+  {
+    snapshotCycles.add(cycle);
+    snapshots.add(Arrays.copyOf(counters, events));
+  }
+
+  /**
+   * Method to obtain the number of snapshots taken
+   * @return Number of snapshots
+   */
+  public int getSnapshots()
+  {
+    return snapshots.size();
+  }
+
+  /**
+   * Method to export the counters and the snapshots to a file
+   * @param  outputFileName Name of the file (JSON if the name ends with ".json", else CSV)
+   * @param  cycle          Current clock cycle (Total cycles simulated)
+   * @throws IOException    If the file can't be written
+   */
+  public void export(String outputFileName, long cycle) throws IOException
+  {
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(outputFileName))))
+    {
+      if (outputFileName.toLowerCase(Locale.ROOT).endsWith(".json"))
+      {
+        this.writeJson(out, cycle);
+      }
+      else
+      {
+        this.writeCsv(out, cycle);
+      }
+    }
+  }
+
+  /**
+   * Method to write the counters and the snapshots as JSON
+   * @param out   Writer the JSON document is written to
+   * @param cycle Current clock cycle (Total cycles simulated)
+   */
+  public void writeJson(PrintWriter out, long cycle)
+  {
+    out.println("{");
+    out.println("  \"cycles\": " + cycle + ",");
+    out.println("  \"events\": [");
+    for (int event = 0; event < events; event++)
+    {
+      out.println("    {\"name\": " + jsonString(names[event]) + ", \"description\": " + jsonString(descriptions[event]) + ", \"value\": " +
+                  counters[event] + "}" + ((event + 1 < events) ? "," : ""));
+    }
+    out.println("  ],");
+    out.println("  \"snapshots\": [");
+    for (int snapshot = 0; snapshot < snapshots.size(); snapshot++)
+    {
+      long[] values = snapshots.get(snapshot);
+      StringBuilder line = new StringBuilder("    {\"cycle\": ").append(snapshotCycles.get(snapshot)).append(", \"values\": [");
+      for (int event = 0; event < values.length; event++)
+      {
+        line.append((event == 0) ? "" : ", ").append(values[event]);
+      }
+      out.println(line.append("]}").append((snapshot + 1 < snapshots.size()) ? "," : ""));
+    }
+    out.println("  ]");
+    out.println("}");
+    out.flush();
+  }
+
+  /**
+   * Method to write the snapshots as CSV (One row per snapshot, followed by a row holding the final values of the counters)
+   * @param out   Writer the CSV is written to
+   * @param cycle Current clock cycle (Total cycles simulated)
+   */
+  public void writeCsv(PrintWriter out, long cycle)
+  {
+    StringBuilder header = new StringBuilder("cycle");
+    for (int event = 0; event < events; event++)
+    {
+      header.append(',').append(names[event]);
+    }
+    out.println(header);
+    for (int snapshot = 0; snapshot < snapshots.size(); snapshot++)
+    {
+      writeCsvRow(out, snapshotCycles.get(snapshot), snapshots.get(snapshot), events);
+    }
+    writeCsvRow(out, cycle, counters, events);
+    out.flush();
+  }
+
+  /**
+   * Method to write a row of counter values as CSV
+   * @param out    Writer the CSV is written to
+   * @param cycle  Clock cycle of the row
+   * @param values Counter values
+   * @param events Number of columns (Events registered after the values were taken are left empty)
+   */
+  private static void writeCsvRow(PrintWriter out, long cycle, long[] values, int events)
+  {
+    StringBuilder row = new StringBuilder().append(cycle);
+    for (int event = 0; event < events; event++)
+    {
+      row.append(',');
+      if (event < values.length)
+      {
+        row.append(values[event]);
+      }
+    }
+    out.println(row);
+  }
+
+  /**
+   * Method to quote a string as a JSON string literal
+   * @param  value String to quote
+   * @return       JSON string literal
+   */
+  private static String jsonString(String value)
+  {
+    StringBuilder literal = new StringBuilder("\"");
+    for (int charIndex = 0; charIndex < value.length(); charIndex++)
+    {
+      char character = value.charAt(charIndex);
+      if (character == '"' || character == '\\')
+      {
+        literal.append('\\').append(character);
+      }
+      else if (character < 0x20)
+      {
+        literal.append(String.format("\\u%04x", (int) character));
+      }
+      else
+      {
+        literal.append(character);
+      }
+    }
+    return literal.append('"').toString();
+  }
+
+  /**
+   * Method to obtain the number of bytes required to save the counters
+   * @return Size of the saved state in bytes
+   */
+  public int getStateSize()
+  {
+    return Integer.BYTES + (events * Long.BYTES);
+  }
+
+  /**
+   * Method to save the counters to a buffer (In registration order)
+   * @param buffer Buffer to which the state is written
+   */
+  public void saveState(ByteBuffer buffer)
+  {
+    buffer.putInt(events);
+    for (int event = 0; event < events; event++)
+    {
+      buffer.putLong(counters[event]);
+    }
+  }
+
+  /**
+   * Method to restore the counters from a buffer
+   * @param buffer Buffer from which the state is read
+   */
+  public void restoreState(ByteBuffer buffer)
+  {
+    int savedEvents = buffer.getInt();
+    if (savedEvents != events)
+    {
+      throw new IllegalStateException("Illegal saved PMU state (Saved state contains " + savedEvents + " events, expected " + events + ").");
+    }
+    for (int event = 0; event < events; event++)
+    {
+      counters[event] = buffer.getLong();
+    }
+  }
+}
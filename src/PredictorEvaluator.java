@@ -0,0 +1,340 @@
+/**
+ * @file PredictorEvaluator.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the PredictorEvaluator class that evaluates many branch predictor configurations side by side over the same
+ * branch stream in a single pass. The branch stream is either fed live by the IE stage as the BU resolves every branch (--live, the program
+ * is simulated as a batch job) or read from a committed-instruction trace recorded by the simulator (--commit-trace <file>).
+ *
+ * The branches are buffered in chunks. Once a chunk is full, the predictors are partitioned across the threads of a work-stealing pool and
+ * every thread runs its predictors over the whole chunk (Predict, then train with the actual outcome), hence, a predictor always sees the
+ * branches in program order and the results don't depend on the number of threads.
+ *
+ * A predictor configuration is given as "<predictor>[,<key>=<value>...]", i.e. the name of a predictor (See SimulatorConfig) followed by
+ * any configuration override the predictor needs. Every predictor known to SimulatorConfig is evaluated if none is given.
+ */
+
+// Import packages
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs many branch predictors over the same branch stream and reports their accuracy.
+ */
+public class PredictorEvaluator
+{
+  private static final int CHUNK_SIZE = 64 * 1024;        /** Number of branches buffered before they are handed to the predictors */
+
+  private final String[] names;                           /** Name of every predictor configuration */
+  private final IBranchPredictor[] predictors;            /** Predictors being evaluated */
+  private final long[] predictionsCorrect;                /** Number of branches predicted correctly by every predictor */
+  private final long[] predictionsIncorrect;              /** Number of branches predicted incorrectly by every predictor */
+  private final ForkJoinPool pool;                        /** Work-stealing pool the predictors are run on (null = run on the calling thread) */
+  private final int partitions;                           /** Number of partitions the predictors are split into */
+  private final int[] chunkPc = new int[CHUNK_SIZE];      /** Address of every buffered branch */
+  private final DecodedInstruction[] chunkInstructions = new DecodedInstruction[CHUNK_SIZE];     /** Decoded instruction of every buffered branch */
+  private final boolean[] chunkTaken = new boolean[CHUNK_SIZE];     /** Outcome of every buffered branch */
+  private int chunkBranches;                              /** Number of buffered branches */
+  private long branches;                                  /** Number of branches fed to the evaluator */
+  private long instructions;                              /** Number of instructions the branches were taken from (Used to evaluate the MPKI) */
+
+  /**
+   * Parameterized constructor
+   * @param  configurations Predictor configurations ("<predictor>[,<key>=<value>...]")
+   * @param  threads        Number of threads the predictors are run on
+   * @return                No return value since this is a constructor
+   */
+  public PredictorEvaluator(List<String> configurations, int threads)
+  {
+    if (configurations.isEmpty())
+    {
+      throw new IllegalArgumentException("No branch predictor to evaluate");
+    }
+    names = configurations.toArray(new String[0]);
+    predictors = new IBranchPredictor[names.length];
+    for (int predictorIndex = 0; predictorIndex < names.length; predictorIndex++)
+    {
+      predictors[predictorIndex] = createPredictor(names[predictorIndex]);
+    }
+    predictionsCorrect = new long[names.length];
+    predictionsIncorrect = new long[names.length];
+    partitions = Math.max(1, Math.min(threads, names.length));
+    pool = (partitions > 1) ? new ForkJoinPool(partitions) : null;
+  }
+
+  /**
+   * Method to instantiate a predictor configuration
+   * @param  configuration Predictor configuration ("<predictor>[,<key>=<value>...]")
+   * @return               Branch predictor
+   */
+  private static IBranchPredictor createPredictor(String configuration)
+  {
+    String[] fields = configuration.split(",");
+    SimulatorConfig config = new SimulatorConfig();
+    config.set(SimulatorConfig.BRANCH_PREDICTOR, fields[0].trim());
+    for (int fieldIndex = 1; fieldIndex < fields.length; fieldIndex++)
+    {
+      config.set(fields[fieldIndex]);
+    }
+    return config.createBranchPredictor();
+  }
+
+  /**
+   * Method to feed a resolved branch to the predictors
+   * @param pc          Address the branch was fetched from
+   * @param instruction Decoded branch instruction
+   * @param taken       True if the branch was taken
+   */
+  public void recordBranch(int pc, DecodedInstruction instruction, boolean taken)
+  {
+    chunkPc[chunkBranches] = pc;
+    chunkInstructions[chunkBranches] = instruction;
+    chunkTaken[chunkBranches] = taken;
+    chunkBranches++;
+    branches++;
+    if (chunkBranches == CHUNK_SIZE)
+    {
+      this.flush();
+    }
+  }
+
+  /**
+   * Method to set the number of instructions the branches were taken from
+   * @param instructions Number of (non-NOP) instructions executed
+   */
+  public void setInstructions(long instructions)
+  {
+    this.instructions = instructions;
+  }
+
+  /**
+   * Method to run the predictors over the buffered branches. Needs to be called once the branch stream has ended, before the results are read.
+   */
+  public void flush()
+  {
+    if (chunkBranches == 0)
+    {
+      return;
+    }
+    if (pool == null)
+    {
+      this.runPartition(0);
+    }
+    else
+    {
+      List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(partitions);
+      for (int partition = 0; partition < partitions; partition++)
+      {
+        final int taskPartition = partition;
+        tasks.add(pool.submit(() -> this.runPartition(taskPartition)));
+      }
+      for (ForkJoinTask<?> task : tasks)
+      {
+        task.join();            // Also publishes the counters updated by the task
+      }
+    }
+    chunkBranches = 0;
+  }
+
+  /**
+   * Method to run the predictors of a partition over the buffered branches
+   * @param partition Index of the partition (Holds every predictor whose index is congruent to it modulo the number of partitions)
+   */
+  private void runPartition(int partition)
+  {
+    for (int predictorIndex = partition; predictorIndex < predictors.length; predictorIndex += partitions)
+    {
+      IBranchPredictor predictor = predictors[predictorIndex];
+      long correct = 0;
+      for (int branchIndex = 0; branchIndex < chunkBranches; branchIndex++)
+      {
+        if (predictor.predict(chunkPc[branchIndex], chunkInstructions[branchIndex]) == chunkTaken[branchIndex])
+        {
+          correct++;
+        }
+        predictor.update(chunkPc[branchIndex], chunkInstructions[branchIndex], chunkTaken[branchIndex]);
+      }
+      predictionsCorrect[predictorIndex] += correct;
+      predictionsIncorrect[predictorIndex] += chunkBranches - correct;
+    }
+  }
+
+  /**
+   * Method to shut down the pool once the evaluation has finished
+   */
+  public void shutdown()
+  {
+    if (pool != null)
+    {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Method to obtain the number of branches fed to the evaluator
+   * @return Number of branches
+   */
+  public long getBranches()
+  {
+    return branches;
+  }
+
+  /**
+   * Method to print the results of every predictor as a table
+   * @param out Stream the table is written to
+   */
+  public void printResults(PrintStream out)
+  {
+    int nameWidth = "Predictor".length();
+    for (String name : names)
+    {
+      nameWidth = Math.max(nameWidth, name.length());
+    }
+    String rowFormat = "%-" + nameWidth + "s  %12s  %12s  %10s  %10s  %14s%n";
+    out.format(Locale.ROOT, rowFormat, "Predictor", "Correct", "Incorrect", "Accuracy", "MPKI", "Storage (bits)");
+    for (int predictorIndex = 0; predictorIndex < names.length; predictorIndex++)
+    {
+      long predictorBranches = predictionsCorrect[predictorIndex] + predictionsIncorrect[predictorIndex];
+      double accuracy = (predictorBranches == 0) ? 0.0 : (100.0 * predictionsCorrect[predictorIndex] / predictorBranches);
+      double mpki = (instructions == 0) ? 0.0 : (1000.0 * predictionsIncorrect[predictorIndex] / instructions);      // Mispredictions per kilo instructions
+      out.format(Locale.ROOT, rowFormat, names[predictorIndex], predictionsCorrect[predictorIndex], predictionsIncorrect[predictorIndex],
+                 String.format(Locale.ROOT, "%.2f%%", accuracy), String.format(Locale.ROOT, "%.3f", mpki), predictors[predictorIndex].getStorageBits());
+    }
+  }
+
+  /**
+   * Method to feed the branches of a committed-instruction trace to the evaluator
+   * @param  traceFileName Name of the trace file
+   * @throws IOException   If the trace can't be read
+   */
+  private void evaluateTrace(String traceFileName) throws IOException
+  {
+    Map<Integer, DecodedInstruction> decodedInstructions = new HashMap<Integer, DecodedInstruction>();
+    long traceInstructions = 0;
+    try (CommitTrace.Reader reader = new CommitTrace.Reader(traceFileName))
+    {
+      while (reader.next())
+      {
+        int opCode = InstructionDecoder.opCode(reader.getInstruction());
+        if (opCode != Isa.NOP)
+        {
+          traceInstructions++;
+        }
+        if (InstructionDecoder.isValidOpCode(opCode) && InstructionDecoder.isBranch(opCode))
+        {
+          DecodedInstruction decodedInstruction = decodedInstructions.get(reader.getInstruction());
+          if (decodedInstruction == null)
+          {
+            decodedInstruction = InstructionDecoder.decode(reader.getInstruction());
+            decodedInstructions.put(reader.getInstruction(), decodedInstruction);
+          }
+          this.recordBranch(reader.getPc(), decodedInstruction, reader.isTaken());
+        }
+      }
+    }
+    this.flush();
+    this.setInstructions(traceInstructions);
+  }
+
+  /**
+   * Method to feed the branches resolved by a simulation to the evaluator
+   * @param  simulatorArgs    Arguments of the simulation (Same options as the simulator itself)
+   * @throws IOException      If the simulation can't read/write one of its files
+   * @throws ParsingException If the assembly file contains an error
+   */
+  private void evaluateLive(String[] simulatorArgs) throws IOException, ParsingException
+  {
+    ProcessorSimulator simulator = new ProcessorSimulator();
+    simulator.setPredictorEvaluator(this);
+    SimulationResult result = simulator.runBatchJob(simulatorArgs);
+    this.flush();
+    this.setInstructions(result.getValidInstructions());
+  }
+
+  /**
+   * Main entry point to the predictor evaluator
+   * @param args Command-line arguments: "[--threads <number of threads>] [--predictor <configuration>]... (--commit-trace <file> | --live <simulator arguments...>)"
+   */
+  public static void main(String[] args)
+  {
+    int threads = Runtime.getRuntime().availableProcessors();
+    List<String> configurations = new ArrayList<String>();
+    String traceFileName = null;
+    String[] simulatorArgs = null;
+    int argIndex = 0;
+    while (argIndex < args.length && simulatorArgs == null)
+    {
+      if (args[argIndex].equals("--live"))
+      {
+        simulatorArgs = Arrays.copyOfRange(args, argIndex + 1, args.length);
+      }
+      else if (argIndex + 1 < args.length && args[argIndex].equals("--threads"))
+      {
+        threads = Integer.parseInt(args[++argIndex]);
+      }
+      else if (argIndex + 1 < args.length && args[argIndex].equals("--predictor"))
+      {
+        configurations.add(args[++argIndex]);
+      }
+      else if (argIndex + 1 < args.length && args[argIndex].equals("--commit-trace"))
+      {
+        traceFileName = args[++argIndex];
+      }
+      else
+      {
+        break;
+      }
+      argIndex++;
+    }
+    if ((traceFileName == null) == (simulatorArgs == null) || (simulatorArgs == null && argIndex != args.length) || threads < 1)
+    {
+      System.err.println("Correct Usage: java PredictorEvaluator [--threads <number of threads>] [--predictor <predictor>[,<key>=<value>...]]... " +
+                         "(--commit-trace <file> | --live <simulator arguments...>)");
+      System.exit(1);               // Exit/Terminate the program/Java runtime with error code 1
+    }
+    if (configurations.isEmpty())
+    {
+      configurations.addAll(Arrays.asList(SimulatorConfig.PREDICTORS));
+    }
+
+    PredictorEvaluator evaluator = null;
+    try
+    {
+      evaluator = new PredictorEvaluator(configurations, threads);
+    }
+    catch (IllegalArgumentException ex)
+    {
+      System.err.println("Invalid predictor configuration: " + ex.getMessage());
+      System.exit(1);               // Exit/Terminate the program/Java runtime with error code 1
+    }
+    long startTime = System.nanoTime();
+    try
+    {
+      if (traceFileName != null)
+      {
+        evaluator.evaluateTrace(traceFileName);
+      }
+      else
+      {
+        evaluator.evaluateLive(simulatorArgs);
+      }
+    }
+    catch (Exception ex)
+    {
+      System.err.println("The branch stream couldn't be evaluated. The exception is as follows: " + ex.getMessage());
+      System.exit(1);               // Exit/Terminate the program/Java runtime with error code 1
+    }
+    finally
+    {
+      evaluator.shutdown();
+    }
+    long elapsedNanos = System.nanoTime() - startTime;
+    System.out.println("Branch stream: " + ((traceFileName != null) ? traceFileName : "live (" + String.join(" ", simulatorArgs) + ")"));
+    System.out.println("Branches: " + evaluator.getBranches());
+    System.out.println("Instructions: " + evaluator.instructions);
+    System.out.format(Locale.ROOT, "Evaluation time: %.3f ms (%d predictors, %d threads)%n", elapsedNanos / 1e6, configurations.size(), evaluator.partitions);
+    System.out.println();
+    evaluator.printResults(System.out);
+  }
+}
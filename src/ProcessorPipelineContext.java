@@ -26,26 +26,52 @@ public class ProcessorPipelineContext implements IPipelineContext
   private IStage instructionIssueStage;                   /** Reference to the Instruction Issue Stage of the pipeline. Useful if something is required from this stage by other stages. */
   private IStage instructionExecuteStage;                 /** Reference to the Instruction Execute Stage of the pipeline. Useful if something is required from this stage by other stages. */
   private IStage instructionWritebackStage;               /** Reference to the Instruction Writeback Stage of the pipeline. Useful if something is required from this stage by other stages. */
-  private BranchPredictor branchPredictor;                /** Reference to the processor's branch prediction unit */
+  private IBranchPredictor branchPredictor;                /** Reference to the processor's branch prediction unit */
   private boolean branchTaken;                            /** Variable stating if the BU, i.e. Branch Unit evaluated that a branch needs to be taken. Based on this variable the pipeline would need to be flushed */
   private boolean branchTakenOld;                         /** Variable to store the previous value of branchTaken. ONLY USED FOR PRINTING/DEBUGGING PURPOSE. */
   private int branchTarget;                               /** Variable holding the branch target address */
   private int nextIR;                                     /** Updated IR value generated by the IF stage */
   private int currentIR;                                  /** Previous IR value read by the ID stage */
-  private Instruction nextInstruction;                    /** Reference to the next instruction */   // TODO this should actually be a list of instructions when going superscalar becase in one cycle the instruction fetch unit would fetch multiple executions 
-  private Instruction currentInstruction;                 /** Reference to the current instruction */   // TODO this should actually be a list of instructions when going superscalar becase in one cycle the instruction fetch unit would fetch multiple executions
-  private Queue<Instruction> nextInstructionQueue;        /** Reference to the next instruction queue - Similar to a reservation station */
-  private Queue<Instruction> currentInstructionQueue;     /** Reference to the current instruction queue - Similar to a reservation station */
+  private int nextInstruction;                            /** Slot index (in the instruction table) of the next instruction */   // TODO this should actually be a list of instructions when going superscalar becase in one cycle the instruction fetch unit would fetch multiple executions 
+  private int currentInstruction;                         /** Slot index (in the instruction table) of the current instruction */   // TODO this should actually be a list of instructions when going superscalar becase in one cycle the instruction fetch unit would fetch multiple executions
+  private InstructionQueue nextInstructionQueue;          /** Reference to the next instruction queue (Instruction table slot indices) - Similar to a reservation station */
+  private InstructionQueue currentInstructionQueue;       /** Reference to the current instruction queue (Instruction table slot indices) - Similar to a reservation station */
+  private long instructionQueueCyclesSampled;             /** Number of cycles for which the instruction queue occupancy has been sampled */
+  private long instructionQueueOccupancySum;              /** Sum of the instruction queue occupancy over all sampled cycles. Used to evaluate the average occupancy */
+  private int instructionQueueMaxOccupancy;               /** Maximum instruction queue occupancy seen */
+  private long instructionQueueFullCycles;                /** Number of cycles in which the II stage couldn't issue because the instruction queue was full */
+  private long instructionQueueEmptyCycles;               /** Number of cycles in which the IE stage found the instruction queue empty */
   private int nextMemoryFetchLoc;                         /** Updated memory fetch location value set by the IF stage */
   private int currentMemoryFetchLoc;                      /** Previous memory fetch location value read by the ID stage */
-  private boolean stallPipeline;                          /** Boolean variable stating if the pipeline should be stalled */   //TODO Check if individual variables to stall each stage would be a better way to handle this
+  private boolean stallPipeline;                          /** Boolean variable stating if the front-end (IF, ID and II stages) is stalled in the current cycle because the instruction queue is full */   //TODO Check if individual variables to stall each stage would be a better way to handle this
   private boolean nextInstructionBranchPredictionResult;  /** Branch predictor results for the next instruction */
   private boolean currentInstructionBranchPredictionResult; /** Branch predictor results for the current instruction */
   private boolean correctBranchPrediction;                /** Boolean variable that stores whether or not the branch prediction was correct. If it was incorrect this variable is set to false and the pipeline needs to be flushed, else the simulator can carry on as usual */
-  private Instruction nextInstructionWriteBack;           /** Reference to the next writeback instruction */   // TODO this should actually be a list of instructions when going superscalar becase in one cycle the instruction fetch unit would fetch multiple executions 
-  private Instruction currentInstructionWriteBack;        /** Reference to the current writeback instruction */   // TODO this should actually be a list of instructions when going superscalar becase in one cycle the instruction fetch unit would fetch multiple executions
+  private int nextInstructionWriteBack;                   /** Slot index (in the instruction table) of the next writeback instruction */   // TODO this should actually be a list of instructions when going superscalar becase in one cycle the instruction fetch unit would fetch multiple executions 
+  private int currentInstructionWriteBack;                /** Slot index (in the instruction table) of the current writeback instruction */   // TODO this should actually be a list of instructions when going superscalar becase in one cycle the instruction fetch unit would fetch multiple executions
+  private DecodedInstructionCache decodedInstructionCache; /** Reference to the decoded instruction cache shared by the IF and ID stages */
+  private InstructionTable instructionTable;              /** Reference to the table holding all in-flight instructions */
+  private CommitTrace.Writer commitTrace;                 /** Reference to the trace the executed instructions are recorded in (null = not recorded) */
+  private PredictorEvaluator predictorEvaluator;          /** Reference to the evaluator the resolved branches are fed to (null = no predictors evaluated) */
+  private Pmu pmu;                                        /** Reference to the PMU holding the event counters of the simulation */
+  private CpiStack cpiStack;                              /** Reference to the CPI stack the IE stage attributes every cycle in */
+  private boolean instructionIssueBlocked;                /** Boolean variable stating if the II stage couldn't issue in the current cycle because the instruction queue was full */
+  private boolean instructionIssueBlockedPrevious;        /** Boolean variable stating if the II stage couldn't issue in the previous cycle. Used to attribute the bubbles caused by a full instruction queue */
+
+  public ProcessorPipelineContext(Register cpuRegisters, Memory cpuMemory, IStage instructionFetchStage, IStage instructionDecodeStage, IStage instructionIssueStage, IStage instructionExecuteStage, IStage instructionWritebackStage, IBranchPredictor branchPredictor)
+  {
+    this(cpuRegisters, cpuMemory, instructionFetchStage, instructionDecodeStage, instructionIssueStage, instructionExecuteStage, instructionWritebackStage, branchPredictor,
+         GlobalConstants.INSTRUCTION_TABLE_CAPACITY, GlobalConstants.INSTRUCTION_QUEUE_CAPACITY);
+  }
 
-  public ProcessorPipelineContext(Register cpuRegisters, Memory cpuMemory, IStage instructionFetchStage, IStage instructionDecodeStage, IStage instructionIssueStage, IStage instructionExecuteStage, IStage instructionWritebackStage, BranchPredictor branchPredictor)
+  /**
+   * Parameterized constructor taking the sizes of the in-flight instruction table and of the instruction queue (See SimulatorConfig)
+   * @param  instructionTableCapacity Number of slots in the instruction table (Needs to be a power of 2)
+   * @param  instructionQueueCapacity Capacity of the instruction queue
+   * @return                          No return value since this is a constructor
+   */
+  public ProcessorPipelineContext(Register cpuRegisters, Memory cpuMemory, IStage instructionFetchStage, IStage instructionDecodeStage, IStage instructionIssueStage, IStage instructionExecuteStage, IStage instructionWritebackStage, IBranchPredictor branchPredictor,
+                                  int instructionTableCapacity, int instructionQueueCapacity)
   {
     this.cpuRegisters = cpuRegisters;
     this.cpuMemory = cpuMemory;
@@ -55,64 +81,113 @@ public class ProcessorPipelineContext implements IPipelineContext
     this.instructionExecuteStage = instructionExecuteStage;
     this.instructionWritebackStage = instructionWritebackStage;
     this.branchPredictor = branchPredictor;
+    this.decodedInstructionCache = new DecodedInstructionCache(cpuMemory.getMemorySize());     // Instantiate the decoded instruction cache (One entry per memory location)
+    this.instructionTable = new InstructionTable(instructionTableCapacity);  // Instantiate the in-flight instruction table
     this.currentIR = GlobalConstants.DEFAULT_INSTRUCTION;         // Default IR value, declared as 0, hence, signifies a NOP operation
-    this.currentInstruction = new Instruction(GlobalConstants.DEFAULT_INSTRUCTION_TYPE,
-                                              GlobalConstants.DEFAULT_INSTRUCTION_MNEMONIC,
-                                              ExecutionUnit.ALU,
-                                              GlobalConstants.DEFAULT_INSTRUCTION_OPCODE, 
-                                              GlobalConstants.DEFAULT_MEM_FETCH_LOC,
-                                              GlobalConstants.DEFAULT_INSTRUCTION,
-                                              Isa.InstructionType.RRR.NUMBER_OF_CYCLES,
-                                              GlobalConstants.DEFAULT_BRANCH_PREDICTION,
-                                              Isa.DEFAULT_REG_VALUE,
-                                              Isa.DEFAULT_REG_VALUE,
-                                              Isa.DEFAULT_REG_VALUE,
-                                              Isa.DEFAULT_IMM_VALUE);         // Instantiate current instruction obeject as a NOP operation otherwise the Instruction Issue (II) stage throws a null pointer exception in the because it gets an Instruction object reference that hasn't been instantiated (i.e. this reference doesn't point to any object). Useful when the later stages of the pipeline are empty in the first few cycles of the simulation.
-    this.currentInstructionQueue = new LinkedList<Instruction>();             // Instantiate current instruction queue object to avoid null pointer exceptions to be generated by the the II stage (Useful only for the first clock cycle).
-    this.currentInstructionQueue.add(new Instruction(GlobalConstants.DEFAULT_INSTRUCTION_TYPE,
-                                                     GlobalConstants.DEFAULT_INSTRUCTION_MNEMONIC,
-                                                     ExecutionUnit.ALU,
-                                                     GlobalConstants.DEFAULT_INSTRUCTION_OPCODE, 
-                                                     GlobalConstants.DEFAULT_MEM_FETCH_LOC,
-                                                     GlobalConstants.DEFAULT_INSTRUCTION,
-                                                     Isa.InstructionType.RRR.NUMBER_OF_CYCLES,
-                                                     GlobalConstants.DEFAULT_BRANCH_PREDICTION,
-                                                     Isa.DEFAULT_REG_VALUE,
-                                                     Isa.DEFAULT_REG_VALUE,
-                                                     Isa.DEFAULT_REG_VALUE,
-                                                     Isa.DEFAULT_IMM_VALUE)); // Insert a NOP operation to the current instruction queue read by the IE stage. This prevents a null pointer exception in the first execution cycle of the IE stage.
-    this.nextInstructionQueue = new LinkedList<Instruction>();                // Instantiate the next instruction queue object to avoid null pointer exceptions to be generated by the II stage (Useful only for the first clock cycle).
-    this.currentInstructionWriteBack = new Instruction(GlobalConstants.DEFAULT_INSTRUCTION_TYPE,
-                                                       GlobalConstants.DEFAULT_INSTRUCTION_MNEMONIC,
-                                                       ExecutionUnit.ALU,
-                                                       GlobalConstants.DEFAULT_INSTRUCTION_OPCODE, 
-                                                       GlobalConstants.DEFAULT_MEM_FETCH_LOC,
-                                                       GlobalConstants.DEFAULT_INSTRUCTION,
-                                                       Isa.InstructionType.RRR.NUMBER_OF_CYCLES,
-                                                       GlobalConstants.DEFAULT_BRANCH_PREDICTION,
-                                                       Isa.DEFAULT_REG_VALUE,
-                                                       Isa.DEFAULT_REG_VALUE,
-                                                       Isa.DEFAULT_REG_VALUE,
-                                                       Isa.DEFAULT_IMM_VALUE);  // Instantiate current instruction obeject as a NOP operation otherwise the Instruction Writeback (WB) stage throws a null pointer exception in the because it gets an Instruction object reference that hasn't been instantiated (i.e. this reference doesn't point to any object). Useful when the later stages of the pipeline are empty in the first few cycles of the simulation.
+    this.currentInstruction = this.instructionTable.allocateNop();         // Set the current instruction to a NOP operation for the Instruction Issue (II) stage. Useful when the later stages of the pipeline are empty in the first few cycles of the simulation.
+    this.currentInstructionQueue = new InstructionQueue(instructionQueueCapacity);   // Instantiate the current instruction queue read by the IE stage
+    this.currentInstructionQueue.add(this.instructionTable.allocateNop()); // Insert a NOP operation to the current instruction queue read by the IE stage. Useful in the first execution cycle of the IE stage.
+    this.nextInstructionQueue = new InstructionQueue(instructionQueueCapacity);      // Instantiate the next instruction queue written to by the II stage
+    this.currentInstructionWriteBack = this.instructionTable.allocateNop();  // Set the current writeback instruction to a NOP operation for the Instruction Writeback (WB) stage. Useful when the later stages of the pipeline are empty in the first few cycles of the simulation.
     this.currentMemoryFetchLoc = GlobalConstants.DEFAULT_MEM_FETCH_LOC;                                  // Default memory fetch location
     this.currentInstructionBranchPredictionResult = GlobalConstants.DEFAULT_BRANCH_PREDICTION;           // Default branch prediction value 
-    this.stallPipeline = false;
+    this.stallPipeline = this.currentInstructionQueue.size() >= instructionQueueCapacity;     // Only true if the instruction queue can't hold more than the initial NOP
     this.correctBranchPrediction = GlobalConstants.CORRECT_BRANCH_PREDICTION_RESULT;      // By default this value is set to true, if this was set to false, the pipeline would be flushed every cycle which is not what we want
+    this.pmu = new Pmu();                                          // Instantiate the PMU of the simulation and let every stage (and its execution units) register the events it counts
+    this.cpiStack = new CpiStack(pmu);
+    ((IProcessorPipelineStage) instructionFetchStage).registerEvents(pmu);
+    ((IProcessorPipelineStage) instructionDecodeStage).registerEvents(pmu);
+    ((IProcessorPipelineStage) instructionIssueStage).registerEvents(pmu);
+    ((IProcessorPipelineStage) instructionExecuteStage).registerEvents(pmu);
+    ((IProcessorPipelineStage) instructionWritebackStage).registerEvents(pmu);
+  }
+
+  /**
+   * Method to obtain the PMU holding the event counters of the simulation
+   * @return PMU
+   */
+  public Pmu getPmu()
+  {
+    return pmu;
+  }
+
+  /**
+   * Method to obtain the CPI stack the IE stage attributes every cycle in
+   * @return CPI stack
+   */
+  public CpiStack getCpiStack()
+  {
+    return cpiStack;
   }
   
+  /**
+   * Method to set the trace the IE stage records the executed instructions in
+   * @param _commitTrace Commit trace writer (null = instructions aren't recorded)
+   */
+  public void setCommitTrace(CommitTrace.Writer _commitTrace)
+  {
+    commitTrace = _commitTrace;
+  }
+
+  /**
+   * Method to obtain the trace the IE stage records the executed instructions in
+   * @return Commit trace writer (null = instructions aren't recorded)
+   */
+  public CommitTrace.Writer getCommitTrace()
+  {
+    return commitTrace;
+  }
+
+  /**
+   * Method to set the evaluator the IE stage feeds the resolved branches to
+   * @param _predictorEvaluator Predictor evaluator (null = no predictors evaluated)
+   */
+  public void setPredictorEvaluator(PredictorEvaluator _predictorEvaluator)
+  {
+    predictorEvaluator = _predictorEvaluator;
+  }
+
+  /**
+   * Method to obtain the evaluator the IE stage feeds the resolved branches to
+   * @return Predictor evaluator (null = no predictors evaluated)
+   */
+  public PredictorEvaluator getPredictorEvaluator()
+  {
+    return predictorEvaluator;
+  }
+
   /**
    * Method to shift the contents of each stage along the pipleine
    */
   public void shiftPipeline()
   {
-    currentInstruction = nextInstruction;
-    //currentInstruction = new Instruction(nextInstruction);      // Use the copy constructor to "clone" the next instruction object to the current instruction object
-    currentIR = nextIR;                                         // Clone the value contained in the instruction register
-    currentInstructionQueue = nextInstructionQueue;             // Copy the reference of the nextInstructionQueue to the currentInstructionQueue
+    if (!stallPipeline)                                         // The front-end has moved on - Otherwise the IF/ID and ID/II registers hold their values (IF, ID and II didn't run in the stalled cycle)
+    {
+      currentInstruction = nextInstruction;
+      currentIR = nextIR;                                       // Clone the value contained in the instruction register
+      currentMemoryFetchLoc = nextMemoryFetchLoc;               // Copy the memory fetch location value
+      currentInstructionBranchPredictionResult = nextInstructionBranchPredictionResult; // Copy the branch prediction result value
+    }
+    instructionIssueBlockedPrevious = instructionIssueBlocked;
+    instructionIssueBlocked = false;
+    if (currentInstructionQueue.isEmpty())                      // Usual case - The IE stage has removed everything from the current queue, hence, just swap the two queues
+    {
+      InstructionQueue emptyInstructionQueue = currentInstructionQueue;
+      currentInstructionQueue = nextInstructionQueue;
+      nextInstructionQueue = emptyInstructionQueue;
+    }
+    else                                                        // Move the newly issued instructions behind the ones still waiting to be executed
+    {
+      currentInstructionQueue.transferFrom(nextInstructionQueue);
+    }
+    instructionQueueCyclesSampled++;                            // Sample the instruction queue occupancy (i.e. number of instructions waiting to be executed in the next cycle)
+    instructionQueueOccupancySum+= currentInstructionQueue.size();
+    if (currentInstructionQueue.size() > instructionQueueMaxOccupancy)
+    {
+      instructionQueueMaxOccupancy = currentInstructionQueue.size();
+    }
     currentInstructionWriteBack = nextInstructionWriteBack;
-    //currentInstructionWriteBack = new Instruction(nextInstructionWriteBack);     // Use the copy constructor to "clone" the next writeback instruction object to the current writeback instruction object
-    currentMemoryFetchLoc = nextMemoryFetchLoc;                 // Copy the memory fetch location value
-    currentInstructionBranchPredictionResult = nextInstructionBranchPredictionResult; // Copy the branch prediction result value
+    stallPipeline = this.isInstructionQueueFull();              // The II stage can't issue in the next cycle, hence, the front-end needs to be stalled
     //branchTaken = false;                                        // Revert the value of the branchTaken variable back to false for it to be used in the next cycle - This is currently being done in the IE stage
   }
 
@@ -122,35 +197,16 @@ public class ProcessorPipelineContext implements IPipelineContext
    */
   public void flush()
   {
+    this.instructionTable.releaseAllExcept(this.currentInstructionWriteBack);  // Release every discarded instruction (Only the instruction that caused the flush still needs to be written back)
     this.currentIR = GlobalConstants.DEFAULT_INSTRUCTION;
-    this.currentInstruction = new Instruction(GlobalConstants.DEFAULT_INSTRUCTION_TYPE,
-                                              GlobalConstants.DEFAULT_INSTRUCTION_MNEMONIC,
-                                              ExecutionUnit.ALU,
-                                              GlobalConstants.DEFAULT_INSTRUCTION_OPCODE, 
-                                              GlobalConstants.DEFAULT_MEM_FETCH_LOC,
-                                              GlobalConstants.DEFAULT_INSTRUCTION,
-                                              Isa.InstructionType.RRR.NUMBER_OF_CYCLES,
-                                              GlobalConstants.DEFAULT_BRANCH_PREDICTION,
-                                              Isa.DEFAULT_REG_VALUE,
-                                              Isa.DEFAULT_REG_VALUE,
-                                              Isa.DEFAULT_REG_VALUE,
-                                              Isa.DEFAULT_IMM_VALUE);         // Instantiate current instruction obeject as a NOP operation otherwise the Instruction Issue (II) stage throws a null pointer exception in the because it gets an Instruction object reference that hasn't been instantiated (i.e. this reference doesn't point to any object). Useful when the later stages of the pipeline are empty in the first few cycles of the simulation.
-    ((LinkedList) this.nextInstructionQueue).clear();                         // Empty the next instruction queue read by the IE stage
-    this.currentInstructionQueue = new LinkedList<Instruction>();             // Instantiate current instruction queue object to avoid null pointer exceptions to be generated by the the II stage (Useful only for the first clock cycle).
-    this.currentInstructionQueue.add(new Instruction(GlobalConstants.DEFAULT_INSTRUCTION_TYPE,
-                                                     GlobalConstants.DEFAULT_INSTRUCTION_MNEMONIC,
-                                                     ExecutionUnit.ALU,
-                                                     GlobalConstants.DEFAULT_INSTRUCTION_OPCODE, 
-                                                     GlobalConstants.DEFAULT_MEM_FETCH_LOC,
-                                                     GlobalConstants.DEFAULT_INSTRUCTION,
-                                                     Isa.InstructionType.RRR.NUMBER_OF_CYCLES,
-                                                     GlobalConstants.DEFAULT_BRANCH_PREDICTION,
-                                                     Isa.DEFAULT_REG_VALUE,
-                                                     Isa.DEFAULT_REG_VALUE,
-                                                     Isa.DEFAULT_REG_VALUE,
-                                                     Isa.DEFAULT_IMM_VALUE)); // Insert a NOP operation to the current instruction queue read by the IE stage. This prevents a null pointer exception in the first execution cycle of the IE stage.
+    this.currentInstruction = this.instructionTable.allocateNop();         // Set the current instruction to a NOP operation for the Instruction Issue (II) stage. Useful when the later stages of the pipeline are empty in the first few cycles of the simulation.
+    this.nextInstructionQueue.clear();                                        // Empty the next instruction queue written to by the II stage
+    this.currentInstructionQueue.clear();                                     // Empty the current instruction queue read by the IE stage
+    this.currentInstructionQueue.add(this.instructionTable.allocateNop()); // Insert a NOP operation to the current instruction queue read by the IE stage
     this.currentMemoryFetchLoc = GlobalConstants.DEFAULT_MEM_FETCH_LOC;                                  // Default memory fetch location
     this.currentInstructionBranchPredictionResult = GlobalConstants.DEFAULT_BRANCH_PREDICTION;           // Default branch prediction value 
+    this.instructionIssueBlockedPrevious = false;                                                        // The II stage has been flushed along with its blocked instruction
+    this.stallPipeline = this.isInstructionQueueFull();
   }
 
   /**
@@ -171,6 +227,26 @@ public class ProcessorPipelineContext implements IPipelineContext
     return cpuMemory;
   }
 
+  /**
+   * Method to obtain (a reference) to the decoded instruction cache. Used by the IF and ID stages to avoid decoding the same
+   * instruction over and over again, and by the LSU to invalidate entries when a value is stored to memory.
+   * @return Reference to the decoded instruction cache
+   */
+  public DecodedInstructionCache getDecodedInstructionCache()
+  {
+    return decodedInstructionCache;
+  }
+
+  /**
+   * Method to obtain (a reference) to the in-flight instruction table. The pipeline registers only hold slot indices, all the
+   * instruction fields are read from and written to this table.
+   * @return Reference to the in-flight instruction table
+   */
+  public InstructionTable getInstructionTable()
+  {
+    return instructionTable;
+  }
+
   /**
    * Method to set the next value to to be stored in the instruction register (IR).
    * Used (i.e. value set by) IF stage.
@@ -195,48 +271,138 @@ public class ProcessorPipelineContext implements IPipelineContext
   /**
    * Method to set the next instruction.
    * Used (i.e. value set by) ID stage.
-   * @param _nextInstruction Latest decoded instruction
+   * @param _nextInstruction Slot index (in the instruction table) of the latest decoded instruction
    */
-  public void setNextInstruction(Instruction _nextInstruction)
+  public void setNextInstruction(int _nextInstruction)
   {
     nextInstruction = _nextInstruction;
   }
 
   /**
-   * Method to obtain (a reference) to the current instruction object.
+   * Method to obtain the current instruction.
    * Used (i.e. value read by) II stage.
-   * @return Reference to the current instruction object
+   * @return Slot index (in the instruction table) of the current instruction
    */
-  public Instruction getCurrentInstruction()
+  public int getCurrentInstruction()
   {
     return currentInstruction;
   }
 
+  /**
+   * Method to check if the instruction queue is full, in which case the II stage needs to hold on to its instructions.
+   * Used (i.e. value read by) II stage
+   * @return True if no more instructions can be added to the instruction queue in the current cycle
+   */
+  public boolean isInstructionQueueFull()
+  {
+    return (currentInstructionQueue.size() + nextInstructionQueue.size()) >= nextInstructionQueue.getCapacity();
+  }
+
+  /**
+   * Method to check if the front-end (IF, ID and II stages) is stalled in the current cycle. The front-end is stalled when the II stage can't
+   * issue its instruction because the instruction queue is full, in which case the IF stage holds the PC, the ID stage holds the fetched
+   * instruction and the II stage holds the decoded instruction until the IE stage has made room in the queue.
+   * Used (i.e. value read by) IF, ID and II stages
+   * @return True if the front-end is stalled
+   */
+  public boolean getStallPipeline()
+  {
+    return stallPipeline;
+  }
+
   /**
    * Method to set/add the next instruction to the instruction queue
    * Used (i.e value set by) II stage
-   * @param nextInstruction Instruction to be added to the instruction queue
+   * @param  nextInstruction Slot index (in the instruction table) of the instruction to be added to the instruction queue
+   * @return                 True if the instruction was added, false if the instruction queue is full (The II stage then needs to retry in a later cycle)
    */
-  public void setNextInstructionToInstructionQueue(Instruction nextInstruction)
-  {     
-    nextInstructionQueue.add(nextInstruction);
+  public boolean setNextInstructionToInstructionQueue(int nextInstruction)
+  {
+    if (this.isInstructionQueueFull())
+    {
+      instructionQueueFullCycles++;
+      instructionIssueBlocked = true;
+      return false;
+    }
+    return nextInstructionQueue.add(nextInstruction);
   }
 
   /**
    * Method to obtain the current instruction from the instruction queue
    * Used (i.e. value read by) IE stage
-   * @return Current instruction (from the instruction queue) to be executed
+   * @return Slot index (in the instruction table) of the current instruction (from the instruction queue) to be executed. If the instruction
+   *         queue is empty a NOP is returned (i.e. a bubble is executed).
    */
-  public Instruction getCurrentInstructionFromInstructionQueue()
+  public int getCurrentInstructionFromInstructionQueue()
   {
-    if (currentInstructionQueue.size() != 0)        // Check made to see if the instruction queue is not empty
+    if (!currentInstructionQueue.isEmpty())         // Check made to see if the instruction queue is not empty
     {
       return currentInstructionQueue.remove();      // Remove the head element from the instruction queue for it to be executed by the IE stage
     }
-    else            // If the instruction queue is empty throw a NullPointerException exception with a custom message 
+    else            // If the instruction queue is empty the IE stage executes a bubble
+    {
+      instructionQueueEmptyCycles++;
+      return instructionTable.allocateNop();
+    }
+  }
+
+  /**
+   * Method to check if the IE stage is about to execute a bubble because the II stage couldn't issue in the previous cycle (i.e. a structural
+   * stall caused by a full instruction queue). Needs to be called by the IE stage before it removes the current instruction from the queue.
+   * @return True if the instruction queue is empty and the II stage was blocked by a full instruction queue in the previous cycle
+   */
+  public boolean isStructuralStall()
+  {
+    return currentInstructionQueue.isEmpty() && instructionIssueBlockedPrevious;
+  }
+
+  /**
+   * Method to obtain the number of cycles for which the instruction queue occupancy has been sampled
+   * @return Number of sampled cycles
+   */
+  public long getInstructionQueueCyclesSampled()
+  {
+    return instructionQueueCyclesSampled;
+  }
+
+  /**
+   * Method to obtain the average number of instructions waiting in the instruction queue per cycle
+   * @return Average instruction queue occupancy
+   */
+  public double getInstructionQueueAverageOccupancy()
+  {
+    if (instructionQueueCyclesSampled == 0)
     {
-      throw new NullPointerException("Fatal error! Instruction queue is empty, hence, there is no instruction in the insruction queue to be read and executed by the IE stage for the current cycle!");
+      return 0.0;
     }
+    return (double) instructionQueueOccupancySum / (double) instructionQueueCyclesSampled;
+  }
+
+  /**
+   * Method to obtain the maximum number of instructions that were waiting in the instruction queue
+   * @return Maximum instruction queue occupancy
+   */
+  public int getInstructionQueueMaxOccupancy()
+  {
+    return instructionQueueMaxOccupancy;
+  }
+
+  /**
+   * Method to obtain the number of cycles in which the II stage couldn't issue an instruction because the instruction queue was full
+   * @return Number of cycles the instruction queue was full
+   */
+  public long getInstructionQueueFullCycles()
+  {
+    return instructionQueueFullCycles;
+  }
+
+  /**
+   * Method to obtain the number of cycles in which the IE stage found the instruction queue empty (and executed a bubble)
+   * @return Number of cycles the instruction queue was empty
+   */
+  public long getInstructionQueueEmptyCycles()
+  {
+    return instructionQueueEmptyCycles;
   }
 
   /**
@@ -327,7 +493,7 @@ public class ProcessorPipelineContext implements IPipelineContext
    * Method to obtain a reference to the processor's branch prediction (BP) unit. This method is used by the IF stage
    * @return Reference to the processor's branch prediction (BP) unit
    */
-  public BranchPredictor getBranchPredictor()
+  public IBranchPredictor getBranchPredictor()
   {
     return branchPredictor;
   }
@@ -374,18 +540,18 @@ public class ProcessorPipelineContext implements IPipelineContext
   /**
    * Method to set the next instruction to be used by the instruction writeback (WB) stage.
    * Set by the IE stage.
-   * @param _nextInstructionWriteBack Lastest executed instruction
+   * @param _nextInstructionWriteBack Slot index (in the instruction table) of the lastest executed instruction
    */
-  public void setNextInstructionWriteBack(Instruction _nextInstructionWriteBack)
+  public void setNextInstructionWriteBack(int _nextInstructionWriteBack)
   {
     nextInstructionWriteBack = _nextInstructionWriteBack;
   }
 
   /**
    * Method to obtain the instruction to be used by the instruction writeback (WB) stage
-   * @return Instruction to be used to write back values to registers for the current cycle
+   * @return Slot index (in the instruction table) of the instruction to be used to write back values to registers for the current cycle
    */
-  public Instruction getCurrentInstructionWriteBack()
+  public int getCurrentInstructionWriteBack()
   {
     return currentInstructionWriteBack;
   }
@@ -2,8 +2,10 @@
  * @file ProcessorPipelineStatus.java
  * @author Ashish Tibrewal
  * @date 02.11.2015
- * @details This file contains the ProcessorPipelineStatus class. It is used to display the state of the processor pipeline 
+ * @details This file contains the ProcessorPipelineStatus class. It is used to display the state of the processor pipeline
  * at the end of each cycle. This stage can be helpful during the debugging process.
+ * The state of the pipeline is captured as raw integer fields into the PipelineTrace ring by the simulator thread and is only
+ * rendered (i.e. converted to text) later on by the trace writer thread.
  */
 
 // Import packages
@@ -11,15 +13,61 @@
 import pipeline.*;
 
 // Pre-defined Java packages
+import java.io.*;
 import java.util.*;
 import java.lang.*;
 
 /**
- * This class implements the Instruction Execute (IE) stage of the processor.
+ * This class records and renders the state of the processor pipeline.
  */
 
-public class ProcessorPipelineStatus
+public class ProcessorPipelineStatus implements ITraceFormatter
 {
+  // Record types
+  public static final int RECORD_CYCLE = 1;         /** Record holding the state of the pipeline at the end of a cycle */
+  public static final int RECORD_FLUSH = 2;         /** Record stating that the pipeline was flushed */
+
+  // Record fields (Field 0 holds the record type, see PipelineTrace.FIELD_RECORD_TYPE)
+  private static final int F_CYCLE_LOW = 1;          // The clock cycle is a long, held in two integer fields (Shared by both record types)
+  private static final int F_CYCLE_HIGH = 2;
+  private static final int F_IF_PC = 3;
+  private static final int F_IF_INSTRUCTION = 4;
+  private static final int F_IF_BRANCH_INSTRUCTION = 5;
+  private static final int F_IF_BRANCH_PREDICTION = 6;
+  private static final int F_PC = 7;
+  private static final int F_BRANCH_TAKEN = 8;
+  private static final int F_ID_INSTRUCTION = 9;
+  private static final int F_ID_OPCODE = 10;
+  private static final int F_ID_SR1 = 11;
+  private static final int F_ID_SR2 = 12;
+  private static final int F_ID_DR = 13;
+  private static final int F_ID_IMMEDIATE = 14;
+  private static final int F_II_INSTRUCTION = 15;
+  private static final int F_II_OPCODE = 16;
+  private static final int F_II_SR1 = 17;
+  private static final int F_II_SR1_VAL = 18;
+  private static final int F_II_SR2 = 19;
+  private static final int F_II_SR2_VAL = 20;
+  private static final int F_II_DR = 21;
+  private static final int F_II_IMMEDIATE = 22;
+  private static final int F_II_DEPENDENCY = 23;
+  private static final int F_IE_INSTRUCTION = 24;
+  private static final int F_IE_OPCODE = 25;
+  private static final int F_IE_SR1 = 26;
+  private static final int F_IE_SR1_VAL = 27;
+  private static final int F_IE_SR2 = 28;
+  private static final int F_IE_SR2_VAL = 29;
+  private static final int F_IE_EXECUTION_UNIT = 30;
+  private static final int F_IE_PREDICTION_CORRECT = 31;
+  private static final int F_WB_INSTRUCTION = 32;
+  private static final int F_WB_OPCODE = 33;
+  private static final int F_WB_DR = 34;
+  private static final int F_WB_VALUE = 35;
+  private static final int F_FLUSH_BRANCH_TARGET = 3;     // Flush records only hold the cycle, the branch target and the level they were recorded at
+  private static final int F_FLUSH_SUMMARY = 4;
+
+  private static final ExecutionUnit[] executionUnits = ExecutionUnit.values();     /** Used to convert the recorded ordinal back to an execution unit */
+
   private ProcessorPipelineContext pContext;    /** Reference to the processor pipeline context */
   private InstructionFetchStage instructionFetchStage;          /** Reference to the Instruction Fetch Stage of the pipeline. Useful if something is required from this stage by other stages. */
   private InstructionDecodeStage instructionDecodeStage;        /** Reference to the Instruction Decode Stage of the pipeline. Useful if something is required from this stage by other stages. */
@@ -27,24 +75,147 @@ public class ProcessorPipelineStatus
   private InstructionExecuteStage instructionExecuteStage;      /** Reference to the Instruction Execute Stage of the pipeline. Useful if something is required from this stage by other stages. */
   private InstructionWritebackStage instructionWritebackStage;  /** Reference to the Instruction Writeback Stage of the pipeline. Useful if something is required from this stage by other stages. */
   private Register cpuRegisters;                                /** Reference to the primary architectural cpu registers object */
-  //private Memory cpuMemory;                                     /** Reference to the main memory */
+  private InstructionTable instructionTable;                    /** Reference to the in-flight instruction table */
 
-  public void print(IPipelineContext context)
+  /**
+   * Method to record the state of the pipeline at the end of the current cycle. Only copies raw values into the trace ring, the
+   * record is rendered by the trace writer thread.
+   * @param context Processor pipeline context
+   * @param trace   Pipeline trace the record is written to
+   */
+  public void record(IPipelineContext context, PipelineTrace trace)
   {
     pContext = (ProcessorPipelineContext) context;             // Explicitly cast context to ProcessorPipelineContext type
-    instructionFetchStage = (InstructionFetchStage) pContext.getIF_Stage();       // Explicitly cast to InstructionFetchStage type of be able to call its methods
-    instructionDecodeStage = (InstructionDecodeStage) pContext.getID_Stage();     // Explicitly cast to InstructionDecodeStage type of be able to call its methods
-    instructionIssueStage = (InstructionIssueStage) pContext.getII_Stage();       // Explicitly cast to InstructionIssueStage type of be able to call its methods
-    instructionExecuteStage = (InstructionExecuteStage) pContext.getIE_Stage();   // Explicitly cast to InstructionExecuteStage type of be able to call its methods
-    instructionWritebackStage = (InstructionWritebackStage) pContext.getWB_Stage();   // Explicitly cast to InstructionWritebackStage type of be able to call its methods
-    cpuRegisters = pContext.getCpuRegisters();
-    //cpuMemory = pContext.getCpuMemory();
-    
+    if (trace.isCycleEnabled())
+    {
+      instructionFetchStage = (InstructionFetchStage) pContext.getIF_Stage();       // Explicitly cast to InstructionFetchStage type of be able to call its methods
+      instructionDecodeStage = (InstructionDecodeStage) pContext.getID_Stage();     // Explicitly cast to InstructionDecodeStage type of be able to call its methods
+      instructionIssueStage = (InstructionIssueStage) pContext.getII_Stage();       // Explicitly cast to InstructionIssueStage type of be able to call its methods
+      instructionExecuteStage = (InstructionExecuteStage) pContext.getIE_Stage();   // Explicitly cast to InstructionExecuteStage type of be able to call its methods
+      instructionWritebackStage = (InstructionWritebackStage) pContext.getWB_Stage();   // Explicitly cast to InstructionWritebackStage type of be able to call its methods
+      cpuRegisters = pContext.getCpuRegisters();
+      instructionTable = pContext.getInstructionTable();
+      int issueSlot = instructionIssueStage.getCurrentInstruction();
+      int executeSlot = instructionExecuteStage.getCurrentInstruction();
+      int writebackSlot = instructionWritebackStage.getCurrentInstruction();
+
+      int[] r = trace.getRecords();
+      int o = trace.claim(RECORD_CYCLE);
+      putCycle(r, o, cpuRegisters.readClockCounter() - 1);       // Subtracting 1 because the clock counter value has already been incremented in this cycle before its being recorded here
+      r[o + F_IF_PC] = instructionFetchStage.getCurrentPC();
+      r[o + F_IF_INSTRUCTION] = instructionFetchStage.getCurrentInstructionRead();
+      r[o + F_IF_BRANCH_INSTRUCTION] = instructionFetchStage.getBranchInstruction() ? 1 : 0;
+      r[o + F_IF_BRANCH_PREDICTION] = instructionFetchStage.getBranchPredictorResult() ? 1 : 0;
+      r[o + F_PC] = cpuRegisters.readPC();
+      r[o + F_BRANCH_TAKEN] = pContext.getBranchTakenOld() ? 1 : 0;
+      r[o + F_ID_INSTRUCTION] = instructionDecodeStage.getCurrentInstruction();
+      r[o + F_ID_OPCODE] = instructionDecodeStage.getCurrentOpCode();
+      r[o + F_ID_SR1] = instructionDecodeStage.getCurrentSourceReg1();
+      r[o + F_ID_SR2] = instructionDecodeStage.getCurrentSourceReg2();
+      r[o + F_ID_DR] = instructionDecodeStage.getCurrentDestinationReg();
+      r[o + F_ID_IMMEDIATE] = instructionDecodeStage.getCurrentSignedImmediate();
+      r[o + F_II_INSTRUCTION] = instructionTable.getInstructionVal(issueSlot);
+      r[o + F_II_OPCODE] = instructionTable.getOpCode(issueSlot);
+      r[o + F_II_SR1] = instructionTable.getSourceReg1Loc(issueSlot);
+      r[o + F_II_SR1_VAL] = instructionTable.getSourceReg1Val(issueSlot);
+      r[o + F_II_SR2] = instructionTable.getSourceReg2Loc(issueSlot);
+      r[o + F_II_SR2_VAL] = instructionTable.getSourceReg2Val(issueSlot);
+      r[o + F_II_DR] = instructionTable.getDestinationRegLoc(issueSlot);
+      r[o + F_II_IMMEDIATE] = instructionTable.getSignedImmediateVal(issueSlot);
+      r[o + F_II_DEPENDENCY] = instructionTable.getDependencyFlag(issueSlot) ? 1 : 0;
+      r[o + F_IE_INSTRUCTION] = instructionTable.getInstructionVal(executeSlot);
+      r[o + F_IE_OPCODE] = instructionTable.getOpCode(executeSlot);
+      r[o + F_IE_SR1] = instructionTable.getSourceReg1Loc(executeSlot);
+      r[o + F_IE_SR1_VAL] = instructionTable.getSourceReg1Val(executeSlot);
+      r[o + F_IE_SR2] = instructionTable.getSourceReg2Loc(executeSlot);
+      r[o + F_IE_SR2_VAL] = instructionTable.getSourceReg2Val(executeSlot);
+      r[o + F_IE_EXECUTION_UNIT] = instructionTable.getExecutionUnit(executeSlot).ordinal();
+      r[o + F_IE_PREDICTION_CORRECT] = pContext.getCorrectBranchPrediction() ? 1 : 0;
+      r[o + F_WB_INSTRUCTION] = instructionTable.getInstructionVal(writebackSlot);
+      r[o + F_WB_OPCODE] = instructionTable.getOpCode(writebackSlot);
+      r[o + F_WB_DR] = instructionTable.getDestinationRegLoc(writebackSlot);
+      r[o + F_WB_VALUE] = instructionTable.getWritebackVal(writebackSlot);
+      trace.publish();
+    }
+    pContext.setBranchTakenOld(true);       // Set the old branch taken boolean value to its default value, i.e. set it to false
+  }
+
+  /**
+   * Method to record that the pipeline is being flushed because a branch was mispredicted
+   * @param context Processor pipeline context
+   * @param trace   Pipeline trace the record is written to
+   */
+  public void recordFlush(IPipelineContext context, PipelineTrace trace)
+  {
+    if (trace.isSummaryEnabled())
+    {
+      ProcessorPipelineContext pContext = (ProcessorPipelineContext) context;
+      int[] r = trace.getRecords();
+      int o = trace.claim(RECORD_FLUSH);
+      putCycle(r, o, pContext.getCpuRegisters().readClockCounter() - 1);
+      r[o + F_FLUSH_BRANCH_TARGET] = pContext.getBranchTarget();
+      r[o + F_FLUSH_SUMMARY] = trace.isCycleEnabled() ? 0 : 1;
+      trace.publish();
+    }
+  }
+
+  /**
+   * Method to store the clock cycle of a record
+   * @param r     Array holding the raw trace records
+   * @param o     Offset (in the records array) of the first field of the record
+   * @param cycle Clock cycle
+   */
+  private static void putCycle(int[] r, int o, long cycle)
+  {
+    r[o + F_CYCLE_LOW] = (int) cycle;
+    r[o + F_CYCLE_HIGH] = (int) (cycle >>> 32);
+  }
+
+  /**
+   * Method to obtain the clock cycle of a record
+   * @param  r Array holding the raw trace records
+   * @param  o Offset (in the records array) of the first field of the record
+   * @return   Clock cycle
+   */
+  private static long getCycle(int[] r, int o)
+  {
+    return ((long) r[o + F_CYCLE_HIGH] << 32) | (r[o + F_CYCLE_LOW] & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Method to render a record. Called by the trace writer thread.
+   * @param records Array holding the raw trace records
+   * @param o       Offset (in the records array) of the first field of the record to be rendered
+   * @param out     Stream to which the rendered record needs to be written
+   */
+  public void format(int[] records, int o, PrintStream out)
+  {
+    switch (records[o + PipelineTrace.FIELD_RECORD_TYPE])
+    {
+      case RECORD_CYCLE:
+        this.formatCycle(records, o, out);
+        break;
+
+      case RECORD_FLUSH:
+        this.formatFlush(records, o, out);
+        break;
+
+      default:
+        System.err.println("Fatal error! Unknown trace record type!");
+        break;
+    }
+  }
+
+  /**
+   * Method to render the state of the pipeline at the end of a cycle
+   */
+  private void formatCycle(int[] r, int o, PrintStream out)
+  {
     String bpResult = "N/A";        // String to print the branch prediction's prediction from the IF stage
-    int opCode = (instructionFetchStage.getCurrentInstructionRead() >> (Isa.INSTRUCTION_LENGTH - Isa.OPCODE_LENGTH)) & (int)(Math.pow(2, Isa.OPCODE_LENGTH) - 1);     // Extract instruction OpCode (Logical AND with 31 since its 11111 in binary and opcode length is )
+    int opCode = InstructionDecoder.opCode(r[o + F_IF_INSTRUCTION]);     // Extract instruction OpCode
     if (opCode == Isa.BU  || opCode == Isa.BL  || opCode == Isa.RET || opCode == Isa.BEQ || opCode == Isa.BNE || opCode == Isa.BLT || opCode == Isa.BGT)
     {
-      if (instructionFetchStage.getBranchPredictorResult() == true)
+      if (r[o + F_IF_BRANCH_PREDICTION] == 1)
       {
         bpResult = "Taken";
       }
@@ -53,55 +224,51 @@ public class ProcessorPipelineStatus
         bpResult = "Not taken";
       }
     }
-    else
-    {
-      bpResult = "N/A";
-    }
 
-    String predictionCorrect = "N/A";   // String to print the prediction result evluated from the IE stage 
-    if (instructionExecuteStage.getCurrentInstruction().getOpCode() == Isa.BU  || instructionExecuteStage.getCurrentInstruction().getOpCode() == Isa.BL  || 
-        instructionExecuteStage.getCurrentInstruction().getOpCode() == Isa.RET || instructionExecuteStage.getCurrentInstruction().getOpCode() == Isa.BEQ || 
-        instructionExecuteStage.getCurrentInstruction().getOpCode() == Isa.BNE || instructionExecuteStage.getCurrentInstruction().getOpCode() == Isa.BLT || 
-        instructionExecuteStage.getCurrentInstruction().getOpCode() == Isa.BGT)
+    String predictionCorrect = "N/A";   // String to print the prediction result evluated from the IE stage
+    int executeOpCode = r[o + F_IE_OPCODE];
+    if (executeOpCode == Isa.BU  || executeOpCode == Isa.BL  || executeOpCode == Isa.RET || executeOpCode == Isa.BEQ ||
+        executeOpCode == Isa.BNE || executeOpCode == Isa.BLT || executeOpCode == Isa.BGT)
     {
-      if (pContext.getCorrectBranchPrediction() == true)
+      if (r[o + F_IE_PREDICTION_CORRECT] == 1)
       {
         predictionCorrect = "Correct";
       }
       else
       {
-        predictionCorrect = "Incorrect"; 
+        predictionCorrect = "Incorrect";
       }
     }
-    else
-    {
-      predictionCorrect = "N/A";
-    }
 
-    System.out.println("Clock Cycle: " + (cpuRegisters.readClockCounter() - 1));  // Subtracting 1 because the clock counter value has already been incremented in this cycle before its being printed here
-    System.out.println(">>> Current state of the process pipeline (At the end of the current cycle) <<<");
-    System.out.println("+-+-------------------------------+-+---------------------------------+-+--------------------------------+-+-----------------------------+-+-----------------------------+-+");
-    System.out.println("|+|           IF Stage            |+|           ID Stage              |+|            II Stage            |+|          IE Stage           |+|          WB Stage           |+|");
-    System.out.println("|+|--------------------------------------------------------------------------------------------------------------------------------------|+|-----------------------------|+|");
-    System.out.format ("|+| PC: %04d                      |+| PC: N/A                         |+| PC: N/A                        |+| PC: %04d (Branch: %5s)    |+| PC: N/A                     |+|%n", instructionFetchStage.getCurrentPC(), cpuRegisters.readPC(), pContext.getBranchTakenOld());
-    System.out.format ("|+| Instruction: 0x%08x       |+| Instruction: 0x%08x         |+| Instruction (Head): 0x%08x |+| Instruction: 0x%08x     |+| Instruction: 0x%08x     |+|%n", instructionFetchStage.getCurrentInstructionRead(), instructionDecodeStage.getCurrentInstruction(), instructionIssueStage.getCurrentInstruction().getInstructionVal(), instructionExecuteStage.getCurrentInstruction().getInstructionVal(), instructionWritebackStage.getCurrentInstruction().getInstructionVal());
-    System.out.format ("|+| Branch Instruction: %5s     |+| Mnemonic   : %4s (%3s)         |+| Mnemonic  : %4s (%3s)         |+| Mnemonic: %4s (%3s)        |+| Mnemonic   : %4s           |+|%n", instructionFetchStage.getBranchInstruction(), instructionDecodeStage.getCurrentInstructionMnemonic(), instructionDecodeStage.getCurrentInstructionType(), instructionIssueStage.getCurrentInstruction().getInstructionMnemonic(), instructionIssueStage.getCurrentInstruction().getInstructionType(), instructionExecuteStage.getCurrentInstruction().getInstructionMnemonic(), instructionExecuteStage.getCurrentInstruction().getInstructionType(), instructionWritebackStage.getCurrentInstruction().getInstructionMnemonic());
-    System.out.format ("|+| Branch predictor  : %9s |+| SR1        : R%02d                |+| SR1 (Val) : R%02d (%08d)     |+| SR1 (Val) : R%02d (%08d)  |+| DR         : R%02d            |+|%n", bpResult, instructionDecodeStage.getCurrentSourceReg1(), instructionIssueStage.getCurrentInstruction().getSourceReg1Loc(), instructionIssueStage.getCurrentInstruction().getSourceReg1Val(), instructionExecuteStage.getCurrentInstruction().getSourceReg1Loc(), instructionExecuteStage.getCurrentInstruction().getSourceReg1Val(), instructionWritebackStage.getCurrentInstruction().getDestinationRegLoc());
-    System.out.format ("|+| PC/Branch target  : %04d      |+| SR2        : R%02d                |+| SR2 (Val) : R%02d (%08d)     |+| SR2 (Val) : R%02d (%08d)  |+| Value      : %08d       |+|%n", cpuRegisters.readPC(), instructionDecodeStage.getCurrentSourceReg2(), instructionIssueStage.getCurrentInstruction().getSourceReg2Loc(), instructionIssueStage.getCurrentInstruction().getSourceReg2Val(), instructionExecuteStage.getCurrentInstruction().getSourceReg2Loc(), instructionExecuteStage.getCurrentInstruction().getSourceReg2Val(), instructionWritebackStage.getCurrentInstruction().getWritebackVal());
-    System.out.format ("|+|                               |+| DR         : R%02d                |+| DR        : R%02d                |+| Execution Unit: %3s         |+|                             |+|%n", instructionDecodeStage.getCurrentDestinationReg(), instructionIssueStage.getCurrentInstruction().getDestinationRegLoc(), instructionExecuteStage.getCurrentInstruction().getExecutionUnit());
-    System.out.format ("|+|                               |+| Immediate  : %08d           |+| Immediate : %08d           |+| Prediction Result: %9s|+|                             |+|%n", instructionDecodeStage.getCurrentSignedImmediate(), instructionIssueStage.getCurrentInstruction().getSignedImmediateVal(), predictionCorrect);
-    System.out.format ("|+|                               |+|                                 |+| Dependency: %5s              |+|                             |+|                             |+|%n", instructionIssueStage.getCurrentInstruction().getDependencyFlag());
-    System.out.println("+-+-------------------------------+-+---------------------------------+-+--------------------------------+-+-----------------------------+-+-----------------------------+-+");
-
-    /*
-    System.out.print("List of istructions (In reverse order when looking at the pipeline) : "); 
-    for (Instruction instruction:pContext.getInstructionQueue())
+    out.println("Clock Cycle: " + getCycle(r, o));
+    out.println(">>> Current state of the process pipeline (At the end of the current cycle) <<<");
+    out.println("+-+-------------------------------+-+---------------------------------+-+--------------------------------+-+-----------------------------+-+-----------------------------+-+");
+    out.println("|+|           IF Stage            |+|           ID Stage              |+|            II Stage            |+|          IE Stage           |+|          WB Stage           |+|");
+    out.println("|+|--------------------------------------------------------------------------------------------------------------------------------------|+|-----------------------------|+|");
+    out.format ("|+| PC: %04d                      |+| PC: N/A                         |+| PC: N/A                        |+| PC: %04d (Branch: %5s)    |+| PC: N/A                     |+|%n", r[o + F_IF_PC], r[o + F_PC], r[o + F_BRANCH_TAKEN] == 1);
+    out.format ("|+| Instruction: 0x%08x       |+| Instruction: 0x%08x         |+| Instruction (Head): 0x%08x |+| Instruction: 0x%08x     |+| Instruction: 0x%08x     |+|%n", r[o + F_IF_INSTRUCTION], r[o + F_ID_INSTRUCTION], r[o + F_II_INSTRUCTION], r[o + F_IE_INSTRUCTION], r[o + F_WB_INSTRUCTION]);
+    out.format ("|+| Branch Instruction: %5s     |+| Mnemonic   : %4s (%3s)         |+| Mnemonic  : %4s (%3s)         |+| Mnemonic: %4s (%3s)        |+| Mnemonic   : %4s           |+|%n", r[o + F_IF_BRANCH_INSTRUCTION] == 1, InstructionDecoder.mnemonic(r[o + F_ID_OPCODE]), InstructionDecoder.typeName(r[o + F_ID_OPCODE]), InstructionDecoder.mnemonic(r[o + F_II_OPCODE]), InstructionDecoder.typeName(r[o + F_II_OPCODE]), InstructionDecoder.mnemonic(executeOpCode), InstructionDecoder.typeName(executeOpCode), InstructionDecoder.mnemonic(r[o + F_WB_OPCODE]));
+    out.format ("|+| Branch predictor  : %9s |+| SR1        : R%02d                |+| SR1 (Val) : R%02d (%08d)     |+| SR1 (Val) : R%02d (%08d)  |+| DR         : R%02d            |+|%n", bpResult, r[o + F_ID_SR1], r[o + F_II_SR1], r[o + F_II_SR1_VAL], r[o + F_IE_SR1], r[o + F_IE_SR1_VAL], r[o + F_WB_DR]);
+    out.format ("|+| PC/Branch target  : %04d      |+| SR2        : R%02d                |+| SR2 (Val) : R%02d (%08d)     |+| SR2 (Val) : R%02d (%08d)  |+| Value      : %08d       |+|%n", r[o + F_PC], r[o + F_ID_SR2], r[o + F_II_SR2], r[o + F_II_SR2_VAL], r[o + F_IE_SR2], r[o + F_IE_SR2_VAL], r[o + F_WB_VALUE]);
+    out.format ("|+|                               |+| DR         : R%02d                |+| DR        : R%02d                |+| Execution Unit: %3s         |+|                             |+|%n", r[o + F_ID_DR], r[o + F_II_DR], executionUnits[r[o + F_IE_EXECUTION_UNIT]]);
+    out.format ("|+|                               |+| Immediate  : %08d           |+| Immediate : %08d           |+| Prediction Result: %9s|+|                             |+|%n", r[o + F_ID_IMMEDIATE], r[o + F_II_IMMEDIATE], predictionCorrect);
+    out.format ("|+|                               |+|                                 |+| Dependency: %5s              |+|                             |+|                             |+|%n", r[o + F_II_DEPENDENCY] == 1);
+    out.println("+-+-------------------------------+-+---------------------------------+-+--------------------------------+-+-----------------------------+-+-----------------------------+-+");
+    out.println();
+  }
+
+  /**
+   * Method to render a pipeline flush
+   */
+  private void formatFlush(int[] r, int o, PrintStream out)
+  {
+    if (r[o + F_FLUSH_SUMMARY] == 1)        // Summary trace - Only a single line per flush
     {
-      System.out.print(instruction.getOpCode() + ", ");
+      out.format("Clock Cycle: %d - Flushing pipeline (Branch was mispredicted), branch target: %04d%n", getCycle(r, o), r[o + F_FLUSH_BRANCH_TARGET]);
+      return;
     }
-    */
-    System.out.println();
-
-    pContext.setBranchTakenOld(true);       // Set the old branch taken boolean value to its default value, i.e. set it to false
+    out.println("+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++");
+    out.println("+ ----->>>> Flushing pipeline (Branch was mispredicted) <<<<----- +");
+    out.println("+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++\n");
   }
-}
\ No newline at end of file
+}
@@ -27,7 +27,6 @@ public class ProcessorSimulator
   public static final boolean verboseMode;                  /** Boolean variable that is set to true for debugging purposes that provides extra information */ 
   private Register cpuRegisters;
   private Memory cpuMemory;
-  private Instruction currentInstruction;
   private final int totalGeneralPurposeRegisters = GlobalConstants.TOTAL_GP_REGISTERS;
   private final int memorySize = GlobalConstants.MEMORY_SIZE;
   private final int pipelineLength = GlobalConstants.PIPELINE_LENGTH;                     /** Processor pipeline length */ // TODO check for the best possible length in the design
@@ -39,8 +38,40 @@ public class ProcessorSimulator
   private IStage instructionExecuteStage;                    /** Reference to the Instruction Execute Stage of the pipeline */
   private IStage instructionWritebackStage;                  /** Reference to the Instruction Writeback Stage of the pipeline */
   private ProcessorPipelineStatus pipelineStatus;            /** Reference to the utility/debug stage in the pipleline/simulator */
-  private static IPipelineContext pipelineContext;           /** Reference to the sequential pipeline context */
-  private BranchPredictor branchPredictor;                   /** Reference to the processor's branch prediction unit */
+  private IPipelineContext pipelineContext;                  /** Reference to the sequential pipeline context */
+  private IBranchPredictor branchPredictor;                  /** Reference to the processor's branch prediction unit */
+  private PipelineTrace pipelineTrace;                       /** Reference to the (asynchronous) pipeline trace */
+  private TraceLevel traceLevel = TraceLevel.CYCLE;          /** Trace level requested on the command line */
+  private String traceFileName;                              /** Name of the file the trace is written to (null = standard output) */
+  private MemoryDumpMode memoryDumpMode = MemoryDumpMode.FULL;       /** Memory dump mode requested on the command line */
+  private String memoryDumpFileName;                         /** Name of the file binary memory dumps are appended to */
+  private String assemblyFile;                               /** Name of the assembly file passed on the command line */
+  private Executable program;                                /** Executable binary loaded into memory (null = assembled from the assembly file during the setup) */
+  private FunctionalInterpreter functionalInterpreter;       /** Reference to the functional interpreter used to fast-forward the simulation */
+  private long fastForwardInstructions;                      /** Number of instructions to execute functionally before starting the pipeline simulation */
+  private boolean blockTranslation;                          /** Boolean variable stating if the fast-forward executes translated basic blocks instead of interpreting one instruction at a time */
+  private boolean blockCompilation;                          /** Boolean variable stating if hot translated basic blocks are compiled to JVM bytecode */
+  private String checkpointSaveFileName;                     /** Name of the file the checkpoint is saved to (null = no checkpoint is saved) */
+  private String checkpointRestoreFileName;                  /** Name of the checkpoint file the simulation is restored from (null = start from the loaded program) */
+  private int checkpointInterval;                            /** Minimum number of cycles between two periodic checkpoints (0 = only save a checkpoint before the pipeline simulation starts) */
+  private long nextCheckpointCycle;                          /** Clock cycle after which the next periodic checkpoint is saved */
+  private boolean pipelineFlushed;                           /** Boolean variable stating if the pipeline was flushed in the last simulated cycle */
+  private String commitTraceFileName;                        /** Name of the file the executed instructions are recorded in (null = not recorded) */
+  private CommitTrace.Writer commitTrace;                    /** Reference to the commit trace writer (null = not recorded) */
+  private String kanataTraceFileName;                        /** Name of the file the Kanata pipeline visualizer log is written to (null = not written) */
+  private int[] kanataLocations = {0, Integer.MAX_VALUE};    /** First and last memory location of the instructions in the Kanata log */
+  private long[] kanataCycles = {0, Long.MAX_VALUE};         /** First and last cycle in which instructions are fetched for the Kanata log */
+  private KanataTrace kanataTrace;                           /** Reference to the Kanata log writer (null = not written) */
+  private PredictorEvaluator predictorEvaluator;             /** Reference to the evaluator the resolved branches are fed to (null = no predictors evaluated) */
+  private Pmu pmu;                                           /** Reference to the PMU holding the event counters of the simulation (Owned by the pipeline context) */
+  private long pmuSnapshotInterval;                          /** Number of cycles between two snapshots of the PMU counters (0 = no periodic snapshots) */
+  private String pmuOutputFileName;                          /** Name of the file the PMU counters are exported to (null = not exported) */
+  private List<String> cpiRegionNames = new ArrayList<String>();     /** Name of every program region the CPI stack is broken down for */
+  private List<int[]> cpiRegionBounds = new ArrayList<int[]>();      /** First and last memory location of every program region the CPI stack is broken down for */
+  private boolean batchMode;                                 /** Boolean variable stating if the simulation is run as a batch job (Nothing is written to the standard output) */
+  private int profileSamplePeriod;                           /** Number of cycles between two cycles sampled by the stage profiler (0 = profiling turned off) */
+  private StageProfiler stageProfiler;                       /** Reference to the host-side stage profiler (null = profiling turned off) */
+  private SimulatorConfig config = new SimulatorConfig();    /** Microarchitectural configuration (Defaults, overridden by --config and --set) */
 
   // Initialize static variables
   static
@@ -63,13 +94,14 @@ public class ProcessorSimulator
   // Class/Instance methods 
   /**
    * Method to set up the simulation (i.e. Create/Instantiate and initialize all the resources required for the simulation)
+   * @throws IOException      If the executable binary file can't be read
+   * @throws ParsingException If the program has to be assembled and the assembly file contains an error
    */
-  private void setup()
+  private void setup() throws IOException, ParsingException
   {
-    // TODO Add functionality to read the binary file and load it to the memory (Using a method to initialize the contents of memory in the Memory class).
     // TODO Add functionality to reset all variables/objects/components/units used in the simulator
     //cpuMemory = new Memory(memorySize);
-    cpuMemory = new Memory();
+    cpuMemory = new Memory(config.getMemorySize(), config.isMemoryOffHeap());
     cpuRegisters = new Register(totalGeneralPurposeRegisters, cpuMemory);
     cpuMemory.setCpuRegistersReference(cpuRegisters);           // Set the reference of the cpuRegisters object in an instance field in the cpuMemory object
 
@@ -80,14 +112,20 @@ public class ProcessorSimulator
     instructionIssueStage = new InstructionIssueStage();          // Instantiate the Instruction Issue (II) stage object        // TODO The instruction issue class needs to implement register re-naming and reservation station, etc.  
     instructionExecuteStage = new InstructionExecuteStage();      // Instantiate the Instruction Execute (IE) stage object      // TODO Note this object should contain one or more execution units (EUs)
     instructionWritebackStage = new InstructionWritebackStage();  // Instantiate the Instruction Writeback (WB) stage objects   // TODO Need to implement a re-order buffer
-    pipelineStatus = new ProcessorPipelineStatus();               // Instantiate the pipelineStatus object. This class provides a function to print the current status of the pipeline.
-    branchPredictor = new BranchPredictor();                      // Instantiate the processor's branch prediction (BP) unit
+    pipelineStatus = new ProcessorPipelineStatus();               // Instantiate the pipelineStatus object. This class provides a function to record and render the current status of the pipeline.
+    pipelineTrace = new PipelineTrace(traceLevel, GlobalConstants.TRACE_RING_RECORDS, pipelineStatus, traceFileName);   // Instantiate the pipeline trace (Nothing is allocated if tracing is turned off)
+    branchPredictor = config.createBranchPredictor();             // Instantiate the processor's branch prediction (BP) unit
     
     processorPipeline.addStage(instructionFetchStage);       // Add the IF stage to the pipeline
     processorPipeline.addStage(instructionDecodeStage);      // Add the ID stage to the pipeline
     processorPipeline.addStage(instructionIssueStage);       // Add the II stage to the pipeline
     processorPipeline.addStage(instructionExecuteStage);     // Add the IE stage to the pipeline
     processorPipeline.addStage(instructionWritebackStage);   // Add the WB stage to the pipeline
+    if (profileSamplePeriod > 0)
+    {
+      stageProfiler = new StageProfiler(profileSamplePeriod);     // Instantiate the host-side stage profiler (Only if requested on the command line)
+      ((SequentialProcessorPipeline) processorPipeline).setProfiler(stageProfiler);
+    }
 
     pipelineContext = new ProcessorPipelineContext(cpuRegisters,
                                                   cpuMemory,
@@ -96,10 +134,55 @@ public class ProcessorSimulator
                                                   instructionIssueStage,
                                                   instructionExecuteStage,
                                                   instructionWritebackStage,
-                                                  branchPredictor);     // Instantiate the sequential pipeline context object. This is used to store data and share references between all stages in the pipeline. It can be thought of as the control unit (CU) of the cpu since it control all the values that are being updated.
+                                                  branchPredictor,
+                                                  config.getInstructionTableCapacity(),
+                                                  config.getInstructionQueueCapacity());     // Instantiate the sequential pipeline context object. This is used to store data and share references between all stages in the pipeline. It can be thought of as the control unit (CU) of the cpu since it control all the values that are being updated.
+
+    if (commitTraceFileName != null)
+    {
+      commitTrace = new CommitTrace.Writer(commitTraceFileName);       // Record every instruction executed by the pipeline (Replayed by the TraceReplayer)
+      ((ProcessorPipelineContext) pipelineContext).setCommitTrace(commitTrace);
+    }
+    ((ProcessorPipelineContext) pipelineContext).setPredictorEvaluator(predictorEvaluator);
+    if (kanataTraceFileName != null)
+    {
+      kanataTrace = new KanataTrace(kanataTraceFileName, kanataLocations[0], kanataLocations[1], kanataCycles[0], kanataCycles[1]);     // Log the stage occupancy of every instruction for a pipeline visualizer
+    }
+    pmu = ((ProcessorPipelineContext) pipelineContext).getPmu();     // The stages registered their events when the context was instantiated
+    pmu.setSnapshotInterval(pmuSnapshotInterval);
+    for (int region = 0; region < cpiRegionNames.size(); region++)
+    {
+      ((ProcessorPipelineContext) pipelineContext).getCpiStack().addRegion(cpiRegionNames.get(region), cpiRegionBounds.get(region)[0], cpiRegionBounds.get(region)[1]);
+    }
 
-    //cpuMemory.initialize();   // Initialize contents of the main memory with the required instructions and data (Generated as an output from the Assembler)
-    cpuMemory.testInitialize(); // Initializing contents of memory with hard-coded test instructions
+    functionalInterpreter = new FunctionalInterpreter(cpuRegisters, cpuMemory, ((ProcessorPipelineContext) pipelineContext).getDecodedInstructionCache());     // Instantiate the functional interpreter (Shares the architectural state and the decoded instruction cache with the pipeline)
+    if (blockCompilation)
+    {
+      functionalInterpreter.enableBlockCompilation(config.getBlockCompileThreshold());     // Fast-forward through translated basic blocks, compiling the hot ones
+    }
+    else if (blockTranslation)
+    {
+      functionalInterpreter.enableBlockTranslation();     // Fast-forward through translated basic blocks
+    }
+
+    if (program == null)
+    {
+      program = new Assembler(assemblyFile).assemble();     // Batch jobs assemble the program in memory (The executable file is shared between all simulations)
+    }
+    if (program.isEmpty())
+    {
+      if (!batchMode)
+      {
+        System.out.println("The assembly file doesn't contain any statements. Running the built-in test program instead.");
+      }
+      cpuMemory.testInitialize(); // Initializing contents of memory with hard-coded test instructions
+    }
+    else
+    {
+      cpuMemory.load(program);          // Initialize contents of the main memory with the required instructions and data (Generated as an output from the Assembler)
+      cpuRegisters.writePC(program.getEntryPoint());    // Start executing at the entry point of the program
+      cpuRegisters.updatePC(true);
+    }
   } 
 
   /**
@@ -107,40 +190,545 @@ public class ProcessorSimulator
    */
   private void step()
   {
-    Register.incrementClockCounter();               // Increment the clock counter on every cycle run
+    cpuRegisters.incrementClockCounter();           // Increment the clock counter on every cycle run
     processorPipeline.execute(pipelineContext);     // Execute/run the pipeline for the current cycle
-    pipelineStatus.print(pipelineContext);          // Execute the utility stage to print the current status of the pipeline (Executing it separately/manually since it's not been added to the actual pipeline)
+    if (stageProfiler != null && stageProfiler.isSampledCycle())
+    {
+      long startTime = System.nanoTime();
+      pipelineStatus.record(pipelineContext, pipelineTrace);  // Time the status printer along with the pipeline stages
+      stageProfiler.record(StageProfiler.STAGE_STATUS, System.nanoTime() - startTime);
+    }
+    else
+    {
+      pipelineStatus.record(pipelineContext, pipelineTrace);    // Execute the utility stage to record the current status of the pipeline (Executing it separately/manually since it's not been added to the actual pipeline)
+    }
+    if (kanataTrace != null)
+    {
+      kanataTrace.recordCycle(pipelineContext);     // Record the stages occupied by every instruction in the Kanata log
+    }
     if (!((ProcessorPipelineContext) pipelineContext).getCorrectBranchPrediction())  // If the branch predictor mispredicted
     {
-      System.out.println("+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++");
-      System.out.println("+ ----->>>> Flushing pipeline (Branch was mispredicted) <<<<----- +");
-      System.out.println("+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++\n");
+      pipelineStatus.recordFlush(pipelineContext, pipelineTrace);     // Record the pipeline flush in the trace
+      if (kanataTrace != null)
+      {
+        kanataTrace.recordFlush(pipelineContext);
+      }
       ((SequentialProcessorPipeline) processorPipeline).flush(pipelineContext);     // Flush the pipeline (i.e. flush each stage in the pipeline)
       ((ProcessorPipelineContext) pipelineContext).setCorrectBranchPrediction(GlobalConstants.CORRECT_BRANCH_PREDICTION_RESULT);     // Revert the variable back to it's default value after the pipeline has been flushed
+      pipelineFlushed = true;
+    }
+    else
+    {
+      pipelineFlushed = false;
     }
     ((InstructionFetchStage) ((ProcessorPipelineContext) pipelineContext).getIF_Stage()).resetBranchPredictorResult();     // Reset the branch predictor result in the IF stage back to its default value at the end of every cycle
     // this.dumpState();                             // Dump the state of the cpu every cycle
   }
 
+  /**
+   * Method to restore the simulator state from the checkpoint file requested on the command line (If any)
+   * @throws IOException If the checkpoint can't be restored
+   */
+  private void restoreCheckpoint() throws IOException
+  {
+    if (checkpointRestoreFileName != null)
+    {
+      functionalInterpreter.setInstructionsExecuted(Checkpoint.restore(checkpointRestoreFileName, cpuRegisters, cpuMemory, branchPredictor, pmu));
+      if (cpuRegisters.readClockCounter() > 0)
+      {
+        ((ProcessorPipelineContext) pipelineContext).getCpiStack().setBubbleCause(CpiStack.BRANCH_MISPREDICTION);     // Periodic checkpoints are only saved right after a flush, hence, the pipeline refills from a misprediction
+      }
+      if (!batchMode)
+      {
+        System.out.println("Restored checkpoint " + checkpointRestoreFileName + " (Clock cycle = " + cpuRegisters.readClockCounter() + ", PC = " + cpuRegisters.readPC() + ")\n");
+      }
+    }
+  }
+
+  /**
+   * Method to save the simulator state to the checkpoint file requested on the command line (If any)
+   * @throws IOException If the checkpoint can't be saved
+   */
+  private void saveCheckpoint() throws IOException
+  {
+    if (checkpointSaveFileName != null)
+    {
+      Checkpoint.save(checkpointSaveFileName, cpuRegisters, cpuMemory, branchPredictor, pmu, functionalInterpreter.getInstructionsExecuted());
+      nextCheckpointCycle = cpuRegisters.readClockCounter() + checkpointInterval;
+    }
+  }
+
+  /**
+   * Method to save a periodic checkpoint. A checkpoint can only be saved when none of the instructions in the pipeline have an effect on
+   * the architectural state, hence, it is saved right after the first pipeline flush once the checkpoint interval has elapsed.
+   * @throws IOException If the checkpoint can't be saved
+   */
+  private void saveCheckpointIfDue() throws IOException
+  {
+    if (checkpointInterval > 0 && pipelineFlushed && cpuRegisters.readClockCounter() >= nextCheckpointCycle)
+    {
+      this.saveCheckpoint();
+    }
+  }
+
+  /**
+   * Method to run the first instructions of the program functionally (i.e. without simulating the pipeline). The pipeline then starts
+   * from the resulting architectural state with empty latches.
+   */
+  private void fastForward()
+  {
+    if (fastForwardInstructions > 0)
+    {
+      long executed = functionalInterpreter.run(fastForwardInstructions);
+      if (!batchMode)
+      {
+        System.out.println("Fast-forwarded " + executed + " instructions functionally. Starting pipeline simulation at PC = " + cpuRegisters.readPC() + "\n");
+      }
+    }
+  }
+
+  /**
+   * Method to check if the program being simulated has made the supervisor call to halt
+   * @return True if the simulation has finished
+   */
+  private boolean isHalted()
+  {
+    return (cpuRegisters.readGP(GlobalConstants.SVC_REGISTER) == GlobalConstants.SVC_SUSPEND);
+  }
+
+  /**
+   * Method to run the simulation from the initial state until the program halts (Including restoring/saving checkpoints and fast-forwarding)
+   * @throws IOException If a checkpoint can't be restored or saved
+   */
+  private void simulate() throws IOException
+  {
+    try
+    {
+      this.restoreCheckpoint();        // Restore the simulator state from a checkpoint
+      this.fastForward();              // Run the requested number of instructions functionally
+      this.saveCheckpoint();           // Save the state the pipeline simulation starts from
+      pipelineTrace.start();           // Start the trace writer thread
+      //for(int numCycles = 0; numCycles < GlobalConstants.NUM_ITERATIONS; numCycles++)
+      while (!this.isHalted())
+      {
+        this.step();                   // Step/Run the cpu simulator by one clock cycle
+        pmu.snapshotIfDue(cpuRegisters.readClockCounter());     // Take a periodic snapshot of the PMU counters
+        this.saveCheckpointIfDue();    // Save a periodic checkpoint
+        // TODO Add code to print state of every stage for current cycle
+        //this.dumpState();            // Dump the state of the cpu every cycle
+      }
+    }
+    finally
+    {
+      this.closeTrace();               // Wait for the trace to be written out before printing anything else
+      if (commitTrace != null)
+      {
+        commitTrace.close();           // Write out the remaining records of the commit trace
+      }
+      if (kanataTrace != null)
+      {
+        kanataTrace.close();           // Write out the buffered part of the Kanata log
+      }
+    }
+    if (pmuOutputFileName != null)
+    {
+      pmu.export(pmuOutputFileName, cpuRegisters.readClockCounter());     // Export the final counters along with the periodic snapshots
+    }
+  }
+
+  /**
+   * Method to run a complete simulation as a batch job. Nothing is written to the standard output: The program is assembled in memory
+   * (The assembler's output file is shared between all simulations) and the trace is turned off unless it is written to a file.
+   * @param  args             Command-line style arguments of the job (Same options as the simulator itself)
+   * @return                  Results of the simulation
+   * @throws IOException      If the assembly file, the trace file or a checkpoint can't be read/written
+   * @throws ParsingException If the assembly file contains an error
+   */
+  public SimulationResult runBatchJob(String[] args) throws IOException, ParsingException
+  {
+    if (!this.parseArguments(args))
+    {
+      throw new IllegalArgumentException("Invalid job arguments: " + String.join(" ", args));
+    }
+    batchMode = true;
+    if (traceFileName == null)
+    {
+      traceLevel = TraceLevel.OFF;
+    }
+    this.setup();
+    this.simulate();
+    return this.getResult();
+  }
+
+  /**
+   * Method to feed every branch resolved by the simulation to a predictor evaluator. Needs to be called before the simulation is set up.
+   * @param predictorEvaluator Predictor evaluator (null = no predictors evaluated)
+   */
+  public void setPredictorEvaluator(PredictorEvaluator predictorEvaluator)
+  {
+    this.predictorEvaluator = predictorEvaluator;
+  }
+
+  /**
+   * Method to obtain the results of the simulation
+   * @return Snapshot of the performance counters
+   */
+  public SimulationResult getResult()
+  {
+    return new SimulationResult(cpuRegisters.readClockCounter(), pmu, functionalInterpreter.getInstructionsExecuted());
+  }
+
+  /**
+   * Method to wait for the trace writer thread to write out all the recorded cycles. Needs to be called before anything else is
+   * printed to the standard output once the simulation has started.
+   */
+  private void closeTrace()
+  {
+    if (pipelineTrace != null)
+    {
+      pipelineTrace.close();
+    }
+  }
+
+  /**
+   * Method to parse the command-line arguments passed to the simulator
+   * @param  args Command-line arguments
+   * @return      True if the arguments are valid
+   */
+  private boolean parseArguments(String[] args)
+  {
+    for (int argIndex = 0; argIndex < args.length; argIndex++)
+    {
+      switch (args[argIndex])
+      {
+        case "--trace":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          try
+          {
+            traceLevel = TraceLevel.valueOf(args[argIndex].toUpperCase());
+          }
+          catch (IllegalArgumentException ex)
+          {
+            System.err.println("Unknown trace level: " + args[argIndex]);
+            return false;
+          }
+          break;
+
+        case "--fast-forward":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          try
+          {
+            fastForwardInstructions = Long.parseLong(args[argIndex]);
+          }
+          catch (NumberFormatException ex)
+          {
+            System.err.println("Invalid number of instructions to fast-forward: " + args[argIndex]);
+            return false;
+          }
+          if (fastForwardInstructions < 0)
+          {
+            System.err.println("Invalid number of instructions to fast-forward: " + args[argIndex]);
+            return false;
+          }
+          break;
+
+        case "--translate":
+          blockTranslation = true;
+          break;
+
+        case "--jit":
+          blockCompilation = true;
+          break;
+
+        case "--commit-trace":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          commitTraceFileName = args[argIndex];
+          break;
+
+        case "--kanata":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          kanataTraceFileName = args[argIndex];
+          break;
+
+        case "--kanata-pc":
+        case "--kanata-cycles":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          try
+          {
+            String[] bounds = args[argIndex].split(":", 2);
+            long first = Long.decode(bounds[0].trim());
+            long last = Long.decode(bounds[1].trim());
+            if (first < 0 || first > last || (args[argIndex - 1].equals("--kanata-pc") && last > Integer.MAX_VALUE))
+            {
+              throw new NumberFormatException();
+            }
+            if (args[argIndex - 1].equals("--kanata-pc"))
+            {
+              kanataLocations = new int[] {(int) first, (int) last};
+            }
+            else
+            {
+              kanataCycles = new long[] {first, last};
+            }
+          }
+          catch (ArrayIndexOutOfBoundsException | NumberFormatException ex)
+          {
+            System.err.println("Invalid Kanata window (Expected <first>:<last>): " + args[argIndex]);
+            return false;
+          }
+          break;
+
+        case "--checkpoint-save":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          checkpointSaveFileName = args[argIndex];
+          break;
+
+        case "--checkpoint-restore":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          checkpointRestoreFileName = args[argIndex];
+          break;
+
+        case "--checkpoint-interval":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          try
+          {
+            checkpointInterval = Integer.parseInt(args[argIndex]);
+          }
+          catch (NumberFormatException ex)
+          {
+            checkpointInterval = -1;
+          }
+          if (checkpointInterval < 0)
+          {
+            System.err.println("Invalid checkpoint interval: " + args[argIndex]);
+            return false;
+          }
+          break;
+
+        case "--pmu-interval":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          try
+          {
+            pmuSnapshotInterval = Long.parseLong(args[argIndex]);
+          }
+          catch (NumberFormatException ex)
+          {
+            pmuSnapshotInterval = -1;
+          }
+          if (pmuSnapshotInterval < 0)
+          {
+            System.err.println("Invalid PMU snapshot interval: " + args[argIndex]);
+            return false;
+          }
+          break;
+
+        case "--pmu-output":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          pmuOutputFileName = args[argIndex];
+          break;
+
+        case "--cpi-region":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          try
+          {
+            String[] region = args[argIndex].split("=", 2);
+            String[] bounds = region[1].split(":", 2);
+            int first = Integer.decode(bounds[0].trim());
+            int last = Integer.decode(bounds[1].trim());
+            if (first > last || region[0].trim().isEmpty())
+            {
+              throw new NumberFormatException();
+            }
+            cpiRegionBounds.add(new int[] {first, last});
+            cpiRegionNames.add(region[0].trim());
+          }
+          catch (ArrayIndexOutOfBoundsException | NumberFormatException ex)
+          {
+            System.err.println("Invalid CPI region (Expected <name>=<first location>:<last location>): " + args[argIndex]);
+            return false;
+          }
+          break;
+
+        case "--profile":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          try
+          {
+            profileSamplePeriod = Integer.parseInt(args[argIndex]);
+          }
+          catch (NumberFormatException ex)
+          {
+            profileSamplePeriod = -1;
+          }
+          if (profileSamplePeriod <= 0)
+          {
+            System.err.println("Invalid profiler sample period: " + args[argIndex]);
+            return false;
+          }
+          break;
+
+        case "--config":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          try
+          {
+            config.load(args[argIndex]);
+          }
+          catch (IOException | IllegalArgumentException ex)
+          {
+            System.err.println("Invalid configuration file " + args[argIndex] + ": " + ex.getMessage());
+            return false;
+          }
+          break;
+
+        case "--set":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          try
+          {
+            config.set(args[argIndex]);
+          }
+          catch (IllegalArgumentException ex)
+          {
+            System.err.println(ex.getMessage());
+            return false;
+          }
+          break;
+
+        case "--trace-file":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          traceFileName = args[argIndex];
+          break;
+
+        case "--memory-dump":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          try
+          {
+            memoryDumpMode = MemoryDumpMode.valueOf(args[argIndex].toUpperCase());
+          }
+          catch (IllegalArgumentException ex)
+          {
+            System.err.println("Unknown memory dump mode: " + args[argIndex]);
+            return false;
+          }
+          break;
+
+        case "--memory-dump-file":
+          if (++argIndex == args.length)
+          {
+            return false;
+          }
+          memoryDumpFileName = args[argIndex];
+          break;
+
+        default:
+          if (assemblyFile != null || args[argIndex].startsWith("--"))     // Only a single assembly file can be passed
+          {
+            return false;
+          }
+          assemblyFile = args[argIndex];
+          break;
+      }
+    }
+    if (checkpointInterval > 0 && checkpointSaveFileName == null)
+    {
+      System.err.println("A checkpoint interval requires a checkpoint file (--checkpoint-save <file>)");
+      return false;
+    }
+    if (memoryDumpMode == MemoryDumpMode.BINARY && memoryDumpFileName == null)
+    {
+      System.err.println("Binary memory dumps require a dump file (--memory-dump-file <file>)");
+      return false;
+    }
+    return (assemblyFile != null);
+  }
+
   /**
    * Method to dump the current state of the CPU. Useful for debugging purposes
    */
   private void dumpState()
   {
-    cpuMemory.dumpContents();         // Dump contents of memory to the standard output
+    switch (memoryDumpMode)
+    {
+      case OFF:
+        break;
+
+      case BINARY:
+        try
+        {
+          cpuMemory.dumpBinary(memoryDumpFileName);       // Append the allocated memory pages to the dump file
+          System.out.println("Memory dumped to " + memoryDumpFileName);
+        }
+        catch (IOException ex)
+        {
+          System.err.println("The memory dump couldn't be written. The exception is as follows: " + ex.getMessage());
+        }
+        break;
+
+      default:
+        cpuMemory.dumpContents(memoryDumpMode);           // Dump contents of memory to the standard output
+        break;
+    }
     cpuRegisters.dumpContents();      // Dump contents of processor registers to the standard output
   }
 
   /**
    * Method that controls the Assembler and generates the CPU simulator executable binary file
-   * @param assemblyFile Assembly file to be used by the Assembler to generate the executable binary
+   * @param  assemblyFile Assembly file to be used by the Assembler to generate the executable binary
+   * @throws IOException  If the executable binary file can't be read back
    */
-  private void generateBinary(String assemblyFile)
+  private void generateBinary(String assemblyFile) throws IOException
   {
     Assembler assembler;                      /** Reference to the assembler object */
 
     assembler = new Assembler(assemblyFile);  // Instantiate the assembler object
     assembler.run();                          // Run the assembler
+    program = Executable.read(Assembler.outputFile);     // Map the executable binary file that is used to initialize the memory
   }
 
   private void printResults()
@@ -153,32 +741,115 @@ public class ProcessorSimulator
     System.out.println("--------------------------------------");
     System.out.println(">>>  Overall performance resutls   <<<");
     System.out.println("--------------------------------------");
-    System.out.println("Total instructions executed: " + cpuRegisters.getInstructionCounter());
-    System.out.println("Total NOP instructions executed: " + cpuRegisters.getInstructionCounterNOP());
-    System.out.println("Total valid instructions executed: " + (cpuRegisters.getInstructionCounter() - cpuRegisters.getInstructionCounterNOP()));
-    System.out.println("Total clock cycles simulated: " + cpuRegisters.readClockCounter());
-    System.out.println("Instructions per cycle (IPC): " + ((double) (cpuRegisters.getInstructionCounter() - cpuRegisters.getInstructionCounterNOP()) / (double) (cpuRegisters.readClockCounter())));
+    SimulationResult result = this.getResult();     // Counters read from the PMU
+    System.out.println("Total instructions executed: " + result.getInstructions());
+    System.out.println("Total NOP instructions executed: " + result.getInstructionsNOP());
+    System.out.println("Total valid instructions executed: " + result.getValidInstructions());
+    System.out.println("Total clock cycles simulated: " + result.getClockCycles());
+    System.out.println("Instructions fast-forwarded (Not simulated): " + result.getInstructionsFastForwarded());
+    System.out.println("Instructions per cycle (IPC): " + result.getIPC());
     System.out.println();
     System.out.println("--------------------------------------");
     System.out.println(">>> BU & Branch prediction results <<<");
     System.out.println("--------------------------------------");
-    System.out.println("Total branch instructions executed: " + cpuRegisters.getInstructionBranchCounter());
-    System.out.println("Branches predicted correct: " + cpuRegisters.getBranchPredictionsCorrect());
-    System.out.println("Branches predicted incorrect: " + cpuRegisters.getBranchPredictionsIncorrect());
+    System.out.println("Total branch instructions executed: " + result.getBranches());
+    System.out.println("Branches predicted correct: " + result.getBranchPredictionsCorrect());
+    System.out.println("Branches predicted incorrect: " + result.getBranchPredictionsIncorrect());
+    System.out.println("Branch predictor: " + config.getBranchPredictor() + " (" + branchPredictor.getStorageBits() + " bits of storage)");
+    System.out.println("Branch prediction accuracy: " + String.format(Locale.ROOT, "%.2f%%", result.getBranchPredictionAccuracy()));
     System.out.println();
     System.out.println("--------------------------------------");
     System.out.println(">>>          ALU results           <<<");
     System.out.println("--------------------------------------");
-    System.out.println("Total ALU instructions executed: " + cpuRegisters.getInstructionAluCounter());
+    System.out.println("Total ALU instructions executed: " + result.getAluInstructions());
     System.out.println();
     System.out.println("--------------------------------------");
     System.out.println(">>>          LSU results           <<<");
     System.out.println("--------------------------------------");
-    System.out.println("Total LSU instructions executed: " + (cpuRegisters.getInstructionLoadCounter() + cpuRegisters.getInstructionStoreCounter() + cpuRegisters.getInstructionEncodedLoadCounter()));
-    System.out.println("Total loads executed: " + cpuRegisters.getInstructionLoadCounter());
-    System.out.println("Total stores executed: " + cpuRegisters.getInstructionStoreCounter());
-    System.out.println("Total instruction encoded loads (i.e. MOVIs): " + cpuRegisters.getInstructionEncodedLoadCounter());
+    System.out.println("Total LSU instructions executed: " + (result.getLoads() + result.getStores() + result.getEncodedLoads()));
+    System.out.println("Total loads executed: " + result.getLoads());
+    System.out.println("Total stores executed: " + result.getStores());
+    System.out.println("Total instruction encoded loads (i.e. MOVIs): " + result.getEncodedLoads());
+    System.out.println();
+    System.out.println("--------------------------------------");
+    System.out.println(">>>        Instruction mix         <<<");
+    System.out.println("--------------------------------------");
+    for (int event = 0; event < pmu.getEvents(); event++)
+    {
+      if (pmu.getName(event).startsWith(InstructionExecuteStage.EVENT_MIX_PREFIX) && pmu.get(event) > 0)     // Only list the OpCodes executed
+      {
+        System.out.println(pmu.getName(event).substring(InstructionExecuteStage.EVENT_MIX_PREFIX.length()) + ": " + pmu.get(event));
+      }
+    }
+    System.out.println("Bubbles executed: " + pmu.get(InstructionExecuteStage.EVENT_BUBBLES));
+    if (pmuOutputFileName != null)
+    {
+      System.out.println("PMU counters exported to: " + pmuOutputFileName + " (" + pmu.getSnapshots() + " snapshots)");
+    }
+    System.out.println();
+    System.out.println("--------------------------------------");
+    System.out.println(">>>           CPI stack            <<<");
+    System.out.println("--------------------------------------");
+    ((ProcessorPipelineContext) pipelineContext).getCpiStack().printSummary(System.out, result.getValidInstructions());
+    System.out.println();
+    System.out.println("--------------------------------------");
+    System.out.println(">>>         Memory results         <<<");
+    System.out.println("--------------------------------------");
+    System.out.println("Memory size (locations): " + cpuMemory.getMemorySize());
+    System.out.println("Memory pages allocated: " + cpuMemory.getAllocatedPages() + " (" + (cpuMemory.isOffHeap() ? "off-heap" : "on-heap") + ", " +
+                       PageDirectory.PAGE_SIZE + " locations per page)");
+    System.out.println();
+    System.out.println("--------------------------------------");
+    System.out.println(">>> Decoded instruction cache results <<<");
+    System.out.println("--------------------------------------");
+    DecodedInstructionCache decodedInstructionCache = ((ProcessorPipelineContext) pipelineContext).getDecodedInstructionCache();
+    System.out.println("Decoded instruction cache hits: " + decodedInstructionCache.getHits());
+    System.out.println("Decoded instruction cache misses: " + decodedInstructionCache.getMisses());
+    System.out.println("Decoded instruction cache invalidations: " + decodedInstructionCache.getInvalidations());
+    if (commitTrace != null)
+    {
+      System.out.println("Instructions recorded in the commit trace: " + commitTrace.getRecords() + " (" + commitTraceFileName + ")");
+    }
+    if (kanataTrace != null)
+    {
+      System.out.println("Instructions in the Kanata log: " + kanataTrace.getRetired() + " retired, " + kanataTrace.getFlushed() + " flushed, " + kanataTrace.getInFlightAtEnd() +
+                         " in flight at end (Shown as flushed) (" + kanataTraceFileName + ")");
+    }
+    System.out.println();
+    BlockTranslator blockTranslator = functionalInterpreter.getBlockTranslator();
+    if (blockTranslator != null)
+    {
+      System.out.println("--------------------------------------");
+      System.out.println(">>>    Block translation results    <<<");
+      System.out.println("--------------------------------------");
+      System.out.println("Basic blocks translated: " + blockTranslator.getBlocksTranslated());
+      System.out.println("Basic blocks invalidated by stores: " + blockTranslator.getBlocksInvalidated());
+      System.out.println("Chained block transitions: " + blockTranslator.getChainedTransitions());
+      if (blockTranslator.getBlockCompiler() != null)
+      {
+        System.out.println("Basic blocks compiled to JVM bytecode: " + blockTranslator.getBlockCompiler().getBlocksCompiled());
+        System.out.println("Instructions compiled to JVM bytecode: " + blockTranslator.getBlockCompiler().getInstructionsCompiled());
+      }
+      System.out.println();
+    }
+    System.out.println("--------------------------------------");
+    System.out.println(">>>     Instruction queue results   <<<");
+    System.out.println("--------------------------------------");
+    ProcessorPipelineContext pContext = (ProcessorPipelineContext) pipelineContext;
+    System.out.println("Instruction queue capacity: " + config.getInstructionQueueCapacity());
+    System.out.println("Average instruction queue occupancy: " + pContext.getInstructionQueueAverageOccupancy());
+    System.out.println("Maximum instruction queue occupancy: " + pContext.getInstructionQueueMaxOccupancy());
+    System.out.println("Cycles issue was blocked (queue full): " + pContext.getInstructionQueueFullCycles());
+    System.out.println("Cycles execute found the queue empty: " + pContext.getInstructionQueueEmptyCycles());
     System.out.println();
+    if (stageProfiler != null)
+    {
+      System.out.println("--------------------------------------");
+      System.out.println(">>>  Host stage timing (profiler)  <<<");
+      System.out.println("--------------------------------------");
+      stageProfiler.printSummary(System.out);
+      System.out.println();
+    }
   }
 
   /**
@@ -195,10 +866,11 @@ public class ProcessorSimulator
 
     // Method functionality
     // Parse command line arguments that have been passed to the simulator/program
-    if (args.length != 1)
+    if (!cpu.parseArguments(args))
     {
-      System.err.println("Incorrect usage: Either no or more than one argument(s) have been passed to the program.");
-      System.err.println("Correct Usage: java ProcessorSimulator <input assembly file>");
+      System.err.println("Incorrect usage: Either no or more than one assembly file, or an invalid option, has been passed to the program.");
+      System.err.println("Correct Usage: java ProcessorSimulator [--checkpoint-restore <file>] [--fast-forward <instructions> [--translate | --jit]] [--commit-trace <file>] [--kanata <file> [--kanata-pc <first>:<last>] [--kanata-cycles <first>:<last>]] [--checkpoint-save <file> [--checkpoint-interval <cycles>]] [--trace off|summary|cycle] [--trace-file <file>] [--pmu-interval <cycles>] [--pmu-output <file>] [--cpi-region <name>=<first>:<last>]... [--profile <sample period in cycles>] [--memory-dump off|full|nonzero|changed|binary] [--memory-dump-file <file>] [--config <properties file>] [--set <key>=<value>]... <input assembly file>");
+      System.err.println("CPI regions may overlap or nest: A cycle is counted in every region containing the instruction it is attributed to.");
       System.exit(1);         // Exit/Terminate the program/Java runtime with error code 1
     }
 
@@ -210,8 +882,8 @@ public class ProcessorSimulator
       System.out.println("###               RUNNING THE ASSEMBLER                 ###");
       System.out.println("###########################################################");
       System.out.println("Running the Assembler to generate the executable binary file. \n");
-      System.out.println("Input file: " + args[0]);
-      cpu.generateBinary(args[0]);      // Call the generateBinary method that controls the Assembler
+      System.out.println("Input file: " + cpu.assemblyFile);
+      cpu.generateBinary(cpu.assemblyFile);      // Call the generateBinary method that controls the Assembler
       System.out.println("Output executable: " + Assembler.outputFile + " \n");
       System.out.println("Assembler completed generating the executable binary file.");
     }
@@ -227,8 +899,6 @@ public class ProcessorSimulator
     // Setup the CPU simulator
     try
     {
-      // Add functionality to read the binary file and load it to the memory (Using a method to initialize the contents of memory in the Memory class).
-      // This functionality should be added to the setup() method.
       System.out.println();
       System.out.println("###########################################################");
       System.out.println("###            SETTING UP THE CPU SIMULATOR             ###");
@@ -258,13 +928,7 @@ public class ProcessorSimulator
       System.err.println(">>>>>>>>>>>> Dumping initial state of CPU <<<<<<<<<<<< ");
       cpu.dumpState();
       System.out.println();
-      //for(int numCycles = 0; numCycles < GlobalConstants.NUM_ITERATIONS; numCycles++)
-      while (((ProcessorPipelineContext) pipelineContext).getCpuRegisters().readGP(GlobalConstants.SVC_REGISTER) != GlobalConstants.SVC_SUSPEND)
-      {  
-        cpu.step();           // Step/Run the cpu simulator by one clock cycle
-        // TODO Add code to print state of every stage for current cycle
-        //cpu.dumpState();    // Dump the state of the cpu every cycle
-      }
+      cpu.simulate();       // Run the simulation until the program halts
       cpu.dumpState();      // Print end state after having finished running the simulator
       System.out.println("CPU simulator finished executing the program. \n");
       cpu.printResults();     // Print the results of the simulation/simulator
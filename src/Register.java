@@ -12,6 +12,7 @@
 
 // Import packages
 import java.io.*;
+import java.nio.*;
 import java.util.*;
 import java.lang.*;
 
@@ -37,24 +38,7 @@ public class Register
   private int memoryAddressRegister;                  /** Memory Address Register: Holds the memory address to which the data contained in the Memory Data Register needs to be stored */
   private int memoryDataRegister;                     /** Memory Data Register: Holds the data that needs to be stored to memory address contained in the Memory Address Register */
   private Memory cpuMemory;                           /** Reference to the CPU memory */
-  private static int clockCounter;                    /** Variable that holds the number of cycles completed by the simulator - Declared as a static varaible since the processor should only contain a single clockCounter register no matter how many Register objects have been instantiated */
-  private static int instructionCounter;              /** Could the number of instructions executed by the processor */
-  private static int instructionCounterNOP;           /** Could the number of NOP instructions executed by the processor */
-  private static int instructionBranchCounter;        /** Branch instruction counter */
-  private static int branchPredictionsCorrect;        /** Correct branch prediction counter */
-  private static int branchPredictionsIncorrect;      /** Incorrect branch prediction counter */
-  private static int instructionLoadCounter;          /** Load instruction counter */
-  private static int instructionStoreCounter;         /** Store instruction counter */
-  private static int instructionAluCounter;           /** ALU instruction counter */
-  private static int instructionEncodedLoadCounter;   /** Encoded load instruction counter, i.e. instructions such as MOVI */
-
-  // Initialize static variables
-  static
-  {
-    clockCounter = GlobalConstants.CLOCK_REGISTER_INITIALIZATION_VALUE;
-    instructionCounter = 0;
-    instructionCounterNOP = 0;
-  }
+  private long clockCounter = GlobalConstants.CLOCK_REGISTER_INITIALIZATION_VALUE;   /** Variable that holds the number of cycles completed by the simulator - Held per Register object so that multiple simulations can run in the same JVM (The event counters are held by the PMU) */
 
   // Class constructors
   /**
@@ -158,7 +142,7 @@ public class Register
    */
   public void incrementPC()
   {
-    if((programCounterIncremented + 1) < 0 || (programCounterIncremented + 1) >= cpuMemory.getMemorySize()) // TODO change to check it doesnt enter the data region in memory
+    if((Integer.toUnsignedLong(programCounterIncremented) + 1) >= cpuMemory.getMemorySize()) // TODO change to check it doesnt enter the data region in memory
     {
       throw new RegisterAccessException("Illegal PC value (Location 0x" + Integer.toHexString(programCounterIncremented + 1) + " doesn't exist in memory)."); 
     }
@@ -174,7 +158,7 @@ public class Register
    */
   public void writePC(int newValue)
   {
-    if (newValue < 0 || newValue >= cpuMemory.getMemorySize())
+    if (!cpuMemory.contains(newValue))
     {
       throw new RegisterAccessException("Illegal PC value (Location 0x" + Integer.toHexString(newValue) + " doesn't exist in memory)."); 
     }
@@ -207,7 +191,7 @@ public class Register
    */
   public void writeIR(int newValue)
   {
-    int opCode = (newValue >> (Isa.INSTRUCTION_LENGTH - Isa.OPCODE_LENGTH)) & (int)(Math.pow(2, Isa.OPCODE_LENGTH) - 1);     // Extract instruction OpCode (Logical AND with 31 since its 11111 in binary and opcode length is )
+    int opCode = InstructionDecoder.opCode(newValue);     // Extract instruction OpCode
 
     // Note this check for an invalid instruction is made in the Instruction Decode Stage class.
     // if(opCode > (Isa.ISA_TOTAL_INSTRUCTIONS - 1))
@@ -288,7 +272,7 @@ public class Register
    */
   public void writeMAR(int newValue)
   {
-    if (newValue < 0 || newValue >= cpuMemory.getMemorySize())
+    if (!cpuMemory.contains(newValue))
     {
       throw new RegisterAccessException("Illegal MAR value (Location 0x" + Integer.toHexString(newValue) + " doesn't exist in memory)."); 
     }
@@ -324,6 +308,16 @@ public class Register
     }
   }
 
+  /**
+   * Method to obtain the array backing the general purpose (GP) registers. Only used by code compiled by the BlockCompiler, which accesses the
+   * registers directly.
+   * @return GP register array (Not a copy)
+   */
+  public int[] getGeneralPurposeRegisters()
+  {
+    return generalPurposeRegisters;
+  }
+
   /**
    * Method to read the current value stored in the instruction register (IR)
    * @return Value stored in the PC register
@@ -388,166 +382,94 @@ public class Register
   }
 
   /**
-   * Method to increment the clock counter by one - Declared as static since it modifies a static (class) variable
+   * Method to increment the clock counter by one
    */
-  public static void incrementClockCounter()
+  public void incrementClockCounter()
   {
     clockCounter++;           // Increment the clock by one (Should be done for each loop iteration) 
   }
 
   /**
-   * Method to read the current clock counter value - Declared as static since it returns a static (class) variable
+   * Method to read the current clock counter value
    * @return Current clock counter value
    */
-  public static int readClockCounter()
+  public long readClockCounter()
   {
     return clockCounter;       // Increment the clock by one (Should be done for each loop iteration) 
   }
 
   /**
-   * Method to increment the instruction counter
-   */
-  public void incrementInstructionCounter()
-  {
-    instructionCounter++;
-  }
-
-  /**
-   * Method to increment the NOP instruction counter
-   */
-  public void incrementInstructionCounterNOP()
-  {
-    instructionCounterNOP++;
-  }
-
-  /**
-   * Method to obtain the value stored in the instruction counter register, i.e. total number of instructions executed during the simulation
-   * @return Total number of instructions executed by/during the simualtor
-   */
-  public int getInstructionCounter()
-  {
-    return instructionCounter;
-  }
-
-  /**
-   * Method to obtain the value stored in the NOP instruction counter register, i.e. total number of NOP instructions executed during the simulation
-   * @return Total number of NOP instructions executed by/during the simualtor
-   */
-  public int getInstructionCounterNOP()
-  {
-    return instructionCounterNOP;
-  }
-
-  /**
-   * Method to increment the branch instruction counter
-   */
-  public void incrementInstructionBranchCounter()
-  {
-    instructionBranchCounter++;
-  }
-
-  /**
-   * Method to increment the branch prediction correct counter
-   */
-  public void incrementBranchPredictionsCorrect()
-  {
-    branchPredictionsCorrect++;
-  }
-  
-  /**
-   * Method to increment the branch prediction incorrect counter
-   */
-  public void incrementBranchPredictionsIncorrect()
-  {
-    branchPredictionsIncorrect++;
-  }
-
-  /**
-   * Method to increment the load instruction counter
-   */
-  public void incrementInstructionLoadCounter()
-  {
-    instructionLoadCounter++;
-  }
-
-  /**
-   * Method to increment the store instruction counter
+   * Method to obtain the number of bytes required to save the state of the registers (Including the clock counter)
+   * @return Size of the saved state in bytes
    */
-  public void incrementInstructionStoreCounter()
+  public int getStateSize()
   {
-    instructionStoreCounter++;
+    return ((1 + generalPurposeRegisters.length + 10 + 1 + statusRegister.length) * Integer.BYTES) + Long.BYTES;
   }
 
   /**
-   * Method to increment the encoded load instruction counter
+   * Method to save the state of the registers (Including the clock counter) to a buffer
+   * @param buffer Buffer to which the state is written
    */
-  public void incrementInstructionEncodedLoadCounter()
+  public void saveState(ByteBuffer buffer)
   {
-    instructionEncodedLoadCounter++;
-  }
-  
-  /**
-   * Method to increment the ALU instruction counter
-   */
-  public void incrementInstructionAluCounter()
-  {
-    instructionAluCounter++;
-  }
-
-  /**
-   * Method to obtain the value stored in the branch instruction counter
-   */
-  public int getInstructionBranchCounter()
-  {
-    return instructionBranchCounter;
-  }
-
-  /**
-   * Method to obtain the value stored in the branch prediction correct counter
-   */
-  public int getBranchPredictionsCorrect()
-  {
-    return branchPredictionsCorrect;
-  }
-  
-  /**
-   * Method to obtain the value stored in the branch prediction incorrect counter
-   */
-  public int getBranchPredictionsIncorrect()
-  {
-    return branchPredictionsIncorrect;
-  }
-
-  /**
-   * Method to obtain the value stored in the load instruction counter
-   */
-  public int getInstructionLoadCounter()
-  {
-    return instructionLoadCounter;
-  }
-
-  /**
-   * Method to obtain the value stored in the store instruction counter
-   */
-  public int getInstructionStoreCounter()
-  {
-    return instructionStoreCounter;
-  }
-
-  /**
-   * Method to obtain the value stored in the encoded load instruction counter
-   */
-  public int getInstructionEncodedLoadCounter()
-  {
-    return instructionEncodedLoadCounter;
+    buffer.putInt(generalPurposeRegisters.length);
+    for (int registerNumber = 0; registerNumber < generalPurposeRegisters.length; registerNumber++)
+    {
+      buffer.putInt(generalPurposeRegisters[registerNumber]);
+    }
+    buffer.putInt(accumulator);
+    buffer.putInt(programCounter);
+    buffer.putInt(programCounterIncremented);
+    buffer.putInt(programCounterBranch);
+    buffer.putInt(stackPointer);
+    buffer.putInt(framePointer);
+    buffer.putInt(linkRegister);
+    buffer.putInt(instructionRegister);
+    buffer.putInt(memoryAddressRegister);
+    buffer.putInt(memoryDataRegister);
+    buffer.putInt(statusRegister.length);
+    for (int statusRegisterIndex = 0; statusRegisterIndex < statusRegister.length; statusRegisterIndex++)
+    {
+      buffer.putInt(statusRegister[statusRegisterIndex] ? 1 : 0);
+    }
+    buffer.putLong(clockCounter);
   }
 
   /**
-   * Method to obtain the value stored in the ALU instruction counter
+   * Method to restore the state of the registers (Including the clock counter) from a buffer
+   * @param buffer Buffer from which the state is read
    */
-  public int getInstructionAluCounter()
+  public void restoreState(ByteBuffer buffer)
   {
-    return instructionAluCounter;
+    int numberOfRegisters = buffer.getInt();
+    if (numberOfRegisters != generalPurposeRegisters.length)
+    {
+      throw new RegisterAccessException("Illegal saved register state (Saved state contains " + numberOfRegisters + " GP registers, expected " + generalPurposeRegisters.length + ").");
+    }
+    for (int registerNumber = 0; registerNumber < generalPurposeRegisters.length; registerNumber++)
+    {
+      generalPurposeRegisters[registerNumber] = buffer.getInt();
+    }
+    accumulator = buffer.getInt();
+    programCounter = buffer.getInt();
+    programCounterIncremented = buffer.getInt();
+    programCounterBranch = buffer.getInt();
+    stackPointer = buffer.getInt();
+    framePointer = buffer.getInt();
+    linkRegister = buffer.getInt();
+    instructionRegister = buffer.getInt();
+    memoryAddressRegister = buffer.getInt();
+    memoryDataRegister = buffer.getInt();
+    if (buffer.getInt() != statusRegister.length)
+    {
+      throw new RegisterAccessException("Illegal saved register state (Status register is not of the correct length).");
+    }
+    for (int statusRegisterIndex = 0; statusRegisterIndex < statusRegister.length; statusRegisterIndex++)
+    {
+      statusRegister[statusRegisterIndex] = (buffer.getInt() != 0);
+    }
+    clockCounter = buffer.getLong();
   }
 
   /**
@@ -20,6 +20,25 @@ import java.util.List;
  */
 public class SequentialProcessorPipeline extends SequentialPipeline
 {
+  private StageProfiler profiler;     /** Host-side stage profiler (null = profiling turned off) */
+
+  /**
+   * Method to attach a host-side stage profiler to the pipeline
+   * @param profiler Stage profiler (null turns profiling off)
+   */
+  public void setProfiler(StageProfiler profiler)
+  {
+    this.profiler = profiler;
+  }
+
+  /**
+   * Method to obtain the host-side stage profiler attached to the pipeline
+   * @return Stage profiler (null if profiling is turned off)
+   */
+  public StageProfiler getProfiler()
+  {
+    return profiler;
+  }
 
   /**
    * Method to execute/run the pipeline.
@@ -28,10 +47,15 @@ public class SequentialProcessorPipeline extends SequentialPipeline
   @Override                                         // Overriding since this method exists in the SequentialPipeline class and the IPipeline interface
   public void execute(IPipelineContext context)
   {
+    if (profiler != null && profiler.startCycle())
+    {
+      this.executeProfiled(context);
+      return;
+    }
     /* execute the stages */
-    for (IStage stage:p_stages)   //i.e. for every stage in the pipeline
+    for (int stageIndex = 0; stageIndex < p_stages.size(); stageIndex++)   //i.e. for every stage in the pipeline (Indexed loop to avoid creating an iterator every cycle)
     { 
-      stage.execute(context);     // Execute each stage in the pipeline 
+      p_stages.get(stageIndex).execute(context);     // Execute each stage in the pipeline 
       // if (context.getErrors()!= null && !context.getErrors().isEmpty())
       // {
       //  break;
@@ -40,11 +64,89 @@ public class SequentialProcessorPipeline extends SequentialPipeline
     this.shift(context);          // Shift the contents along the pipeline
   }
 
+  /**
+   * Method to execute/run the pipeline while timing every stage. The stage timings are recorded in the profiler and emitted as JFR events
+   * (Only if a JFR recording with the event enabled is running). Only the stage itself is timed, i.e. the JFR bookkeeping around it (Creating,
+   * beginning, ending and committing the event) isn't charged to the stage.
+   * @param context Shared object (context object) used throughout all stages in the pipeline
+   */
+  private void executeProfiled(IPipelineContext context)
+  {
+    ProcessorPipelineContext pContext = (ProcessorPipelineContext) context;
+    for (int stageIndex = 0; stageIndex < p_stages.size(); stageIndex++)
+    {
+      IStage stage = p_stages.get(stageIndex);
+      StageTimingEvent event = new StageTimingEvent();
+      event.begin();
+      long startTime = System.nanoTime();
+      stage.execute(context);
+      long endTime = System.nanoTime();
+      event.end();
+      profiler.record(stageIndex, endTime - startTime);
+      if (event.shouldCommit())
+      {
+        event.stage = StageProfiler.STAGE_NAMES[stageIndex];
+        event.cycle = pContext.getCpuRegisters().readClockCounter() - 1;      // Subtracting 1 because the clock counter has already been incremented in this cycle
+        event.opCode = this.getOpCode(stage, pContext);
+        event.commit();
+      }
+    }
+    this.shift(context);
+  }
+
+  /**
+   * Method to obtain the OpCode of the instruction a stage handled in the current cycle. Only used to fill in JFR events.
+   * @param  stage    Pipeline stage
+   * @param  pContext Processor pipeline context
+   * @return          OpCode of the instruction
+   */
+  private int getOpCode(IStage stage, ProcessorPipelineContext pContext)
+  {
+    InstructionTable instructionTable = pContext.getInstructionTable();
+    if (stage instanceof InstructionFetchStage)
+    {
+      return InstructionDecoder.opCode(((InstructionFetchStage) stage).getCurrentInstructionRead());
+    }
+    else if (stage instanceof InstructionDecodeStage)
+    {
+      return ((InstructionDecodeStage) stage).getCurrentOpCode();
+    }
+    else if (stage instanceof InstructionIssueStage)
+    {
+      return instructionTable.getOpCode(((InstructionIssueStage) stage).getCurrentInstruction());
+    }
+    else if (stage instanceof InstructionExecuteStage)
+    {
+      return instructionTable.getOpCode(((InstructionExecuteStage) stage).getCurrentInstruction());
+    }
+    else if (stage instanceof InstructionWritebackStage)
+    {
+      return instructionTable.getOpCode(((InstructionWritebackStage) stage).getCurrentInstruction());
+    }
+    return GlobalConstants.DEFAULT_INSTRUCTION_OPCODE;
+  }
+
   /**
    * Method to flush the pipeline
    * @param context Shared object (context object) used throughout all stages in the pipeline
    */
   public void flush(IPipelineContext context)
+  {
+    if (profiler != null && profiler.isSampledCycle())       // Flushes are only timed in sampled cycles (The pipeline is flushed every few cycles)
+    {
+      long startTime = System.nanoTime();
+      this.flushStages(context);
+      profiler.record(StageProfiler.STAGE_FLUSH, System.nanoTime() - startTime);
+      return;
+    }
+    this.flushStages(context);
+  }
+
+  /**
+   * Method to flush every stage in the pipeline and the pipeline registers
+   * @param context Shared object (context object) used throughout all stages in the pipeline
+   */
+  private void flushStages(IPipelineContext context)
   {
     ProcessorPipelineContext pContext = (ProcessorPipelineContext) context;             // Explicitly cast context to ProcessorPipelineContext type. Only need to do this to obtain the branch taken boolean value
     if (pContext.getBranchTaken() == true)    // If a branch is taken, only then flush the pipeline (i.e. only run the flush method of each stage in the pipeline if a branch needs to be taken since whatever is already present currently in these stages is incorrect/irrelevant)
@@ -55,6 +157,7 @@ public class SequentialProcessorPipeline extends SequentialPipeline
       }
     }
     pContext.flush();     // Flush the pipeline registers (i.e. the current and next value registers that connect the different stages in the pipeline)      
+    pContext.getCpiStack().setBubbleCause(CpiStack.BRANCH_MISPREDICTION);     // The bubbles executed until the correct path reaches the IE stage are the misprediction penalty
   }
 
   /**
@@ -0,0 +1,187 @@
+/**
+ * @file SimulationResult.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the SimulationResult class. It holds a snapshot of the performance counters of a single simulation once it has
+ * finished running, so that the results of many simulations (e.g. the jobs of a batch run) can be collected and compared.
+ */
+
+/**
+ * Immutable snapshot of the results of a simulation.
+ */
+public final class SimulationResult
+{
+  private final long clockCycles;                   /** Number of clock cycles simulated */
+  private final long instructions;                  /** Number of instructions executed by the pipeline (Including NOPs) */
+  private final long instructionsNOP;               /** Number of NOP instructions executed by the pipeline */
+  private final long branches;                      /** Number of branch instructions executed */
+  private final long branchPredictionsCorrect;      /** Number of branches predicted correctly */
+  private final long branchPredictionsIncorrect;    /** Number of branches predicted incorrectly */
+  private final long instructionsFastForwarded;     /** Number of instructions executed functionally (Not simulated) */
+  private final long aluInstructions;               /** Number of ALU instructions executed */
+  private final long loads;                         /** Number of loads (LW) executed */
+  private final long stores;                        /** Number of stores (SW) executed */
+  private final long encodedLoads;                  /** Number of instruction encoded loads (MOVI) executed */
+
+  /**
+   * Method to create a snapshot of the event counters held in the PMU of the simulation
+   * @param  clockCycles               Number of clock cycles simulated
+   * @param  pmu                       PMU of the simulation
+   * @param  instructionsFastForwarded Number of instructions executed functionally
+   * @return                           No return value since this is a constructor
+   */
+  public SimulationResult(long clockCycles, Pmu pmu, long instructionsFastForwarded)
+  {
+    this(clockCycles, pmu.get(InstructionExecuteStage.EVENT_INSTRUCTIONS), pmu.get(InstructionExecuteStage.EVENT_NOPS),
+         pmu.get(Bu.EVENT_BRANCHES), pmu.get(Bu.EVENT_PREDICTIONS_CORRECT), pmu.get(Bu.EVENT_PREDICTIONS_INCORRECT),
+         instructionsFastForwarded, pmu.get(Alu.EVENT_INSTRUCTIONS), pmu.get(Lsu.EVENT_LOADS),
+         pmu.get(Lsu.EVENT_STORES), pmu.get(Lsu.EVENT_ENCODED_LOADS));
+  }
+
+  /**
+   * Parameterized constructor taking the value of every counter (Used when the counters aren't held in a PMU, e.g. by the TraceReplayer)
+   * @return No return value since this is a constructor
+   */
+  public SimulationResult(long clockCycles, long instructions, long instructionsNOP, long branches, long branchPredictionsCorrect, long branchPredictionsIncorrect,
+                          long instructionsFastForwarded, long aluInstructions, long loads, long stores, long encodedLoads)
+  {
+    this.clockCycles = clockCycles;
+    this.instructions = instructions;
+    this.instructionsNOP = instructionsNOP;
+    this.branches = branches;
+    this.branchPredictionsCorrect = branchPredictionsCorrect;
+    this.branchPredictionsIncorrect = branchPredictionsIncorrect;
+    this.instructionsFastForwarded = instructionsFastForwarded;
+    this.aluInstructions = aluInstructions;
+    this.loads = loads;
+    this.stores = stores;
+    this.encodedLoads = encodedLoads;
+  }
+
+  /**
+   * Method to obtain the number of clock cycles simulated
+   * @return Number of clock cycles
+   */
+  public long getClockCycles()
+  {
+    return clockCycles;
+  }
+
+  /**
+   * Method to obtain the number of instructions executed by the pipeline (Including NOPs)
+   * @return Number of instructions
+   */
+  public long getInstructions()
+  {
+    return instructions;
+  }
+
+  /**
+   * Method to obtain the number of NOP instructions executed by the pipeline
+   * @return Number of NOP instructions
+   */
+  public long getInstructionsNOP()
+  {
+    return instructionsNOP;
+  }
+
+  /**
+   * Method to obtain the number of valid (i.e. non-NOP) instructions executed by the pipeline
+   * @return Number of valid instructions
+   */
+  public long getValidInstructions()
+  {
+    return instructions - instructionsNOP;
+  }
+
+  /**
+   * Method to obtain the number of branch instructions executed
+   * @return Number of branch instructions
+   */
+  public long getBranches()
+  {
+    return branches;
+  }
+
+  /**
+   * Method to obtain the number of branches predicted correctly
+   * @return Number of correct predictions
+   */
+  public long getBranchPredictionsCorrect()
+  {
+    return branchPredictionsCorrect;
+  }
+
+  /**
+   * Method to obtain the number of branches predicted incorrectly
+   * @return Number of incorrect predictions
+   */
+  public long getBranchPredictionsIncorrect()
+  {
+    return branchPredictionsIncorrect;
+  }
+
+  /**
+   * Method to obtain the share of the branches predicted correctly
+   * @return Branch prediction accuracy in percent
+   */
+  public double getBranchPredictionAccuracy()
+  {
+    long predictions = branchPredictionsCorrect + branchPredictionsIncorrect;
+    return (predictions == 0) ? 0.0 : (100.0 * branchPredictionsCorrect / predictions);
+  }
+
+  /**
+   * Method to obtain the number of instructions executed functionally
+   * @return Number of instructions fast-forwarded
+   */
+  public long getInstructionsFastForwarded()
+  {
+    return instructionsFastForwarded;
+  }
+
+  /**
+   * Method to obtain the number of ALU instructions executed
+   * @return Number of ALU instructions
+   */
+  public long getAluInstructions()
+  {
+    return aluInstructions;
+  }
+
+  /**
+   * Method to obtain the number of loads (LW) executed
+   * @return Number of loads
+   */
+  public long getLoads()
+  {
+    return loads;
+  }
+
+  /**
+   * Method to obtain the number of stores (SW) executed
+   * @return Number of stores
+   */
+  public long getStores()
+  {
+    return stores;
+  }
+
+  /**
+   * Method to obtain the number of instruction encoded loads (MOVI) executed
+   * @return Number of encoded loads
+   */
+  public long getEncodedLoads()
+  {
+    return encodedLoads;
+  }
+
+  /**
+   * Method to obtain the number of valid instructions executed per cycle
+   * @return Instructions per cycle (IPC)
+   */
+  public double getIPC()
+  {
+    return (clockCycles == 0) ? 0.0 : ((double) this.getValidInstructions() / (double) clockCycles);
+  }
+}
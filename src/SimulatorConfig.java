@@ -0,0 +1,384 @@
+/**
+ * @file SimulatorConfig.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the SimulatorConfig class. It holds the microarchitectural parameters of a single simulation that used to be
+ * compile-time constants. Every parameter defaults to the value held in GlobalConstants and can be overridden by a properties file
+ * (--config <file>) and by individual command-line overrides (--set <key>=<value>), which are applied in the order they are given.
+ *
+ * Supported keys:
+ *   memory.size                  Number of memory locations (At least GlobalConstants.MEMORY_SIZE, at most 2^32)
+ *   memory.backend               Where the memory pages are allocated (heap or offheap)
+ *   instructionQueue.capacity    Capacity of the II -> IE instruction queue (Trace-driven replay requires at least 2, see TraceReplayer)
+ *   instructionTable.capacity    Number of slots in the in-flight instruction table (Power of 2, at least instructionQueue.capacity +
+ *                                GlobalConstants.PIPELINE_LENGTH). Unless it is set, the table grows along with a larger instruction queue.
+ *   branchPredictor              Branch predictor (static, bimodal or gshare)
+ *   branchPredictor.bhtEntries   Number of 2 bit counters in the branch history table of the bimodal predictor (Power of 2)
+ *   branchPredictor.phtEntries   Number of 2 bit counters in the pattern history table of the gshare predictor (Power of 2)
+ *   branchPredictor.historyBits  Number of branch outcomes held in the global history register of the gshare predictor (1 to 31)
+ *   jit.threshold                Number of executions after which a translated block is compiled (--jit)
+ *
+ * Every value is checked when it is set, hence, an invalid configuration is rejected before any simulation is run. The instruction queue
+ * and instruction table capacities are checked against each other, so the check depends on the order in which the two are set (The table
+ * needs to be large enough for the queue at every step).
+ */
+
+// Import packages
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Configuration of the simulated processor.
+ */
+public class SimulatorConfig
+{
+  // Configuration keys
+  public static final String MEMORY_SIZE = "memory.size";
+  public static final String MEMORY_BACKEND = "memory.backend";
+  public static final String INSTRUCTION_QUEUE_CAPACITY = "instructionQueue.capacity";
+  public static final String INSTRUCTION_TABLE_CAPACITY = "instructionTable.capacity";
+  public static final String BRANCH_PREDICTOR = "branchPredictor";
+  public static final String BHT_ENTRIES = "branchPredictor.bhtEntries";
+  public static final String PHT_ENTRIES = "branchPredictor.phtEntries";
+  public static final String GLOBAL_HISTORY_BITS = "branchPredictor.historyBits";
+  public static final String BLOCK_COMPILE_THRESHOLD = "jit.threshold";
+  public static final String[] KEYS = {MEMORY_SIZE, MEMORY_BACKEND, INSTRUCTION_QUEUE_CAPACITY, INSTRUCTION_TABLE_CAPACITY, BRANCH_PREDICTOR, BHT_ENTRIES, PHT_ENTRIES,
+                                       GLOBAL_HISTORY_BITS, BLOCK_COMPILE_THRESHOLD};
+
+  // Memory backends
+  public static final String MEMORY_HEAP = "heap";
+  public static final String MEMORY_OFF_HEAP = "offheap";
+
+  // Branch predictors
+  public static final String PREDICTOR_STATIC = "static";
+  public static final String PREDICTOR_BIMODAL = "bimodal";
+  public static final String PREDICTOR_GSHARE = "gshare";
+  public static final String[] PREDICTORS = {PREDICTOR_STATIC, PREDICTOR_BIMODAL, PREDICTOR_GSHARE};
+
+  private static final int MAX_INSTRUCTION_TABLE_CAPACITY = 1 << 30;      /** Largest power of 2 an int can hold */
+
+  private long memorySize = GlobalConstants.MEMORY_SIZE;                                  /** Number of memory locations */
+  private String memoryBackend = MEMORY_HEAP;                                             /** Where the memory pages are allocated */
+  private int instructionQueueCapacity = GlobalConstants.INSTRUCTION_QUEUE_CAPACITY;      /** Capacity of the instruction queue */
+  private int instructionTableCapacity = GlobalConstants.INSTRUCTION_TABLE_CAPACITY;      /** Number of slots in the instruction table */
+  private boolean instructionTableCapacitySet;                                            /** True if the instruction table capacity has been set (Otherwise it follows the instruction queue capacity) */
+  private String branchPredictor = PREDICTOR_STATIC;                                      /** Name of the branch predictor */
+  private int bhtEntries = GlobalConstants.BHT_ENTRIES;                                   /** Number of counters in the branch history table (Bimodal predictor) */
+  private int phtEntries = GlobalConstants.PHT_ENTRIES;                                   /** Number of counters in the pattern history table (gshare predictor) */
+  private int globalHistoryBits = GlobalConstants.GLOBAL_HISTORY_BITS;                    /** Number of branch outcomes held in the global history register (gshare predictor) */
+  private int blockCompileThreshold = GlobalConstants.BLOCK_COMPILE_THRESHOLD;            /** Number of executions after which a translated block is compiled */
+
+  /**
+   * Method to apply every parameter held in a properties file
+   * @param  configFileName Name of the properties file
+   * @throws IOException    If the file can't be read
+   */
+  public void load(String configFileName) throws IOException
+  {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(Paths.get(configFileName)))
+    {
+      properties.load(reader);
+    }
+    for (String key : new TreeSet<String>(properties.stringPropertyNames()))
+    {
+      this.set(key, properties.getProperty(key).trim());
+    }
+  }
+
+  /**
+   * Method to apply a single "key=value" override
+   * @param override Override as given on the command line
+   */
+  public void set(String override)
+  {
+    int separator = override.indexOf('=');
+    if (separator <= 0)
+    {
+      throw new IllegalArgumentException("Invalid configuration override (Expected <key>=<value>): " + override);
+    }
+    this.set(override.substring(0, separator).trim(), override.substring(separator + 1).trim());
+  }
+
+  /**
+   * Method to set a parameter
+   * @param key   Configuration key
+   * @param value Value of the parameter
+   */
+  public void set(String key, String value)
+  {
+    switch (key)
+    {
+      case MEMORY_SIZE:
+        long parsedMemorySize;
+        try
+        {
+          parsedMemorySize = Long.parseLong(value);
+        }
+        catch (NumberFormatException ex)
+        {
+          throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+        }
+        if (parsedMemorySize < GlobalConstants.MEMORY_SIZE || parsedMemorySize > Memory.MAX_MEMORY_SIZE)
+        {
+          throw new IllegalArgumentException("Invalid value for " + key + ": " + value + " (Memory needs to hold between " + GlobalConstants.MEMORY_SIZE +
+                                             " and " + Memory.MAX_MEMORY_SIZE + " locations)");
+        }
+        memorySize = parsedMemorySize;
+        break;
+
+      case MEMORY_BACKEND:
+        if (!value.equals(MEMORY_HEAP) && !value.equals(MEMORY_OFF_HEAP))
+        {
+          throw new IllegalArgumentException("Invalid value for " + key + ": " + value + " (Expected " + MEMORY_HEAP + " or " + MEMORY_OFF_HEAP + ")");
+        }
+        memoryBackend = value;
+        break;
+
+      case INSTRUCTION_QUEUE_CAPACITY:
+        int parsedQueueCapacity = parsePositive(key, value);
+        if (parsedQueueCapacity > MAX_INSTRUCTION_TABLE_CAPACITY - GlobalConstants.PIPELINE_LENGTH)
+        {
+          throw new IllegalArgumentException("Invalid value for " + key + ": " + value + " (Must be at most " + (MAX_INSTRUCTION_TABLE_CAPACITY - GlobalConstants.PIPELINE_LENGTH) + ")");
+        }
+        int requiredTableCapacity = getRequiredInstructionTableCapacity(parsedQueueCapacity);
+        if (instructionTableCapacitySet && instructionTableCapacity < requiredTableCapacity)
+        {
+          throw new IllegalArgumentException("Invalid value for " + key + ": " + value + " (The instruction table holds " + instructionTableCapacity +
+                                             " slots, which is less than the queue capacity plus the pipeline length)");
+        }
+        if (!instructionTableCapacitySet)
+        {
+          instructionTableCapacity = Math.max(GlobalConstants.INSTRUCTION_TABLE_CAPACITY, Integer.highestOneBit(requiredTableCapacity - 1) << 1);     // Smallest power of 2 holding the queue
+        }
+        instructionQueueCapacity = parsedQueueCapacity;
+        break;
+
+      case INSTRUCTION_TABLE_CAPACITY:
+        int parsedTableCapacity = parsePositive(key, value);
+        if ((parsedTableCapacity & (parsedTableCapacity - 1)) != 0)
+        {
+          throw new IllegalArgumentException("Invalid value for " + key + ": " + value + " (Must be a power of 2)");
+        }
+        if (parsedTableCapacity < getRequiredInstructionTableCapacity(instructionQueueCapacity))
+        {
+          throw new IllegalArgumentException("Invalid value for " + key + ": " + value + " (Must be at least " + getRequiredInstructionTableCapacity(instructionQueueCapacity) +
+                                             ", i.e. the instruction queue capacity " + instructionQueueCapacity + " plus the pipeline length)");
+        }
+        instructionTableCapacity = parsedTableCapacity;
+        instructionTableCapacitySet = true;
+        break;
+
+      case BRANCH_PREDICTOR:
+        this.createBranchPredictor(value);        // Fail straight away if the predictor doesn't exist
+        branchPredictor = value;
+        break;
+
+      case BHT_ENTRIES:
+        int parsedBhtEntries = parsePositive(key, value);
+        if ((parsedBhtEntries & (parsedBhtEntries - 1)) != 0)
+        {
+          throw new IllegalArgumentException("Invalid value for " + key + ": " + value + " (Must be a power of 2)");
+        }
+        bhtEntries = parsedBhtEntries;
+        break;
+
+      case PHT_ENTRIES:
+        int parsedPhtEntries = parsePositive(key, value);
+        if ((parsedPhtEntries & (parsedPhtEntries - 1)) != 0)
+        {
+          throw new IllegalArgumentException("Invalid value for " + key + ": " + value + " (Must be a power of 2)");
+        }
+        phtEntries = parsedPhtEntries;
+        break;
+
+      case GLOBAL_HISTORY_BITS:
+        int parsedHistoryBits = parsePositive(key, value);
+        if (parsedHistoryBits > 31)
+        {
+          throw new IllegalArgumentException("Invalid value for " + key + ": " + value + " (Must be at most 31)");
+        }
+        globalHistoryBits = parsedHistoryBits;
+        break;
+
+      case BLOCK_COMPILE_THRESHOLD:
+        blockCompileThreshold = parsePositive(key, value);
+        break;
+
+      default:
+        throw new IllegalArgumentException("Unknown configuration key: " + key + " (Supported keys: " + String.join(", ", KEYS) + ")");
+    }
+  }
+
+  /**
+   * Method to obtain the value of a parameter
+   * @param  key Configuration key
+   * @return     Value of the parameter
+   */
+  public String get(String key)
+  {
+    switch (key)
+    {
+      case MEMORY_SIZE:                 return Long.toString(memorySize);
+      case MEMORY_BACKEND:              return memoryBackend;
+      case INSTRUCTION_QUEUE_CAPACITY:  return Integer.toString(instructionQueueCapacity);
+      case INSTRUCTION_TABLE_CAPACITY:  return Integer.toString(instructionTableCapacity);
+      case BRANCH_PREDICTOR:            return branchPredictor;
+      case BHT_ENTRIES:                 return Integer.toString(bhtEntries);
+      case PHT_ENTRIES:                 return Integer.toString(phtEntries);
+      case GLOBAL_HISTORY_BITS:         return Integer.toString(globalHistoryBits);
+      case BLOCK_COMPILE_THRESHOLD:     return Integer.toString(blockCompileThreshold);
+      default:
+        throw new IllegalArgumentException("Unknown configuration key: " + key + " (Supported keys: " + String.join(", ", KEYS) + ")");
+    }
+  }
+
+  /**
+   * Method to obtain the smallest number of instruction table slots required by an instruction queue, i.e. one slot per queue entry plus one
+   * per pipeline stage (See InstructionTable)
+   * @param  queueCapacity Instruction queue capacity
+   * @return               Required number of slots
+   */
+  private static int getRequiredInstructionTableCapacity(int queueCapacity)
+  {
+    return queueCapacity + GlobalConstants.PIPELINE_LENGTH;
+  }
+
+  /**
+   * Method to parse a positive integer parameter
+   * @param  key   Configuration key (Used in the error message)
+   * @param  value Value to parse
+   * @return       Parsed value
+   */
+  private static int parsePositive(String key, String value)
+  {
+    int parsedValue;
+    try
+    {
+      parsedValue = Integer.parseInt(value);
+    }
+    catch (NumberFormatException ex)
+    {
+      throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+    }
+    if (parsedValue <= 0)
+    {
+      throw new IllegalArgumentException("Invalid value for " + key + ": " + value + " (Must be greater than 0)");
+    }
+    return parsedValue;
+  }
+
+  /**
+   * Method to instantiate the configured branch predictor
+   * @return Branch predictor
+   */
+  public IBranchPredictor createBranchPredictor()
+  {
+    return this.createBranchPredictor(branchPredictor);
+  }
+
+  /**
+   * Method to instantiate a branch predictor by name
+   * @param  name Name of the branch predictor
+   * @return      Branch predictor
+   */
+  private IBranchPredictor createBranchPredictor(String name)
+  {
+    switch (name)
+    {
+      case PREDICTOR_STATIC:
+        return new StaticBranchPredictor();
+
+      case PREDICTOR_BIMODAL:
+        return new BimodalBranchPredictor(bhtEntries);
+
+      case PREDICTOR_GSHARE:
+        return new GshareBranchPredictor(phtEntries, globalHistoryBits);
+
+      default:
+        throw new IllegalArgumentException("Unknown branch predictor: " + name);
+    }
+  }
+
+  /**
+   * Method to obtain the number of memory locations
+   * @return Memory size
+   */
+  public long getMemorySize()
+  {
+    return memorySize;
+  }
+
+  /**
+   * Method to check if the memory pages need to be allocated off-heap
+   * @return True if the memory backend is offheap
+   */
+  public boolean isMemoryOffHeap()
+  {
+    return memoryBackend.equals(MEMORY_OFF_HEAP);
+  }
+
+  /**
+   * Method to obtain the capacity of the instruction queue
+   * @return Instruction queue capacity
+   */
+  public int getInstructionQueueCapacity()
+  {
+    return instructionQueueCapacity;
+  }
+
+  /**
+   * Method to obtain the number of slots in the instruction table
+   * @return Instruction table capacity
+   */
+  public int getInstructionTableCapacity()
+  {
+    return instructionTableCapacity;
+  }
+
+  /**
+   * Method to obtain the name of the branch predictor
+   * @return Branch predictor name
+   */
+  public String getBranchPredictor()
+  {
+    return branchPredictor;
+  }
+
+  /**
+   * Method to obtain the number of counters in the branch history table of the bimodal predictor
+   * @return BHT entries
+   */
+  public int getBhtEntries()
+  {
+    return bhtEntries;
+  }
+
+  /**
+   * Method to obtain the number of counters in the pattern history table of the gshare predictor
+   * @return PHT entries
+   */
+  public int getPhtEntries()
+  {
+    return phtEntries;
+  }
+
+  /**
+   * Method to obtain the number of branch outcomes held in the global history register of the gshare predictor
+   * @return Global history length in bits
+   */
+  public int getGlobalHistoryBits()
+  {
+    return globalHistoryBits;
+  }
+
+  /**
+   * Method to obtain the number of executions after which a translated block is compiled
+   * @return Compile threshold
+   */
+  public int getBlockCompileThreshold()
+  {
+    return blockCompileThreshold;
+  }
+}
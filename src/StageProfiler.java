@@ -0,0 +1,215 @@
+/**
+ * @file StageProfiler.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the StageProfiler class. It records the host time (in nanoseconds) spent in every pipeline stage, the status
+ * printer and the pipeline flush into log-linear histograms (8 sub-buckets per power of 2, i.e. within 12.5% of the recorded value). Only
+ * every n-th cycle is sampled, since timing a cycle (Two System.nanoTime() calls around every stage, the histogram updates and the JFR
+ * events) costs 0.5 to 1 us, i.e. several times the cycle itself. The overhead is roughly that cost divided by n cycle times: with a cycle
+ * time of ~250 ns a period of 16 slows the simulation down by ~15% (warmed up) to ~25% (cold JVM), while a period of 64 or more keeps it
+ * within ~5%. A flush is only timed if it happens in a sampled cycle, since mispredictions flush the pipeline every few cycles. Nothing is
+ * allocated or timed if no profiler is attached to the pipeline.
+ *
+ * Every timed stage also creates a StageTimingEvent. The first event initializes JFR, which takes ~300 ms, hence, the event type is
+ * initialized when the profiler is created rather than inside the first timed stage.
+ */
+
+// Import packages
+import java.io.*;
+
+/**
+ * Host-side timing profiler of the simulator.
+ */
+public class StageProfiler
+{
+  public static final String[] STAGE_NAMES = {"IF", "ID", "II", "IE", "WB", "STATUS", "FLUSH"};    /** Names of the profiled stages (Pipeline stages in pipeline order followed by the status printer and the flush) */
+  public static final int STAGE_STATUS = 5;                 /** Index of the status printer (ProcessorPipelineStatus.record) */
+  public static final int STAGE_FLUSH = 6;                  /** Index of the pipeline flush (SequentialProcessorPipeline.flush) */
+  private static final int SUB_BUCKET_BITS = 3;             /** Number of bits used to split every power of 2 into sub-buckets */
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;     /** Number of buckets needed to cover every positive long value */
+
+  private final int samplePeriod;           /** Number of cycles between two sampled cycles (1 = every cycle is sampled) */
+  private int cyclesToSample;               /** Number of cycles left until the next sampled cycle */
+  private boolean sampledCycle;             /** Boolean variable stating if the current cycle is being sampled */
+  private final long[] histograms;          /** Histogram of every stage (BUCKETS counts per stage) */
+  private final long[] samples;             /** Number of timings recorded for every stage */
+  private final long[] totalNanos;          /** Sum of the timings recorded for every stage */
+  private final long[] maxNanos;            /** Largest timing recorded for every stage */
+  private long sampledCycles;               /** Number of sampled cycles */
+
+  /**
+   * Parameterized constructor
+   * @param  samplePeriod Number of cycles between two sampled cycles (1 = every cycle is sampled)
+   * @return              No return value since this is a constructor
+   */
+  public StageProfiler(int samplePeriod)
+  {
+    if (samplePeriod <= 0)
+    {
+      throw new IllegalArgumentException("Profiler sample period must be positive (Period requested: " + samplePeriod + ")");
+    }
+    this.samplePeriod = samplePeriod;
+    this.histograms = new long[STAGE_NAMES.length * BUCKETS];
+    this.samples = new long[STAGE_NAMES.length];
+    this.totalNanos = new long[STAGE_NAMES.length];
+    this.maxNanos = new long[STAGE_NAMES.length];
+    StageTimingEvent event = new StageTimingEvent();      // Load and initialize the JFR event type now (Takes ~300 ms the first time), otherwise it would be charged to the first timed stage
+    event.begin();
+    event.end();
+    event.shouldCommit();
+  }
+
+  /**
+   * Method called once at the start of every cycle to decide if the cycle is sampled
+   * @return True if the stages need to be timed in this cycle
+   */
+  public boolean startCycle()
+  {
+    if (--cyclesToSample <= 0)
+    {
+      cyclesToSample = samplePeriod;
+      sampledCycles++;
+      sampledCycle = true;
+    }
+    else
+    {
+      sampledCycle = false;
+    }
+    return sampledCycle;
+  }
+
+  /**
+   * Method to check if the current cycle is being sampled
+   * @return True if the stages need to be timed in this cycle
+   */
+  public boolean isSampledCycle()
+  {
+    return sampledCycle;
+  }
+
+  /**
+   * Method to record a timing
+   * @param stage Index of the stage (See STAGE_NAMES)
+   * @param nanos Host time spent in the stage
+   */
+  public void record(int stage, long nanos)
+  {
+    if (nanos < 0)
+    {
+      nanos = 0;
+    }
+    histograms[stage * BUCKETS + bucketIndex(nanos)]++;
+    samples[stage]++;
+    totalNanos[stage] += nanos;
+    if (nanos > maxNanos[stage])
+    {
+      maxNanos[stage] = nanos;
+    }
+  }
+
+  /**
+   * Method to obtain the histogram bucket a timing falls into
+   * @param  nanos Timing (Not negative)
+   * @return       Bucket index
+   */
+  private static int bucketIndex(long nanos)
+  {
+    if (nanos < SUB_BUCKETS)          // Small values get a bucket each
+    {
+      return (int) nanos;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+    int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) | subBucket;
+  }
+
+  /**
+   * Method to obtain the largest timing that falls into a bucket
+   * @param  bucket Bucket index
+   * @return        Upper bound of the bucket
+   */
+  private static long bucketUpperBound(int bucket)
+  {
+    if (bucket < SUB_BUCKETS)
+    {
+      return bucket;
+    }
+    int exponent = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+    long subBucketWidth = 1L << (exponent - SUB_BUCKET_BITS);
+    return ((SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1))) * subBucketWidth) + subBucketWidth - 1;
+  }
+
+  /**
+   * Method to obtain a percentile of the timings recorded for a stage
+   * @param  stage      Index of the stage
+   * @param  percentile Percentile (0 to 100)
+   * @return            Upper bound of the bucket holding the percentile (0 if nothing was recorded)
+   */
+  public long getPercentile(int stage, double percentile)
+  {
+    long rank = (long) Math.ceil(samples[stage] * percentile / 100.0);
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++)
+    {
+      seen += histograms[stage * BUCKETS + bucket];
+      if (seen >= rank && seen > 0)
+      {
+        return Math.min(bucketUpperBound(bucket), maxNanos[stage]);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Method to obtain the number of timings recorded for a stage
+   * @param  stage Index of the stage
+   * @return       Number of timings
+   */
+  public long getSamples(int stage)
+  {
+    return samples[stage];
+  }
+
+  /**
+   * Method to obtain the sum of the timings recorded for a stage
+   * @param  stage Index of the stage
+   * @return       Total time in nanoseconds
+   */
+  public long getTotalNanos(int stage)
+  {
+    return totalNanos[stage];
+  }
+
+  /**
+   * Method to obtain the number of sampled cycles
+   * @return Number of sampled cycles
+   */
+  public long getSampledCycles()
+  {
+    return sampledCycles;
+  }
+
+  /**
+   * Method to print the timing summary of every stage
+   * @param out Stream the summary is printed to
+   */
+  public void printSummary(PrintStream out)
+  {
+    long sampledTotal = 0;
+    for (int stage = 0; stage < STAGE_NAMES.length; stage++)
+    {
+      sampledTotal += totalNanos[stage];
+    }
+    out.println("Sample period (cycles): " + samplePeriod);
+    out.println("Sampled cycles: " + sampledCycles);
+    out.format("%-7s %10s %12s %10s %10s %10s %10s %8s%n", "Stage", "Samples", "Total (us)", "Mean (ns)", "p50 (ns)", "p99 (ns)", "Max (ns)", "Share");
+    for (int stage = 0; stage < STAGE_NAMES.length; stage++)
+    {
+      double mean = (samples[stage] == 0) ? 0.0 : ((double) totalNanos[stage] / samples[stage]);
+      String share = (sampledTotal == 0) ? "-" : String.format("%.1f%%", 100.0 * totalNanos[stage] / sampledTotal);
+      out.format("%-7s %10d %12.1f %10.1f %10d %10d %10d %8s%n", STAGE_NAMES[stage], samples[stage], totalNanos[stage] / 1000.0, mean,
+                 getPercentile(stage, 50), getPercentile(stage, 99), maxNanos[stage], share);
+    }
+  }
+}
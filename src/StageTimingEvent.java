@@ -0,0 +1,33 @@
+/**
+ * @file StageTimingEvent.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the StageTimingEvent class. It is the custom Java Flight Recorder (JFR) event emitted by the stage profiler
+ * for every sampled stage execution. The event is only committed while a JFR recording with the event enabled is running
+ * (e.g. java -XX:StartFlightRecording:filename=sim.jfr ProcessorSimulator --profile 16 input.txt). Without a recording begin()/end() are
+ * cheap but not free (An allocation and a check per sampled stage), and the first event created in the JVM initializes JFR (~300 ms), which
+ * is why the StageProfiler constructor creates one up front. The stage timings are taken inside begin()/end(), so neither is charged to a stage.
+ */
+
+// Import packages
+import jdk.jfr.*;
+
+/**
+ * JFR event holding the host time spent in a single pipeline stage in a single simulated cycle.
+ */
+@Name("aca.StageTiming")
+@Label("Pipeline Stage Timing")
+@Category({"ACA Simulator", "Pipeline"})
+@Description("Host time spent executing a pipeline stage in a simulated cycle")
+@StackTrace(false)
+public class StageTimingEvent extends Event
+{
+  @Label("Stage")
+  String stage;           /** Name of the stage (See StageProfiler.STAGE_NAMES) */
+
+  @Label("Cycle")
+  long cycle;             /** Simulated clock cycle */
+
+  @Label("OpCode")
+  int opCode;             /** OpCode of the instruction handled by the stage in this cycle */
+}
@@ -0,0 +1,93 @@
+/**
+ * Branch prediction (BP) unit. Class that handles branch predictions for the processor.
+ * Static branch predictor (See IBranchPredictor for the common predictor interface).
+ * Predicts always taken for unconditional branch instructions
+ * Predicts always not taken for conditional branch instructions
+ */
+
+import java.nio.*;
+
+public class StaticBranchPredictor implements IBranchPredictor
+{
+  /**
+   * Method to predict whether a branch is taken or not.
+   * Taken = true
+   * Not taken = false
+   * @param  pc          Address the branch was fetched from (Not used by the static predictor)
+   * @param  instruction Decoded branch instruction on which a prediction must be made
+   * @return Branch prediction result (True = predict taken, false = predict not taken)
+   */
+  public boolean predict(int pc, DecodedInstruction instruction)
+  { 
+    int opCode = instruction.getOpCode();
+    boolean predictionResult;       // Result of the branch predictor
+    if (opCode == Isa.BU || opCode == Isa.BL || opCode == Isa.RET)     // If the instruction is an unconditional branch
+    {
+      predictionResult = true;    // Predict that unconditional branches are always taken
+    }
+    else    // If the instruction is a conditional branch
+    {
+      //TODO check immediate value for conditional branch instructions. If negative, predict true since it's probably a loop else predict false. Look for other factors that can improve performance. Uncomment the following section
+      if (instruction.getSignedImmediateVal() < 0)      // Check if it is a backward branch (i.e. if the immediate is a negative value) - Most likely to be a loop, hence predict taken
+      {
+        predictionResult = true;
+      }
+      else                                              // Forward branch, hence, predict always not taken
+      {
+        predictionResult = false;
+      }
+      //predictionResult = false;   // Predict that conditional branches are always not taken
+    }
+    return predictionResult;
+  }
+
+  /**
+   * Method to train the predictor with the outcome of a resolved branch.
+   * The static predictor doesn't learn from the outcomes, hence, nothing needs to be updated.
+   * @param pc          Address the branch was fetched from
+   * @param instruction Decoded branch instruction
+   * @param taken       True if the branch was taken
+   */
+  public void update(int pc, DecodedInstruction instruction, boolean taken)
+  {
+    // The static predictor doesn't hold any state
+  }
+
+  /**
+   * Method to obtain the storage cost of the predictor.
+   * The static predictor only looks at the fetched instruction, hence, it doesn't need any storage.
+   * @return Storage cost in bits
+   */
+  public long getStorageBits()
+  {
+    return 0;
+  }
+
+  /**
+   * Method to obtain the number of bytes required to save the state of the branch predictor.
+   * The static predictor doesn't hold any state, hence, nothing needs to be saved.
+   * @return Size of the saved state in bytes
+   */
+  public int getStateSize()
+  {
+    return 0;
+  }
+
+  /**
+   * Method to save the state of the branch predictor to a buffer
+   * @param buffer Buffer to which the state is written
+   */
+  public void saveState(ByteBuffer buffer)
+  {
+    // The static predictor doesn't hold any state
+  }
+
+  /**
+   * Method to restore the state of the branch predictor from a buffer
+   * @param buffer Buffer from which the state is read
+   */
+  public void restoreState(ByteBuffer buffer)
+  {
+    // The static predictor doesn't hold any state
+  }
+}
@@ -0,0 +1,320 @@
+/**
+ * @file SweepRunner.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the SweepRunner class that runs a design-space exploration sweep. The grid file is a properties file mapping
+ * every swept configuration key (See SimulatorConfig) to a comma-separated list of values, e.g.
+ *
+ *   instructionQueue.capacity = 1, 2, 4, 8
+ *   instructionTable.capacity = 16, 32, 64
+ *
+ * Every point of the Cartesian product of the values (Keys in sorted order, the last key varying fastest) is run as a separate simulation
+ * on the batch runner's work-stealing pool, with the point's values passed to the simulator as "--set <key>=<value>" overrides after the
+ * common simulator arguments. One CSV row is written per point, so a sweep can be plotted or compared without any further processing.
+ * The configuration of every point is checked (See SimulatorConfig) before any point is run, hence, a grid holding an invalid point (e.g. an
+ * instruction table too small for the instruction queue) is rejected as a whole rather than producing failed or misleading rows.
+ */
+
+// Import packages
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Runs a simulation for every point of a configuration grid and writes the results as CSV.
+ */
+public class SweepRunner
+{
+  private final String[] keys;            /** Swept configuration keys (Sorted) */
+  private final String[][] values;        /** Values of every swept key */
+
+  /**
+   * Parameterized constructor
+   * @param  grid Values of every swept key
+   * @return      No return value since this is a constructor
+   */
+  public SweepRunner(Map<String, String[]> grid)
+  {
+    SortedMap<String, String[]> sortedGrid = new TreeMap<String, String[]>(grid);
+    keys = sortedGrid.keySet().toArray(new String[0]);
+    values = sortedGrid.values().toArray(new String[0][]);
+    for (int keyIndex = 0; keyIndex < keys.length; keyIndex++)
+    {
+      if (values[keyIndex].length == 0)
+      {
+        throw new IllegalArgumentException("No values given for " + keys[keyIndex]);
+      }
+    }
+  }
+
+  /**
+   * Method to obtain the number of points in the grid
+   * @return Number of points
+   */
+  public int getPoints()
+  {
+    int points = 1;
+    for (String[] keyValues : values)
+    {
+      points = Math.multiplyExact(points, keyValues.length);
+    }
+    return points;
+  }
+
+  /**
+   * Method to obtain the values of a point in the grid
+   * @param  point Index of the point
+   * @return       Value of every swept key (In the same order as the keys)
+   */
+  public String[] getPoint(int point)
+  {
+    String[] pointValues = new String[keys.length];
+    for (int keyIndex = keys.length - 1; keyIndex >= 0; keyIndex--)     // Last key varies fastest
+    {
+      pointValues[keyIndex] = values[keyIndex][point % values[keyIndex].length];
+      point /= values[keyIndex].length;
+    }
+    return pointValues;
+  }
+
+  /**
+   * Method to build the simulator arguments of every point in the grid
+   * @param  simulatorArgs Arguments common to every point (The program file and any other simulator option)
+   * @return               Arguments of every job
+   */
+  public List<String[]> createJobs(String[] simulatorArgs)
+  {
+    int points = getPoints();
+    List<String[]> jobs = new ArrayList<String[]>(points);
+    for (int point = 0; point < points; point++)
+    {
+      String[] pointValues = getPoint(point);
+      String[] job = Arrays.copyOf(simulatorArgs, simulatorArgs.length + 2 * keys.length);
+      for (int keyIndex = 0; keyIndex < keys.length; keyIndex++)
+      {
+        job[simulatorArgs.length + 2 * keyIndex] = "--set";
+        job[simulatorArgs.length + 2 * keyIndex + 1] = keys[keyIndex] + "=" + pointValues[keyIndex];
+      }
+      jobs.add(job);
+    }
+    return jobs;
+  }
+
+  /**
+   * Method to check the configuration of every job, i.e. apply its "--config" and "--set" arguments the same way the simulator does
+   * @param  jobs Arguments of every job (In point order)
+   * @return      Error message of every invalid point (Empty if every point is valid)
+   */
+  public List<String> validateJobs(List<String[]> jobs)
+  {
+    List<String> errors = new ArrayList<String>();
+    for (int point = 0; point < jobs.size(); point++)
+    {
+      String[] job = jobs.get(point);
+      SimulatorConfig config = new SimulatorConfig();
+      try
+      {
+        for (int argIndex = 0; argIndex + 1 < job.length; argIndex++)
+        {
+          if (job[argIndex].equals("--config"))
+          {
+            config.load(job[++argIndex]);
+          }
+          else if (job[argIndex].equals("--set"))
+          {
+            config.set(job[++argIndex]);
+          }
+        }
+      }
+      catch (IOException | IllegalArgumentException ex)
+      {
+        String[] pointValues = getPoint(point);
+        StringJoiner pointDescription = new StringJoiner(", ");
+        for (int keyIndex = 0; keyIndex < keys.length; keyIndex++)
+        {
+          pointDescription.add(keys[keyIndex] + "=" + pointValues[keyIndex]);
+        }
+        errors.add("Point " + point + " (" + pointDescription + "): " + ex.getMessage());
+      }
+    }
+    return errors;
+  }
+
+  /**
+   * Method to write the results of the sweep as CSV
+   * @param results Results of every point (In point order)
+   * @param out     Writer the CSV is written to
+   */
+  public void writeCsv(List<BatchRunner.JobResult> results, PrintWriter out)
+  {
+    out.print("point");
+    for (String key : keys)
+    {
+      out.print("," + key);
+    }
+    out.println(",cycles,instructions,nops,validInstructions,ipc,branches,branchPredictionsCorrect,branchPredictionsIncorrect," +
+                "aluInstructions,loads,stores,encodedLoads,instructionsFastForwarded,elapsedMs,error");
+    for (int point = 0; point < results.size(); point++)
+    {
+      BatchRunner.JobResult jobResult = results.get(point);
+      SimulationResult result = jobResult.getResult();
+      out.print(point);
+      for (String value : getPoint(point))
+      {
+        out.print("," + csvField(value));
+      }
+      if (result == null)
+      {
+        out.print(",,,,,,,,,,,,,");
+      }
+      else
+      {
+        out.format(Locale.ROOT, ",%d,%d,%d,%d,%.6f,%d,%d,%d,%d,%d,%d,%d,%d", result.getClockCycles(), result.getInstructions(),
+                   result.getInstructionsNOP(), result.getValidInstructions(), result.getIPC(), result.getBranches(),
+                   result.getBranchPredictionsCorrect(), result.getBranchPredictionsIncorrect(), result.getAluInstructions(),
+                   result.getLoads(), result.getStores(), result.getEncodedLoads(), result.getInstructionsFastForwarded());
+      }
+      out.format(Locale.ROOT, ",%.3f,%s%n", jobResult.getElapsedNanos() / 1e6, (jobResult.getError() == null) ? "" : csvField(jobResult.getError()));
+    }
+    out.flush();
+  }
+
+  /**
+   * Method to quote a CSV field if needed
+   * @param  field Field to write
+   * @return       Field as it needs to be written
+   */
+  private static String csvField(String field)
+  {
+    if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0)
+    {
+      return field;
+    }
+    return "\"" + field.replace("\"", "\"\"") + "\"";
+  }
+
+  /**
+   * Method to read the grid file
+   * @param  gridFileName Name of the grid file
+   * @return              Values of every swept key
+   * @throws IOException  If the file can't be read
+   */
+  private static Map<String, String[]> readGrid(String gridFileName) throws IOException
+  {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(Paths.get(gridFileName)))
+    {
+      properties.load(reader);
+    }
+    Map<String, String[]> grid = new TreeMap<String, String[]>();
+    SimulatorConfig defaults = new SimulatorConfig();
+    for (String key : properties.stringPropertyNames())
+    {
+      defaults.get(key);                // Fail straight away if the key isn't a configuration key
+      String[] keyValues = properties.getProperty(key).trim().split("\\s*,\\s*");
+      if (keyValues.length == 1 && keyValues[0].isEmpty())
+      {
+        keyValues = new String[0];
+      }
+      grid.put(key, keyValues);
+    }
+    return grid;
+  }
+
+  /**
+   * Main entry point to the sweep runner
+   * @param args Command-line arguments: "[--threads <number of threads>] [--output <CSV file>] <grid file> <simulator arguments...>"
+   */
+  public static void main(String[] args)
+  {
+    int threads = Runtime.getRuntime().availableProcessors();
+    String outputFileName = null;
+    int argIndex = 0;
+    while (argIndex + 1 < args.length && args[argIndex].startsWith("--"))
+    {
+      if (args[argIndex].equals("--threads"))
+      {
+        threads = Integer.parseInt(args[argIndex + 1]);
+      }
+      else if (args[argIndex].equals("--output"))
+      {
+        outputFileName = args[argIndex + 1];
+      }
+      else
+      {
+        break;
+      }
+      argIndex += 2;
+    }
+    if ((args.length - argIndex) < 2 || threads < 1)
+    {
+      System.err.println("Correct Usage: java SweepRunner [--threads <number of threads>] [--output <CSV file>] <grid file> <simulator arguments...>");
+      System.exit(1);               // Exit/Terminate the program/Java runtime with error code 1
+    }
+    String gridFileName = args[argIndex];
+    String[] simulatorArgs = Arrays.copyOfRange(args, argIndex + 1, args.length);
+
+    SweepRunner sweepRunner = null;
+    try
+    {
+      sweepRunner = new SweepRunner(readGrid(gridFileName));
+    }
+    catch (IOException ex)
+    {
+      System.err.println("The grid file couldn't be read. The exception is as follows: " + ex.getMessage());
+      System.exit(1);               // Exit/Terminate the program/Java runtime with error code 1
+    }
+    catch (IllegalArgumentException ex)
+    {
+      System.err.println("Invalid grid file: " + ex.getMessage());
+      System.exit(1);               // Exit/Terminate the program/Java runtime with error code 1
+    }
+
+    List<String[]> jobs = sweepRunner.createJobs(simulatorArgs);
+    List<String> errors = sweepRunner.validateJobs(jobs);
+    if (!errors.isEmpty())
+    {
+      System.err.println("Invalid grid (No point has been run):");
+      for (String error : errors)
+      {
+        System.err.println("  " + error);
+      }
+      System.exit(1);               // Exit/Terminate the program/Java runtime with error code 1
+    }
+    BatchRunner batchRunner = new BatchRunner(threads);
+    long startTime = System.nanoTime();
+    List<BatchRunner.JobResult> results = batchRunner.run(jobs);
+    long elapsedNanos = System.nanoTime() - startTime;
+    batchRunner.shutdown();
+
+    int failedPoints = 0;
+    for (BatchRunner.JobResult jobResult : results)
+    {
+      if (jobResult.getResult() == null)
+      {
+        failedPoints++;
+      }
+    }
+    if (outputFileName == null)
+    {
+      sweepRunner.writeCsv(results, new PrintWriter(System.out));
+    }
+    else
+    {
+      try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(outputFileName))))
+      {
+        sweepRunner.writeCsv(results, out);
+      }
+      catch (IOException ex)
+      {
+        System.err.println("The results couldn't be written. The exception is as follows: " + ex.getMessage());
+        System.exit(1);             // Exit/Terminate the program/Java runtime with error code 1
+      }
+    }
+    System.err.format("Points run: %d (%d failed) on %d thread(s) in %.3f ms%n", results.size(), failedPoints, threads, elapsedNanos / 1e6);
+    if (failedPoints > 0)
+    {
+      System.exit(1);
+    }
+  }
+}
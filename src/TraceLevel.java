@@ -0,0 +1,12 @@
+/**
+ * Enum containing the levels of tracing supported by the simulator.
+ * OFF     - Nothing is recorded while the simulation runs
+ * SUMMARY - Only pipeline events (i.e. flushes due to mispredicted branches) are recorded
+ * CYCLE   - The complete state of the pipeline is recorded at the end of every cycle
+ */
+public enum TraceLevel
+{
+  OFF,
+  SUMMARY,
+  CYCLE
+}
@@ -0,0 +1,259 @@
+/**
+ * @file TraceReplayer.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the TraceReplayer class that runs a trace-driven simulation: The committed-instruction trace recorded by the
+ * simulator (--commit-trace <file>) is replayed through the timing model of the pipeline without executing any instruction, hence, the
+ * effect of a microarchitectural parameter (e.g. the branch predictor) on the timing can be evaluated without re-running the program.
+ *
+ * Timing model (Matches the execute-driven pipeline cycle for cycle):
+ *  - The IF stage fetches one instruction per cycle and an instruction is executed FETCH_TO_EXECUTE_CYCLES cycles after it was fetched
+ *    (IF -> ID -> II -> IE). The IE stage executes a bubble (NOP) in every cycle in which no instruction has reached it.
+ *  - A branch predicted taken is redirected by the IF stage without any penalty. A mispredicted branch flushes the pipeline when it is
+ *    executed, hence, the next instruction is fetched in the following cycle.
+ *  - Results are forwarded to the dependent instructions and every instruction takes a single cycle to execute, hence, there are no
+ *    data hazard stalls.
+ *  - The simulation ends in the cycle the last instruction of the trace is executed.
+ * The model requires an instruction queue holding at least 2 instructions (With a single entry, the II stage stalls every other cycle).
+ */
+
+// Import packages
+import java.io.*;
+import java.util.*;
+
+/**
+ * Replays a committed-instruction trace through the timing model of the pipeline.
+ */
+public class TraceReplayer
+{
+  public static final int FETCH_TO_EXECUTE_CYCLES = 3;        /** Number of cycles from the IF stage fetching an instruction to the IE stage executing it */
+
+  private final IBranchPredictor branchPredictor;             /** Branch predictor being evaluated */
+  private final Map<Integer, DecodedInstruction> decodedInstructions = new HashMap<Integer, DecodedInstruction>();    /** Decoded instruction of every instruction word replayed */
+  private long records;                                       /** Number of records replayed */
+
+  /**
+   * Parameterized constructor
+   * @param  config Microarchitectural configuration (Only the branch predictor and the instruction queue capacity are used)
+   * @return        No return value since this is a constructor
+   */
+  public TraceReplayer(SimulatorConfig config)
+  {
+    if (config.getInstructionQueueCapacity() < 2)
+    {
+      throw new IllegalArgumentException("Trace-driven replay requires an instruction queue capacity of at least 2 (Found " +
+                                         config.getInstructionQueueCapacity() + ")");
+    }
+    branchPredictor = config.createBranchPredictor();
+  }
+
+  /**
+   * Method to replay a trace
+   * @param  reader      Reader of the trace
+   * @return             Results of the simulation (Same counters as the execute-driven simulation)
+   * @throws IOException If the trace is truncated or corrupted
+   */
+  public SimulationResult replay(CommitTrace.Reader reader) throws IOException
+  {
+    long fetchCycle = 1;              // Cycle in which the IF stage fetches the next instruction
+    long executeCycle = 0;            // Cycle in which the IE stage executed the last instruction
+    long nops = 0;
+    long branches = 0;
+    long branchPredictionsCorrect = 0;
+    long branchPredictionsIncorrect = 0;
+    long aluInstructions = 0;
+    long loads = 0;
+    long stores = 0;
+    long encodedLoads = 0;
+    while (reader.next())
+    {
+      records++;
+      DecodedInstruction decodedInstruction = this.decode(reader.getInstruction());
+      executeCycle = fetchCycle + FETCH_TO_EXECUTE_CYCLES;
+      fetchCycle++;
+      switch (decodedInstruction.getExecutionUnit())
+      {
+        case ALU:
+          aluInstructions++;
+          if (decodedInstruction.getOpCode() == Isa.NOP)
+          {
+            nops++;
+          }
+          break;
+
+        case LSU:
+          if (decodedInstruction.getOpCode() == Isa.LW)
+          {
+            loads++;
+          }
+          else if (decodedInstruction.getOpCode() == Isa.SW)
+          {
+            stores++;
+          }
+          else if (decodedInstruction.getOpCode() == Isa.MOVI)
+          {
+            encodedLoads++;
+          }
+          break;
+
+        case BU:
+          branches++;
+          boolean correctPrediction = (branchPredictor.predict(reader.getPc(), decodedInstruction) == reader.isTaken());
+          branchPredictor.update(reader.getPc(), decodedInstruction, reader.isTaken());     // Train the predictor with the recorded outcome
+          if (correctPrediction)
+          {
+            branchPredictionsCorrect++;
+          }
+          else
+          {
+            branchPredictionsIncorrect++;
+            fetchCycle = executeCycle + 1;        // The pipeline is flushed, hence, the next instruction is fetched after the branch is executed
+          }
+          break;
+
+        default:
+          break;
+      }
+    }
+    long bubbles = executeCycle - records;    // Cycles in which the IE stage didn't execute an instruction of the trace
+    return new SimulationResult(executeCycle, executeCycle, nops + bubbles, branches, branchPredictionsCorrect, branchPredictionsIncorrect, 0,
+                                aluInstructions + bubbles, loads, stores, encodedLoads);
+  }
+
+  /**
+   * Method to obtain the number of records replayed
+   * @return Number of records
+   */
+  public long getRecords()
+  {
+    return records;
+  }
+
+  /**
+   * Method to decode an instruction word (Each distinct word is only decoded once)
+   * @param  instruction Instruction word
+   * @return             Decoded instruction
+   */
+  private DecodedInstruction decode(int instruction)
+  {
+    DecodedInstruction decodedInstruction = decodedInstructions.get(instruction);
+    if (decodedInstruction == null)
+    {
+      decodedInstruction = InstructionDecoder.decode(instruction);
+      decodedInstructions.put(instruction, decodedInstruction);
+    }
+    return decodedInstruction;
+  }
+
+  /**
+   * Method to print the results of the replay (Same format as the execute-driven simulation)
+   * @param result Results of the replay
+   */
+  private static void printResults(SimulationResult result)
+  {
+    System.out.println("--------------------------------------");
+    System.out.println(">>>  Overall performance resutls   <<<");
+    System.out.println("--------------------------------------");
+    System.out.println("Total instructions executed: " + result.getInstructions());
+    System.out.println("Total NOP instructions executed: " + result.getInstructionsNOP());
+    System.out.println("Total valid instructions executed: " + result.getValidInstructions());
+    System.out.println("Total clock cycles simulated: " + result.getClockCycles());
+    System.out.println("Instructions per cycle (IPC): " + result.getIPC());
+    System.out.println();
+    System.out.println("--------------------------------------");
+    System.out.println(">>> BU & Branch prediction results <<<");
+    System.out.println("--------------------------------------");
+    System.out.println("Total branch instructions executed: " + result.getBranches());
+    System.out.println("Branches predicted correct: " + result.getBranchPredictionsCorrect());
+    System.out.println("Branches predicted incorrect: " + result.getBranchPredictionsIncorrect());
+    System.out.println();
+    System.out.println("--------------------------------------");
+    System.out.println(">>>          ALU results           <<<");
+    System.out.println("--------------------------------------");
+    System.out.println("Total ALU instructions executed: " + result.getAluInstructions());
+    System.out.println();
+    System.out.println("--------------------------------------");
+    System.out.println(">>>          LSU results           <<<");
+    System.out.println("--------------------------------------");
+    System.out.println("Total LSU instructions executed: " + (result.getLoads() + result.getStores() + result.getEncodedLoads()));
+    System.out.println("Total loads executed: " + result.getLoads());
+    System.out.println("Total stores executed: " + result.getStores());
+    System.out.println("Total instruction encoded loads (i.e. MOVIs): " + result.getEncodedLoads());
+    System.out.println();
+  }
+
+  /**
+   * Main entry point to the trace replayer
+   * @param args Command-line arguments: "[--config <properties file>] [--set <key>=<value>]... <commit trace file>"
+   */
+  public static void main(String[] args)
+  {
+    SimulatorConfig config = new SimulatorConfig();
+    String traceFileName = null;
+    try
+    {
+      for (int argIndex = 0; argIndex < args.length; argIndex++)
+      {
+        if (args[argIndex].equals("--config") && argIndex + 1 < args.length)
+        {
+          config.load(args[++argIndex]);
+        }
+        else if (args[argIndex].equals("--set") && argIndex + 1 < args.length)
+        {
+          config.set(args[++argIndex]);
+        }
+        else if (traceFileName == null && !args[argIndex].startsWith("--"))
+        {
+          traceFileName = args[argIndex];
+        }
+        else
+        {
+          traceFileName = null;
+          break;
+        }
+      }
+    }
+    catch (IOException ex)
+    {
+      System.err.println("The configuration file couldn't be read. The exception is as follows: " + ex.getMessage());
+      System.exit(1);               // Exit/Terminate the program/Java runtime with error code 1
+    }
+    catch (IllegalArgumentException ex)
+    {
+      System.err.println("Invalid configuration: " + ex.getMessage());
+      System.exit(1);               // Exit/Terminate the program/Java runtime with error code 1
+    }
+    if (traceFileName == null)
+    {
+      System.err.println("Correct Usage: java TraceReplayer [--config <properties file>] [--set <key>=<value>]... <commit trace file>");
+      System.exit(1);               // Exit/Terminate the program/Java runtime with error code 1
+    }
+
+    try (CommitTrace.Reader reader = new CommitTrace.Reader(traceFileName))
+    {
+      TraceReplayer traceReplayer = new TraceReplayer(config);
+      long startTime = System.nanoTime();
+      SimulationResult result = traceReplayer.replay(reader);
+      long elapsedNanos = System.nanoTime() - startTime;
+      System.out.println("###########################################################");
+      System.out.println("###           TRACE-DRIVEN SIMULATION RESULTS           ###");
+      System.out.println("###########################################################");
+      System.out.println("Commit trace: " + traceFileName);
+      System.out.println("Branch predictor: " + config.getBranchPredictor());
+      System.out.println("Instructions replayed: " + traceReplayer.getRecords());
+      System.out.format(Locale.ROOT, "Replay time: %.3f ms%n", elapsedNanos / 1e6);
+      System.out.println();
+      printResults(result);
+    }
+    catch (IOException ex)
+    {
+      System.err.println("The commit trace couldn't be replayed. The exception is as follows: " + ex.getMessage());
+      System.exit(1);               // Exit/Terminate the program/Java runtime with error code 1
+    }
+    catch (IllegalArgumentException ex)
+    {
+      System.err.println("Invalid configuration: " + ex.getMessage());
+      System.exit(1);               // Exit/Terminate the program/Java runtime with error code 1
+    }
+  }
+}
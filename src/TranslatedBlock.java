@@ -0,0 +1,173 @@
+/**
+ * @file TranslatedBlock.java
+ * @author Ashish Tibrewal
+ * @date 17.10.2026
+ * @details This file contains the TranslatedBlock class. A translated block holds the closures of a basic block (i.e. a run of instructions
+ * that is only entered at its first instruction and only left after its last instruction). Executing a block runs the closures back to back
+ * without any decode or dispatch in between (threaded code). Every block remembers the blocks it was last left to (one per exit, i.e. the
+ * fall-through and the branch target) so that the next block can be found without a lookup in the translation cache (block chaining).
+ * Once a block is hot, the BlockCompiler may replace the closures of (a prefix of) the block with a single compiled closure.
+ */
+
+/**
+ * Basic block of translated instructions.
+ */
+public final class TranslatedBlock
+{
+  private final int startAddress;                         /** Memory location of the first instruction in the block */
+  private final DecodedInstruction[] decodedInstructions; /** Decoded instructions of the block (in program order) */
+  private final int length;                               /** Number of instructions in the block */
+  private ITranslatedInstruction[] instructions;          /** Closures of the instructions in the block (in program order, the first closure may cover several instructions once the block is compiled) */
+  private int executions;                                 /** Number of times the block has been executed */
+  private boolean compiled;                               /** Boolean variable stating if the block has been compiled to JVM bytecode */
+  private boolean valid = true;                           /** Boolean variable stating if the block still matches memory (Cleared when a store writes into the block) */
+  private TranslatedBlock fallThroughSuccessor;           /** Block chained to the fall-through exit (null = not chained yet) */
+  private TranslatedBlock branchSuccessor;                /** Block chained to the branch exit (null = not chained yet) */
+
+  /**
+   * Parameterized constructor
+   * @param  startAddress        Memory location of the first instruction in the block
+   * @param  decodedInstructions Decoded instructions of the block
+   * @param  instructions        Closures of the instructions in the block
+   * @return                     No return value since this is a constructor
+   */
+  public TranslatedBlock(int startAddress, DecodedInstruction[] decodedInstructions, ITranslatedInstruction[] instructions)
+  {
+    this.startAddress = startAddress;
+    this.decodedInstructions = decodedInstructions;
+    this.length = instructions.length;
+    this.instructions = instructions;
+  }
+
+  /**
+   * Method to execute every instruction in the block
+   * @return Memory location of the next instruction to execute
+   */
+  public int execute()
+  {
+    int programCounter = startAddress;
+    for (ITranslatedInstruction instruction : instructions)
+    {
+      programCounter = instruction.execute();
+    }
+    return programCounter;
+  }
+
+  /**
+   * Method to count an execution of the block
+   * @return Number of times the block has been executed (Including this execution)
+   */
+  public int countExecution()
+  {
+    return ++executions;
+  }
+
+  /**
+   * Method to replace the closures of the first instructions in the block with a single compiled closure
+   * @param compiledPrefix Closure executing the first compiledLength instructions (Returns the location of the next instruction to execute)
+   * @param compiledLength Number of instructions covered by the compiled closure
+   */
+  public void setCompiledPrefix(ITranslatedInstruction compiledPrefix, int compiledLength)
+  {
+    ITranslatedInstruction[] remainingInstructions = new ITranslatedInstruction[length - compiledLength + 1];
+    remainingInstructions[0] = compiledPrefix;
+    System.arraycopy(instructions, compiledLength, remainingInstructions, 1, length - compiledLength);
+    instructions = remainingInstructions;
+    compiled = true;
+  }
+
+  /**
+   * Method to check if the block has been compiled to JVM bytecode
+   * @return True if the block has been compiled
+   */
+  public boolean isCompiled()
+  {
+    return compiled;
+  }
+
+  /**
+   * Method to obtain the decoded instructions of the block
+   * @return Decoded instructions (in program order)
+   */
+  public DecodedInstruction[] getDecodedInstructions()
+  {
+    return decodedInstructions;
+  }
+
+  /**
+   * Method to obtain the block chained to an exit of this block
+   * @param  programCounter Memory location the block was left to
+   * @return                Chained block, or null if the exit isn't chained (or the chained block has been invalidated)
+   */
+  public TranslatedBlock getSuccessor(int programCounter)
+  {
+    TranslatedBlock successor = (programCounter == this.getEndAddress()) ? fallThroughSuccessor : branchSuccessor;
+    if (successor != null && successor.valid && successor.startAddress == programCounter)
+    {
+      return successor;
+    }
+    return null;
+  }
+
+  /**
+   * Method to chain a block to an exit of this block
+   * @param successor Block starting at the memory location this block was left to
+   */
+  public void setSuccessor(TranslatedBlock successor)
+  {
+    if (successor.startAddress == this.getEndAddress())
+    {
+      fallThroughSuccessor = successor;
+    }
+    else
+    {
+      branchSuccessor = successor;
+    }
+  }
+
+  /**
+   * Method to mark the block as no longer matching memory. Blocks chained to this block stop using it straight away.
+   */
+  public void invalidate()
+  {
+    valid = false;
+    fallThroughSuccessor = null;
+    branchSuccessor = null;
+  }
+
+  /**
+   * Method to check if the block still matches memory
+   * @return True if the block can be executed
+   */
+  public boolean isValid()
+  {
+    return valid;
+  }
+
+  /**
+   * Method to obtain the memory location of the first instruction in the block
+   * @return Start address
+   */
+  public int getStartAddress()
+  {
+    return startAddress;
+  }
+
+  /**
+   * Method to obtain the memory location following the last instruction in the block
+   * @return End address (exclusive)
+   */
+  public int getEndAddress()
+  {
+    return startAddress + length;
+  }
+
+  /**
+   * Method to obtain the number of instructions in the block
+   * @return Number of instructions
+   */
+  public int getLength()
+  {
+    return length;
+  }
+}
@@ -48,27 +48,16 @@ public class Utility
   public static int convertToInt(String binaryString, boolean signed)
   {
     int binaryStringLength = binaryString.length();
-    char[] inputArray = new char[binaryStringLength];
-    inputArray = binaryString.toCharArray();
-    int intResult = 0;
-    for (int i = 0; i < (binaryStringLength - 1); i++)
+    long longResult = 0;
+    for (int i = 0; i < binaryStringLength; i++)
     {
-      intResult+= (inputArray[((binaryStringLength - 1) - i)] - 48) * Math.pow(2, i);      // Subtracting 48 because inputArray is of char type and it returns an ASCII value
+      longResult = (longResult << 1) | (binaryString.charAt(i) - '0');      // Shift in one bit at a time (MSB first)
     }
-    if (signed == true)       // If the binary string is a 2's complement number
+    if (signed == true && binaryString.charAt(0) == '1')       // If the binary string is a 2's complement number and the MSB is 1 (i.e. a negative number)
     {
-      if (inputArray[0] == '1')     // Check if the MSB is 1 (i.e. a negative number in 2's complement) - if 0, do nothing
-      {
-        intResult-= (inputArray[0] - 48) * Math.pow(2, (binaryStringLength - 1));            // Subtracting 48 because inputArray is of char type and it returns an ASCII value
-      }
-    }
-    else                      // If the binary string is an unsigned number
-    {
-      if (inputArray[0] == '1')     // Check if the MSB is 1 (i.e. still a positive number since it's an unsigned binary) - if 0, do nothing
-      {
-        intResult+= (inputArray[0] - 48) * Math.pow(2, (binaryStringLength - 1));            // Subtracting 48 because inputArray is of char type and it returns an ASCII value
-      }
+      longResult-= (1L << binaryStringLength);      // Sign extend by subtracting 2^n
     }
+    int intResult = (int) longResult;
     return intResult;
   }
 